@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.benchmarks;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the geometries used by the benchmarks. Ordinates have 7 decimal digits, which is the
+ * precision of most real world data sets, so that compact encoding applies to them.
+ */
+final class BenchmarkGeometries {
+    private static final GeometryFactory FACTORY = new GeometryFactory();
+    private static final int PARTS_PER_MULTIPOLYGON = 4;
+
+    private BenchmarkGeometries() {}
+
+    /**
+     * Generate a geometry.
+     *
+     * @param geometryType one of point, linestring, polygon and multipolygon
+     * @param numPoints total number of vertices of the geometry, ignored for points
+     * @param random source of the vertices
+     * @return the generated geometry
+     */
+    static Geometry create(String geometryType, int numPoints, Random random) {
+        double x = random.nextDouble() * 360 - 180;
+        double y = random.nextDouble() * 180 - 90;
+        switch (geometryType) {
+            case "point":
+                return FACTORY.createPoint(new Coordinate(round(x), round(y)));
+            case "linestring":
+                return FACTORY.createLineString(walk(x, y, Math.max(numPoints, 2), random));
+            case "polygon":
+                return createPolygon(x, y, numPoints, random);
+            case "multipolygon":
+                int numPointsPerPart = Math.max(numPoints / PARTS_PER_MULTIPOLYGON, 4);
+                Polygon[] polygons = new Polygon[PARTS_PER_MULTIPOLYGON];
+                for (int k = 0; k < polygons.length; k++) {
+                    polygons[k] = createPolygon(x + k, y, numPointsPerPart, random);
+                }
+                return FACTORY.createMultiPolygon(polygons);
+            default:
+                throw new IllegalArgumentException("Unsupported geometry type: " + geometryType);
+        }
+    }
+
+    static List<Geometry> create(String geometryType, int numPoints, int numGeometries, long seed) {
+        Random random = new Random(seed);
+        List<Geometry> geometries = new ArrayList<>(numGeometries);
+        for (int k = 0; k < numGeometries; k++) {
+            geometries.add(create(geometryType, numPoints, random));
+        }
+        return geometries;
+    }
+
+    private static Polygon createPolygon(double x, double y, int numPoints, Random random) {
+        // A star shaped ring around (x, y), so that the polygon is always valid
+        int numVertices = Math.max(numPoints, 4) - 1;
+        Coordinate[] coordinates = new Coordinate[numVertices + 1];
+        for (int k = 0; k < numVertices; k++) {
+            double angle = 2 * Math.PI * k / numVertices;
+            double radius = 0.1 + 0.01 * random.nextDouble();
+            coordinates[k] = new Coordinate(round(x + radius * Math.cos(angle)), round(y + radius * Math.sin(angle)));
+        }
+        coordinates[numVertices] = coordinates[0].copy();
+        LinearRing shell = FACTORY.createLinearRing(coordinates);
+        return FACTORY.createPolygon(shell);
+    }
+
+    private static Coordinate[] walk(double x, double y, int numPoints, Random random) {
+        Coordinate[] coordinates = new Coordinate[numPoints];
+        for (int k = 0; k < numPoints; k++) {
+            x += (random.nextDouble() - 0.5) * 1e-3;
+            y += (random.nextDouble() - 0.5) * 1e-3;
+            coordinates[k] = new Coordinate(round(x), round(y));
+        }
+        return coordinates;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1e7) / 1e7;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.benchmarks;
+
+import org.apache.sedona.common.geometrySerde.GeometryBufferFactory;
+import org.apache.sedona.common.geometrySerde.GeometrySerializer;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link GeometrySerializer}, with WKB as the baseline. Run with {@code -prof gc} to
+ * get the allocation rate. The size of the serialized geometries is reported as the
+ * {@code bytesPerVertex} secondary result.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GeometrySerializerBenchmark {
+    private static final int NUM_GEOMETRIES = 100;
+
+    @Param({"point", "linestring", "polygon", "multipolygon"})
+    public String geometryType;
+
+    @Param({"10", "1000"})
+    public int numPoints;
+
+    @Param({"standard", "compact", "wkb"})
+    public String format;
+
+    @Param({"unsafe", "bytebuffer"})
+    public String bufferType;
+
+    private List<Geometry> geometries;
+    private byte[][] serialized;
+    private WKBWriter wkbWriter;
+    private WKBReader wkbReader;
+    private long numVertices;
+    private long numBytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws ParseException {
+        GeometryBufferFactory.toggleUnsafeGeometryBuffer("unsafe".equals(bufferType));
+        GeometrySerializer.toggleCompactEncoding("compact".equals(format));
+        geometries = BenchmarkGeometries.create(geometryType, numPoints, NUM_GEOMETRIES, 42);
+        wkbWriter = new WKBWriter(2);
+        wkbReader = new WKBReader();
+        serialized = new byte[NUM_GEOMETRIES][];
+        for (int k = 0; k < NUM_GEOMETRIES; k++) {
+            Geometry geometry = geometries.get(k);
+            serialized[k] = serialize(geometry);
+            numVertices += geometry.getNumPoints();
+            numBytes += serialized[k].length;
+            if (!geometry.equalsExact(deserialize(serialized[k]))) {
+                throw new IllegalStateException("Geometry does not round trip: " + geometry);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        GeometryBufferFactory.toggleUnsafeGeometryBuffer(true);
+        GeometrySerializer.toggleCompactEncoding(false);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Size {
+        public double bytesPerVertex;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_GEOMETRIES)
+    public void serialize(Blackhole blackhole, Size size) {
+        for (Geometry geometry : geometries) {
+            blackhole.consume(serialize(geometry));
+        }
+        size.bytesPerVertex = (double) numBytes / numVertices;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_GEOMETRIES)
+    public void deserialize(Blackhole blackhole) throws ParseException {
+        for (byte[] bytes : serialized) {
+            blackhole.consume(deserialize(bytes));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_GEOMETRIES)
+    public void getEnvelope(Blackhole blackhole) throws ParseException {
+        for (byte[] bytes : serialized) {
+            Envelope envelope = "wkb".equals(format) ?
+                    wkbReader.read(bytes).getEnvelopeInternal() : GeometrySerializer.getEnvelope(bytes);
+            blackhole.consume(envelope);
+        }
+    }
+
+    private byte[] serialize(Geometry geometry) {
+        return "wkb".equals(format) ? wkbWriter.write(geometry) : GeometrySerializer.serialize(geometry);
+    }
+
+    private Geometry deserialize(byte[] bytes) throws ParseException {
+        return "wkb".equals(format) ? wkbReader.read(bytes) : GeometrySerializer.deserialize(bytes);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.benchmarks;
+
+import org.apache.sedona.common.geometrySerde.GeometrySerializer;
+import org.apache.spark.sql.sedona_sql.UDT.GeometryUDT;
+import org.locationtech.jts.geom.Geometry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link GeometryUDT}, which converts geometries to and from the binary values stored
+ * in Spark SQL rows.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GeometryUDTBenchmark {
+    private static final int NUM_GEOMETRIES = 100;
+
+    @Param({"point", "linestring", "polygon", "multipolygon"})
+    public String geometryType;
+
+    @Param({"10", "1000"})
+    public int numPoints;
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    private GeometryUDT udt;
+    private List<Geometry> geometries;
+    private byte[][] serialized;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        GeometrySerializer.toggleCompactEncoding(compact);
+        udt = new GeometryUDT();
+        geometries = BenchmarkGeometries.create(geometryType, numPoints, NUM_GEOMETRIES, 42);
+        serialized = new byte[NUM_GEOMETRIES][];
+        for (int k = 0; k < NUM_GEOMETRIES; k++) {
+            serialized[k] = udt.serialize(geometries.get(k));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        GeometrySerializer.toggleCompactEncoding(false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_GEOMETRIES)
+    public void serialize(Blackhole blackhole) {
+        for (Geometry geometry : geometries) {
+            blackhole.consume(udt.serialize(geometry));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_GEOMETRIES)
+    public void deserialize(Blackhole blackhole) {
+        for (byte[] bytes : serialized) {
+            blackhole.consume(udt.deserialize(bytes));
+        }
+    }
+}
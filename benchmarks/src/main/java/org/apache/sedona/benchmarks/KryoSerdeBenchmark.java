@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.benchmarks;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.apache.sedona.core.serde.SedonaKryoRegistrator;
+import org.locationtech.jts.geom.Geometry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of geometries going through Kryo with the serializers registered by
+ * {@link SedonaKryoRegistrator}, the way Spark shuffles and caches spatial RDDs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class KryoSerdeBenchmark {
+    private static final int NUM_GEOMETRIES = 100;
+
+    @Param({"point", "linestring", "polygon", "multipolygon"})
+    public String geometryType;
+
+    @Param({"10", "1000"})
+    public int numPoints;
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    @Param({"none", "string"})
+    public String userData;
+
+    private Kryo kryo;
+    private List<Geometry> geometries;
+    private Output output;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        kryo = new Kryo();
+        new SedonaKryoRegistrator().registerClasses(kryo, compact);
+        geometries = BenchmarkGeometries.create(geometryType, numPoints, NUM_GEOMETRIES, 42);
+        if ("string".equals(userData)) {
+            for (int k = 0; k < geometries.size(); k++) {
+                geometries.get(k).setUserData("feature-" + k);
+            }
+        }
+        output = new Output(4096, -1);
+        writeGeometries();
+        serialized = output.toBytes();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_GEOMETRIES)
+    public Output write() {
+        writeGeometries();
+        return output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_GEOMETRIES)
+    public void read(Blackhole blackhole) {
+        Input input = new Input(serialized);
+        for (int k = 0; k < NUM_GEOMETRIES; k++) {
+            blackhole.consume(kryo.readClassAndObject(input));
+        }
+    }
+
+    private void writeGeometries() {
+        output.clear();
+        for (Geometry geometry : geometries) {
+            kryo.writeClassAndObject(output, geometry);
+        }
+    }
+}
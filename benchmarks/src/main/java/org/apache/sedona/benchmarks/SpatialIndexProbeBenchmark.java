@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.benchmarks;
+
+import org.apache.sedona.common.spatialIndex.PackedHilbertRtree;
+import org.apache.sedona.common.spatialIndex.SpatialIndexBatchProbe;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.SpatialIndex;
+import org.locationtech.jts.index.quadtree.Quadtree;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Probes per second against a built spatial index, one envelope at a time in arrival order as
+ * done by the join judgements before, and in batches with {@link SpatialIndexBatchProbe}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SpatialIndexProbeBenchmark {
+    private static final int NUM_PROBES = SpatialIndexBatchProbe.DEFAULT_BATCH_SIZE;
+
+    @Param({"rtree", "quadtree", "hprtree"})
+    public String indexType;
+
+    @Param({"100000", "1000000"})
+    public int numGeometries;
+
+    private SpatialIndex index;
+    private List<List<Envelope>> probes;
+    private int nextProbes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        switch (indexType) {
+            case "rtree":
+                index = new STRtree();
+                break;
+            case "hprtree":
+                index = new PackedHilbertRtree();
+                break;
+            default:
+                index = new Quadtree();
+        }
+        for (Geometry geometry : BenchmarkGeometries.create("point", 1, numGeometries, 42)) {
+            index.insert(geometry.getEnvelopeInternal(), geometry);
+        }
+        index.query(new Envelope(0, 0, 0, 0));
+        // Enough batches of random probes to not be served from the CPU caches
+        probes = new ArrayList<>();
+        for (int k = 0; k < 64; k++) {
+            List<Envelope> envelopes = new ArrayList<>(NUM_PROBES);
+            for (Geometry geometry : BenchmarkGeometries.create("polygon", 4, NUM_PROBES, k)) {
+                envelopes.add(geometry.getEnvelopeInternal());
+            }
+            probes.add(envelopes);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_PROBES)
+    public void single(Blackhole blackhole) {
+        for (Envelope envelope : nextProbes()) {
+            blackhole.consume(index.query(envelope));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_PROBES)
+    public void batch(Blackhole blackhole) {
+        blackhole.consume(SpatialIndexBatchProbe.query(index, nextProbes()));
+    }
+
+    private List<Envelope> nextProbes() {
+        nextProbes = (nextProbes + 1) % probes.size();
+        return probes.get(nextProbes);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.benchmarks;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.apache.sedona.common.spatialIndex.PackedHilbertRtree;
+import org.apache.sedona.core.serde.SedonaKryoRegistrator;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.SpatialIndex;
+import org.locationtech.jts.index.quadtree.Quadtree;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to write and read a whole spatial index with {@link org.apache.sedona.common.geometrySerde.SpatialIndexSerde},
+ * as done when indexed spatial RDDs are cached or broadcast.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SpatialIndexSerdeBenchmark {
+    @Param({"rtree", "quadtree", "hprtree"})
+    public String indexType;
+
+    @Param({"point", "polygon"})
+    public String geometryType;
+
+    @Param({"16"})
+    public int numPoints;
+
+    @Param({"10000", "100000"})
+    public int numGeometries;
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    private Kryo kryo;
+    private SpatialIndex index;
+    private Output output;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        kryo = new Kryo();
+        new SedonaKryoRegistrator().registerClasses(kryo, compact);
+        switch (indexType) {
+            case "rtree":
+                index = new STRtree();
+                break;
+            case "hprtree":
+                index = new PackedHilbertRtree();
+                break;
+            default:
+                index = new Quadtree();
+        }
+        for (Geometry geometry : BenchmarkGeometries.create(geometryType, numPoints, numGeometries, 42)) {
+            index.insert(geometry.getEnvelopeInternal(), geometry);
+        }
+        if (index instanceof STRtree) {
+            ((STRtree) index).build();
+        }
+        else if (index instanceof PackedHilbertRtree) {
+            ((PackedHilbertRtree) index).build();
+        }
+        output = new Output(1 << 20, -1);
+        write();
+        serialized = output.toBytes();
+    }
+
+    @Benchmark
+    public Output write() {
+        output.clear();
+        kryo.writeClassAndObject(output, index);
+        return output;
+    }
+
+    @Benchmark
+    public Object read() {
+        return kryo.readClassAndObject(new Input(serialized));
+    }
+}
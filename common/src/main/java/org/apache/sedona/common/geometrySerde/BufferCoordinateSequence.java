@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sedona.common.geometrySerde;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateXY;
+import org.locationtech.jts.geom.CoordinateXYM;
+import org.locationtech.jts.geom.CoordinateXYZM;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.impl.CoordinateArraySequence;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.lang.ref.SoftReference;
+
+/**
+ * A coordinate sequence reading ordinates directly from a serialized geometry buffer. Coordinates
+ * are decoded on demand, so geometries that are only measured or tested do not copy every
+ * coordinate into a {@link Coordinate} object.
+ * <p>
+ * The underlying buffer is never written to. The first modification of this sequence copies all
+ * coordinates into a {@link CoordinateArraySequence}, and all later calls are delegated to that
+ * copy. Similar to {@link org.locationtech.jts.geom.impl.PackedCoordinateSequence}, coordinates
+ * returned by {@link #getCoordinate(int)} are not backed by this sequence.
+ */
+class BufferCoordinateSequence implements CoordinateSequence, Serializable {
+    private final transient GeometryBuffer buffer;
+    private final int offset;
+    private final int size;
+    private final CoordinateType coordinateType;
+    private transient SoftReference<Coordinate[]> coordRef;
+    private CoordinateSequence copiedSequence = null;
+
+    BufferCoordinateSequence(
+            GeometryBuffer buffer, int offset, int size, CoordinateType coordinateType) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.size = size;
+        this.coordinateType = coordinateType;
+    }
+
+    @Override
+    public int getDimension() {
+        return coordinateType.ordinates;
+    }
+
+    @Override
+    public int getMeasures() {
+        return coordinateType.hasM ? 1 : 0;
+    }
+
+    @Override
+    public Coordinate getCoordinate(int i) {
+        if (copiedSequence != null) {
+            return copiedSequence.getCoordinate(i);
+        }
+        Coordinate[] coords = getCachedCoords();
+        if (coords != null) {
+            return coords[i];
+        }
+        return readCoordinate(i);
+    }
+
+    @Override
+    public Coordinate getCoordinateCopy(int i) {
+        if (copiedSequence != null) {
+            return copiedSequence.getCoordinateCopy(i);
+        }
+        return readCoordinate(i);
+    }
+
+    @Override
+    public void getCoordinate(int i, Coordinate coord) {
+        if (copiedSequence != null) {
+            copiedSequence.getCoordinate(i, coord);
+            return;
+        }
+        int coordOffset = offset + i * coordinateType.bytes;
+        coord.setX(buffer.getDouble(coordOffset));
+        coord.setY(buffer.getDouble(coordOffset + 8));
+        if (coordinateType.hasZ) {
+            coord.setZ(buffer.getDouble(coordOffset + 16));
+        }
+        if (coordinateType.hasM) {
+            coord.setM(buffer.getDouble(coordOffset + (coordinateType.hasZ ? 24 : 16)));
+        }
+    }
+
+    @Override
+    public double getX(int index) {
+        if (copiedSequence != null) {
+            return copiedSequence.getX(index);
+        }
+        return buffer.getDouble(offset + index * coordinateType.bytes);
+    }
+
+    @Override
+    public double getY(int index) {
+        if (copiedSequence != null) {
+            return copiedSequence.getY(index);
+        }
+        return buffer.getDouble(offset + index * coordinateType.bytes + 8);
+    }
+
+    @Override
+    public double getOrdinate(int index, int ordinateIndex) {
+        if (copiedSequence != null) {
+            return copiedSequence.getOrdinate(index, ordinateIndex);
+        }
+        // Ordinates are stored in the same order as ordinate indexes of JTS: X, Y, [Z], [M]
+        if (ordinateIndex < 0 || ordinateIndex >= coordinateType.ordinates) {
+            return Double.NaN;
+        }
+        return buffer.getDouble(offset + index * coordinateType.bytes + ordinateIndex * 8);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void setOrdinate(int index, int ordinateIndex, double value) {
+        if (copiedSequence == null) {
+            copiedSequence = new CoordinateArraySequence(readCoordinates(), getDimension(), getMeasures());
+            coordRef = null;
+        }
+        copiedSequence.setOrdinate(index, ordinateIndex, value);
+    }
+
+    @Override
+    public Coordinate[] toCoordinateArray() {
+        if (copiedSequence != null) {
+            return copiedSequence.toCoordinateArray();
+        }
+        Coordinate[] coords = getCachedCoords();
+        if (coords == null) {
+            coords = readCoordinates();
+            coordRef = new SoftReference<>(coords);
+        }
+        return coords;
+    }
+
+    @Override
+    public Envelope expandEnvelope(Envelope env) {
+        if (copiedSequence != null) {
+            return copiedSequence.expandEnvelope(env);
+        }
+        int coordOffset = offset;
+        for (int k = 0; k < size; k++) {
+            env.expandToInclude(buffer.getDouble(coordOffset), buffer.getDouble(coordOffset + 8));
+            coordOffset += coordinateType.bytes;
+        }
+        return env;
+    }
+
+    @Override
+    @Deprecated
+    public Object clone() {
+        return copy();
+    }
+
+    @Override
+    public CoordinateSequence copy() {
+        if (copiedSequence != null) {
+            return copiedSequence.copy();
+        }
+        // The underlying buffer is immutable, so the copy can share it
+        return new BufferCoordinateSequence(buffer, offset, size, coordinateType);
+    }
+
+    @Override
+    public String toString() {
+        return new CoordinateArraySequence(toCoordinateArray(), getDimension(), getMeasures()).toString();
+    }
+
+    /**
+     * The buffer is not serializable, serialize a copy of the coordinates instead.
+     */
+    private Object writeReplace() throws ObjectStreamException {
+        if (copiedSequence != null) {
+            return copiedSequence;
+        }
+        return new CoordinateArraySequence(readCoordinates(), getDimension(), getMeasures());
+    }
+
+    private Coordinate[] getCachedCoords() {
+        return coordRef != null ? coordRef.get() : null;
+    }
+
+    private Coordinate[] readCoordinates() {
+        Coordinate[] coords = new Coordinate[size];
+        for (int k = 0; k < size; k++) {
+            coords[k] = readCoordinate(k);
+        }
+        return coords;
+    }
+
+    private Coordinate readCoordinate(int i) {
+        int coordOffset = offset + i * coordinateType.bytes;
+        double x = buffer.getDouble(coordOffset);
+        double y = buffer.getDouble(coordOffset + 8);
+        switch (coordinateType) {
+            case XY:
+                return new CoordinateXY(x, y);
+            case XYZ:
+                return new Coordinate(x, y, buffer.getDouble(coordOffset + 16));
+            case XYM:
+                return new CoordinateXYM(x, y, buffer.getDouble(coordOffset + 16));
+            case XYZM:
+                return new CoordinateXYZM(
+                        x, y, buffer.getDouble(coordOffset + 16), buffer.getDouble(coordOffset + 24));
+            default:
+                throw new IllegalStateException("coordinateType was not configured properly");
+        }
+    }
+}
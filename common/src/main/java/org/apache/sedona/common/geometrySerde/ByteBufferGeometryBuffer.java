@@ -104,6 +104,16 @@ class ByteBufferGeometryBuffer implements GeometryBuffer {
         return byteBuffer.getInt(offset);
     }
 
+    @Override
+    public void putDouble(int offset, double value) {
+        byteBuffer.putDouble(offset, value);
+    }
+
+    @Override
+    public double getDouble(int offset) {
+        return byteBuffer.getDouble(offset);
+    }
+
     @Override
     public void putCoordinate(int offset, Coordinate coordinate) {
         byteBuffer.putDouble(offset, coordinate.x);
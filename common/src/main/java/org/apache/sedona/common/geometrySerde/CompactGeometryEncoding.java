@@ -0,0 +1,327 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.common.geometrySerde;
+
+import org.locationtech.jts.io.WKBConstants;
+
+/**
+ * Compact encoding of serialized geometries, meant for shuffling and caching dense linework.
+ * <p>
+ * A compact geometry starts with the same 8 bytes header as the standard encoding, with the highest
+ * bit of the preamble byte set, followed by the size of its standard encoding as a varint. The
+ * ordinates of non-collection geometries are scaled to integers using a per-geometry number of
+ * decimal digits, and stored as zig-zag varint deltas from the previous ordinate of the same
+ * dimension. The int arrays describing the structure of the geometry are stored as varints. The
+ * children of geometry collections are encoded one after another without padding.
+ * <p>
+ * Geometries are only encoded this way when all ordinates round trip exactly, so the encoding is
+ * lossless. Compact geometries are expanded back to the standard encoding before being read.
+ */
+final class CompactGeometryEncoding {
+    static final int COMPACT_FLAG = 0x80;
+
+    private static final int MAX_DIGITS = 9;
+    private static final double[] SCALES = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9};
+    // Scaled ordinates must be exactly representable as doubles
+    private static final double MAX_SCALED = (double) (1L << 53);
+    // Maximum number of bytes of a single varint
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private CompactGeometryEncoding() {}
+
+    static boolean isCompact(GeometryBuffer buffer) {
+        return buffer.getLength() > 0 && (buffer.getByte(0) & COMPACT_FLAG) != 0;
+    }
+
+    /**
+     * Encode a geometry serialized in the standard encoding.
+     *
+     * @param buffer geometry in the standard encoding
+     * @param length size of the geometry in the standard encoding
+     * @return compact encoding of the geometry, or null if the geometry cannot be encoded losslessly
+     * or the compact encoding is not smaller than the standard one
+     */
+    static byte[] encode(GeometryBuffer buffer, int length) {
+        byte[] bytes = new byte[length + 8 + 2 * MAX_VARINT_BYTES];
+        int end = encode(buffer, length, bytes, 0, length);
+        if (end < 0 || end >= length) {
+            return null;
+        }
+        byte[] result = new byte[end];
+        System.arraycopy(bytes, 0, result, 0, end);
+        return result;
+    }
+
+    /**
+     * Expand a compact geometry into a new buffer holding its standard encoding.
+     *
+     * @param buffer compactly encoded geometry
+     * @return geometry in the standard encoding
+     */
+    static GeometryBuffer decode(GeometryBuffer buffer) {
+        Reader reader = new Reader(buffer);
+        reader.require(8);
+        reader.position = 8;
+        int length = reader.readVarInt();
+        if (length < 8) {
+            throw new IllegalArgumentException("Unexpected geometry size encountered: " + length);
+        }
+        GeometryBuffer result = GeometryBufferFactory.create(length);
+        reader.position = 0;
+        decode(reader, result, length);
+        return result;
+    }
+
+    private static int encode(GeometryBuffer buffer, int length, byte[] bytes, int position, int limit) {
+        int preambleByte = buffer.getByte(0) & 0xFF;
+        int wkbType = preambleByte >> 4;
+        CoordinateType coordType = CoordinateType.valueOf((preambleByte & 0x0F) >> 1);
+        buffer.setCoordinateType(coordType);
+        int numCoordinates = buffer.getInt(4);
+        bytes[position] = (byte) (preambleByte | COMPACT_FLAG);
+        bytes[position + 1] = buffer.getByte(1);
+        bytes[position + 2] = buffer.getByte(2);
+        bytes[position + 3] = buffer.getByte(3);
+        writeInt(bytes, position + 4, numCoordinates);
+        position = writeVarLong(bytes, position + 8, length);
+        if (position > limit) {
+            return -1;
+        }
+
+        if (wkbType == WKBConstants.wkbGeometryCollection) {
+            int offset = 8;
+            for (int k = 0; k < numCoordinates; k++) {
+                GeometryBuffer geomBuffer = buffer.slice(offset);
+                int geomLength = getLength(geomBuffer);
+                position = encode(geomBuffer, geomLength, bytes, position, limit);
+                if (position < 0) {
+                    return -1;
+                }
+                offset += GeometrySerializer.alignedOffset(geomLength);
+            }
+            return position;
+        }
+
+        int numOrdinates = numCoordinates * coordType.ordinates;
+        int digits = findDigits(buffer, numOrdinates);
+        if (digits < 0) {
+            return -1;
+        }
+        double scale = SCALES[digits];
+        bytes[position++] = (byte) digits;
+        if (position > limit) {
+            return -1;
+        }
+        long[] previous = new long[coordType.ordinates];
+        for (int i = 0; i < numOrdinates; i++) {
+            double value = buffer.getDouble(8 + 8 * i);
+            long scaled = Math.round(value * scale);
+            if (Double.doubleToRawLongBits(scaled / scale) != Double.doubleToRawLongBits(value)) {
+                return -1;
+            }
+            int dimension = i % coordType.ordinates;
+            long delta = scaled - previous[dimension];
+            previous[dimension] = scaled;
+            position = writeVarLong(bytes, position, (delta << 1) ^ (delta >> 63));
+            if (position > limit) {
+                return -1;
+            }
+        }
+        for (int offset = 8 + 8 * numOrdinates; offset < length; offset += 4) {
+            position = writeVarLong(bytes, position, buffer.getInt(offset) & 0xFFFFFFFFL);
+            if (position > limit) {
+                return -1;
+            }
+        }
+        return position;
+    }
+
+    private static void decode(Reader reader, GeometryBuffer buffer, int length) {
+        reader.require(8);
+        GeometryBuffer input = reader.buffer;
+        int start = reader.position;
+        int preambleByte = input.getByte(start) & 0xFF;
+        if ((preambleByte & COMPACT_FLAG) == 0) {
+            throw new IllegalArgumentException("Buffer to be deserialized is not compactly encoded");
+        }
+        preambleByte &= ~COMPACT_FLAG;
+        int wkbType = preambleByte >> 4;
+        CoordinateType coordType = CoordinateType.valueOf((preambleByte & 0x0F) >> 1);
+        int numCoordinates = input.getInt(start + 4);
+        if (numCoordinates < 0 || numCoordinates > length) {
+            throw new IllegalArgumentException("Unexpected number of coordinates encountered: " + numCoordinates);
+        }
+        buffer.setCoordinateType(coordType);
+        buffer.putByte(0, (byte) preambleByte);
+        buffer.putByte(1, input.getByte(start + 1));
+        buffer.putByte(2, input.getByte(start + 2));
+        buffer.putByte(3, input.getByte(start + 3));
+        buffer.putInt(4, numCoordinates);
+        reader.position = start + 8;
+        if (reader.readVarInt() != length) {
+            throw new IllegalArgumentException("Buffer to be deserialized is corrupted");
+        }
+
+        if (wkbType == WKBConstants.wkbGeometryCollection) {
+            int offset = 8;
+            for (int k = 0; k < numCoordinates; k++) {
+                int geomLength = peekLength(reader);
+                int paddedLength = GeometrySerializer.alignedOffset(geomLength);
+                if (offset + paddedLength > length) {
+                    throw new IllegalArgumentException("Buffer to be deserialized is corrupted");
+                }
+                decode(reader, buffer.slice(offset), geomLength);
+                offset += paddedLength;
+            }
+            return;
+        }
+
+        int numOrdinates = numCoordinates * coordType.ordinates;
+        int coordsEndOffset = 8 + 8 * numOrdinates;
+        if (coordsEndOffset > length || (length - coordsEndOffset) % 4 != 0) {
+            throw new IllegalArgumentException("Buffer to be deserialized is corrupted");
+        }
+        int digits = reader.readByte();
+        if (digits > MAX_DIGITS) {
+            throw new IllegalArgumentException("Unexpected number of digits encountered: " + digits);
+        }
+        double scale = SCALES[digits];
+        long[] previous = new long[coordType.ordinates];
+        for (int i = 0; i < numOrdinates; i++) {
+            long zigzag = reader.readVarLong();
+            int dimension = i % coordType.ordinates;
+            long scaled = previous[dimension] + ((zigzag >>> 1) ^ -(zigzag & 1));
+            previous[dimension] = scaled;
+            buffer.putDouble(8 + 8 * i, scaled / scale);
+        }
+        for (int offset = coordsEndOffset; offset < length; offset += 4) {
+            buffer.putInt(offset, reader.readVarInt());
+        }
+    }
+
+    private static int peekLength(Reader reader) {
+        int start = reader.position;
+        reader.require(8);
+        reader.position = start + 8;
+        int length = reader.readVarInt();
+        reader.position = start;
+        if (length < 8) {
+            throw new IllegalArgumentException("Unexpected geometry size encountered: " + length);
+        }
+        return length;
+    }
+
+    private static int getLength(GeometryBuffer buffer) {
+        int preambleByte = buffer.getByte(0) & 0xFF;
+        int wkbType = preambleByte >> 4;
+        CoordinateType coordType = CoordinateType.valueOf((preambleByte & 0x0F) >> 1);
+        int numCoordinates = buffer.getInt(4);
+        if (wkbType == WKBConstants.wkbGeometryCollection) {
+            int offset = 8;
+            for (int k = 0; k < numCoordinates; k++) {
+                offset += GeometrySerializer.alignedOffset(getLength(buffer.slice(offset)));
+            }
+            return offset;
+        }
+        int coordsEndOffset = 8 + numCoordinates * coordType.bytes;
+        return GeometrySerializer.getEndOffset(buffer, wkbType, numCoordinates, coordsEndOffset);
+    }
+
+    /**
+     * Find the smallest number of decimal digits that all ordinates can be represented with.
+     *
+     * @return number of digits, or -1 if some ordinate cannot be represented with at most
+     * {@link #MAX_DIGITS} digits
+     */
+    private static int findDigits(GeometryBuffer buffer, int numOrdinates) {
+        int digits = 0;
+        for (int i = 0; i < numOrdinates; i++) {
+            double value = buffer.getDouble(8 + 8 * i);
+            while (!isRepresentable(value, SCALES[digits])) {
+                if (++digits > MAX_DIGITS) {
+                    return -1;
+                }
+            }
+        }
+        return digits;
+    }
+
+    private static boolean isRepresentable(double value, double scale) {
+        double scaled = value * scale;
+        if (!(Math.abs(scaled) < MAX_SCALED)) {
+            // Also rejects NaN and infinite values
+            return false;
+        }
+        return Double.doubleToRawLongBits(Math.round(scaled) / scale) == Double.doubleToRawLongBits(value);
+    }
+
+    private static void writeInt(byte[] bytes, int position, int value) {
+        GeometryBufferFactory.wrap(bytes, position).putInt(0, value);
+    }
+
+    private static int writeVarLong(byte[] bytes, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte) value;
+        return position;
+    }
+
+    private static class Reader {
+        final GeometryBuffer buffer;
+        int position;
+
+        Reader(GeometryBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        void require(int numBytes) {
+            if (buffer.getLength() - position < numBytes) {
+                throw new IllegalArgumentException("Buffer to be deserialized is incomplete");
+            }
+        }
+
+        int readByte() {
+            require(1);
+            return buffer.getByte(position++) & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Buffer to be deserialized is corrupted");
+        }
+
+        int readVarInt() {
+            long value = readVarLong();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Unexpected large value encountered: " + value);
+            }
+            return (int) value;
+        }
+    }
+}
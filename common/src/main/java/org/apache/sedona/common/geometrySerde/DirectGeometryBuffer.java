@@ -0,0 +1,337 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.common.geometrySerde;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateXY;
+import org.locationtech.jts.geom.CoordinateXYM;
+import org.locationtech.jts.geom.CoordinateXYZM;
+import org.locationtech.jts.geom.impl.CoordinateArraySequence;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Geometry buffer over direct or memory-mapped {@link ByteBuffer} memory, accessed in place through
+ * Unsafe. The buffer keeps a reference to the byte buffer so that the memory is not released while
+ * the geometry buffer is in use, but memory released explicitly by its owner must not be read
+ * through this buffer anymore.
+ */
+class DirectGeometryBuffer implements GeometryBuffer {
+    private static final Unsafe UNSAFE = UnsafeGeometryBuffer.UNSAFE;
+    private static final long BYTE_ARRAY_BASE_OFFSET = UnsafeGeometryBuffer.BYTE_ARRAY_BASE_OFFSET;
+    private static final long BUFFER_ADDRESS_OFFSET;
+
+    static {
+        long addressOffset = -1;
+        if (UNSAFE != null) {
+            try {
+                Field address = Buffer.class.getDeclaredField("address");
+                addressOffset = UNSAFE.objectFieldOffset(address);
+            } catch (NoSuchFieldException | SecurityException e) {
+                // Address of direct buffers is not available
+                addressOffset = -1;
+            }
+        }
+        BUFFER_ADDRESS_OFFSET = addressOffset;
+    }
+
+    public static boolean isDirectAvailable() {
+        return BUFFER_ADDRESS_OFFSET >= 0;
+    }
+
+    private CoordinateType coordinateType = CoordinateType.XY;
+    // Referenced to keep the memory alive
+    private final ByteBuffer byteBuffer;
+    private final long address;
+    private final int length;
+    private int markOffset = 0;
+
+    public DirectGeometryBuffer(ByteBuffer byteBuffer, int offset) {
+        if (!byteBuffer.isDirect()) {
+            throw new IllegalArgumentException("Byte buffer is not direct");
+        }
+        if (offset < 0 || offset > byteBuffer.limit()) {
+            throw new IndexOutOfBoundsException("Offset " + offset + " is out of the bounds of the byte buffer");
+        }
+        this.byteBuffer = byteBuffer;
+        this.address = UNSAFE.getLong(byteBuffer, BUFFER_ADDRESS_OFFSET) + offset;
+        this.length = byteBuffer.limit() - offset;
+    }
+
+    private DirectGeometryBuffer(ByteBuffer byteBuffer, long address, int length) {
+        this.byteBuffer = byteBuffer;
+        this.address = address;
+        this.length = length;
+    }
+
+    @Override
+    public CoordinateType getCoordinateType() {
+        return coordinateType;
+    }
+
+    @Override
+    public void setCoordinateType(CoordinateType coordinateType) {
+        this.coordinateType = coordinateType;
+    }
+
+    @Override
+    public void mark(int offset) {
+        markOffset = offset;
+    }
+
+    @Override
+    public int getMark() {
+        return markOffset;
+    }
+
+    @Override
+    public void putByte(int offset, byte value) {
+        UNSAFE.putByte(address + offset, value);
+    }
+
+    @Override
+    public byte getByte(int offset) {
+        assert offset < length;
+        return UNSAFE.getByte(address + offset);
+    }
+
+    @Override
+    public void putBytes(int offset, byte[] inBytes) {
+        assert offset + inBytes.length <= length;
+        UNSAFE.copyMemory(inBytes, BYTE_ARRAY_BASE_OFFSET, null, address + offset, inBytes.length);
+    }
+
+    @Override
+    public void getBytes(byte[] outBytes, int offset, int numBytes) {
+        assert offset + numBytes <= length;
+        UNSAFE.copyMemory(null, address + offset, outBytes, BYTE_ARRAY_BASE_OFFSET, numBytes);
+    }
+
+    @Override
+    public void putInt(int offset, int value) {
+        assert offset + 4 <= length;
+        UNSAFE.putInt(address + offset, value);
+    }
+
+    @Override
+    public int getInt(int offset) {
+        assert offset + 4 <= length;
+        return UNSAFE.getInt(address + offset);
+    }
+
+    @Override
+    public void putDouble(int offset, double value) {
+        assert offset + 8 <= length;
+        UNSAFE.putDouble(address + offset, value);
+    }
+
+    @Override
+    public double getDouble(int offset) {
+        assert offset + 8 <= length;
+        return UNSAFE.getDouble(address + offset);
+    }
+
+    @Override
+    public void putCoordinate(int offset, Coordinate coordinate) {
+        long coordOffset = address + offset;
+        assert coordOffset + coordinateType.bytes <= address + length;
+        switch (coordinateType) {
+            case XY:
+                UNSAFE.putDouble(coordOffset, coordinate.x);
+                UNSAFE.putDouble(coordOffset + 8, coordinate.y);
+                break;
+            case XYZ:
+                UNSAFE.putDouble(coordOffset, coordinate.x);
+                UNSAFE.putDouble(coordOffset + 8, coordinate.y);
+                UNSAFE.putDouble(coordOffset + 16, coordinate.getZ());
+                break;
+            case XYM:
+                UNSAFE.putDouble(coordOffset, coordinate.x);
+                UNSAFE.putDouble(coordOffset + 8, coordinate.y);
+                UNSAFE.putDouble(coordOffset + 16, coordinate.getM());
+                break;
+            case XYZM:
+                UNSAFE.putDouble(coordOffset, coordinate.x);
+                UNSAFE.putDouble(coordOffset + 8, coordinate.y);
+                UNSAFE.putDouble(coordOffset + 16, coordinate.getZ());
+                UNSAFE.putDouble(coordOffset + 24, coordinate.getM());
+                break;
+            default:
+                throw new IllegalStateException("coordinateType was not configured properly");
+        }
+    }
+
+    @Override
+    public CoordinateSequence getCoordinate(int offset) {
+        long coordOffset = address + offset;
+        assert coordOffset + coordinateType.bytes <= address + length;
+        double x = UNSAFE.getDouble(coordOffset);
+        double y = UNSAFE.getDouble(coordOffset + 8);
+        double z;
+        double m;
+        Coordinate[] coordinates = new Coordinate[1];
+        switch (coordinateType) {
+            case XY:
+                coordinates[0] = new CoordinateXY(x, y);
+                return new CoordinateArraySequence(coordinates, 2, 0);
+            case XYZ:
+                z = UNSAFE.getDouble(coordOffset + 16);
+                coordinates[0] = new Coordinate(x, y, z);
+                return new CoordinateArraySequence(coordinates, 3, 0);
+            case XYM:
+                m = UNSAFE.getDouble(coordOffset + 16);
+                coordinates[0] = new CoordinateXYM(x, y, m);
+                return new CoordinateArraySequence(coordinates, 3, 1);
+            case XYZM:
+                z = UNSAFE.getDouble(coordOffset + 16);
+                m = UNSAFE.getDouble(coordOffset + 24);
+                coordinates[0] = new CoordinateXYZM(x, y, z, m);
+                return new CoordinateArraySequence(coordinates, 4, 1);
+            default:
+                throw new IllegalStateException("coordinateType was not configured properly");
+        }
+    }
+
+    @Override
+    public void putCoordinates(int offset, CoordinateSequence coordinates) {
+        long coordOffset = address + offset;
+        int numCoordinates = coordinates.size();
+        assert coordOffset + (long) coordinateType.bytes * numCoordinates
+                <= address + length;
+        switch (coordinateType) {
+            case XY:
+                for (int k = 0; k < numCoordinates; k++) {
+                    Coordinate coord = coordinates.getCoordinate(k);
+                    UNSAFE.putDouble(coordOffset, coord.x);
+                    UNSAFE.putDouble(coordOffset + 8, coord.y);
+                    coordOffset += 16;
+                }
+                break;
+            case XYZ:
+                for (int k = 0; k < numCoordinates; k++) {
+                    Coordinate coord = coordinates.getCoordinate(k);
+                    UNSAFE.putDouble(coordOffset, coord.x);
+                    UNSAFE.putDouble(coordOffset + 8, coord.y);
+                    UNSAFE.putDouble(coordOffset + 16, coord.getZ());
+                    coordOffset += 24;
+                }
+                break;
+            case XYM:
+                for (int k = 0; k < numCoordinates; k++) {
+                    Coordinate coord = coordinates.getCoordinate(k);
+                    UNSAFE.putDouble(coordOffset, coord.x);
+                    UNSAFE.putDouble(coordOffset + 8, coord.y);
+                    UNSAFE.putDouble(coordOffset + 16, coord.getM());
+                    coordOffset += 24;
+                }
+                break;
+            case XYZM:
+                for (int k = 0; k < numCoordinates; k++) {
+                    Coordinate coord = coordinates.getCoordinate(k);
+                    UNSAFE.putDouble(coordOffset, coord.x);
+                    UNSAFE.putDouble(coordOffset + 8, coord.y);
+                    UNSAFE.putDouble(coordOffset + 16, coord.getZ());
+                    UNSAFE.putDouble(coordOffset + 24, coord.getM());
+                    coordOffset += 32;
+                }
+                break;
+            default:
+                throw new IllegalStateException("coordinateType was not configured properly");
+        }
+    }
+
+    @Override
+    public CoordinateSequence getCoordinates(int offset, int numCoordinates) {
+        long coordOffset = address + offset;
+        assert coordOffset + (long) coordinateType.bytes * numCoordinates
+                <= address + length;
+        Coordinate[] coordinates = new Coordinate[numCoordinates];
+        int dimension = 2;
+        int measures = 0;
+        switch (coordinateType) {
+            case XY:
+                for (int k = 0; k < numCoordinates; k++) {
+                    double x = UNSAFE.getDouble(coordOffset);
+                    double y = UNSAFE.getDouble(coordOffset + 8);
+                    coordinates[k] = new CoordinateXY(x, y);
+                    coordOffset += 16;
+                }
+                break;
+            case XYZ:
+                dimension = 3;
+                for (int k = 0; k < numCoordinates; k++) {
+                    double x = UNSAFE.getDouble(coordOffset);
+                    double y = UNSAFE.getDouble(coordOffset + 8);
+                    double z = UNSAFE.getDouble(coordOffset + 16);
+                    coordinates[k] = new Coordinate(x, y, z);
+                    coordOffset += 24;
+                }
+                break;
+            case XYM:
+                dimension = 3;
+                measures = 1;
+                for (int k = 0; k < numCoordinates; k++) {
+                    double x = UNSAFE.getDouble(coordOffset);
+                    double y = UNSAFE.getDouble(coordOffset + 8);
+                    double m = UNSAFE.getDouble(coordOffset + 16);
+                    coordinates[k] = new CoordinateXYM(x, y, m);
+                    coordOffset += 24;
+                }
+                break;
+            case XYZM:
+                dimension = 4;
+                measures = 1;
+                for (int k = 0; k < numCoordinates; k++) {
+                    double x = UNSAFE.getDouble(coordOffset);
+                    double y = UNSAFE.getDouble(coordOffset + 8);
+                    double z = UNSAFE.getDouble(coordOffset + 16);
+                    double m = UNSAFE.getDouble(coordOffset + 24);
+                    coordinates[k] = new CoordinateXYZM(x, y, z, m);
+                    coordOffset += 32;
+                }
+                break;
+            default:
+                throw new IllegalStateException("coordinateType was not configured properly");
+        }
+        return new CoordinateArraySequence(coordinates, dimension, measures);
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public GeometryBuffer slice(int offset) {
+        assert offset <= length;
+        return new DirectGeometryBuffer(byteBuffer, address + offset, length - offset);
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        byte[] copy = new byte[length];
+        UNSAFE.copyMemory(null, address, copy, BYTE_ARRAY_BASE_OFFSET, length);
+        return copy;
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.common.geometrySerde;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializes many geometries into a single byte array, so that they can be written and read with
+ * a few bulk copies instead of one small array per geometry.
+ * <p>
+ * A batch has the following layout, all parts are aligned to 8 bytes:
+ * <pre>
+ * [numGeometries (4 bytes)][reserved (4 bytes)]
+ * [envelopes: numGeometries * (minX, minY, maxX, maxY) doubles]
+ * [offsets: numGeometries + 1 ints, relative to the start of the geometries block][padding]
+ * [geometries: serialized geometries, each padded to 8 bytes]
+ * </pre>
+ * The envelope of any geometry can be read without deserializing it, and geometries can be
+ * deserialized individually. Geometries are stored in the standard encoding, or in the compact
+ * encoding when requested, see {@link GeometrySerializer#serialize(Geometry, boolean)}.
+ */
+public class GeometryBatchSerializer {
+    private static final int HEADER_SIZE = 8;
+
+    private GeometryBatchSerializer() {}
+
+    public static byte[] serialize(List<? extends Geometry> geometries) {
+        return serialize(geometries, null);
+    }
+
+    /**
+     * Serialize a batch of geometries.
+     *
+     * @param geometries geometries to serialize
+     * @param envelopes envelopes to store along with the geometries, such as the bounds of index
+     *                  items. The envelopes of the geometries are stored when this is null.
+     * @return serialized batch
+     */
+    public static byte[] serialize(List<? extends Geometry> geometries, List<Envelope> envelopes) {
+        return serialize(geometries, envelopes, false);
+    }
+
+    /**
+     * Serialize a batch of geometries.
+     *
+     * @param geometries geometries to serialize
+     * @param envelopes envelopes to store along with the geometries, such as the bounds of index
+     *                  items. The envelopes of the geometries are stored when this is null.
+     * @param compactEncoding whether to store the geometries in the compact encoding
+     * @return serialized batch
+     */
+    public static byte[] serialize(List<? extends Geometry> geometries, List<Envelope> envelopes, boolean compactEncoding) {
+        int numGeometries = geometries.size();
+        if (envelopes != null && envelopes.size() != numGeometries) {
+            throw new IllegalArgumentException(
+                    "Number of envelopes " + envelopes.size() + " does not match number of geometries " + numGeometries);
+        }
+        int[] sizes = new int[numGeometries];
+        // Compact geometries cannot be encoded in place, their size is only known once encoded
+        byte[][] encoded = compactEncoding ? new byte[numGeometries][] : null;
+        long totalSize = 0;
+        for (int k = 0; k < numGeometries; k++) {
+            if (encoded != null) {
+                encoded[k] = GeometrySerializer.serialize(geometries.get(k), true);
+                sizes[k] = encoded[k].length;
+            } else {
+                sizes[k] = GeometrySerializer.getSerializedSize(geometries.get(k));
+            }
+            totalSize += GeometrySerializer.alignedOffset(sizes[k]);
+        }
+        totalSize += getGeometriesOffset(numGeometries);
+        if (totalSize > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Batch of " + numGeometries + " geometries is too large to serialize");
+        }
+
+        GeometryBuffer buffer = GeometryBufferFactory.create((int) totalSize);
+        int geometriesOffset = (int) getGeometriesOffset(numGeometries);
+        buffer.putInt(0, numGeometries);
+        buffer.putInt(4, 0);
+        int envelopeOffset = HEADER_SIZE;
+        int offsetsOffset = HEADER_SIZE + 32 * numGeometries;
+        int offset = 0;
+        for (int k = 0; k < numGeometries; k++) {
+            Geometry geometry = geometries.get(k);
+            Envelope envelope = envelopes != null ? envelopes.get(k) : geometry.getEnvelopeInternal();
+            putEnvelope(buffer, envelopeOffset, envelope);
+            envelopeOffset += 32;
+            buffer.putInt(offsetsOffset + 4 * k, offset);
+            // Buffers are zero filled, so the padding after each geometry does not need to be written
+            if (encoded != null) {
+                buffer.putBytes(geometriesOffset + offset, encoded[k]);
+            } else {
+                GeometrySerializer.serialize(geometry, buffer.slice(geometriesOffset + offset));
+            }
+            offset += GeometrySerializer.alignedOffset(sizes[k]);
+        }
+        buffer.putInt(offsetsOffset + 4 * numGeometries, offset);
+        return buffer.toByteArray();
+    }
+
+    public static int getNumGeometries(byte[] batch) {
+        return getNumGeometries(GeometryBufferFactory.wrap(batch));
+    }
+
+    public static Envelope getEnvelope(byte[] batch, int index) {
+        GeometryBuffer buffer = GeometryBufferFactory.wrap(batch);
+        checkIndex(buffer, index);
+        return getEnvelope(buffer, index);
+    }
+
+    public static Geometry deserialize(byte[] batch, int index) {
+        GeometryBuffer buffer = GeometryBufferFactory.wrap(batch);
+        checkIndex(buffer, index);
+        return deserialize(buffer, getNumGeometries(buffer), index);
+    }
+
+    public static List<Geometry> deserialize(byte[] batch) {
+        return deserialize(batch, null);
+    }
+
+    /**
+     * Deserialize all geometries of a batch.
+     *
+     * @param batch serialized batch
+     * @param envelopes list to add the stored envelopes to, ignored when null
+     * @return deserialized geometries
+     */
+    public static List<Geometry> deserialize(byte[] batch, List<Envelope> envelopes) {
+        GeometryBuffer buffer = GeometryBufferFactory.wrap(batch);
+        int numGeometries = getNumGeometries(buffer);
+        List<Geometry> geometries = new ArrayList<>(numGeometries);
+        for (int k = 0; k < numGeometries; k++) {
+            geometries.add(deserialize(buffer, numGeometries, k));
+            if (envelopes != null) {
+                envelopes.add(getEnvelope(buffer, k));
+            }
+        }
+        return geometries;
+    }
+
+    private static Geometry deserialize(GeometryBuffer buffer, int numGeometries, int index) {
+        int geometriesOffset = (int) getGeometriesOffset(numGeometries);
+        int offsetsOffset = HEADER_SIZE + 32 * numGeometries;
+        int offset = buffer.getInt(offsetsOffset + 4 * index);
+        int nextOffset = buffer.getInt(offsetsOffset + 4 * index + 4);
+        if (offset < 0 || nextOffset < offset || geometriesOffset + nextOffset > buffer.getLength()) {
+            throw new IllegalArgumentException("Batch to be deserialized is corrupted");
+        }
+        return GeometrySerializer.deserialize(buffer.slice(geometriesOffset + offset));
+    }
+
+    private static int getNumGeometries(GeometryBuffer buffer) {
+        if (buffer.getLength() < HEADER_SIZE) {
+            throw new IllegalArgumentException("Batch to be deserialized is incomplete");
+        }
+        int numGeometries = buffer.getInt(0);
+        if (numGeometries < 0 || getGeometriesOffset(numGeometries) > buffer.getLength()) {
+            throw new IllegalArgumentException("Batch to be deserialized is incomplete");
+        }
+        return numGeometries;
+    }
+
+    private static void checkIndex(GeometryBuffer buffer, int index) {
+        int numGeometries = getNumGeometries(buffer);
+        if (index < 0 || index >= numGeometries) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + numGeometries);
+        }
+    }
+
+    private static long getGeometriesOffset(int numGeometries) {
+        long size = HEADER_SIZE + 32L * numGeometries + 4L * (numGeometries + 1);
+        return (size + 7) & ~7L;
+    }
+
+    private static void putEnvelope(GeometryBuffer buffer, int offset, Envelope envelope) {
+        if (envelope.isNull()) {
+            buffer.putDouble(offset, Double.NaN);
+            buffer.putDouble(offset + 8, Double.NaN);
+            buffer.putDouble(offset + 16, Double.NaN);
+            buffer.putDouble(offset + 24, Double.NaN);
+        } else {
+            buffer.putDouble(offset, envelope.getMinX());
+            buffer.putDouble(offset + 8, envelope.getMinY());
+            buffer.putDouble(offset + 16, envelope.getMaxX());
+            buffer.putDouble(offset + 24, envelope.getMaxY());
+        }
+    }
+
+    private static Envelope getEnvelope(GeometryBuffer buffer, int index) {
+        int offset = HEADER_SIZE + 32 * index;
+        double minX = buffer.getDouble(offset);
+        if (Double.isNaN(minX)) {
+            return new Envelope();
+        }
+        return new Envelope(minX, buffer.getDouble(offset + 16), buffer.getDouble(offset + 8), buffer.getDouble(offset + 24));
+    }
+}
@@ -19,6 +19,8 @@
 
 package org.apache.sedona.common.geometrySerde;
 
+import java.nio.ByteBuffer;
+
 public class GeometryBufferFactory {
     private static boolean enableUnsafeGeometryBuffer = true;
 
@@ -40,6 +42,8 @@ public class GeometryBufferFactory {
                 return new ByteBufferGeometryBuffer(bufferSize);
             case "unsafe":
                 return new UnsafeGeometryBuffer(bufferSize);
+            case "direct":
+                return new DirectGeometryBuffer(ByteBuffer.allocateDirect(bufferSize), 0);
             default:
                 throw new IllegalArgumentException("Unknown buffer type: " + bufferType);
         }
@@ -53,12 +57,44 @@ public class GeometryBufferFactory {
         }
     }
 
+    public static GeometryBuffer wrap(byte[] bytes, int offset) {
+        if (UnsafeGeometryBuffer.isUnsafeAvailable() && enableUnsafeGeometryBuffer) {
+            return new UnsafeGeometryBuffer(bytes, offset);
+        } else {
+            return new ByteBufferGeometryBuffer(ByteBuffer.wrap(bytes, offset, bytes.length - offset).slice());
+        }
+    }
+
+    /**
+     * Wrap the bytes of a byte buffer starting at an absolute offset and ending at its limit. Direct
+     * and memory-mapped byte buffers are read in place without copying them onto the heap.
+     *
+     * @param byteBuffer byte buffer to wrap, its position, limit and byte order are not modified
+     * @param offset absolute offset in the byte buffer
+     * @return geometry buffer over the bytes of the byte buffer
+     */
+    public static GeometryBuffer wrap(ByteBuffer byteBuffer, int offset) {
+        if (byteBuffer.isDirect() && DirectGeometryBuffer.isDirectAvailable() && enableUnsafeGeometryBuffer) {
+            return new DirectGeometryBuffer(byteBuffer, offset);
+        } else {
+            ByteBuffer duplicate = byteBuffer.duplicate();
+            duplicate.position(offset);
+            return new ByteBufferGeometryBuffer(duplicate.slice());
+        }
+    }
+
     public static GeometryBuffer wrap(String bufferType, byte[] bytes) {
         switch (bufferType) {
             case "bytebuffer":
                 return new ByteBufferGeometryBuffer(bytes);
             case "unsafe":
                 return new UnsafeGeometryBuffer(bytes);
+            case "direct": {
+                // Direct memory cannot wrap a heap array, so the bytes are copied
+                ByteBuffer byteBuffer = ByteBuffer.allocateDirect(bytes.length);
+                byteBuffer.put(bytes);
+                return new DirectGeometryBuffer(byteBuffer, 0);
+            }
             default:
                 throw new IllegalArgumentException("Unknown buffer type: " + bufferType);
         }
@@ -22,6 +22,7 @@ package org.apache.sedona.common.geometrySerde;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.Registration;
 import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.ByteBufferOutput;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import org.apache.sedona.common.geometryObjects.Circle;
@@ -34,6 +35,7 @@ import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * Provides methods to efficiently serialize and deserialize geometry types.
@@ -43,10 +45,61 @@ import java.io.Serializable;
  * <p>
  * First byte contains {@link Type#id}. Then go type-specific bytes, followed
  * by user-data attached to the geometry.
+ * <p>
+ * User data is prefixed with a {@link UserDataType#id}. Strings and rows of the configured row
+ * class are written directly, other user data goes through generic Kryo class resolution.
  */
 public class GeometrySerde
         extends Serializer implements Serializable
 {
+    private final Class<?> rowClass;
+    private final Serializer rowSerializer;
+    private final boolean compactEncoding;
+
+    public GeometrySerde()
+    {
+        this(null, null, false);
+    }
+
+    /**
+     * Create a serde that writes user data of the given row class, such as the rows attached to
+     * geometries in Spark SQL joins, with a dedicated serializer instead of generic Kryo class
+     * resolution.
+     *
+     * @param rowClass exact class of row user data
+     * @param rowSerializer serializer of row user data
+     */
+    public GeometrySerde(Class<?> rowClass, Serializer rowSerializer)
+    {
+        this(rowClass, rowSerializer, false);
+    }
+
+    /**
+     * Create a serde that writes user data of the given row class with a dedicated serializer, see
+     * {@link #GeometrySerde(Class, Serializer)}, and optionally writes geometries in the compact
+     * encoding, see {@link GeometrySerializer#serialize(Geometry, boolean)}. Geometries in either
+     * encoding can always be read.
+     *
+     * @param rowClass exact class of row user data, or null
+     * @param rowSerializer serializer of row user data, or null
+     * @param compactEncoding whether to write geometries in the compact encoding
+     */
+    public GeometrySerde(Class<?> rowClass, Serializer rowSerializer, boolean compactEncoding)
+    {
+        this.rowClass = rowClass;
+        this.rowSerializer = rowSerializer;
+        this.compactEncoding = compactEncoding;
+    }
+
+    /**
+     * Whether geometries are written in the compact encoding, for serializers that lay out
+     * serialized geometries themselves.
+     */
+    public boolean isCompactEncoding()
+    {
+        return compactEncoding;
+    }
+
     @Override
     public void write(Kryo kryo, Output out, Object object)
     {
@@ -83,18 +136,127 @@ public class GeometrySerde
 
     private void writeGeometry(Kryo kryo, Output out, Geometry geometry)
     {
-        byte[] data = GeometrySerializer.serialize(geometry);
+        if (!compactEncoding && !(out instanceof ByteBufferOutput)) {
+            int size = GeometrySerializer.getSerializedSize(geometry);
+            byte[] buffer = out.getBuffer();
+            if (buffer != null && buffer.length - out.position() >= size + 4) {
+                // Serialize the geometry directly into the output buffer to avoid an intermediate copy,
+                // the bounds are checked above so the size is not computed again
+                out.writeInt(size);
+                int position = out.position();
+                GeometrySerializer.serialize(geometry, GeometryBufferFactory.wrap(buffer, position));
+                out.setPosition(position + size);
+                writeUserData(kryo, out, geometry);
+                return;
+            }
+        }
+        byte[] data = GeometrySerializer.serialize(geometry, compactEncoding);
         out.writeInt(data.length);
         out.write(data, 0, data.length);
         writeUserData(kryo, out, geometry);
     }
 
-    private void writeUserData(Kryo kryo, Output out, Geometry geometry)
+    /**
+     * Write a list of geometries as a single batch, see {@link GeometryBatchSerializer}. Lists that
+     * contain objects not supported by the batch format, such as circles, are written one by one.
+     *
+     * @param envelopes envelopes to write along with the geometries, such as the bounds of index
+     *                  items, or null if envelopes are not needed
+     */
+    public void writeBatch(Kryo kryo, Output out, List<?> geometries, List<Envelope> envelopes)
+    {
+        out.writeInt(geometries.size());
+        boolean isBatch = true;
+        for (Object geometry : geometries) {
+            if (!(geometry instanceof Geometry) || geometry instanceof Circle) {
+                isBatch = false;
+                break;
+            }
+        }
+        out.writeBoolean(isBatch);
+        if (isBatch) {
+            byte[] data = GeometryBatchSerializer.serialize((List<Geometry>) geometries, envelopes, compactEncoding);
+            out.writeInt(data.length);
+            out.write(data, 0, data.length);
+            for (Object geometry : geometries) {
+                writeUserData(kryo, out, (Geometry) geometry);
+            }
+        }
+        else {
+            out.writeBoolean(envelopes != null);
+            for (int k = 0; k < geometries.size(); k++) {
+                if (envelopes != null) {
+                    write(kryo, out, envelopes.get(k));
+                }
+                write(kryo, out, geometries.get(k));
+            }
+        }
+    }
+
+    /**
+     * Read a list of geometries written by {@link #writeBatch(Kryo, Output, List, List)}.
+     *
+     * @param geometries list to add the geometries to
+     * @param envelopes list to add the envelopes to, or null if envelopes are not needed
+     */
+    public void readBatch(Kryo kryo, Input input, List<Object> geometries, List<Envelope> envelopes)
     {
-        out.writeBoolean(geometry.getUserData() != null);
-        if (geometry.getUserData() != null) {
-            kryo.writeClass(out, geometry.getUserData().getClass());
-            kryo.writeObject(out, geometry.getUserData());
+        int numGeometries = input.readInt();
+        if (input.readBoolean()) {
+            byte[] data = input.readBytes(input.readInt());
+            List<Geometry> batch = GeometryBatchSerializer.deserialize(data, envelopes);
+            for (Geometry geometry : batch) {
+                geometry.setUserData(readUserData(kryo, input));
+                geometries.add(geometry);
+            }
+        }
+        else {
+            boolean hasEnvelopes = input.readBoolean();
+            for (int k = 0; k < numGeometries; k++) {
+                if (hasEnvelopes) {
+                    Envelope envelope = (Envelope) read(kryo, input, Envelope.class);
+                    if (envelopes != null) {
+                        envelopes.add(envelope);
+                    }
+                }
+                geometries.add(read(kryo, input, Geometry.class));
+            }
+        }
+    }
+
+    /**
+     * Whether the user data of a geometry can be read back by {@link #readUserData(Kryo, Input)}
+     * with any Kryo instance, not only with the one it was written with. That is the case for
+     * missing user data, strings and rows of the configured row class.
+     */
+    public boolean hasPortableUserData(Geometry geometry)
+    {
+        Object userData = geometry.getUserData();
+        return userData == null || userData instanceof String
+                || (rowSerializer != null && userData.getClass() == rowClass);
+    }
+
+    /**
+     * Write the user data of a geometry, the same way it is written after every geometry.
+     */
+    public void writeUserData(Kryo kryo, Output out, Geometry geometry)
+    {
+        Object userData = geometry.getUserData();
+        if (userData == null) {
+            out.writeByte((byte) UserDataType.NONE.id);
+        }
+        else if (userData instanceof String) {
+            out.writeByte((byte) UserDataType.STRING.id);
+            out.writeString((String) userData);
+        }
+        else if (rowSerializer != null && userData.getClass() == rowClass) {
+            out.writeByte((byte) UserDataType.ROW.id);
+            rowSerializer.write(kryo, out, userData);
+        }
+        else {
+            out.writeByte((byte) UserDataType.OBJECT.id);
+            kryo.writeClass(out, userData.getClass());
+            kryo.writeObject(out, userData);
         }
     }
 
@@ -128,14 +290,32 @@ public class GeometrySerde
         }
     }
 
-    private Object readUserData(Kryo kryo, Input input)
+    /**
+     * Read user data written by {@link #writeUserData(Kryo, Output, Geometry)}.
+     */
+    public Object readUserData(Kryo kryo, Input input)
     {
-        Object userData = null;
-        if (input.readBoolean()) {
-            Registration clazz = kryo.readClass(input);
-            userData = kryo.readObject(input, clazz.getType());
+        byte typeId = input.readByte();
+        UserDataType userDataType = UserDataType.fromId(typeId);
+        if (userDataType == null) {
+            throw new UnsupportedOperationException("Cannot deserialize user data of type " + typeId);
+        }
+        switch (userDataType) {
+            case NONE:
+                return null;
+            case STRING:
+                return input.readString();
+            case ROW:
+                if (rowSerializer == null) {
+                    throw new UnsupportedOperationException(
+                            "Cannot deserialize row user data without a row serializer");
+                }
+                return rowSerializer.read(kryo, input, rowClass);
+            default: {
+                Registration clazz = kryo.readClass(input);
+                return kryo.readObject(input, clazz.getType());
+            }
         }
-        return userData;
     }
 
     private Geometry readGeometry(Kryo kryo, Input input)
@@ -172,4 +352,31 @@ public class GeometrySerde
             return null;
         }
     }
+
+    private enum UserDataType
+    {
+        // NONE and OBJECT match the boolean that used to precede user data
+        NONE(0),
+        OBJECT(1),
+        STRING(2),
+        ROW(3);
+
+        private final int id;
+
+        UserDataType(int id)
+        {
+            this.id = id;
+        }
+
+        public static UserDataType fromId(int id)
+        {
+            for (UserDataType type : values()) {
+                if (type.id == id) {
+                    return type;
+                }
+            }
+
+            return null;
+        }
+    }
 }
@@ -21,6 +21,7 @@ package org.apache.sedona.common.geometrySerde;
 
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.GeometryFactory;
@@ -33,31 +34,160 @@ import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
 import org.locationtech.jts.io.WKBConstants;
 
+import java.nio.ByteBuffer;
+
 public class GeometrySerializer {
     private static final Coordinate NULL_COORDINATE = new Coordinate(Double.NaN, Double.NaN);
     private static final GeometryFactory FACTORY = new GeometryFactory();
+    private static boolean enableLazyCoordinateSequence = false;
+    private static boolean enableCompactEncoding = false;
+
+    /**
+     * When enabled, line strings and rings of deserialized geometries read their coordinates directly
+     * from the serialized bytes instead of copying them into {@link Coordinate} objects. The serialized
+     * bytes are kept alive by the geometry and must not be modified after deserialization.
+     * <p>
+     * This is not exposed as a Sedona configuration: some functions, such as those in GeomUtils, modify
+     * the {@link Coordinate} objects returned by coordinate sequences in place, which only has an
+     * effect on geometries backed by coordinate arrays.
+     *
+     * @param enabled whether to deserialize geometries with lazy coordinate sequences
+     */
+    public static void toggleLazyCoordinateSequence(boolean enabled) {
+        enableLazyCoordinateSequence = enabled;
+    }
+
+    /**
+     * When enabled, {@link #serialize(Geometry)} uses the compact encoding, see
+     * {@link #serialize(Geometry, boolean)}. This does not affect {@link GeometrySerde}, which takes
+     * the encoding as a constructor argument.
+     *
+     * @param enabled whether to serialize geometries using the compact encoding
+     */
+    public static void toggleCompactEncoding(boolean enabled) {
+        enableCompactEncoding = enabled;
+    }
 
     public static byte[] serialize(Geometry geometry) {
-        GeometryBuffer buffer;
+        return serialize(geometry, enableCompactEncoding);
+    }
+
+    /**
+     * Serialize a geometry. The compact encoding stores coordinates as fixed precision varint deltas
+     * when this is lossless and saves space, which makes serialized dense linework considerably
+     * smaller at the cost of some CPU time. Geometries in either encoding can always be deserialized.
+     * The compact encoding cannot be read by the Python API.
+     *
+     * @param geometry geometry to serialize
+     * @param compactEncoding whether to use the compact encoding
+     * @return serialized geometry
+     */
+    public static byte[] serialize(Geometry geometry, boolean compactEncoding) {
+        int size = getSerializedSize(geometry);
+        GeometryBuffer buffer = GeometryBufferFactory.create(size);
+        serialize(geometry, buffer);
+        if (compactEncoding) {
+            byte[] bytes = CompactGeometryEncoding.encode(buffer, size);
+            if (bytes != null) {
+                return bytes;
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Serialize a geometry into a caller provided byte array, starting at the given offset. The byte
+     * array must have at least {@link #getSerializedSize(Geometry)} bytes of room after the offset.
+     * The geometry is always written in the standard encoding.
+     *
+     * @param geometry geometry to serialize
+     * @param bytes target byte array
+     * @param offset offset in the byte array to start writing at
+     * @return number of bytes written
+     */
+    public static int serialize(Geometry geometry, byte[] bytes, int offset) {
+        int size = getSerializedSize(geometry);
+        if (offset < 0 || bytes.length - offset < size) {
+            throw new IllegalArgumentException(
+                    "Buffer is too small to hold the serialized geometry of " + size + " bytes");
+        }
+        GeometryBuffer buffer = GeometryBufferFactory.wrap(bytes, offset);
+        return serialize(geometry, buffer);
+    }
+
+    static int serialize(Geometry geometry, GeometryBuffer buffer) {
         if (geometry instanceof Point) {
-            buffer = serializePoint((Point) geometry);
+            return serializePoint((Point) geometry, buffer);
         } else if (geometry instanceof MultiPoint) {
-            buffer = serializeMultiPoint((MultiPoint) geometry);
+            return serializeMultiPoint((MultiPoint) geometry, buffer);
         } else if (geometry instanceof LineString) {
-            buffer = serializeLineString((LineString) geometry);
+            return serializeLineString((LineString) geometry, buffer);
         } else if (geometry instanceof MultiLineString) {
-            buffer = serializeMultiLineString((MultiLineString) geometry);
+            return serializeMultiLineString((MultiLineString) geometry, buffer);
         } else if (geometry instanceof Polygon) {
-            buffer = serializePolygon((Polygon) geometry);
+            return serializePolygon((Polygon) geometry, buffer);
         } else if (geometry instanceof MultiPolygon) {
-            buffer = serializeMultiPolygon((MultiPolygon) geometry);
+            return serializeMultiPolygon((MultiPolygon) geometry, buffer);
         } else if (geometry instanceof GeometryCollection) {
-            buffer = serializeGeometryCollection((GeometryCollection) geometry);
+            return serializeGeometryCollection((GeometryCollection) geometry, buffer);
+        } else {
+            throw new UnsupportedOperationException(
+                    "Geometry type is not supported: " + geometry.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Compute the number of bytes of the serialized form of a geometry in the standard encoding,
+     * without serializing it.
+     *
+     * @param geometry geometry to serialize
+     * @return size of the serialized geometry in bytes
+     */
+    public static int getSerializedSize(Geometry geometry) {
+        if (geometry instanceof Point) {
+            Coordinate coordinate = geometry.getCoordinate();
+            return coordinate == null ? 8 : 8 + getCoordinateType(coordinate).bytes;
+        } else if (geometry instanceof MultiPoint) {
+            // Empty points are stored as NaN coordinates, so they take space as well
+            int numPoints = geometry.getNumGeometries();
+            return numPoints == 0 ? 8 : 8 + numPoints * getCoordinateType(geometry).bytes;
+        } else if (geometry instanceof LineString) {
+            int numCoordinates = geometry.getNumPoints();
+            return numCoordinates == 0 ? 8 : 8 + numCoordinates * getCoordinateType(geometry).bytes;
+        } else if (geometry instanceof MultiLineString) {
+            int numCoordinates = geometry.getNumPoints();
+            return 8 + numCoordinates * getCoordinateType(geometry).bytes + 4 + geometry.getNumGeometries() * 4;
+        } else if (geometry instanceof Polygon) {
+            Polygon polygon = (Polygon) geometry;
+            LinearRing exteriorRing = polygon.getExteriorRing();
+            if (exteriorRing == null || exteriorRing.isEmpty()) {
+                return 8;
+            }
+            int numCoordinates = polygon.getNumPoints();
+            return 8 + numCoordinates * getCoordinateType(geometry).bytes + 4 + 4 * (polygon.getNumInteriorRing() + 1);
+        } else if (geometry instanceof MultiPolygon) {
+            int numPolygons = geometry.getNumGeometries();
+            int numCoordinates = 0;
+            int totalRings = 0;
+            for (int k = 0; k < numPolygons; k++) {
+                Polygon polygon = (Polygon) geometry.getGeometryN(k);
+                if (!polygon.isEmpty()) {
+                    totalRings += polygon.getNumInteriorRing() + 1;
+                    numCoordinates += polygon.getNumPoints();
+                }
+            }
+            return 8 + numCoordinates * getCoordinateType(geometry).bytes + 4 + (numPolygons * 4) + (totalRings * 4);
+        } else if (geometry instanceof GeometryCollection) {
+            int numGeometries = geometry.getNumGeometries();
+            int totalBytes = 8;
+            for (int k = 0; k < numGeometries; k++) {
+                totalBytes += alignedOffset(getSerializedSize(geometry.getGeometryN(k)));
+            }
+            return totalBytes;
         } else {
             throw new UnsupportedOperationException(
                     "Geometry type is not supported: " + geometry.getClass().getSimpleName());
         }
-        return buffer.toByteArray();
     }
 
     public static Geometry deserialize(byte[] bytes) {
@@ -65,8 +195,26 @@ public class GeometrySerializer {
         return deserialize(buffer);
     }
 
+    /**
+     * Deserialize a geometry stored in a byte buffer, starting at an absolute offset. Direct and
+     * memory-mapped byte buffers are decoded in place. When lazy coordinate sequences are enabled,
+     * the returned geometry keeps reading from the byte buffer, so its memory must outlive the
+     * geometry.
+     *
+     * @param byteBuffer byte buffer holding the serialized geometry
+     * @param offset absolute offset of the serialized geometry in the byte buffer
+     * @return deserialized geometry
+     */
+    public static Geometry deserialize(ByteBuffer byteBuffer, int offset) {
+        GeometryBuffer buffer = GeometryBufferFactory.wrap(byteBuffer, offset);
+        return deserialize(buffer);
+    }
+
     public static Geometry deserialize(GeometryBuffer buffer) {
         checkBufferSize(buffer, 8);
+        if (CompactGeometryEncoding.isCompact(buffer)) {
+            buffer = CompactGeometryEncoding.decode(buffer);
+        }
         int preambleByte = buffer.getByte(0) & 0xFF;
         int wkbType = preambleByte >> 4;
         CoordinateType coordType = CoordinateType.valueOf((preambleByte & 0x0F) >> 1);
@@ -82,6 +230,102 @@ public class GeometrySerializer {
         return deserialize(buffer, wkbType, srid);
     }
 
+    /**
+     * Compute the envelope of a serialized geometry by scanning its coordinates in place, without
+     * constructing the JTS geometry object.
+     *
+     * @param bytes serialized geometry
+     * @return envelope of the geometry, a null envelope is returned for empty geometries
+     */
+    public static Envelope getEnvelope(byte[] bytes) {
+        GeometryBuffer buffer = GeometryBufferFactory.wrap(bytes);
+        return getEnvelope(buffer);
+    }
+
+    public static Envelope getEnvelope(ByteBuffer byteBuffer, int offset) {
+        GeometryBuffer buffer = GeometryBufferFactory.wrap(byteBuffer, offset);
+        return getEnvelope(buffer);
+    }
+
+    public static Envelope getEnvelope(GeometryBuffer buffer) {
+        checkBufferSize(buffer, 8);
+        if (CompactGeometryEncoding.isCompact(buffer)) {
+            buffer = CompactGeometryEncoding.decode(buffer);
+        }
+        Envelope envelope = new Envelope();
+        expandEnvelope(buffer, envelope);
+        return envelope;
+    }
+
+    private static void expandEnvelope(GeometryBuffer buffer, Envelope envelope) {
+        checkBufferSize(buffer, 8);
+        int preambleByte = buffer.getByte(0) & 0xFF;
+        int wkbType = preambleByte >> 4;
+        CoordinateType coordType = CoordinateType.valueOf((preambleByte & 0x0F) >> 1);
+        buffer.setCoordinateType(coordType);
+        int numCoordinates = getBoundedInt(buffer, 4);
+        if (wkbType == WKBConstants.wkbGeometryCollection) {
+            int offset = 8;
+            for (int k = 0; k < numCoordinates; k++) {
+                GeometryBuffer geomBuffer = buffer.slice(offset);
+                expandEnvelope(geomBuffer, envelope);
+                offset += alignedOffset(geomBuffer.getMark());
+            }
+            buffer.mark(offset);
+            return;
+        }
+
+        // All coordinates of non-collection geometries are stored in a contiguous block right after
+        // the header, so we can scan them without looking at the structure of the geometry.
+        int coordsEndOffset = 8 + numCoordinates * coordType.bytes;
+        checkBufferSize(buffer, coordsEndOffset);
+        for (int offset = 8; offset < coordsEndOffset; offset += coordType.bytes) {
+            double x = buffer.getDouble(offset);
+            if (!Double.isNaN(x)) {
+                // Empty points in multi points are stored as NaN coordinates
+                envelope.expandToInclude(x, buffer.getDouble(offset + 8));
+            }
+        }
+        buffer.mark(getEndOffset(buffer, wkbType, numCoordinates, coordsEndOffset));
+    }
+
+    static int getEndOffset(
+            GeometryBuffer buffer, int wkbType, int numCoordinates, int coordsEndOffset) {
+        switch (wkbType) {
+            case WKBConstants.wkbPoint:
+            case WKBConstants.wkbMultiPoint:
+            case WKBConstants.wkbLineString:
+                return coordsEndOffset;
+            case WKBConstants.wkbMultiLineString: {
+                checkBufferSize(buffer, coordsEndOffset + 4);
+                int numLineStrings = getBoundedInt(buffer, coordsEndOffset);
+                return coordsEndOffset + 4 + 4 * numLineStrings;
+            }
+            case WKBConstants.wkbPolygon: {
+                if (numCoordinates == 0) {
+                    return 8;
+                }
+                checkBufferSize(buffer, coordsEndOffset + 4);
+                int numRings = getBoundedInt(buffer, coordsEndOffset);
+                return coordsEndOffset + 4 + 4 * numRings;
+            }
+            case WKBConstants.wkbMultiPolygon: {
+                checkBufferSize(buffer, coordsEndOffset + 4);
+                int numPolygons = getBoundedInt(buffer, coordsEndOffset);
+                int offset = coordsEndOffset + 4;
+                for (int k = 0; k < numPolygons; k++) {
+                    checkBufferSize(buffer, offset + 4);
+                    int numRings = getBoundedInt(buffer, offset);
+                    offset += 4 + 4 * numRings;
+                }
+                return offset;
+            }
+            default:
+                throw new IllegalArgumentException(
+                        "Cannot deserialize buffer containing unknown geometry type ID: " + wkbType);
+        }
+    }
+
     private static Geometry deserialize(GeometryBuffer buffer, int wkbType, int srid) {
         switch (wkbType) {
             case WKBConstants.wkbPoint:
@@ -104,17 +348,16 @@ public class GeometrySerializer {
         }
     }
 
-    private static GeometryBuffer serializePoint(Point point) {
+    private static int serializePoint(Point point, GeometryBuffer buffer) {
         Coordinate coordinate = point.getCoordinate();
         if (coordinate == null) {
-            return createGeometryBuffer(WKBConstants.wkbPoint, CoordinateType.XY, point.getSRID(), 8, 0);
+            writeHeader(buffer, WKBConstants.wkbPoint, CoordinateType.XY, point.getSRID(), 0);
+            return 8;
         }
         CoordinateType coordType = getCoordinateType(coordinate);
-        int bufferSize = 8 + coordType.bytes;
-        GeometryBuffer buffer =
-                createGeometryBuffer(WKBConstants.wkbPoint, coordType, point.getSRID(), bufferSize, 1);
+        writeHeader(buffer, WKBConstants.wkbPoint, coordType, point.getSRID(), 1);
         buffer.putCoordinate(8, coordinate);
-        return buffer;
+        return 8 + coordType.bytes;
     }
 
     private static Point deserializePoint(GeometryBuffer buffer, int srid) {
@@ -135,17 +378,14 @@ public class GeometrySerializer {
         return point;
     }
 
-    private static GeometryBuffer serializeMultiPoint(MultiPoint multiPoint) {
+    private static int serializeMultiPoint(MultiPoint multiPoint, GeometryBuffer buffer) {
         int numPoints = multiPoint.getNumGeometries();
         if (numPoints == 0) {
-            return createGeometryBuffer(
-                    WKBConstants.wkbMultiPoint, CoordinateType.XY, multiPoint.getSRID(), 8, 0);
+            writeHeader(buffer, WKBConstants.wkbMultiPoint, CoordinateType.XY, multiPoint.getSRID(), 0);
+            return 8;
         }
         CoordinateType coordType = getCoordinateType(multiPoint);
-        int bufferSize = 8 + numPoints * coordType.bytes;
-        GeometryBuffer buffer =
-                createGeometryBuffer(
-                        WKBConstants.wkbMultiPoint, coordType, multiPoint.getSRID(), bufferSize, numPoints);
+        writeHeader(buffer, WKBConstants.wkbMultiPoint, coordType, multiPoint.getSRID(), numPoints);
         for (int k = 0; k < numPoints; k++) {
             Point point = (Point) multiPoint.getGeometryN(k);
             Coordinate coordinate = point.getCoordinate();
@@ -156,7 +396,7 @@ public class GeometrySerializer {
                 buffer.putCoordinate(coordinateOffset, coordinate);
             }
         }
-        return buffer;
+        return 8 + numPoints * coordType.bytes;
     }
 
     private static MultiPoint deserializeMultiPoint(GeometryBuffer buffer, int srid) {
@@ -181,24 +421,17 @@ public class GeometrySerializer {
         return multiPoint;
     }
 
-    private static GeometryBuffer serializeLineString(LineString lineString) {
+    private static int serializeLineString(LineString lineString, GeometryBuffer buffer) {
         CoordinateSequence coordinates = lineString.getCoordinateSequence();
         int numCoordinates = coordinates.size();
         if (numCoordinates == 0) {
-            return createGeometryBuffer(
-                    WKBConstants.wkbLineString, CoordinateType.XY, lineString.getSRID(), 8, 0);
+            writeHeader(buffer, WKBConstants.wkbLineString, CoordinateType.XY, lineString.getSRID(), 0);
+            return 8;
         }
         CoordinateType coordType = getCoordinateType(coordinates.getCoordinate(0));
-        int bufferSize = 8 + numCoordinates * coordType.bytes;
-        GeometryBuffer buffer =
-                createGeometryBuffer(
-                        WKBConstants.wkbLineString,
-                        coordType,
-                        lineString.getSRID(),
-                        bufferSize,
-                        numCoordinates);
+        writeHeader(buffer, WKBConstants.wkbLineString, coordType, lineString.getSRID(), numCoordinates);
         buffer.putCoordinates(8, coordinates);
-        return buffer;
+        return 8 + numCoordinates * coordType.bytes;
     }
 
     private static LineString deserializeLineString(GeometryBuffer buffer, int srid) {
@@ -206,35 +439,32 @@ public class GeometrySerializer {
         int numCoordinates = getBoundedInt(buffer, 4);
         int bufferSize = 8 + numCoordinates * coordType.bytes;
         checkBufferSize(buffer, bufferSize);
-        CoordinateSequence coordinates = buffer.getCoordinates(8, numCoordinates);
+        CoordinateSequence coordinates = getCoordinates(buffer, 8, numCoordinates);
         buffer.mark(bufferSize);
         LineString lineString = FACTORY.createLineString(coordinates);
         lineString.setSRID(srid);
         return lineString;
     }
 
-    private static GeometryBuffer serializeMultiLineString(MultiLineString multiLineString) {
+    private static int serializeMultiLineString(MultiLineString multiLineString, GeometryBuffer buffer) {
         int numLineStrings = multiLineString.getNumGeometries();
         CoordinateType coordType = getCoordinateType(multiLineString);
         int numCoordinates = multiLineString.getNumPoints();
         int coordsOffset = 8;
         int numOffset = 8 + numCoordinates * coordType.bytes;
-        int bufferSize = numOffset + 4 + numLineStrings * 4;
-        GeometryBuffer buffer =
-                createGeometryBuffer(
-                        WKBConstants.wkbMultiLineString,
-                        coordType,
-                        multiLineString.getSRID(),
-                        bufferSize,
-                        numCoordinates);
+        writeHeader(
+                buffer,
+                WKBConstants.wkbMultiLineString,
+                coordType,
+                multiLineString.getSRID(),
+                numCoordinates);
         GeomPartSerializer serializer = new GeomPartSerializer(buffer, coordsOffset, numOffset);
         serializer.writeInt(numLineStrings);
         for (int k = 0; k < numLineStrings; k++) {
             LineString ls = (LineString) multiLineString.getGeometryN(k);
             serializer.write(ls);
         }
-        assert bufferSize == serializer.intsOffset;
-        return buffer;
+        return serializer.intsOffset;
     }
 
     private static MultiLineString deserializeMultiLineString(GeometryBuffer buffer, int srid) {
@@ -257,26 +487,21 @@ public class GeometrySerializer {
         return multiLineString;
     }
 
-    private static GeometryBuffer serializePolygon(Polygon polygon) {
+    private static int serializePolygon(Polygon polygon, GeometryBuffer buffer) {
         LinearRing exteriorRing = polygon.getExteriorRing();
         if (exteriorRing == null || exteriorRing.isEmpty()) {
-            return createGeometryBuffer(
-                    WKBConstants.wkbPolygon, CoordinateType.XY, polygon.getSRID(), 8, 0);
+            writeHeader(buffer, WKBConstants.wkbPolygon, CoordinateType.XY, polygon.getSRID(), 0);
+            return 8;
         }
         CoordinateSequence coordinates = exteriorRing.getCoordinateSequence();
         CoordinateType coordType = getCoordinateType(coordinates.getCoordinate(0));
         int numCoordinates = polygon.getNumPoints();
-        int numInteriorRings = polygon.getNumInteriorRing();
         int coordsOffset = 8;
         int numRingsOffset = 8 + numCoordinates * coordType.bytes;
-        int bufferSize = numRingsOffset + 4 + 4 * (numInteriorRings + 1);
-        GeometryBuffer buffer =
-                createGeometryBuffer(
-                        WKBConstants.wkbPolygon, coordType, polygon.getSRID(), bufferSize, numCoordinates);
+        writeHeader(buffer, WKBConstants.wkbPolygon, coordType, polygon.getSRID(), numCoordinates);
         GeomPartSerializer serializer = new GeomPartSerializer(buffer, coordsOffset, numRingsOffset);
         serializer.write(polygon);
-        assert bufferSize == serializer.intsOffset;
-        return buffer;
+        return serializer.intsOffset;
     }
 
     private static Polygon deserializePolygon(GeometryBuffer buffer, int srid) {
@@ -297,37 +522,31 @@ public class GeometrySerializer {
         return polygon;
     }
 
-    private static GeometryBuffer serializeMultiPolygon(MultiPolygon multiPolygon) {
+    private static int serializeMultiPolygon(MultiPolygon multiPolygon, GeometryBuffer buffer) {
         int numPolygons = multiPolygon.getNumGeometries();
         int numCoordinates = 0;
         CoordinateType coordType = getCoordinateType(multiPolygon);
-        int totalRings = 0;
         for (int k = 0; k < numPolygons; k++) {
             Polygon polygon = (Polygon) multiPolygon.getGeometryN(k);
             if (!polygon.isEmpty()) {
-                int numRings = polygon.getNumInteriorRing() + 1;
-                totalRings += numRings;
                 numCoordinates += polygon.getNumPoints();
             }
         }
         int coordsOffset = 8;
         int numPolygonsOffset = 8 + numCoordinates * coordType.bytes;
-        int bufferSize = numPolygonsOffset + 4 + (numPolygons * 4) + (totalRings * 4);
-        GeometryBuffer buffer =
-                createGeometryBuffer(
-                        WKBConstants.wkbMultiPolygon,
-                        coordType,
-                        multiPolygon.getSRID(),
-                        bufferSize,
-                        numCoordinates);
+        writeHeader(
+                buffer,
+                WKBConstants.wkbMultiPolygon,
+                coordType,
+                multiPolygon.getSRID(),
+                numCoordinates);
         GeomPartSerializer serializer = new GeomPartSerializer(buffer, coordsOffset, numPolygonsOffset);
         serializer.writeInt(numPolygons);
         for (int k = 0; k < numPolygons; k++) {
             Polygon polygon = (Polygon) multiPolygon.getGeometryN(k);
             serializer.write(polygon);
         }
-        assert bufferSize == serializer.intsOffset;
-        return buffer;
+        return serializer.intsOffset;
     }
 
     private static MultiPolygon deserializeMultiPolygon(GeometryBuffer buffer, int srid) {
@@ -349,39 +568,26 @@ public class GeometrySerializer {
         return multiPolygon;
     }
 
-    private static GeometryBuffer serializeGeometryCollection(GeometryCollection geometryCollection) {
+    private static int serializeGeometryCollection(
+            GeometryCollection geometryCollection, GeometryBuffer buffer) {
         int numGeometries = geometryCollection.getNumGeometries();
-        if (numGeometries == 0) {
-            return createGeometryBuffer(
-                    WKBConstants.wkbGeometryCollection,
-                    CoordinateType.XY,
-                    geometryCollection.getSRID(),
-                    8,
-                    0);
-        }
-        byte[][] buffers = new byte[numGeometries][];
-        int totalBytes = 0;
-        for (int k = 0; k < numGeometries; k++) {
-            byte[] buf = serialize(geometryCollection.getGeometryN(k));
-            buffers[k] = buf;
-            totalBytes += alignedOffset(buf.length);
-        }
-        int bufferSize = 8 + totalBytes;
-        GeometryBuffer buffer =
-                createGeometryBuffer(
-                        WKBConstants.wkbGeometryCollection,
-                        CoordinateType.XY,
-                        geometryCollection.getSRID(),
-                        bufferSize,
-                        numGeometries);
+        writeHeader(
+                buffer,
+                WKBConstants.wkbGeometryCollection,
+                CoordinateType.XY,
+                geometryCollection.getSRID(),
+                numGeometries);
         int offset = 8;
         for (int k = 0; k < numGeometries; k++) {
-            byte[] buf = buffers[k];
-            buffer.putBytes(offset, buf);
-            offset += alignedOffset(buf.length);
+            // Serialize each geometry in place, and pad it to 8 byte boundary
+            int geomLength = serialize(geometryCollection.getGeometryN(k), buffer.slice(offset));
+            int paddedLength = alignedOffset(geomLength);
+            for (int i = geomLength; i < paddedLength; i++) {
+                buffer.putByte(offset + i, (byte) 0);
+            }
+            offset += paddedLength;
         }
-        assert offset == bufferSize;
-        return buffer;
+        return offset;
     }
 
     private static GeometryCollection deserializeGeometryCollection(GeometryBuffer buffer, int srid) {
@@ -408,24 +614,30 @@ public class GeometrySerializer {
         return geometryCollection;
     }
 
-    private static GeometryBuffer createGeometryBuffer(
-            int wkbType, CoordinateType coordType, int srid, int bufferSize, int numCoordinates) {
-        GeometryBuffer buffer = GeometryBufferFactory.create(bufferSize);
+    private static void writeHeader(
+            GeometryBuffer buffer, int wkbType, CoordinateType coordType, int srid, int numCoordinates) {
         buffer.setCoordinateType(coordType);
 
         // Set header bytes [preamble][srid (3 bytes)][numCoordinates (4 bytes)]
         int hasSridBit = (srid != 0 ? 1 : 0);
         int preambleByte = (wkbType << 4) | (coordType.value << 1) | hasSridBit;
         buffer.putByte(0, (byte) preambleByte);
-        if (srid != 0) {
-            // Store SRID in the next 3 bytes in big endian byte order, with the highest bit set
-            // indicating that SRID need to be decoded when deserializing it.
-            buffer.putByte(1, (byte) (srid >> 16));
-            buffer.putByte(2, (byte) (srid >> 8));
-            buffer.putByte(3, (byte) srid);
-        }
+        // Store SRID in the next 3 bytes in big endian byte order, with the highest bit set
+        // indicating that SRID need to be decoded when deserializing it.
+        buffer.putByte(1, (byte) (srid >> 16));
+        buffer.putByte(2, (byte) (srid >> 8));
+        buffer.putByte(3, (byte) srid);
         buffer.putInt(4, numCoordinates);
-        return buffer;
+    }
+
+    private static CoordinateSequence getCoordinates(
+            GeometryBuffer buffer, int offset, int numCoordinates) {
+        if (enableLazyCoordinateSequence) {
+            return new BufferCoordinateSequence(
+                    buffer, offset, numCoordinates, buffer.getCoordinateType());
+        } else {
+            return buffer.getCoordinates(offset, numCoordinates);
+        }
     }
 
     private static void checkBufferSize(GeometryBuffer buffer, int minimumSize) {
@@ -472,7 +684,7 @@ public class GeometrySerializer {
         }
     }
 
-    private static int alignedOffset(int offset) {
+    static int alignedOffset(int offset) {
         return (offset + 7) & ~7;
     }
 
@@ -521,7 +733,7 @@ public class GeometrySerializer {
                 throw new IllegalStateException(
                         "Number of coordinates exceeds the capacity of buffer: " + numCoordinates);
             }
-            CoordinateSequence coordinates = buffer.getCoordinates(coordsOffset, numCoordinates);
+            CoordinateSequence coordinates = getCoordinates(buffer, coordsOffset, numCoordinates);
             coordsOffset = newCoordsOffset;
             intsOffset += 4;
             return coordinates;
@@ -23,6 +23,8 @@ import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import org.apache.sedona.common.spatialIndex.PackedHilbertRtree;
+import org.apache.sedona.common.spatialIndex.PackedHilbertRtreeSerde;
 import org.locationtech.jts.index.quadtree.IndexSerde;
 import org.locationtech.jts.index.quadtree.Quadtree;
 import org.locationtech.jts.index.strtree.STRtree;
@@ -32,7 +34,7 @@ import java.io.Serializable;
 /**
  * Provides methods to efficiently serialize and deserialize spatialIndex types.
  * <p>
- * Support Quadtree, STRtree types
+ * Support Quadtree, STRtree and PackedHilbertRtree types
  * <p>
  * trees are serialized recursively.
  */
@@ -61,7 +63,7 @@ public class SpatialIndexSerde
             // serialize quadtree index
             writeType(output, Type.QUADTREE);
             Quadtree tree = (Quadtree) o;
-            IndexSerde indexSerde = new IndexSerde();
+            IndexSerde indexSerde = new IndexSerde(geometrySerde);
             indexSerde.write(kryo, output, tree);
         }
         else if (o instanceof STRtree) {
@@ -69,9 +71,14 @@ public class SpatialIndexSerde
             writeType(output, Type.RTREE);
             STRtree tree = (STRtree) o;
             org.locationtech.jts.index.strtree.IndexSerde indexSerde
-                    = new org.locationtech.jts.index.strtree.IndexSerde();
+                    = new org.locationtech.jts.index.strtree.IndexSerde(geometrySerde);
             indexSerde.write(kryo, output, tree);
         }
+        else if (o instanceof PackedHilbertRtree) {
+            writeType(output, Type.HPRTREE);
+            PackedHilbertRtreeSerde indexSerde = new PackedHilbertRtreeSerde(geometrySerde);
+            indexSerde.write(kryo, output, (PackedHilbertRtree) o);
+        }
         else {
             throw new UnsupportedOperationException(" index type not supported ");
         }
@@ -84,12 +91,16 @@ public class SpatialIndexSerde
         Type indexType = Type.fromId(typeID);
         switch (indexType) {
             case QUADTREE: {
-                IndexSerde indexSerde = new IndexSerde();
+                IndexSerde indexSerde = new IndexSerde(geometrySerde);
                 return indexSerde.read(kryo, input);
             }
             case RTREE: {
                 org.locationtech.jts.index.strtree.IndexSerde indexSerde =
-                        new org.locationtech.jts.index.strtree.IndexSerde();
+                        new org.locationtech.jts.index.strtree.IndexSerde(geometrySerde);
+                return indexSerde.read(kryo, input);
+            }
+            case HPRTREE: {
+                PackedHilbertRtreeSerde indexSerde = new PackedHilbertRtreeSerde(geometrySerde);
                 return indexSerde.read(kryo, input);
             }
             default: {
@@ -107,7 +118,8 @@ public class SpatialIndexSerde
     {
 
         QUADTREE(0),
-        RTREE(1);
+        RTREE(1),
+        HPRTREE(2);
 
         private final int id;
 
@@ -30,8 +30,8 @@ import sun.misc.Unsafe;
 import java.lang.reflect.Field;
 
 class UnsafeGeometryBuffer implements GeometryBuffer {
-    private static final Unsafe UNSAFE;
-    private static final long BYTE_ARRAY_BASE_OFFSET;
+    static final Unsafe UNSAFE;
+    static final long BYTE_ARRAY_BASE_OFFSET;
 
     static {
         Unsafe unsafe;
@@ -133,6 +133,18 @@ class UnsafeGeometryBuffer implements GeometryBuffer {
         return UNSAFE.getInt(bytes, baseOffset + offset);
     }
 
+    @Override
+    public void putDouble(int offset, double value) {
+        assert baseOffset + offset + 8 <= bytes.length + BYTE_ARRAY_BASE_OFFSET;
+        UNSAFE.putDouble(bytes, baseOffset + offset, value);
+    }
+
+    @Override
+    public double getDouble(int offset) {
+        assert baseOffset + offset + 8 <= bytes.length + BYTE_ARRAY_BASE_OFFSET;
+        return UNSAFE.getDouble(bytes, baseOffset + offset);
+    }
+
     @Override
     public void putCoordinate(int offset, Coordinate coordinate) {
         long coordOffset = baseOffset + offset;
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.common.spatialIndex;
+
+import java.util.PriorityQueue;
+
+/**
+ * Collects the k nearest items seen by a best-first index traversal.
+ * <p>
+ * Traversals visit nodes in increasing order of the distance between the query and the node bounds,
+ * and stop once that distance is not smaller than {@link #getMaxDistance()}.
+ */
+public final class NearestNeighbours
+{
+    private final int k;
+    // Farthest item first, so that it can be replaced by a nearer one
+    private final PriorityQueue<Neighbour> neighbours;
+
+    public NearestNeighbours(int k)
+    {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        this.k = k;
+        this.neighbours = new PriorityQueue<>(k, (n1, n2) -> Double.compare(n2.distance, n1.distance));
+    }
+
+    /**
+     * Offer an item, it is kept if it is nearer than the farthest of the k nearest items so far.
+     */
+    public void offer(Object item, double distance)
+    {
+        if (neighbours.size() < k) {
+            neighbours.add(new Neighbour(item, distance));
+        }
+        else if (distance < neighbours.peek().distance) {
+            neighbours.poll();
+            neighbours.add(new Neighbour(item, distance));
+        }
+    }
+
+    /**
+     * @return distance of the farthest of the k nearest items so far, or infinity if fewer than k
+     * items were offered. Nodes farther than this cannot contain any nearer item.
+     */
+    public double getMaxDistance()
+    {
+        return neighbours.size() < k ? Double.POSITIVE_INFINITY : neighbours.peek().distance;
+    }
+
+    /**
+     * @return the k nearest items, nearest first
+     */
+    public Object[] toArray()
+    {
+        Object[] items = new Object[neighbours.size()];
+        PriorityQueue<Neighbour> copy = new PriorityQueue<>(neighbours);
+        for (int i = items.length - 1; i >= 0; i--) {
+            items[i] = copy.poll().item;
+        }
+        return items;
+    }
+
+    private static final class Neighbour
+    {
+        final Object item;
+        final double distance;
+
+        Neighbour(Object item, double distance)
+        {
+            this.item = item;
+            this.distance = distance;
+        }
+    }
+}
@@ -0,0 +1,582 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.common.spatialIndex;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.ItemVisitor;
+import org.locationtech.jts.index.SpatialIndex;
+import org.locationtech.jts.index.strtree.ItemBoundable;
+import org.locationtech.jts.index.strtree.ItemDistance;
+import org.locationtech.jts.shape.fractal.HilbertCode;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * A read-only R-tree, bulk loaded by sorting the items along a Hilbert curve and packing them into
+ * full nodes.
+ * <p>
+ * Unlike {@link org.locationtech.jts.index.strtree.STRtree}, no object is allocated per item or
+ * node. The bounds of the items and of the nodes are stored in flat {@code double[]} arrays, four
+ * values (minX, minY, maxX, maxY) per entry, and the nodes of each level are laid out one after
+ * another. Children of node {@code i} are the entries {@code i * nodeCapacity} to
+ * {@code (i + 1) * nodeCapacity - 1} of the level below.
+ * <p>
+ * Items are inserted first, the tree is built on the first query or explicitly with
+ * {@link #build()}, and no items can be inserted or removed afterwards.
+ * <p>
+ * Trees read from the flat format of {@link PackedHilbertRtreeSerde} keep their items serialized
+ * and only decode the items hit by queries.
+ */
+public class PackedHilbertRtree
+        implements SpatialIndex, Serializable
+{
+    public static final int DEFAULT_NODE_CAPACITY = 16;
+
+    private static final int HILBERT_LEVEL = HilbertCode.MAX_LEVEL;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int nodeCapacity;
+    private int numItems = 0;
+    private double[] itemBounds;
+    private Object[] items;
+    // Items that are still serialized, used instead of items when the tree was read lazily
+    private transient volatile SerializedItems serializedItems;
+    // Bounds of the nodes, level by level starting from the level right above the items
+    private double[] nodeBounds;
+    // Index of the first node of every level in nodeBounds, followed by the total number of nodes
+    private int[] levelOffsets;
+    private volatile boolean built = false;
+
+    public PackedHilbertRtree()
+    {
+        this(DEFAULT_NODE_CAPACITY);
+    }
+
+    public PackedHilbertRtree(int nodeCapacity)
+    {
+        if (nodeCapacity < 2) {
+            throw new IllegalArgumentException("Node capacity must be at least 2, got " + nodeCapacity);
+        }
+        this.nodeCapacity = nodeCapacity;
+        this.itemBounds = new double[4 * INITIAL_CAPACITY];
+        this.items = new Object[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Create a built tree from items that are already in tree order, as written by
+     * {@link PackedHilbertRtreeSerde}.
+     */
+    PackedHilbertRtree(int nodeCapacity, double[] itemBounds, Object[] items)
+    {
+        this.nodeCapacity = nodeCapacity;
+        this.numItems = items.length;
+        this.itemBounds = itemBounds;
+        this.items = items;
+        buildNodes(false);
+    }
+
+    /**
+     * Create a built tree from bounds read from the flat format of {@link PackedHilbertRtreeSerde},
+     * with items that are decoded on demand.
+     */
+    PackedHilbertRtree(int nodeCapacity, double[] itemBounds, double[] nodeBounds, SerializedItems serializedItems)
+    {
+        this.nodeCapacity = nodeCapacity;
+        this.numItems = serializedItems.size();
+        this.itemBounds = itemBounds;
+        this.serializedItems = serializedItems;
+        this.nodeBounds = nodeBounds;
+        this.levelOffsets = computeLevelOffsets(numItems, nodeCapacity);
+        if (nodeBounds.length != 4 * levelOffsets[levelOffsets.length - 1]) {
+            throw new IllegalArgumentException("Packed R-tree has " + nodeBounds.length / 4 + " nodes, expected " + levelOffsets[levelOffsets.length - 1]);
+        }
+        this.built = true;
+    }
+
+    @Override
+    public void insert(Envelope itemEnv, Object item)
+    {
+        if (isBuilt()) {
+            throw new IllegalStateException("Cannot insert items into a packed R-tree after it has been built.");
+        }
+        if (numItems == items.length) {
+            int capacity = items.length * 2;
+            items = Arrays.copyOf(items, capacity);
+            itemBounds = Arrays.copyOf(itemBounds, 4 * capacity);
+        }
+        setBounds(itemBounds, 4 * numItems, itemEnv);
+        items[numItems] = item;
+        numItems++;
+    }
+
+    /**
+     * Not supported, packed R-trees are read-only once built.
+     */
+    @Override
+    public boolean remove(Envelope itemEnv, Object item)
+    {
+        throw new UnsupportedOperationException("Cannot remove items from a packed R-tree.");
+    }
+
+    @Override
+    public List<Object> query(Envelope searchEnv)
+    {
+        final List<Object> result = new ArrayList<>();
+        query(searchEnv, result::add);
+        return result;
+    }
+
+    @Override
+    public void query(Envelope searchEnv, ItemVisitor visitor)
+    {
+        if (!built) {
+            build();
+        }
+        if (numItems == 0 || searchEnv.isNull()) {
+            return;
+        }
+        int topLevel = levelOffsets.length - 2;
+        queryNode(topLevel, 0, searchEnv.getMinX(), searchEnv.getMinY(), searchEnv.getMaxX(), searchEnv.getMaxY(), visitor);
+    }
+
+    /**
+     * Query many boxes with a single walk of the tree. Each node is visited at most once, and only
+     * compared with the boxes that intersect its parent, so the node bounds are read once per batch
+     * rather than once per box. Probes should be sorted by locality, see {@link SpatialIndexBatchProbe}.
+     *
+     * @param probeBounds boxes to query, four values (minX, minY, maxX, maxY) per box
+     * @param probes indexes of the boxes to query
+     * @param results lists to add the items intersecting each box to, indexed like the boxes
+     */
+    void queryBatch(double[] probeBounds, int[] probes, List<List<Object>> results)
+    {
+        if (!built) {
+            build();
+        }
+        if (numItems == 0 || probes.length == 0) {
+            return;
+        }
+        int topLevel = levelOffsets.length - 2;
+        // Probes intersecting the node being visited, one buffer per level to avoid allocating per node
+        int[][] active = new int[topLevel + 2][probes.length];
+        System.arraycopy(probes, 0, active[topLevel + 1], 0, probes.length);
+        queryBatchNode(topLevel, 0, probeBounds, active, probes.length, results);
+    }
+
+    private void queryBatchNode(int level, int nodeIndex, double[] probeBounds, int[][] active, int numParentProbes, List<List<Object>> results)
+    {
+        int nodeOffset = 4 * (levelOffsets[level] + nodeIndex);
+        int[] parentProbes = active[level + 1];
+        int[] probes = active[level];
+        int numProbes = 0;
+        for (int p = 0; p < numParentProbes; p++) {
+            int probe = parentProbes[p];
+            int offset = 4 * probe;
+            if (intersects(nodeBounds, nodeOffset, probeBounds[offset], probeBounds[offset + 1], probeBounds[offset + 2], probeBounds[offset + 3])) {
+                probes[numProbes++] = probe;
+            }
+        }
+        if (numProbes == 0) {
+            return;
+        }
+        int childStart = nodeIndex * nodeCapacity;
+        if (level == 0) {
+            int childEnd = Math.min(childStart + nodeCapacity, numItems);
+            SerializedItems serializedItems = this.serializedItems;
+            for (int i = childStart; i < childEnd; i++) {
+                Object item = null;
+                for (int p = 0; p < numProbes; p++) {
+                    int offset = 4 * probes[p];
+                    if (intersects(itemBounds, 4 * i, probeBounds[offset], probeBounds[offset + 1], probeBounds[offset + 2], probeBounds[offset + 3])) {
+                        if (item == null) {
+                            item = serializedItems == null ? items[i] : serializedItems.get(i);
+                        }
+                        results.get(probes[p]).add(item);
+                    }
+                }
+            }
+        }
+        else {
+            int childEnd = Math.min(childStart + nodeCapacity, levelOffsets[level] - levelOffsets[level - 1]);
+            for (int i = childStart; i < childEnd; i++) {
+                queryBatchNode(level - 1, i, probeBounds, active, numProbes, results);
+            }
+        }
+    }
+
+    /**
+     * Find the k items nearest to the given item, with the same contract as
+     * {@link org.locationtech.jts.index.strtree.STRtree#nearestNeighbour(Envelope, Object, ItemDistance, int)}.
+     * Nodes are visited best-first, in increasing distance between their bounds and the envelope of the
+     * item, so the item distance must never be smaller than the distance between the envelopes.
+     *
+     * @param env envelope of the query item
+     * @param item query item
+     * @param itemDist distance between the query item and the items of the tree
+     * @param k number of items to find
+     * @return the k nearest items, nearest first, or fewer if the tree holds fewer items
+     */
+    public Object[] nearestNeighbour(Envelope env, Object item, ItemDistance itemDist, int k)
+    {
+        if (!built) {
+            build();
+        }
+        NearestNeighbours neighbours = new NearestNeighbours(k);
+        int topLevel = levelOffsets.length - 2;
+        if (numItems == 0 || env.isNull() || isNull(nodeBounds, 4 * levelOffsets[topLevel])) {
+            return neighbours.toArray();
+        }
+        ItemBoundable query = new ItemBoundable(env, item);
+        SerializedItems serializedItems = this.serializedItems;
+        // Nodes to visit as (distance, level, index), nearest first
+        PriorityQueue<double[]> queue = new PriorityQueue<>((n1, n2) -> Double.compare(n1[0], n2[0]));
+        queue.add(new double[] {distance(nodeBounds, 4 * levelOffsets[topLevel], env), topLevel, 0});
+        while (!queue.isEmpty()) {
+            double[] node = queue.poll();
+            if (node[0] >= neighbours.getMaxDistance()) {
+                break;
+            }
+            int level = (int) node[1];
+            int childStart = (int) node[2] * nodeCapacity;
+            if (level == 0) {
+                int childEnd = Math.min(childStart + nodeCapacity, numItems);
+                for (int i = childStart; i < childEnd; i++) {
+                    int offset = 4 * i;
+                    if (isNull(itemBounds, offset) || distance(itemBounds, offset, env) >= neighbours.getMaxDistance()) {
+                        continue;
+                    }
+                    Object candidate = serializedItems == null ? items[i] : serializedItems.get(i);
+                    Envelope candidateEnv = new Envelope(itemBounds[offset], itemBounds[offset + 2], itemBounds[offset + 1], itemBounds[offset + 3]);
+                    neighbours.offer(candidate, itemDist.distance(new ItemBoundable(candidateEnv, candidate), query));
+                }
+            }
+            else {
+                int childEnd = Math.min(childStart + nodeCapacity, levelOffsets[level] - levelOffsets[level - 1]);
+                for (int i = childStart; i < childEnd; i++) {
+                    int offset = 4 * (levelOffsets[level - 1] + i);
+                    if (!isNull(nodeBounds, offset)) {
+                        queue.add(new double[] {distance(nodeBounds, offset, env), level - 1, i});
+                    }
+                }
+            }
+        }
+        return neighbours.toArray();
+    }
+
+    /**
+     * Sort the items along the Hilbert curve and compute the bounds of the nodes. This is done
+     * automatically by the first query.
+     */
+    public void build()
+    {
+        build(false);
+    }
+
+    /**
+     * Build the tree, see {@link #build()}.
+     *
+     * @param parallel whether to sort the items and compute the bounds of the leaf nodes on the
+     *                 common fork-join pool, which pays off for large trees
+     */
+    public synchronized void build(boolean parallel)
+    {
+        if (isBuilt()) {
+            return;
+        }
+        sortItems(parallel);
+        buildNodes(parallel);
+    }
+
+    public boolean isBuilt()
+    {
+        return built;
+    }
+
+    public int size()
+    {
+        return numItems;
+    }
+
+    public boolean isEmpty()
+    {
+        return numItems == 0;
+    }
+
+    public int getNodeCapacity()
+    {
+        return nodeCapacity;
+    }
+
+    /**
+     * @return bounds of the items in tree order, four values per item. The array may be longer than
+     * needed before the tree is built.
+     */
+    double[] getItemBounds()
+    {
+        return itemBounds;
+    }
+
+    /**
+     * @return items in tree order. The array may be longer than needed before the tree is built.
+     */
+    Object[] getItems()
+    {
+        materializeItems();
+        return items;
+    }
+
+    /**
+     * @return bounds of the nodes, level by level starting from the level right above the items.
+     * Only available once the tree is built.
+     */
+    double[] getNodeBounds()
+    {
+        return nodeBounds;
+    }
+
+    private synchronized void materializeItems()
+    {
+        if (serializedItems != null) {
+            items = serializedItems.toArray();
+            serializedItems = null;
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out)
+            throws IOException
+    {
+        materializeItems();
+        out.defaultWriteObject();
+    }
+
+    private void queryNode(int level, int nodeIndex, double minX, double minY, double maxX, double maxY, ItemVisitor visitor)
+    {
+        if (!intersects(nodeBounds, 4 * (levelOffsets[level] + nodeIndex), minX, minY, maxX, maxY)) {
+            return;
+        }
+        int childStart = nodeIndex * nodeCapacity;
+        if (level == 0) {
+            int childEnd = Math.min(childStart + nodeCapacity, numItems);
+            SerializedItems serializedItems = this.serializedItems;
+            for (int i = childStart; i < childEnd; i++) {
+                if (intersects(itemBounds, 4 * i, minX, minY, maxX, maxY)) {
+                    visitor.visitItem(serializedItems == null ? items[i] : serializedItems.get(i));
+                }
+            }
+        }
+        else {
+            int childEnd = Math.min(childStart + nodeCapacity, levelOffsets[level] - levelOffsets[level - 1]);
+            for (int i = childStart; i < childEnd; i++) {
+                queryNode(level - 1, i, minX, minY, maxX, maxY, visitor);
+            }
+        }
+    }
+
+    private static boolean intersects(double[] bounds, int offset, double minX, double minY, double maxX, double maxY)
+    {
+        return !(bounds[offset] > maxX || bounds[offset + 2] < minX || bounds[offset + 1] > maxY || bounds[offset + 3] < minY);
+    }
+
+    private static double distance(double[] bounds, int offset, Envelope env)
+    {
+        double dx = Math.max(0, Math.max(bounds[offset] - env.getMaxX(), env.getMinX() - bounds[offset + 2]));
+        double dy = Math.max(0, Math.max(bounds[offset + 1] - env.getMaxY(), env.getMinY() - bounds[offset + 3]));
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private void sortItems(boolean parallel)
+    {
+        final double[] bounds = itemBounds;
+        long[] keys = sortByHilbertCode(bounds, numItems, parallel);
+        double[] sortedBounds = new double[4 * numItems];
+        Object[] sortedItems = new Object[numItems];
+        Object[] unsortedItems = items;
+        forEach(numItems, parallel, i -> {
+            int index = (int) keys[i];
+            System.arraycopy(bounds, 4 * index, sortedBounds, 4 * i, 4);
+            sortedItems[i] = unsortedItems[index];
+        });
+        itemBounds = sortedBounds;
+        items = sortedItems;
+    }
+
+    /**
+     * Sort boxes along a Hilbert curve.
+     *
+     * @param bounds boxes, four values (minX, minY, maxX, maxY) per box
+     * @param count number of boxes
+     * @param parallel whether to compute the codes and sort on the common fork-join pool
+     * @return (code, index) pairs packed into longs, sorted, the index of the box is the lower 32 bits
+     */
+    static long[] sortByHilbertCode(double[] bounds, int count, boolean parallel)
+    {
+        // Hilbert codes are computed from the centers of the boxes, within the extent of all centers
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            int offset = 4 * i;
+            if (isNull(bounds, offset)) {
+                continue;
+            }
+            double x = (bounds[offset] + bounds[offset + 2]) / 2;
+            double y = (bounds[offset + 1] + bounds[offset + 3]) / 2;
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        int maxOrdinate = HilbertCode.maxOrdinate(HILBERT_LEVEL);
+        final double originX = minX;
+        final double originY = minY;
+        final double scaleX = maxX > minX ? maxOrdinate / (maxX - minX) : 0;
+        final double scaleY = maxY > minY ? maxOrdinate / (maxY - minY) : 0;
+
+        // Sort (code, index) pairs packed into longs, so that sorting does not allocate per box
+        long[] keys = new long[count];
+        forEach(count, parallel, i -> {
+            int offset = 4 * i;
+            long code = 0;
+            if (!isNull(bounds, offset)) {
+                double x = (bounds[offset] + bounds[offset + 2]) / 2;
+                double y = (bounds[offset + 1] + bounds[offset + 3]) / 2;
+                int hx = (int) ((x - originX) * scaleX);
+                int hy = (int) ((y - originY) * scaleY);
+                code = HilbertCode.encode(HILBERT_LEVEL, hx, hy) & 0xFFFFFFFFL;
+            }
+            keys[i] = (code << 32) | i;
+        });
+        if (parallel) {
+            Arrays.parallelSort(keys);
+        }
+        else {
+            Arrays.sort(keys);
+        }
+        return keys;
+    }
+
+    private void buildNodes(boolean parallel)
+    {
+        int[] offsets = computeLevelOffsets(numItems, nodeCapacity);
+        int numLevels = offsets.length - 1;
+        double[] bounds = new double[4 * offsets[numLevels]];
+        // Upper levels are at most 1 / nodeCapacity the size of the leaf level, they are not worth parallelizing
+        forEach(offsets[1], parallel, node ->
+                unionBounds(itemBounds, node * nodeCapacity, Math.min((node + 1) * nodeCapacity, numItems), bounds, node));
+        for (int level = 1; level < numLevels; level++) {
+            int childOffset = offsets[level - 1];
+            int childCount = offsets[level] - offsets[level - 1];
+            for (int node = 0; node < offsets[level + 1] - offsets[level]; node++) {
+                int childStart = childOffset + node * nodeCapacity;
+                int childEnd = childOffset + Math.min((node + 1) * nodeCapacity, childCount);
+                unionBounds(bounds, childStart, childEnd, bounds, offsets[level] + node);
+            }
+        }
+        nodeBounds = bounds;
+        levelOffsets = offsets;
+        built = true;
+    }
+
+    /**
+     * @return index of the first node of every level, starting from the level right above the
+     * items, followed by the total number of nodes
+     */
+    static int[] computeLevelOffsets(int numItems, int nodeCapacity)
+    {
+        // Number of nodes of each level, up to the single root node
+        List<Integer> levelSizes = new ArrayList<>();
+        int levelSize = numItems;
+        do {
+            levelSize = (levelSize + nodeCapacity - 1) / nodeCapacity;
+            levelSizes.add(levelSize);
+        }
+        while (levelSize > 1);
+
+        int[] offsets = new int[levelSizes.size() + 1];
+        for (int level = 0; level < levelSizes.size(); level++) {
+            offsets[level + 1] = offsets[level] + levelSizes.get(level);
+        }
+        return offsets;
+    }
+
+    private static void forEach(int count, boolean parallel, IntConsumer action)
+    {
+        IntStream range = IntStream.range(0, count);
+        (parallel ? range.parallel() : range).forEach(action);
+    }
+
+    private static void unionBounds(double[] childBounds, int start, int end, double[] bounds, int node)
+    {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = start; i < end; i++) {
+            int offset = 4 * i;
+            if (isNull(childBounds, offset)) {
+                continue;
+            }
+            minX = Math.min(minX, childBounds[offset]);
+            minY = Math.min(minY, childBounds[offset + 1]);
+            maxX = Math.max(maxX, childBounds[offset + 2]);
+            maxY = Math.max(maxY, childBounds[offset + 3]);
+        }
+        int offset = 4 * node;
+        bounds[offset] = minX;
+        bounds[offset + 1] = minY;
+        bounds[offset + 2] = maxX;
+        bounds[offset + 3] = maxY;
+    }
+
+    /**
+     * Store an envelope as four values. Null envelopes are stored as inverted infinite bounds, so
+     * that they never intersect anything.
+     */
+    static void setBounds(double[] bounds, int offset, Envelope envelope)
+    {
+        if (envelope.isNull()) {
+            bounds[offset] = Double.POSITIVE_INFINITY;
+            bounds[offset + 1] = Double.POSITIVE_INFINITY;
+            bounds[offset + 2] = Double.NEGATIVE_INFINITY;
+            bounds[offset + 3] = Double.NEGATIVE_INFINITY;
+        }
+        else {
+            bounds[offset] = envelope.getMinX();
+            bounds[offset + 1] = envelope.getMinY();
+            bounds[offset + 2] = envelope.getMaxX();
+            bounds[offset + 3] = envelope.getMaxY();
+        }
+    }
+
+    static boolean isNull(double[] bounds, int offset)
+    {
+        // Null envelopes and nodes without any non-null child have min > max
+        return bounds[offset] > bounds[offset + 2];
+    }
+}
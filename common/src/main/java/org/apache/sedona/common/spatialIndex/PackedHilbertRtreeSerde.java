@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.common.spatialIndex;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.apache.sedona.common.geometryObjects.Circle;
+import org.apache.sedona.common.geometrySerde.GeometrySerde;
+import org.apache.sedona.common.geometrySerde.GeometrySerializer;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Provides methods to efficiently serialize and deserialize {@link PackedHilbertRtree}. Trees are
+ * always built before being written.
+ * <p>
+ * When all items are geometries with user data that does not depend on Kryo class registrations,
+ * the tree is written as a single flat buffer that is queried as is after reading:
+ * <pre>
+ * [numNodes (4 bytes)][reserved (4 bytes)]
+ * [item bounds: numItems * (minX, minY, maxX, maxY) doubles]
+ * [node bounds: numNodes * (minX, minY, maxX, maxY) doubles]
+ * [geometry offsets: numItems + 1 ints][user data offsets: numItems + 1 ints][padding]
+ * [geometries: serialized geometries][user data]
+ * </pre>
+ * The bounds are bulk copied into the arrays of the tree, no object is created per item or node
+ * when reading, and each item is only decoded when a query hits it for the first time. Geometries
+ * are written in the encoding of the geometry serde.
+ * <p>
+ * Other trees are written as a batch of items in tree order, and the node bounds are recomputed
+ * when reading.
+ */
+public class PackedHilbertRtreeSerde
+{
+    static final ByteOrder BYTE_ORDER = ByteOrder.nativeOrder();
+
+    private static final int HEADER_SIZE = 8;
+
+    private final GeometrySerde geometrySerde;
+
+    public PackedHilbertRtreeSerde()
+    {
+        this(new GeometrySerde());
+    }
+
+    public PackedHilbertRtreeSerde(GeometrySerde geometrySerde)
+    {
+        this.geometrySerde = geometrySerde;
+    }
+
+    public void write(Kryo kryo, Output output, PackedHilbertRtree tree)
+    {
+        tree.build();
+        int numItems = tree.size();
+        output.writeInt(tree.getNodeCapacity());
+        output.writeInt(numItems);
+        if (numItems == 0) {
+            return;
+        }
+        List<Object> items = Arrays.asList(tree.getItems()).subList(0, numItems);
+        byte[] flat = isFlat(items) ? writeFlat(kryo, tree, items) : null;
+        output.writeBoolean(flat != null);
+        if (flat != null) {
+            output.writeInt(flat.length);
+            output.writeBytes(flat);
+        }
+        else {
+            double[] itemBounds = tree.getItemBounds();
+            List<Envelope> bounds = new ArrayList<>(numItems);
+            for (int i = 0; i < numItems; i++) {
+                int offset = 4 * i;
+                if (PackedHilbertRtree.isNull(itemBounds, offset)) {
+                    bounds.add(new Envelope());
+                }
+                else {
+                    bounds.add(new Envelope(itemBounds[offset], itemBounds[offset + 2], itemBounds[offset + 1], itemBounds[offset + 3]));
+                }
+            }
+            geometrySerde.writeBatch(kryo, output, items, bounds);
+        }
+    }
+
+    public PackedHilbertRtree read(Kryo kryo, Input input)
+    {
+        int nodeCapacity = input.readInt();
+        int numItems = input.readInt();
+        if (numItems == 0) {
+            return new PackedHilbertRtree(nodeCapacity, new double[0], new Object[0]);
+        }
+        if (input.readBoolean()) {
+            byte[] flat = input.readBytes(input.readInt());
+            return readFlat(nodeCapacity, numItems, flat);
+        }
+        List<Object> items = new ArrayList<>(numItems);
+        List<Envelope> bounds = new ArrayList<>(numItems);
+        geometrySerde.readBatch(kryo, input, items, bounds);
+        if (items.size() != numItems || bounds.size() != numItems) {
+            throw new IllegalStateException("Packed R-tree has " + numItems + " items but " + items.size() + " were serialized");
+        }
+        double[] itemBounds = new double[4 * numItems];
+        for (int i = 0; i < numItems; i++) {
+            PackedHilbertRtree.setBounds(itemBounds, 4 * i, bounds.get(i));
+        }
+        return new PackedHilbertRtree(nodeCapacity, itemBounds, items.toArray());
+    }
+
+    private boolean isFlat(List<Object> items)
+    {
+        for (Object item : items) {
+            if (!(item instanceof Geometry) || item instanceof Circle || !geometrySerde.hasPortableUserData((Geometry) item)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the flat buffer, or null if the tree is too large to be written as one buffer
+     */
+    private byte[] writeFlat(Kryo kryo, PackedHilbertRtree tree, List<Object> items)
+    {
+        int numItems = items.size();
+        double[] itemBounds = tree.getItemBounds();
+        double[] nodeBounds = tree.getNodeBounds();
+        int numNodes = nodeBounds.length / 4;
+
+        int[] geometrySizes = new int[numItems];
+        // Compact geometries cannot be encoded in place, their size is only known once encoded
+        byte[][] encoded = geometrySerde.isCompactEncoding() ? new byte[numItems][] : null;
+        long geometriesSize = 0;
+        Output userData = new Output(4096, -1);
+        int[] userDataOffsets = new int[numItems + 1];
+        for (int i = 0; i < numItems; i++) {
+            Geometry geometry = (Geometry) items.get(i);
+            if (encoded != null) {
+                encoded[i] = GeometrySerializer.serialize(geometry, true);
+                geometrySizes[i] = encoded[i].length;
+            }
+            else {
+                geometrySizes[i] = GeometrySerializer.getSerializedSize(geometry);
+            }
+            geometriesSize += geometrySizes[i];
+            userDataOffsets[i] = userData.position();
+            geometrySerde.writeUserData(kryo, userData, geometry);
+        }
+        userDataOffsets[numItems] = userData.position();
+
+        int itemBoundsStart = HEADER_SIZE;
+        int nodeBoundsStart = itemBoundsStart + 32 * numItems;
+        int geometryOffsetsStart = nodeBoundsStart + 32 * numNodes;
+        int userDataOffsetsStart = geometryOffsetsStart + 4 * (numItems + 1);
+        long geometriesStart = (userDataOffsetsStart + 4L * (numItems + 1) + 7) & ~7L;
+        long userDataStart = geometriesStart + geometriesSize;
+        long totalSize = userDataStart + userData.position();
+        if (totalSize > Integer.MAX_VALUE - 8) {
+            return null;
+        }
+
+        byte[] bytes = new byte[(int) totalSize];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(BYTE_ORDER);
+        buffer.putInt(0, numNodes);
+        buffer.position(itemBoundsStart);
+        buffer.asDoubleBuffer().put(itemBounds, 0, 4 * numItems);
+        buffer.position(nodeBoundsStart);
+        buffer.asDoubleBuffer().put(nodeBounds);
+        int offset = 0;
+        for (int i = 0; i < numItems; i++) {
+            buffer.putInt(geometryOffsetsStart + 4 * i, offset);
+            if (encoded != null) {
+                System.arraycopy(encoded[i], 0, bytes, (int) geometriesStart + offset, geometrySizes[i]);
+            }
+            else {
+                GeometrySerializer.serialize((Geometry) items.get(i), bytes, (int) geometriesStart + offset);
+            }
+            offset += geometrySizes[i];
+        }
+        buffer.putInt(geometryOffsetsStart + 4 * numItems, offset);
+        for (int i = 0; i <= numItems; i++) {
+            buffer.putInt(userDataOffsetsStart + 4 * i, userDataOffsets[i]);
+        }
+        System.arraycopy(userData.getBuffer(), 0, bytes, (int) userDataStart, userData.position());
+        return bytes;
+    }
+
+    private PackedHilbertRtree readFlat(int nodeCapacity, int numItems, byte[] bytes)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(BYTE_ORDER);
+        int numNodes = bytes.length >= HEADER_SIZE ? buffer.getInt(0) : -1;
+        int nodeBoundsStart = HEADER_SIZE + 32 * numItems;
+        int geometryOffsetsStart = nodeBoundsStart + 32 * numNodes;
+        int userDataOffsetsStart = geometryOffsetsStart + 4 * (numItems + 1);
+        int geometriesStart = (userDataOffsetsStart + 4 * (numItems + 1) + 7) & ~7;
+        if (numNodes < 0 || geometriesStart > bytes.length) {
+            throw new IllegalStateException("Serialized packed R-tree is corrupted");
+        }
+        int userDataStart = geometriesStart + buffer.getInt(geometryOffsetsStart + 4 * numItems);
+
+        double[] itemBounds = new double[4 * numItems];
+        buffer.position(HEADER_SIZE);
+        buffer.asDoubleBuffer().get(itemBounds);
+        double[] nodeBounds = new double[4 * numNodes];
+        buffer.position(nodeBoundsStart);
+        buffer.asDoubleBuffer().get(nodeBounds);
+        SerializedItems items = new SerializedItems(geometrySerde, bytes, numItems,
+                geometryOffsetsStart, userDataOffsetsStart, geometriesStart, userDataStart);
+        return new PackedHilbertRtree(nodeCapacity, itemBounds, nodeBounds, items);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.common.spatialIndex;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import org.apache.sedona.common.geometrySerde.GeometrySerde;
+import org.apache.sedona.common.geometrySerde.GeometrySerializer;
+import org.locationtech.jts.geom.Geometry;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Items of a {@link PackedHilbertRtree} that stay in their serialized form, see
+ * {@link PackedHilbertRtreeSerde}. An item is decoded the first time it is requested, and the
+ * decoded item is shared by all later requests. Items can be requested from several threads.
+ */
+final class SerializedItems
+{
+    // Only handed to the row serializer, which must not depend on class registrations
+    private static final ThreadLocal<Kryo> KRYO = ThreadLocal.withInitial(Kryo::new);
+
+    private final GeometrySerde geometrySerde;
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+    private final int numItems;
+    private final int geometryOffsetsStart;
+    private final int userDataOffsetsStart;
+    private final int geometriesStart;
+    private final int userDataStart;
+    private final AtomicReferenceArray<Object> decodedItems;
+
+    /**
+     * @param bytes flat index
+     * @param numItems number of items
+     * @param geometryOffsetsStart position of the numItems + 1 geometry offsets
+     * @param userDataOffsetsStart position of the numItems + 1 user data offsets
+     * @param geometriesStart position the geometry offsets are relative to
+     * @param userDataStart position the user data offsets are relative to
+     */
+    SerializedItems(GeometrySerde geometrySerde, byte[] bytes, int numItems, int geometryOffsetsStart,
+            int userDataOffsetsStart, int geometriesStart, int userDataStart)
+    {
+        this.geometrySerde = geometrySerde;
+        this.bytes = bytes;
+        this.buffer = ByteBuffer.wrap(bytes).order(PackedHilbertRtreeSerde.BYTE_ORDER);
+        this.numItems = numItems;
+        this.geometryOffsetsStart = geometryOffsetsStart;
+        this.userDataOffsetsStart = userDataOffsetsStart;
+        this.geometriesStart = geometriesStart;
+        this.userDataStart = userDataStart;
+        this.decodedItems = new AtomicReferenceArray<>(numItems);
+    }
+
+    int size()
+    {
+        return numItems;
+    }
+
+    Object get(int index)
+    {
+        Object item = decodedItems.get(index);
+        if (item == null) {
+            item = decode(index);
+            if (!decodedItems.compareAndSet(index, null, item)) {
+                item = decodedItems.get(index);
+            }
+        }
+        return item;
+    }
+
+    Object[] toArray()
+    {
+        Object[] items = new Object[numItems];
+        for (int i = 0; i < numItems; i++) {
+            items[i] = get(i);
+        }
+        return items;
+    }
+
+    private Object decode(int index)
+    {
+        int geometryStart = geometriesStart + buffer.getInt(geometryOffsetsStart + 4 * index);
+        Geometry geometry = GeometrySerializer.deserialize(buffer, geometryStart);
+        int start = userDataStart + buffer.getInt(userDataOffsetsStart + 4 * index);
+        int end = userDataStart + buffer.getInt(userDataOffsetsStart + 4 * index + 4);
+        if (start < userDataStart || end < start || end > bytes.length) {
+            throw new IllegalStateException("Serialized packed R-tree is corrupted");
+        }
+        geometry.setUserData(geometrySerde.readUserData(KRYO.get(), new Input(bytes, start, end - start)));
+        return geometry;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.common.spatialIndex;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.SpatialIndex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Queries a spatial index with a batch of envelopes at once.
+ * <p>
+ * Probing an index in arrival order touches its nodes in random order, which is slow once the index
+ * does not fit in the CPU caches. The envelopes of a batch are sorted along a Hilbert curve first, so
+ * that consecutive probes visit neighbouring nodes. A {@link PackedHilbertRtree} is walked once for
+ * the whole batch, other indexes are queried once per envelope in the sorted order.
+ */
+public final class SpatialIndexBatchProbe
+{
+    /**
+     * Default number of envelopes per batch, large enough to share most of the upper nodes of the
+     * tree and small enough to keep the batch in cache.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private SpatialIndexBatchProbe() {}
+
+    /**
+     * Query an index with a batch of envelopes.
+     *
+     * @param index index to query
+     * @param envelopes envelopes to query, null or empty envelopes have no candidates
+     * @return candidates of each envelope as returned by {@link SpatialIndex#query(Envelope)}, in the
+     * order of the envelopes
+     */
+    public static List<List<Object>> query(SpatialIndex index, List<Envelope> envelopes)
+    {
+        int numProbes = envelopes.size();
+        double[] bounds = new double[4 * numProbes];
+        for (int i = 0; i < numProbes; i++) {
+            Envelope envelope = envelopes.get(i);
+            PackedHilbertRtree.setBounds(bounds, 4 * i, envelope == null ? new Envelope() : envelope);
+        }
+        long[] keys = PackedHilbertRtree.sortByHilbertCode(bounds, numProbes, false);
+
+        List<List<Object>> results = new ArrayList<>(Collections.nCopies(numProbes, null));
+        if (index instanceof PackedHilbertRtree) {
+            int[] probes = new int[numProbes];
+            for (int k = 0; k < numProbes; k++) {
+                probes[k] = (int) keys[k];
+                results.set(k, new ArrayList<>());
+            }
+            ((PackedHilbertRtree) index).queryBatch(bounds, probes, results);
+        }
+        else {
+            for (long key : keys) {
+                int probe = (int) key;
+                Envelope envelope = envelopes.get(probe);
+                results.set(probe, envelope == null || envelope.isNull() ? Collections.emptyList() : query(index, envelope));
+            }
+        }
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> query(SpatialIndex index, Envelope envelope)
+    {
+        // SpatialIndex predates generics, its results are lists of the indexed items
+        return index.query(envelope);
+    }
+}
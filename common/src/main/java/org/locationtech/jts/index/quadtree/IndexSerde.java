@@ -39,16 +39,15 @@ public class IndexSerde
         geometrySerde = new GeometrySerde();
     }
 
+    public IndexSerde(GeometrySerde geometrySerde) {
+        this.geometrySerde = geometrySerde;
+    }
+
     public Object read(Kryo kryo, Input input){
         Quadtree index = new Quadtree();
         boolean notEmpty = (input.readByte() & 0x01) == 1;
         if (!notEmpty) { return index; }
-        int itemSize = input.readInt();
-        List items = new ArrayList();
-        for (int i = 0; i < itemSize; ++i) {
-            items.add(geometrySerde.read(kryo, input, Geometry.class));
-        }
-        index.getRoot().items = items;
+        index.getRoot().items = readItems(kryo, input);
         for (int i = 0; i < 4; ++i) {
             index.getRoot().subnode[i] = readQuadTreeNode(kryo, input);
         }
@@ -63,11 +62,7 @@ public class IndexSerde
         else {
             output.writeByte(1);
             // write root
-            List items = tree.getRoot().getItems();
-            output.writeInt(items.size());
-            for (Object item : items) {
-                geometrySerde.write(kryo, output, item);
-            }
+            writeItems(kryo, output, tree.getRoot().getItems());
             Node[] subNodes = tree.getRoot().subnode;
             for (int i = 0; i < 4; ++i) {
                 writeQuadTreeNode(kryo, output, subNodes[i]);
@@ -86,11 +81,7 @@ public class IndexSerde
             // write node information, envelope and level
             geometrySerde.write(kryo, output, node.getEnvelope());
             output.writeInt(node.getLevel());
-            List items = node.getItems();
-            output.writeInt(items.size());
-            for (Object obj : items) {
-                geometrySerde.write(kryo, output, obj);
-            }
+            writeItems(kryo, output, node.getItems());
             Node[] subNodes = node.subnode;
             for (int i = 0; i < 4; ++i) {
                 writeQuadTreeNode(kryo, output, subNodes[i]);
@@ -105,16 +96,31 @@ public class IndexSerde
         Envelope envelope = (Envelope) geometrySerde.read(kryo, input, Envelope.class);
         int level = input.readInt();
         Node node = new Node(envelope, level);
-        int itemSize = input.readInt();
-        List items = new ArrayList();
-        for (int i = 0; i < itemSize; ++i) {
-            items.add(geometrySerde.read(kryo, input, Geometry.class));
-        }
-        node.items = items;
+        node.items = readItems(kryo, input);
         // read children
         for (int i = 0; i < 4; ++i) {
             node.subnode[i] = readQuadTreeNode(kryo, input);
         }
         return node;
     }
+
+    private void writeItems(Kryo kryo, Output output, List items)
+    {
+        // Items are written one by one rather than as a batch, the quadtree does not keep item
+        // envelopes for a batch to store
+        output.writeInt(items.size());
+        for (Object item : items) {
+            geometrySerde.write(kryo, output, item);
+        }
+    }
+
+    private List readItems(Kryo kryo, Input input)
+    {
+        int itemSize = input.readInt();
+        List items = new ArrayList();
+        for (int i = 0; i < itemSize; ++i) {
+            items.add(geometrySerde.read(kryo, input, Geometry.class));
+        }
+        return items;
+    }
 }
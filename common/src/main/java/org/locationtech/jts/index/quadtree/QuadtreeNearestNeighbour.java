@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.locationtech.jts.index.quadtree;
+
+import org.apache.sedona.common.spatialIndex.NearestNeighbours;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.ItemBoundable;
+import org.locationtech.jts.index.strtree.ItemDistance;
+
+import java.util.PriorityQueue;
+
+/**
+ * Best-first k nearest neighbour search on a {@link Quadtree}, which JTS only provides for
+ * {@link org.locationtech.jts.index.strtree.STRtree}.
+ * <p>
+ * Every item of a quadtree node lies within the envelope of the node, so nodes are visited in
+ * increasing distance between their envelope and the envelope of the query item. The items of the
+ * root are not bounded and are always visited.
+ */
+public class QuadtreeNearestNeighbour
+{
+    private QuadtreeNearestNeighbour() {}
+
+    /**
+     * Find the k items nearest to the given item, with the same contract as
+     * {@link org.locationtech.jts.index.strtree.STRtree#nearestNeighbour(Envelope, Object, ItemDistance, int)}.
+     * Quadtree nodes do not keep the envelopes of their items, the item boundables passed to the item
+     * distance carry the envelope of geometry items and the envelope of the enclosing node otherwise.
+     *
+     * @param tree tree to search
+     * @param env envelope of the query item
+     * @param item query item
+     * @param itemDist distance between the query item and the items of the tree, must never be smaller
+     *                 than the distance between the envelope of the query and the envelope of the item
+     * @param k number of items to find
+     * @return the k nearest items, nearest first, or fewer if the tree holds fewer items
+     */
+    public static Object[] nearestNeighbour(Quadtree tree, Envelope env, Object item, ItemDistance itemDist, int k)
+    {
+        NearestNeighbours neighbours = new NearestNeighbours(k);
+        if (env.isNull()) {
+            return neighbours.toArray();
+        }
+        ItemBoundable query = new ItemBoundable(env, item);
+        Root root = tree.getRoot();
+        visitItems(root, null, query, itemDist, neighbours);
+
+        PriorityQueue<NodeDistance> queue = new PriorityQueue<>();
+        addSubnodes(root, env, queue);
+        while (!queue.isEmpty()) {
+            NodeDistance next = queue.poll();
+            if (next.distance >= neighbours.getMaxDistance()) {
+                break;
+            }
+            visitItems(next.node, next.node.getEnvelope(), query, itemDist, neighbours);
+            addSubnodes(next.node, env, queue);
+        }
+        return neighbours.toArray();
+    }
+
+    private static void visitItems(NodeBase node, Envelope nodeEnv, ItemBoundable query, ItemDistance itemDist, NearestNeighbours neighbours)
+    {
+        for (Object candidate : node.items) {
+            Envelope candidateEnv = candidate instanceof Geometry ? ((Geometry) candidate).getEnvelopeInternal() : nodeEnv;
+            neighbours.offer(candidate, itemDist.distance(new ItemBoundable(candidateEnv, candidate), query));
+        }
+    }
+
+    private static void addSubnodes(NodeBase node, Envelope env, PriorityQueue<NodeDistance> queue)
+    {
+        for (Node subnode : node.subnode) {
+            if (subnode != null) {
+                queue.add(new NodeDistance(subnode, subnode.getEnvelope().distance(env)));
+            }
+        }
+    }
+
+    private static final class NodeDistance
+            implements Comparable<NodeDistance>
+    {
+        final Node node;
+        final double distance;
+
+        NodeDistance(Node node, double distance)
+        {
+            this.node = node;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(NodeDistance other)
+        {
+            return Double.compare(distance, other.distance);
+        }
+    }
+}
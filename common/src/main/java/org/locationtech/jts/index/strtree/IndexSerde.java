@@ -23,9 +23,9 @@ import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import org.apache.sedona.common.geometrySerde.GeometrySerde;
 import org.locationtech.jts.geom.Envelope;
-import org.locationtech.jts.geom.Geometry;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -39,24 +39,32 @@ public class IndexSerde
         geometrySerde = new GeometrySerde();
     }
 
+    public IndexSerde(GeometrySerde geometrySerde) {
+        this.geometrySerde = geometrySerde;
+    }
+
     public Object read(Kryo kryo, Input input){
         int nodeCapacity = input.readInt();
         boolean notEmpty = (input.readByte() & 0x01) == 1;
         if (notEmpty) {
             boolean built = (input.readByte() & 0x01) == 1;
+            // items of all leaves are stored together as one batch, ahead of the tree structure
+            List<Object> items = new ArrayList<>();
+            List<Envelope> bounds = new ArrayList<>();
+            geometrySerde.readBatch(kryo, input, items, bounds);
+            Iterator<ItemBoundable> itemBoundables = new ItemBoundableIterator(items, bounds);
             if (built) {
                 // if built, root is not null, set itemBoundables to null
-                STRtree index = new STRtree(nodeCapacity, readSTRtreeNode(kryo, input));
+                STRtree index = new STRtree(nodeCapacity, readSTRtreeNode(kryo, input, itemBoundables));
                 return index;
             }
             else {
                 // if not built, just read itemBoundables
-                ArrayList itemBoundables = new ArrayList();
-                int itemSize = input.readInt();
-                for (int i = 0; i < itemSize; ++i) {
-                    itemBoundables.add(readItemBoundable(kryo, input));
+                ArrayList itemBoundableList = new ArrayList();
+                while (itemBoundables.hasNext()) {
+                    itemBoundableList.add(itemBoundables.next());
                 }
-                STRtree index = new STRtree(nodeCapacity, itemBoundables);
+                STRtree index = new STRtree(nodeCapacity, itemBoundableList);
                 return index;
             }
         }
@@ -73,19 +81,20 @@ public class IndexSerde
             // write head
             boolean isBuilt = tree.getItemBoundables() == null;
             output.writeByte(isBuilt ? 1 : 0);
+            List<Object> items = new ArrayList<>();
+            List<Envelope> bounds = new ArrayList<>();
             if (!isBuilt) {
                 // if not built, itemBoundables will not be null, record it
-                ArrayList itemBoundables = tree.getItemBoundables();
-                output.writeInt(itemBoundables.size());
-                for (Object obj : itemBoundables) {
+                for (Object obj : tree.getItemBoundables()) {
                     if (!(obj instanceof ItemBoundable)) { throw new UnsupportedOperationException(" itemBoundables should only contain ItemBoundable objects "); }
-                    ItemBoundable itemBoundable = (ItemBoundable) obj;
-                    // write envelope
-                    writeItemBoundable(kryo, output, itemBoundable);
+                    collectItemBoundable((ItemBoundable) obj, items, bounds);
                 }
+                geometrySerde.writeBatch(kryo, output, items, bounds);
             }
             else {
-                // if built, write from root
+                // if built, write items of all leaves first, then the tree from root
+                collectItemBoundables(tree.getRoot(), items, bounds);
+                geometrySerde.writeBatch(kryo, output, items, bounds);
                 writeSTRTreeNode(kryo, output, tree.getRoot());
             }
         }
@@ -110,12 +119,8 @@ public class IndexSerde
                 }
             }
             else if (children.get(0) instanceof ItemBoundable) {
-                // write type as 1, leaf node
+                // write type as 1, leaf node. Items of leaf nodes were already written as a batch
                 output.writeByte(1);
-                // for leaf node, write items
-                for (Object obj : children) {
-                    writeItemBoundable(kryo, output, (ItemBoundable) obj);
-                }
             }
             else {
                 throw new UnsupportedOperationException("wrong node type of STRtree");
@@ -123,7 +128,7 @@ public class IndexSerde
         }
     }
 
-    private STRtree.STRtreeNode readSTRtreeNode(Kryo kryo, Input input)
+    private STRtree.STRtreeNode readSTRtreeNode(Kryo kryo, Input input, Iterator<ItemBoundable> itemBoundables)
     {
         int level = input.readInt();
         STRtree.STRtreeNode node = new STRtree.STRtreeNode(level);
@@ -132,29 +137,68 @@ public class IndexSerde
         ArrayList children = new ArrayList();
         if (isLeaf) {
             for (int i = 0; i < childrenSize; ++i) {
-                children.add(readItemBoundable(kryo, input));
+                children.add(itemBoundables.next());
             }
         }
         else {
             for (int i = 0; i < childrenSize; ++i) {
-                children.add(readSTRtreeNode(kryo, input));
+                children.add(readSTRtreeNode(kryo, input, itemBoundables));
             }
         }
         node.setChildBoundables(children);
         return node;
     }
 
-    private void writeItemBoundable(Kryo kryo, Output output, ItemBoundable itemBoundable)
+    private void collectItemBoundables(AbstractNode node, List<Object> items, List<Envelope> bounds)
+    {
+        // visit leaves in the same order as writeSTRTreeNode and readSTRtreeNode do
+        for (Object obj : node.getChildBoundables()) {
+            if (obj instanceof AbstractNode) {
+                collectItemBoundables((AbstractNode) obj, items, bounds);
+            }
+            else if (obj instanceof ItemBoundable) {
+                collectItemBoundable((ItemBoundable) obj, items, bounds);
+            }
+            else {
+                throw new UnsupportedOperationException("wrong node type of STRtree");
+            }
+        }
+    }
+
+    private void collectItemBoundable(ItemBoundable itemBoundable, List<Object> items, List<Envelope> bounds)
     {
-        geometrySerde.write(kryo, output, itemBoundable.getBounds());
-        geometrySerde.write(kryo, output, itemBoundable.getItem());
+        items.add(itemBoundable.getItem());
+        bounds.add((Envelope) itemBoundable.getBounds());
     }
 
-    private ItemBoundable readItemBoundable(Kryo kryo, Input input)
+    private static class ItemBoundableIterator
+            implements Iterator<ItemBoundable>
     {
-        return new ItemBoundable(
-                geometrySerde.read(kryo, input, Envelope.class),
-                geometrySerde.read(kryo, input, Geometry.class)
-        );
+        private final List<Object> items;
+        private final List<Envelope> bounds;
+        private int index = 0;
+
+        ItemBoundableIterator(List<Object> items, List<Envelope> bounds)
+        {
+            this.items = items;
+            this.bounds = bounds;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return index < items.size();
+        }
+
+        @Override
+        public ItemBoundable next()
+        {
+            if (!hasNext()) {
+                throw new IllegalStateException("STRtree structure refers to more items than were serialized");
+            }
+            ItemBoundable itemBoundable = new ItemBoundable(bounds.get(index), items.get(index));
+            index++;
+            return itemBoundable;
+        }
     }
 }
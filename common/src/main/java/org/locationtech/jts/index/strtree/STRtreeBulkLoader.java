@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.locationtech.jts.index.strtree;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Builds an {@link STRtree} from a list of geometries using the same Sort-Tile-Recursive algorithm as
+ * {@link STRtree#build()}, but sorting and tiling each level on the common fork-join pool.
+ * The resulting tree has exactly the same structure as a tree built by inserting the geometries one by
+ * one and then calling {@link STRtree#build()}.
+ */
+public class STRtreeBulkLoader
+{
+    private static final Comparator<Boundable> X_COMPARATOR =
+            (b1, b2) -> AbstractSTRtree.compareDoubles(centreX(b1), centreX(b2));
+
+    private static final Comparator<Boundable> Y_COMPARATOR =
+            (b1, b2) -> AbstractSTRtree.compareDoubles(centreY(b1), centreY(b2));
+
+    private STRtreeBulkLoader() {}
+
+    /**
+     * Build a tree holding the given geometries, indexed by their envelopes.
+     *
+     * @param geometries geometries to index, geometries with empty envelopes are skipped like {@link STRtree#insert} does
+     * @param nodeCapacity maximum number of children of each node
+     * @return a built tree
+     */
+    public static STRtree load(List<? extends Geometry> geometries, int nodeCapacity)
+    {
+        if (nodeCapacity <= 1) {
+            throw new IllegalArgumentException("Node capacity must be greater than 1");
+        }
+        List<Boundable> itemBoundables = new ArrayList<>(geometries.size());
+        for (Geometry geometry : geometries) {
+            Envelope envelope = geometry.getEnvelopeInternal();
+            if (!envelope.isNull()) {
+                itemBoundables.add(new ItemBoundable(envelope, geometry));
+            }
+        }
+        if (itemBoundables.isEmpty()) {
+            return new STRtree(nodeCapacity);
+        }
+        Boundable[] level = itemBoundables.toArray(new Boundable[0]);
+        int newLevel = 0;
+        do {
+            level = createParentBoundables(level, newLevel++, nodeCapacity);
+        } while (level.length > 1);
+        return new STRtree(nodeCapacity, (STRtree.STRtreeNode) level[0]);
+    }
+
+    private static Boundable[] createParentBoundables(Boundable[] childBoundables, int newLevel, int nodeCapacity)
+    {
+        int minLeafCount = (int) Math.ceil(childBoundables.length / (double) nodeCapacity);
+        Boundable[] sortedChildBoundables = childBoundables.clone();
+        // Both sorts are stable, like the Collections.sort used by STRtree
+        Arrays.parallelSort(sortedChildBoundables, X_COMPARATOR);
+        int sliceCount = (int) Math.ceil(Math.sqrt(minLeafCount));
+        int sliceCapacity = (int) Math.ceil(sortedChildBoundables.length / (double) sliceCount);
+
+        // Collecting an ordered stream keeps the slices in order
+        List<List<Boundable>> slices = IntStream.range(0, sliceCount).parallel()
+                .mapToObj(slice -> {
+                    int start = Math.min(slice * sliceCapacity, sortedChildBoundables.length);
+                    int end = Math.min(start + sliceCapacity, sortedChildBoundables.length);
+                    return createParentBoundablesFromVerticalSlice(sortedChildBoundables, start, end, newLevel, nodeCapacity);
+                })
+                .collect(Collectors.toList());
+
+        List<Boundable> parentBoundables = new ArrayList<>(minLeafCount);
+        for (List<Boundable> slice : slices) {
+            parentBoundables.addAll(slice);
+        }
+        return parentBoundables.toArray(new Boundable[0]);
+    }
+
+    private static List<Boundable> createParentBoundablesFromVerticalSlice(
+            Boundable[] sortedChildBoundables, int start, int end, int newLevel, int nodeCapacity)
+    {
+        List<Boundable> parentBoundables = new ArrayList<>();
+        if (start == end) {
+            return parentBoundables;
+        }
+        Boundable[] slice = Arrays.copyOfRange(sortedChildBoundables, start, end);
+        Arrays.sort(slice, Y_COMPARATOR);
+        for (int i = 0; i < slice.length; i += nodeCapacity) {
+            STRtree.STRtreeNode node = new STRtree.STRtreeNode(newLevel);
+            for (int k = i; k < Math.min(i + nodeCapacity, slice.length); k++) {
+                node.addChildBoundable(slice[k]);
+            }
+            // Compute the cached bounds in this task rather than when building the next level
+            node.getBounds();
+            parentBoundables.add(node);
+        }
+        return parentBoundables;
+    }
+
+    private static double centreX(Boundable boundable)
+    {
+        Envelope envelope = (Envelope) boundable.getBounds();
+        return (envelope.getMinX() + envelope.getMaxX()) / 2d;
+    }
+
+    private static double centreY(Boundable boundable)
+    {
+        Envelope envelope = (Envelope) boundable.getBounds();
+        return (envelope.getMinY() + envelope.getMaxY()) / 2d;
+    }
+}
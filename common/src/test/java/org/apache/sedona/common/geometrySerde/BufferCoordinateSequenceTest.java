@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sedona.common.geometrySerde;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BufferCoordinateSequenceTest {
+    private static final WKTReader reader = new WKTReader();
+
+    @Before
+    public void setUp() {
+        GeometrySerializer.toggleLazyCoordinateSequence(true);
+    }
+
+    @After
+    public void tearDown() {
+        GeometrySerializer.toggleLazyCoordinateSequence(false);
+    }
+
+    @Test
+    public void testRoundTrip() throws ParseException {
+        String[] wkts = new String[]{
+                "LINESTRING (1 2, 3 4, 5 6)",
+                "LINESTRING Z (1 2 3, 4 5 6)",
+                "LINESTRING M (1 2 3, 4 5 6)",
+                "LINESTRING ZM (1 2 3 4, 5 6 7 8)",
+                "MULTILINESTRING ((1 2, 3 4), (5 6, 7 8))",
+                "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (1 1, 2 1, 2 2, 1 1))",
+                "MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)), ((5 5, 6 5, 6 6, 5 5)))",
+                "GEOMETRYCOLLECTION (POINT (1 2), LINESTRING (1 2, 3 4), POLYGON ((0 0, 1 0, 1 1, 0 0)))"
+        };
+        for (String wkt : wkts) {
+            Geometry geometry = reader.read(wkt);
+            Geometry deserialized = GeometrySerializer.deserialize(GeometrySerializer.serialize(geometry));
+            assertTrue(wkt, geometry.equalsExact(deserialized));
+            assertArrayEquals(wkt, geometry.getCoordinates(), deserialized.getCoordinates());
+            assertEquals(wkt, geometry.getEnvelopeInternal(), deserialized.getEnvelopeInternal());
+            assertEquals(wkt, geometry.getArea(), deserialized.getArea(), 1e-9);
+            assertEquals(wkt, geometry.getLength(), deserialized.getLength(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testOrdinates() throws ParseException {
+        LineString lineString = (LineString) reader.read("LINESTRING ZM (1 2 3 4, 5 6 7 8)");
+        LineString deserialized = (LineString) GeometrySerializer.deserialize(GeometrySerializer.serialize(lineString));
+        CoordinateSequence seq = deserialized.getCoordinateSequence();
+        assertTrue(seq instanceof BufferCoordinateSequence);
+        assertEquals(4, seq.getDimension());
+        assertEquals(1, seq.getMeasures());
+        assertEquals(5, seq.getX(1), 0);
+        assertEquals(6, seq.getY(1), 0);
+        assertEquals(7, seq.getZ(1), 0);
+        assertEquals(8, seq.getM(1), 0);
+        Coordinate coordinate = seq.createCoordinate();
+        seq.getCoordinate(0, coordinate);
+        assertEquals(3, coordinate.getZ(), 0);
+        assertEquals(4, coordinate.getM(), 0);
+        assertEquals(new Envelope(1, 5, 2, 6), seq.expandEnvelope(new Envelope()));
+    }
+
+    @Test
+    public void testCopyOnWrite() throws ParseException {
+        Polygon polygon = (Polygon) reader.read("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))");
+        byte[] bytes = GeometrySerializer.serialize(polygon);
+        byte[] originalBytes = Arrays.copyOf(bytes, bytes.length);
+        Polygon deserialized = (Polygon) GeometrySerializer.deserialize(bytes);
+        CoordinateSequence copy = deserialized.getExteriorRing().getCoordinateSequence().copy();
+        deserialized.normalize();
+        deserialized.getExteriorRing().getCoordinateSequence().setOrdinate(0, 0, 100);
+        assertEquals(100, deserialized.getExteriorRing().getCoordinateSequence().getX(0), 0);
+        assertEquals(0, copy.getX(0), 0);
+        assertArrayEquals(originalBytes, bytes);
+    }
+
+    @Test
+    public void testJavaSerialization() throws ParseException, IOException, ClassNotFoundException {
+        Geometry geometry = reader.read("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (1 1, 2 1, 2 2, 1 1))");
+        Geometry deserialized = GeometrySerializer.deserialize(GeometrySerializer.serialize(geometry));
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(deserialized);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            Geometry restored = (Geometry) ois.readObject();
+            assertTrue(geometry.equalsExact(restored));
+        }
+    }
+}
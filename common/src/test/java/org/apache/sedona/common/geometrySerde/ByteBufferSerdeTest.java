@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sedona.common.geometrySerde;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class ByteBufferSerdeTest {
+    private static final WKTReader reader = new WKTReader();
+
+    private static final String[] WKTS = new String[]{
+            "POINT (1 2)",
+            "POINT EMPTY",
+            "LINESTRING Z (1 2 3, 4 5 6)",
+            "MULTIPOINT ((1 2), EMPTY)",
+            "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (1 1, 2 1, 2 2, 1 1))",
+            "MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)), EMPTY)",
+            "GEOMETRYCOLLECTION (POINT (1 2), LINESTRING (1 2, 4 5))"
+    };
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testDirectByteBuffer() throws ParseException {
+        for (String wkt : WKTS) {
+            Geometry geometry = reader.read(wkt);
+            byte[] bytes = GeometrySerializer.serialize(geometry);
+            ByteBuffer byteBuffer = ByteBuffer.allocateDirect(bytes.length + 5);
+            // Unaligned offset, as geometries in shuffle blocks are not aligned
+            byteBuffer.position(5);
+            byteBuffer.put(bytes);
+            byteBuffer.position(2);
+            assertDeserialize(geometry, byteBuffer, 5);
+            Assert.assertEquals(2, byteBuffer.position());
+            Assert.assertEquals(ByteOrder.BIG_ENDIAN, byteBuffer.order());
+        }
+    }
+
+    @Test
+    public void testHeapByteBuffer() throws ParseException {
+        for (String wkt : WKTS) {
+            Geometry geometry = reader.read(wkt);
+            byte[] bytes = GeometrySerializer.serialize(geometry);
+            byte[] array = new byte[bytes.length + 3];
+            System.arraycopy(bytes, 0, array, 3, bytes.length);
+            assertDeserialize(geometry, ByteBuffer.wrap(array), 3);
+            assertDeserialize(geometry, ByteBuffer.wrap(array).asReadOnlyBuffer(), 3);
+        }
+    }
+
+    @Test
+    public void testMappedByteBuffer() throws ParseException, IOException {
+        File file = temporaryFolder.newFile("geometries.bin");
+        int[] offsets = new int[WKTS.length];
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            for (int k = 0; k < WKTS.length; k++) {
+                offsets[k] = (int) randomAccessFile.getFilePointer();
+                randomAccessFile.write(GeometrySerializer.serialize(reader.read(WKTS[k])));
+            }
+        }
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            FileChannel channel = randomAccessFile.getChannel();
+            MappedByteBuffer byteBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            for (int k = 0; k < WKTS.length; k++) {
+                assertDeserialize(reader.read(WKTS[k]), byteBuffer, offsets[k]);
+            }
+        }
+    }
+
+    @Test
+    public void testLazyCoordinateSequenceOnDirectByteBuffer() throws ParseException {
+        Geometry geometry = reader.read(WKTS[4]);
+        byte[] bytes = GeometrySerializer.serialize(geometry);
+        ByteBuffer byteBuffer = ByteBuffer.allocateDirect(bytes.length);
+        byteBuffer.put(bytes);
+        GeometrySerializer.toggleLazyCoordinateSequence(true);
+        try {
+            assertDeserialize(geometry, byteBuffer, 0);
+        } finally {
+            GeometrySerializer.toggleLazyCoordinateSequence(false);
+        }
+    }
+
+    private static void assertDeserialize(Geometry expected, ByteBuffer byteBuffer, int offset) {
+        Geometry actual = GeometrySerializer.deserialize(byteBuffer, offset);
+        Assert.assertEquals(expected.toText(), actual.toText());
+        Assert.assertEquals(expected.getEnvelopeInternal(), GeometrySerializer.getEnvelope(byteBuffer, offset));
+    }
+}
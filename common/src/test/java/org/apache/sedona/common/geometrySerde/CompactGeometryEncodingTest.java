@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sedona.common.geometrySerde;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+import java.util.Arrays;
+
+public class CompactGeometryEncodingTest {
+    private static final WKTReader reader = new WKTReader();
+    private static final GeometryFactory factory = new GeometryFactory();
+
+    private static final String[] WKTS = new String[]{
+            "POINT EMPTY",
+            "POINT (1.5 2.25)",
+            "POINT ZM (1 2 3 4)",
+            "MULTIPOINT ((1 2), (3 4), (5 6))",
+            "MULTIPOINT ((1 2), EMPTY)",
+            "LINESTRING (-122.4194155 37.7749295, -122.4194 37.775, -122.41933 37.77501, -122.4192 37.7751)",
+            "LINESTRING Z (1 2 3, 4 5 6, 7 8 9)",
+            "MULTILINESTRING ((1 2, 3 4, 5 6), (7 8, 9 10, 11 12), EMPTY)",
+            "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (1 1, 2 1, 2 2, 1 1))",
+            "MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)), EMPTY, ((0 0, 10 0, 10 10, 0 10, 0 0), (1 1, 2 1, 2 2, 1 1)))",
+            "GEOMETRYCOLLECTION (POINT (1 2), LINESTRING Z (1 2 3, 4 5 6, 7 8 9), "
+                    + "GEOMETRYCOLLECTION (POINT EMPTY, LINESTRING (0.1 0.2, 0.3 0.4, 0.5 0.6)))"
+    };
+
+    @Before
+    public void setUp() {
+        GeometrySerializer.toggleCompactEncoding(true);
+    }
+
+    @After
+    public void tearDown() {
+        GeometrySerializer.toggleCompactEncoding(false);
+    }
+
+    @Test
+    public void testRoundTrip() throws ParseException {
+        for (String wkt : WKTS) {
+            Geometry geometry = reader.read(wkt);
+            geometry.setSRID(4326);
+            byte[] bytes = GeometrySerializer.serialize(geometry);
+            Assert.assertTrue(wkt, bytes.length <= GeometrySerializer.getSerializedSize(geometry));
+            Geometry deserialized = GeometrySerializer.deserialize(bytes);
+            Assert.assertEquals(wkt, geometry.toText(), deserialized.toText());
+            Assert.assertEquals(wkt, 4326, deserialized.getSRID());
+            Assert.assertEquals(wkt, geometry.getEnvelopeInternal(), GeometrySerializer.getEnvelope(bytes));
+        }
+    }
+
+    @Test
+    public void testDenseLineStringIsSmaller() {
+        Coordinate[] coordinates = new Coordinate[1000];
+        for (int k = 0; k < coordinates.length; k++) {
+            // Ordinates with 7 decimal digits, as they would be parsed from text
+            coordinates[k] = new Coordinate((134050000 + k * 170) / 1e7, (525200000 - k * 110) / 1e7);
+        }
+        LineString lineString = factory.createLineString(coordinates);
+        byte[] bytes = GeometrySerializer.serialize(lineString);
+        Assert.assertTrue(CompactGeometryEncoding.isCompact(GeometryBufferFactory.wrap(bytes)));
+        Assert.assertTrue(bytes.length * 3 < GeometrySerializer.getSerializedSize(lineString));
+        Assert.assertTrue(lineString.equalsExact(GeometrySerializer.deserialize(bytes)));
+    }
+
+    @Test
+    public void testLosslessFallback() throws ParseException {
+        Geometry geometry = reader.read("LINESTRING (0 0, 1 1, 2 2)");
+        geometry.getCoordinates()[1].x = Math.PI;
+        geometry.getCoordinates()[2].y = -0.0;
+        geometry.geometryChanged();
+        byte[] bytes = GeometrySerializer.serialize(geometry);
+        Assert.assertFalse(CompactGeometryEncoding.isCompact(GeometryBufferFactory.wrap(bytes)));
+        Assert.assertEquals(GeometrySerializer.getSerializedSize(geometry), bytes.length);
+        Geometry deserialized = GeometrySerializer.deserialize(bytes);
+        Assert.assertTrue(geometry.equalsExact(deserialized));
+        Assert.assertEquals(Double.doubleToRawLongBits(-0.0),
+                Double.doubleToRawLongBits(deserialized.getCoordinates()[2].y));
+    }
+
+    @Test
+    public void testDecodeWithoutCompactEncodingEnabled() throws ParseException {
+        Geometry geometry = reader.read(WKTS[WKTS.length - 1]);
+        byte[] bytes = GeometrySerializer.serialize(geometry);
+        GeometrySerializer.toggleCompactEncoding(false);
+        Assert.assertEquals(geometry.toText(), GeometrySerializer.deserialize(bytes).toText());
+    }
+
+    @Test
+    public void testGeometrySerdeEncoding() {
+        Coordinate[] coordinates = new Coordinate[100];
+        for (int k = 0; k < coordinates.length; k++) {
+            coordinates[k] = new Coordinate(k / 10.0, -k / 10.0);
+        }
+        LineString lineString = factory.createLineString(coordinates);
+        int standardSize = GeometrySerializer.getSerializedSize(lineString);
+
+        // The serde uses its own setting, not the one of GeometrySerializer.serialize(Geometry)
+        byte[] standard = writeWithKryo(new GeometrySerde(), lineString);
+        Assert.assertTrue(standard.length > standardSize);
+        GeometrySerializer.toggleCompactEncoding(false);
+        byte[] compact = writeWithKryo(new GeometrySerde(null, null, true), lineString);
+        Assert.assertTrue(compact.length * 3 < standardSize);
+
+        Kryo kryo = new Kryo();
+        kryo.register(LineString.class, new GeometrySerde());
+        Assert.assertTrue(lineString.equalsExact((Geometry) kryo.readClassAndObject(new Input(compact))));
+    }
+
+    private static byte[] writeWithKryo(GeometrySerde serde, Geometry geometry) {
+        Kryo kryo = new Kryo();
+        kryo.register(LineString.class, serde);
+        Output output = new Output(4096, -1);
+        kryo.writeClassAndObject(output, geometry);
+        return output.toBytes();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeTruncated() throws ParseException {
+        Geometry geometry = reader.read(WKTS[5]);
+        byte[] bytes = GeometrySerializer.serialize(geometry);
+        GeometrySerializer.deserialize(Arrays.copyOf(bytes, bytes.length - 3));
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sedona.common.geometrySerde;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.apache.sedona.common.geometryObjects.Circle;
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class GeometryBatchSerializerTest {
+    private static final WKTReader reader = new WKTReader();
+
+    private static List<Geometry> readGeometries() throws ParseException {
+        List<Geometry> geometries = new ArrayList<>();
+        for (String wkt : new String[]{
+                "POINT (1 2)",
+                "POINT EMPTY",
+                "LINESTRING Z (1 2 3, 4 5 6)",
+                "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (1 1, 2 1, 2 2, 1 1))",
+                "MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)), EMPTY)",
+                "GEOMETRYCOLLECTION (POINT (1 2), LINESTRING (1 2, 4 5))"}) {
+            Geometry geometry = reader.read(wkt);
+            geometry.setSRID(4326);
+            geometries.add(geometry);
+        }
+        return geometries;
+    }
+
+    @Test
+    public void testRoundTrip() throws ParseException {
+        List<Geometry> geometries = readGeometries();
+        byte[] batch = GeometryBatchSerializer.serialize(geometries);
+        Assert.assertEquals(geometries.size(), GeometryBatchSerializer.getNumGeometries(batch));
+
+        List<Envelope> envelopes = new ArrayList<>();
+        List<Geometry> deserialized = GeometryBatchSerializer.deserialize(batch, envelopes);
+        Assert.assertEquals(geometries.size(), deserialized.size());
+        for (int k = 0; k < geometries.size(); k++) {
+            Geometry geometry = geometries.get(k);
+            Assert.assertEquals(geometry.toText(), deserialized.get(k).toText());
+            Assert.assertEquals(4326, deserialized.get(k).getSRID());
+            Assert.assertEquals(geometry.getEnvelopeInternal(), envelopes.get(k));
+            Assert.assertEquals(geometry.getEnvelopeInternal(), GeometryBatchSerializer.getEnvelope(batch, k));
+            Assert.assertEquals(geometry.toText(), GeometryBatchSerializer.deserialize(batch, k).toText());
+        }
+    }
+
+    @Test
+    public void testCompactRoundTrip() throws ParseException {
+        List<Geometry> geometries = readGeometries();
+        byte[] batch = GeometryBatchSerializer.serialize(geometries, null, true);
+        Assert.assertTrue(batch.length < GeometryBatchSerializer.serialize(geometries).length);
+        List<Geometry> deserialized = GeometryBatchSerializer.deserialize(batch);
+        for (int k = 0; k < geometries.size(); k++) {
+            Assert.assertEquals(geometries.get(k).toText(), deserialized.get(k).toText());
+            Assert.assertEquals(geometries.get(k).getEnvelopeInternal(), GeometryBatchSerializer.getEnvelope(batch, k));
+        }
+    }
+
+    @Test
+    public void testCustomEnvelopes() throws ParseException {
+        List<Geometry> geometries = readGeometries().subList(0, 2);
+        List<Envelope> envelopes = Arrays.asList(new Envelope(0, 5, 0, 5), new Envelope(-1, 1, -2, 2));
+        byte[] batch = GeometryBatchSerializer.serialize(geometries, envelopes);
+        Assert.assertEquals(envelopes.get(0), GeometryBatchSerializer.getEnvelope(batch, 0));
+        Assert.assertEquals(envelopes.get(1), GeometryBatchSerializer.getEnvelope(batch, 1));
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        byte[] batch = GeometryBatchSerializer.serialize(Collections.emptyList());
+        Assert.assertEquals(0, GeometryBatchSerializer.getNumGeometries(batch));
+        Assert.assertTrue(GeometryBatchSerializer.deserialize(batch).isEmpty());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexOutOfBounds() throws ParseException {
+        byte[] batch = GeometryBatchSerializer.serialize(readGeometries());
+        GeometryBatchSerializer.deserialize(batch, 6);
+    }
+
+    @Test
+    public void testKryoBatch() throws ParseException {
+        List<Geometry> geometries = readGeometries();
+        geometries.get(0).setUserData("user data");
+        assertKryoBatch(new ArrayList<>(geometries));
+
+        // Circles are not supported by the batch format and are written one by one. Null envelopes
+        // do not survive the envelope serde, so empty geometries are left out
+        List<Object> withCircle = new ArrayList<>();
+        for (Geometry geometry : geometries) {
+            if (!geometry.isEmpty()) {
+                withCircle.add(geometry);
+            }
+        }
+        withCircle.add(new Circle(geometries.get(0), 1.5));
+        assertKryoBatch(withCircle);
+    }
+
+    private void assertKryoBatch(List<Object> geometries) {
+        Kryo kryo = new Kryo();
+        GeometrySerde serde = new GeometrySerde();
+        List<Envelope> envelopes = new ArrayList<>();
+        for (Object geometry : geometries) {
+            envelopes.add(((Geometry) geometry).getEnvelopeInternal());
+        }
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        Output output = new Output(bos);
+        serde.writeBatch(kryo, output, geometries, envelopes);
+        output.close();
+
+        List<Object> deserialized = new ArrayList<>();
+        List<Envelope> deserializedEnvelopes = new ArrayList<>();
+        serde.readBatch(kryo, new Input(bos.toByteArray()), deserialized, deserializedEnvelopes);
+        Assert.assertEquals(envelopes, deserializedEnvelopes);
+        Assert.assertEquals(geometries.size(), deserialized.size());
+        for (int k = 0; k < geometries.size(); k++) {
+            Geometry expected = (Geometry) geometries.get(k);
+            Geometry actual = (Geometry) deserialized.get(k);
+            Assert.assertEquals(expected.getClass(), actual.getClass());
+            Assert.assertTrue(expected.equalsExact(actual));
+            Assert.assertEquals(expected.getUserData(), actual.getUserData());
+        }
+    }
+}
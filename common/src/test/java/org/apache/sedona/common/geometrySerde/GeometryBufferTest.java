@@ -45,7 +45,7 @@ public class GeometryBufferTest {
 
     @Parameterized.Parameters
     public static Collection<String> testParams() {
-        return Arrays.asList("bytebuffer", "unsafe");
+        return Arrays.asList("bytebuffer", "unsafe", "direct");
     }
 
     @Test
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sedona.common.geometrySerde;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+public class GeometryEnvelopeTest {
+    private static final WKTReader reader = new WKTReader();
+
+    private static void assertEnvelope(String wkt) throws ParseException {
+        Geometry geometry = reader.read(wkt);
+        geometry.setSRID(4326);
+        byte[] bytes = GeometrySerializer.serialize(geometry);
+        Envelope envelope = GeometrySerializer.getEnvelope(bytes);
+        Assert.assertEquals(geometry.getEnvelopeInternal(), envelope);
+        Assert.assertEquals(geometry.isEmpty(), envelope.isNull());
+    }
+
+    @Test
+    public void testPoint() throws ParseException {
+        assertEnvelope("POINT EMPTY");
+        assertEnvelope("POINT (1 2)");
+        assertEnvelope("POINT Z (1 2 3)");
+        assertEnvelope("POINT ZM (1 2 3 4)");
+    }
+
+    @Test
+    public void testMultiPoint() throws ParseException {
+        assertEnvelope("MULTIPOINT EMPTY");
+        assertEnvelope("MULTIPOINT ((1 2), EMPTY, (-3 4))");
+        assertEnvelope("MULTIPOINT M ((1 2 3), (-3 4 5))");
+    }
+
+    @Test
+    public void testLineString() throws ParseException {
+        assertEnvelope("LINESTRING EMPTY");
+        assertEnvelope("LINESTRING (1 2, 3 -4, 5 6)");
+        assertEnvelope("MULTILINESTRING EMPTY");
+        assertEnvelope("MULTILINESTRING ((1 2, 3 4), EMPTY, (-5 6, 7 8))");
+    }
+
+    @Test
+    public void testPolygon() throws ParseException {
+        assertEnvelope("POLYGON EMPTY");
+        assertEnvelope("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (1 1, 2 1, 2 2, 1 1))");
+        assertEnvelope("MULTIPOLYGON EMPTY");
+        assertEnvelope(
+                "MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)), EMPTY, ((5 5, 6 5, 6 6, 5 5), (5.1 5.1, 5.2 5.1, 5.2 5.2, 5.1 5.1)))");
+    }
+
+    @Test
+    public void testGeometryCollection() throws ParseException {
+        assertEnvelope("GEOMETRYCOLLECTION EMPTY");
+        assertEnvelope(
+                "GEOMETRYCOLLECTION (POINT (1 2), MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)), ((5 5, 6 5, 6 6, 5 5))), "
+                        + "MULTILINESTRING ((1 2, 3 4)), GEOMETRYCOLLECTION (POINT EMPTY, LINESTRING (-10 -10, -20 -20)), "
+                        + "POINT (100 200))");
+    }
+}
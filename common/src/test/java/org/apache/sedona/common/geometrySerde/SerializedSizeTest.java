@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sedona.common.geometrySerde;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+import java.util.Arrays;
+
+public class SerializedSizeTest {
+    private static final WKTReader reader = new WKTReader();
+
+    private static final String[] WKTS = new String[]{
+            "POINT EMPTY",
+            "POINT (1 2)",
+            "POINT ZM (1 2 3 4)",
+            "MULTIPOINT EMPTY",
+            "MULTIPOINT ((1 2), EMPTY)",
+            "LINESTRING EMPTY",
+            "LINESTRING Z (1 2 3, 4 5 6)",
+            "MULTILINESTRING EMPTY",
+            "MULTILINESTRING ((1 2, 3 4), EMPTY)",
+            "POLYGON EMPTY",
+            "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (1 1, 2 1, 2 2, 1 1))",
+            "MULTIPOLYGON EMPTY",
+            "MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)), EMPTY)",
+            "GEOMETRYCOLLECTION EMPTY",
+            "GEOMETRYCOLLECTION (POINT (1 2), LINESTRING Z (1 2 3, 4 5 6), GEOMETRYCOLLECTION (POINT EMPTY))"
+    };
+
+    @Test
+    public void testSerializedSize() throws ParseException {
+        for (String wkt : WKTS) {
+            Geometry geometry = reader.read(wkt);
+            geometry.setSRID(4326);
+            byte[] bytes = GeometrySerializer.serialize(geometry);
+            Assert.assertEquals(wkt, bytes.length, GeometrySerializer.getSerializedSize(geometry));
+        }
+    }
+
+    @Test
+    public void testSerializeIntoByteArray() throws ParseException {
+        byte[] target = new byte[4096];
+        for (String wkt : WKTS) {
+            Geometry geometry = reader.read(wkt);
+            byte[] expected = GeometrySerializer.serialize(geometry);
+            // Fill the target with garbage to make sure that all bytes are overwritten
+            Arrays.fill(target, (byte) 0x5A);
+            int size = GeometrySerializer.serialize(geometry, target, 13);
+            Assert.assertEquals(wkt, expected.length, size);
+            Assert.assertArrayEquals(wkt, expected, Arrays.copyOfRange(target, 13, 13 + size));
+            Assert.assertEquals(wkt, (byte) 0x5A, target[13 + size]);
+            Geometry deserialized = GeometrySerializer.deserialize(Arrays.copyOfRange(target, 13, 13 + size));
+            Assert.assertEquals(wkt, geometry.toText(), deserialized.toText());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSerializeIntoSmallByteArray() throws ParseException {
+        Geometry geometry = reader.read("LINESTRING (1 2, 3 4)");
+        GeometrySerializer.serialize(geometry, new byte[40], 10);
+    }
+}
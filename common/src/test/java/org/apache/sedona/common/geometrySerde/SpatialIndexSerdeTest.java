@@ -23,10 +23,12 @@ import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import org.apache.sedona.common.geometrySerde.SpatialIndexSerde;
+import org.apache.sedona.common.spatialIndex.PackedHilbertRtree;
 import org.junit.Test;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.index.SpatialIndex;
 import org.locationtech.jts.index.quadtree.Quadtree;
@@ -44,6 +46,7 @@ import java.util.Random;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 public class SpatialIndexSerdeTest
 {
@@ -61,10 +64,12 @@ public class SpatialIndexSerdeTest
 
         kryo.register(Quadtree.class, spatialIndexSerde);
         kryo.register(STRtree.class, spatialIndexSerde);
+        kryo.register(PackedHilbertRtree.class, spatialIndexSerde);
 
         // test correctness
         testCorrectness(Quadtree.class);
         testCorrectness(STRtree.class);
+        testCorrectness(PackedHilbertRtree.class);
 
         // workbench of compare size
         compareSize(Quadtree.class);
@@ -75,6 +80,25 @@ public class SpatialIndexSerdeTest
         compareTime(STRtree.class);
     }
 
+    @Test
+    public void testCompactEncoding()
+            throws IOException
+    {
+        for (Class aClass : new Class[] {Quadtree.class, STRtree.class, PackedHilbertRtree.class}) {
+            SpatialIndex tree = generateLineStringIndex(1000, aClass);
+            byte[] standard = serializeIndexKryo(tree, new SpatialIndexSerde());
+            byte[] compact = serializeIndexKryo(tree, new SpatialIndexSerde(new GeometrySerde(null, null, true)));
+            assertTrue(aClass.getSimpleName(), compact.length * 2 < standard.length);
+
+            // Compact indexes are read by any serde
+            Kryo reader = new Kryo();
+            reader.register(aClass, new SpatialIndexSerde());
+            SpatialIndex dtree = (SpatialIndex) reader.readClassAndObject(new Input(compact));
+            Envelope envelope = new Envelope(-90, 90, -45, 45);
+            assertThat(queryIndex(tree, envelope), is(queryIndex(dtree, envelope)));
+        }
+    }
+
     public void testCorrectness(Class aClass)
             throws IOException
     {
@@ -184,6 +208,15 @@ public class SpatialIndexSerdeTest
         return outputStream.toByteArray();
     }
 
+    private byte[] serializeIndexKryo(SpatialIndex index, SpatialIndexSerde serde)
+    {
+        Kryo kryo = new Kryo();
+        kryo.register(index.getClass(), serde);
+        Output output = new Output(1 << 16, -1);
+        kryo.writeClassAndObject(output, index);
+        return output.toBytes();
+    }
+
     private SpatialIndex deserializeIndexKryo(byte[] array)
             throws IOException
     {
@@ -211,15 +244,41 @@ public class SpatialIndexSerdeTest
             }
             return strtree.query(envelope);
         }
+        else if (index instanceof PackedHilbertRtree) {
+            if (envelope == null) {
+                envelope = new Envelope(-180, 180, -90, 90);
+            }
+            return index.query(envelope);
+        }
         else { throw new UnsupportedOperationException("unsupported index type"); }
     }
 
+    private SpatialIndex generateLineStringIndex(int geomNum, Class aClass)
+    {
+        Random random = new Random(0);
+        SpatialIndex index = aClass == Quadtree.class ? new Quadtree()
+                : aClass == PackedHilbertRtree.class ? new PackedHilbertRtree() : new STRtree();
+        for (int i = 0; i < geomNum; ++i) {
+            // Dense linework with few decimal digits, which the compact encoding stores in a few bytes
+            Coordinate[] coordinates = new Coordinate[50];
+            int x = random.nextInt(3400) - 1700;
+            int y = random.nextInt(1600) - 800;
+            for (int k = 0; k < coordinates.length; k++) {
+                coordinates[k] = new Coordinate((x + k) / 10.0, (y + k) / 10.0);
+            }
+            LineString lineString = geometryFactory.createLineString(coordinates);
+            index.insert(lineString.getEnvelopeInternal(), lineString);
+        }
+        return index;
+    }
+
     private SpatialIndex generateIndex(int geomNum, Class aClass)
     {
         Random random = new Random();
         SpatialIndex quadtree;
         // initialize according to class pointed
         if (aClass == Quadtree.class) { quadtree = new Quadtree(); }
+        else if (aClass == PackedHilbertRtree.class) { quadtree = new PackedHilbertRtree(); }
         else { quadtree = new STRtree(); }
 
         for (int i = 0; i < geomNum; ++i) {
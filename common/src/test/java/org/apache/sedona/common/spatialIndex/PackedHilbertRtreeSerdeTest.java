@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.common.spatialIndex;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.apache.sedona.common.geometrySerde.SpatialIndexSerde;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PackedHilbertRtreeSerdeTest
+{
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    private final Kryo kryo = new Kryo();
+
+    public PackedHilbertRtreeSerdeTest()
+    {
+        kryo.register(PackedHilbertRtree.class, new SpatialIndexSerde());
+    }
+
+    @Test
+    public void testFlatRoundTrip()
+    {
+        PackedHilbertRtree tree = generateTree(new Random(1), 5000, k -> k % 3 == 0 ? null : "item " + k);
+        PackedHilbertRtree copy = roundTrip(tree);
+        assertTrue(copy.isBuilt());
+        assertEquals(tree.size(), copy.size());
+        assertSameQueries(tree, copy, new Random(2));
+    }
+
+    @Test
+    public void testNonPortableUserData()
+    {
+        // Integer user data goes through Kryo class resolution, so the tree is read eagerly
+        PackedHilbertRtree tree = generateTree(new Random(3), 1000, k -> k);
+        PackedHilbertRtree copy = roundTrip(tree);
+        assertSameQueries(tree, copy, new Random(4));
+    }
+
+    @Test
+    public void testEmptyTree()
+    {
+        PackedHilbertRtree copy = roundTrip(new PackedHilbertRtree(8));
+        assertTrue(copy.isEmpty());
+        assertEquals(8, copy.getNodeCapacity());
+        assertTrue(copy.query(new Envelope(-180, 180, -90, 90)).isEmpty());
+    }
+
+    @Test
+    public void testNullEnvelopes()
+    {
+        PackedHilbertRtree tree = new PackedHilbertRtree(2);
+        Geometry empty = geometryFactory.createLineString();
+        Geometry point = geometryFactory.createPoint(new Coordinate(1, 1));
+        tree.insert(empty.getEnvelopeInternal(), empty);
+        tree.insert(point.getEnvelopeInternal(), point);
+        tree.insert(empty.getEnvelopeInternal(), empty);
+        PackedHilbertRtree copy = roundTrip(tree);
+        List result = copy.query(new Envelope(-10, 10, -10, 10));
+        assertEquals(1, result.size());
+        assertEquals(point, result.get(0));
+    }
+
+    @Test
+    public void testReserializeLazyTree()
+            throws Exception
+    {
+        PackedHilbertRtree tree = generateTree(new Random(5), 2000, k -> "item " + k);
+        PackedHilbertRtree copy = roundTrip(roundTrip(tree));
+        assertSameQueries(tree, copy, new Random(6));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(roundTrip(tree));
+        }
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertSameQueries(tree, (PackedHilbertRtree) input.readObject(), new Random(7));
+        }
+    }
+
+    @Test
+    public void testConcurrentQueries()
+            throws Exception
+    {
+        PackedHilbertRtree tree = generateTree(new Random(8), 20000, k -> "item " + k);
+        PackedHilbertRtree copy = roundTrip(tree);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final long seed = t;
+                futures.add(executor.submit(() -> assertSameQueries(tree, copy, new Random(seed))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    private interface UserDataGenerator
+    {
+        Object generate(int k);
+    }
+
+    private PackedHilbertRtree generateTree(Random random, int numItems, UserDataGenerator userData)
+    {
+        PackedHilbertRtree tree = new PackedHilbertRtree();
+        for (int k = 0; k < numItems; k++) {
+            double x = random.nextDouble() * 360 - 180;
+            double y = random.nextDouble() * 180 - 90;
+            Geometry geometry = k % 2 == 0 ?
+                    geometryFactory.createPoint(new Coordinate(x, y)) :
+                    geometryFactory.toGeometry(new Envelope(x, x + random.nextDouble(), y, y + random.nextDouble()));
+            geometry.setUserData(userData.generate(k));
+            // Expanded bounds, as used by distance joins, must survive serialization
+            Envelope envelope = geometry.getEnvelopeInternal().copy();
+            envelope.expandBy(0.5);
+            tree.insert(envelope, geometry);
+        }
+        return tree;
+    }
+
+    private void assertSameQueries(PackedHilbertRtree expected, PackedHilbertRtree actual, Random random)
+    {
+        for (int k = 0; k < 200; k++) {
+            double x = random.nextDouble() * 360 - 180;
+            double y = random.nextDouble() * 180 - 90;
+            Envelope envelope = new Envelope(x, x + 10, y, y + 10);
+            List expectedItems = expected.query(envelope);
+            List actualItems = actual.query(envelope);
+            assertEquals(expectedItems.size(), actualItems.size());
+            for (int i = 0; i < expectedItems.size(); i++) {
+                Geometry expectedGeometry = (Geometry) expectedItems.get(i);
+                Geometry actualGeometry = (Geometry) actualItems.get(i);
+                assertTrue(expectedGeometry.equalsExact(actualGeometry));
+                assertEquals(expectedGeometry.getUserData(), actualGeometry.getUserData());
+            }
+        }
+    }
+
+    private PackedHilbertRtree roundTrip(PackedHilbertRtree tree)
+    {
+        Output output = new Output(1024, -1);
+        kryo.writeClassAndObject(output, tree);
+        return (PackedHilbertRtree) kryo.readClassAndObject(new Input(output.toBytes()));
+    }
+}
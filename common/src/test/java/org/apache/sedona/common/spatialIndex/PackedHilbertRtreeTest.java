@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.common.spatialIndex;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.index.strtree.GeometryItemDistance;
+import org.locationtech.jts.index.strtree.STRtree;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PackedHilbertRtreeTest
+{
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @Test
+    public void testQueryMatchesSTRtree()
+    {
+        Random random = new Random(1);
+        for (int nodeCapacity : new int[] {2, 3, 16}) {
+            for (int numItems : new int[] {1, 15, 16, 17, 257, 5000}) {
+                List<Geometry> geometries = generateGeometries(random, numItems);
+                PackedHilbertRtree tree = new PackedHilbertRtree(nodeCapacity);
+                STRtree expected = new STRtree();
+                for (Geometry geometry : geometries) {
+                    tree.insert(geometry.getEnvelopeInternal(), geometry);
+                    expected.insert(geometry.getEnvelopeInternal(), geometry);
+                }
+                assertEquals(numItems, tree.size());
+                for (int k = 0; k < 100; k++) {
+                    Envelope envelope = randomEnvelope(random, 20);
+                    assertEquals(new HashSet<>(expected.query(envelope)), new HashSet<>(tree.query(envelope)));
+                }
+                assertEquals(numItems, tree.query(new Envelope(-180, 180, -90, 90)).size());
+            }
+        }
+    }
+
+    @Test
+    public void testParallelBuild()
+    {
+        Random random = new Random(3);
+        for (int numItems : new int[] {0, 1, 17, 20000}) {
+            List<Geometry> geometries = generateGeometries(random, numItems);
+            PackedHilbertRtree sequential = new PackedHilbertRtree();
+            PackedHilbertRtree parallel = new PackedHilbertRtree();
+            for (Geometry geometry : geometries) {
+                sequential.insert(geometry.getEnvelopeInternal(), geometry);
+                parallel.insert(geometry.getEnvelopeInternal(), geometry);
+            }
+            sequential.build();
+            parallel.build(true);
+            assertTrue(parallel.isBuilt());
+            assertArrayEquals(sequential.getItems(), parallel.getItems());
+            assertArrayEquals(sequential.getItemBounds(), parallel.getItemBounds(), 0);
+            assertArrayEquals(sequential.getNodeBounds(), parallel.getNodeBounds(), 0);
+        }
+    }
+
+    @Test
+    public void testNearestNeighbourMatchesSTRtree()
+    {
+        Random random = new Random(4);
+        for (int numItems : new int[] {1, 17, 5000}) {
+            List<Geometry> geometries = generateGeometries(random, numItems);
+            PackedHilbertRtree tree = new PackedHilbertRtree(4);
+            STRtree expected = new STRtree();
+            for (Geometry geometry : geometries) {
+                tree.insert(geometry.getEnvelopeInternal(), geometry);
+                expected.insert(geometry.getEnvelopeInternal(), geometry);
+            }
+            for (int k : new int[] {1, 10}) {
+                Geometry query = geometryFactory.toGeometry(randomEnvelope(random, 10));
+                Object[] expectedNeighbours = expected.nearestNeighbour(query.getEnvelopeInternal(), query, new GeometryItemDistance(), k);
+                Object[] neighbours = tree.nearestNeighbour(query.getEnvelopeInternal(), query, new GeometryItemDistance(), k);
+                assertEquals(expectedNeighbours.length, neighbours.length);
+                assertEquals(sortedDistances(query, expectedNeighbours), sortedDistances(query, neighbours));
+                for (int i = 1; i < neighbours.length; i++) {
+                    assertTrue(query.distance((Geometry) neighbours[i - 1]) <= query.distance((Geometry) neighbours[i]));
+                }
+            }
+        }
+        assertEquals(0, new PackedHilbertRtree().nearestNeighbour(new Envelope(0, 1, 0, 1), null, new GeometryItemDistance(), 3).length);
+    }
+
+    @Test
+    public void testEmptyTree()
+    {
+        PackedHilbertRtree tree = new PackedHilbertRtree();
+        assertTrue(tree.isEmpty());
+        assertTrue(tree.query(new Envelope(-180, 180, -90, 90)).isEmpty());
+        assertTrue(tree.isBuilt());
+    }
+
+    @Test
+    public void testNullEnvelopes()
+    {
+        PackedHilbertRtree tree = new PackedHilbertRtree(2);
+        Geometry empty = geometryFactory.createPolygon();
+        Geometry point = geometryFactory.createPoint(new Coordinate(1, 1));
+        tree.insert(empty.getEnvelopeInternal(), empty);
+        tree.insert(empty.getEnvelopeInternal(), empty);
+        tree.insert(point.getEnvelopeInternal(), point);
+        List result = tree.query(new Envelope(-2, 2, -2, 2));
+        assertEquals(1, result.size());
+        assertEquals(point, result.get(0));
+        assertTrue(tree.query(new Envelope()).isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testInsertAfterBuild()
+    {
+        PackedHilbertRtree tree = new PackedHilbertRtree();
+        tree.insert(new Envelope(0, 1, 0, 1), "a");
+        tree.build();
+        tree.insert(new Envelope(0, 1, 0, 1), "b");
+    }
+
+    @Test
+    public void testJavaSerialization()
+            throws Exception
+    {
+        Random random = new Random(2);
+        PackedHilbertRtree tree = new PackedHilbertRtree();
+        for (Geometry geometry : generateGeometries(random, 1000)) {
+            tree.insert(geometry.getEnvelopeInternal(), geometry);
+        }
+        tree.build();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(tree);
+        }
+        PackedHilbertRtree copy;
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (PackedHilbertRtree) input.readObject();
+        }
+        assertTrue(copy.isBuilt());
+        Envelope envelope = new Envelope(-50, 50, -30, 30);
+        assertEquals(tree.query(envelope), copy.query(envelope));
+        assertFalse(copy.query(envelope).isEmpty());
+    }
+
+    private List<Double> sortedDistances(Geometry query, Object[] geometries)
+    {
+        List<Double> distances = new ArrayList<>();
+        for (Object geometry : geometries) {
+            distances.add(query.distance((Geometry) geometry));
+        }
+        Collections.sort(distances);
+        return distances;
+    }
+
+    private List<Geometry> generateGeometries(Random random, int numGeometries)
+    {
+        List<Geometry> geometries = new ArrayList<>(numGeometries);
+        for (int i = 0; i < numGeometries; i++) {
+            if (i % 2 == 0) {
+                geometries.add(geometryFactory.createPoint(new Coordinate(
+                        random.nextDouble() * 360 - 180, random.nextDouble() * 180 - 90)));
+            }
+            else {
+                geometries.add(geometryFactory.toGeometry(randomEnvelope(random, 5)));
+            }
+        }
+        return geometries;
+    }
+
+    private Envelope randomEnvelope(Random random, double maxSize)
+    {
+        double x = random.nextDouble() * 360 - 180;
+        double y = random.nextDouble() * 180 - 90;
+        return new Envelope(x, x + random.nextDouble() * maxSize, y, y + random.nextDouble() * maxSize);
+    }
+}
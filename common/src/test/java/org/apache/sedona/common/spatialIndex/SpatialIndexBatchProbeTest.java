@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.common.spatialIndex;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.index.SpatialIndex;
+import org.locationtech.jts.index.quadtree.Quadtree;
+import org.locationtech.jts.index.strtree.STRtree;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SpatialIndexBatchProbeTest
+{
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @Test
+    public void testMatchesSingleQueries()
+    {
+        Random random = new Random(1);
+        List<Geometry> geometries = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            geometries.add(geometryFactory.createPoint(new Coordinate(random.nextDouble() * 360 - 180, random.nextDouble() * 180 - 90)));
+        }
+        for (SpatialIndex index : new SpatialIndex[] {new STRtree(), new Quadtree(), new PackedHilbertRtree(), new PackedHilbertRtree(2)}) {
+            for (Geometry geometry : geometries) {
+                index.insert(geometry.getEnvelopeInternal(), geometry);
+            }
+            for (int numProbes : new int[] {0, 1, 1000}) {
+                List<Envelope> envelopes = new ArrayList<>();
+                for (int i = 0; i < numProbes; i++) {
+                    double x = random.nextDouble() * 360 - 180;
+                    double y = random.nextDouble() * 180 - 90;
+                    envelopes.add(new Envelope(x, x + random.nextDouble() * 20, y, y + random.nextDouble() * 20));
+                }
+                List<List<Object>> candidates = SpatialIndexBatchProbe.query(index, envelopes);
+                assertEquals(numProbes, candidates.size());
+                for (int i = 0; i < numProbes; i++) {
+                    assertEquals(new HashSet<>(index.query(envelopes.get(i))), new HashSet<>(candidates.get(i)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyProbes()
+    {
+        PackedHilbertRtree tree = new PackedHilbertRtree();
+        tree.insert(new Envelope(0, 1, 0, 1), "a");
+        List<Envelope> envelopes = new ArrayList<>();
+        envelopes.add(null);
+        envelopes.add(new Envelope());
+        envelopes.add(new Envelope(0.5, 2, 0.5, 2));
+        List<List<Object>> candidates = SpatialIndexBatchProbe.query(tree, envelopes);
+        assertTrue(candidates.get(0).isEmpty());
+        assertTrue(candidates.get(1).isEmpty());
+        assertEquals(1, candidates.get(2).size());
+
+        candidates = SpatialIndexBatchProbe.query(new STRtree(), envelopes);
+        assertTrue(candidates.get(0).isEmpty());
+        assertTrue(candidates.get(2).isEmpty());
+    }
+}
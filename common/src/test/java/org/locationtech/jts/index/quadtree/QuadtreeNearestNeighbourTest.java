@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.locationtech.jts.index.quadtree;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.index.strtree.GeometryItemDistance;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class QuadtreeNearestNeighbourTest
+{
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @Test
+    public void testMatchesBruteForce()
+    {
+        Random random = new Random(1);
+        for (int numItems : new int[] {1, 10, 5000}) {
+            List<Geometry> geometries = new ArrayList<>(numItems);
+            Quadtree tree = new Quadtree();
+            for (int i = 0; i < numItems; i++) {
+                Geometry geometry = i % 2 == 0
+                        ? geometryFactory.createPoint(new Coordinate(random.nextDouble() * 360 - 180, random.nextDouble() * 180 - 90))
+                        : geometryFactory.toGeometry(randomEnvelope(random, 5));
+                geometries.add(geometry);
+                tree.insert(geometry.getEnvelopeInternal(), geometry);
+            }
+            for (int k : new int[] {1, 10}) {
+                Geometry query = geometryFactory.toGeometry(randomEnvelope(random, 10));
+                geometries.sort(Comparator.comparingDouble(query::distance));
+                Object[] neighbours = QuadtreeNearestNeighbour.nearestNeighbour(tree, query.getEnvelopeInternal(), query, new GeometryItemDistance(), k);
+                assertEquals(Math.min(k, numItems), neighbours.length);
+                for (int i = 0; i < neighbours.length; i++) {
+                    assertEquals(query.distance(geometries.get(i)), query.distance((Geometry) neighbours[i]), 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyTree()
+    {
+        Object[] neighbours = QuadtreeNearestNeighbour.nearestNeighbour(new Quadtree(), new Envelope(0, 1, 0, 1), null, new GeometryItemDistance(), 3);
+        assertEquals(0, neighbours.length);
+    }
+
+    private Envelope randomEnvelope(Random random, double maxSize)
+    {
+        double x = random.nextDouble() * 360 - 180;
+        double y = random.nextDouble() * 180 - 90;
+        return new Envelope(x, x + random.nextDouble() * maxSize, y, y + random.nextDouble() * maxSize);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.locationtech.jts.index.strtree;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class STRtreeBulkLoaderTest
+{
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @Test
+    public void testSameStructureAsSTRtree()
+    {
+        Random random = new Random(1);
+        for (int nodeCapacity : new int[] {2, 10}) {
+            for (int numItems : new int[] {1, 10, 11, 101, 20000}) {
+                List<Geometry> geometries = generateGeometries(random, numItems);
+                STRtree expected = new STRtree(nodeCapacity);
+                for (Geometry geometry : geometries) {
+                    expected.insert(geometry.getEnvelopeInternal(), geometry);
+                }
+                expected.build();
+                STRtree tree = STRtreeBulkLoader.load(geometries, nodeCapacity);
+                assertEquals(expected.itemsTree(), tree.itemsTree());
+                assertEquals(expected.depth(), tree.depth());
+                for (int k = 0; k < 100; k++) {
+                    Envelope envelope = randomEnvelope(random, 20);
+                    assertEquals(new HashSet<>(expected.query(envelope)), new HashSet<>(tree.query(envelope)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyGeometries()
+    {
+        Geometry empty = geometryFactory.createPolygon();
+        Geometry point = geometryFactory.createPoint(new Coordinate(1, 1));
+        STRtree tree = STRtreeBulkLoader.load(Arrays.asList(empty, point, empty), 10);
+        assertEquals(1, tree.size());
+        assertEquals(Collections.singletonList(point), tree.query(new Envelope(-2, 2, -2, 2)));
+
+        assertTrue(STRtreeBulkLoader.load(Collections.emptyList(), 10).isEmpty());
+        assertTrue(STRtreeBulkLoader.load(Collections.singletonList(empty), 10).isEmpty());
+    }
+
+    private List<Geometry> generateGeometries(Random random, int numGeometries)
+    {
+        List<Geometry> geometries = new ArrayList<>(numGeometries);
+        for (int i = 0; i < numGeometries; i++) {
+            if (i % 2 == 0) {
+                geometries.add(geometryFactory.createPoint(new Coordinate(
+                        random.nextDouble() * 360 - 180, random.nextDouble() * 180 - 90)));
+            }
+            else {
+                geometries.add(geometryFactory.toGeometry(randomEnvelope(random, 5)));
+            }
+        }
+        return geometries;
+    }
+
+    private Envelope randomEnvelope(Random random, double maxSize)
+    {
+        double x = random.nextDouble() * 360 - 180;
+        double y = random.nextDouble() * 180 - 90;
+        return new Envelope(x, x + random.nextDouble() * maxSize, y, y + random.nextDouble() * maxSize);
+    }
+}
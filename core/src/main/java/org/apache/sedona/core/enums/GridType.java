@@ -46,7 +46,17 @@ public enum GridType
     /**
      * K-D-B-tree partitioning (k-dimensional B-tree)
      */
-    KDBTREE;
+    KDBTREE,
+
+    /**
+     * Ranges of a Hilbert curve with balanced numbers of samples
+     */
+    HILBERT,
+
+    /**
+     * Ranges of S2 cells over longitudes and latitudes, with balanced numbers of samples
+     */
+    S2;
 
 
     /**
@@ -61,7 +71,7 @@ public enum GridType
         for (GridType me : GridType.values()) {
             if (me.name().equalsIgnoreCase(str)) { return me; }
         }
-        logger.error("[Sedona] Choose quadtree or kdbtree instead. This grid type is not supported: " + str);
+        logger.error("[Sedona] Choose quadtree, kdbtree, hilbert or s2 instead. This grid type is not supported: " + str);
         return null;
     }
 }
@@ -38,7 +38,12 @@ public enum IndexType
     /**
      * The rtree.
      */
-    RTREE;
+    RTREE,
+
+    /**
+     * The read-only packed Hilbert R-tree, which stores node bounds in flat arrays.
+     */
+    HPRTREE;
 
     /**
      * Gets the index type.
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.core.enums;
+
+import org.apache.sedona.common.geometrySerde.GeometrySerializer;
+import org.locationtech.jts.geom.Geometry;
+
+import java.io.Serializable;
+
+/**
+ * The enumerator type of the weight of the samples used to build a KDB-Tree or Quad-Tree partitioner.
+ * The partitioner balances the total weight of the samples in each partition, so that partitions holding
+ * complex geometries cover fewer of them.
+ */
+public enum PartitionWeight
+        implements Serializable
+{
+    /**
+     * Every geometry weighs the same, which balances the number of geometries.
+     */
+    COUNT,
+    /**
+     * A geometry weighs its number of points.
+     */
+    NUM_POINTS,
+    /**
+     * A geometry weighs its serialized size in bytes.
+     */
+    SERIALIZED_SIZE;
+
+    /**
+     * Gets the partition weight.
+     *
+     * @param str the str
+     * @return the partition weight
+     * @throws IllegalArgumentException if the string names no partition weight
+     */
+    public static PartitionWeight getPartitionWeight(String str)
+    {
+        for (PartitionWeight me : PartitionWeight.values()) {
+            if (me.name().equalsIgnoreCase(str)) { return me; }
+        }
+        throw new IllegalArgumentException("[Sedona] Unsupported partition weight: " + str + ". Choose count, num_points or serialized_size.");
+    }
+
+    public double weight(Geometry geometry)
+    {
+        switch (this) {
+            case NUM_POINTS:
+                return geometry.getNumPoints();
+            case SERIALIZED_SIZE:
+                return GeometrySerializer.getSerializedSize(geometry);
+            default:
+                return 1;
+        }
+    }
+}
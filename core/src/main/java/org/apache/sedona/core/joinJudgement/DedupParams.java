@@ -21,6 +21,8 @@ package org.apache.sedona.core.joinJudgement;
 
 import org.locationtech.jts.geom.Envelope;
 
+import javax.annotation.Nullable;
+
 import java.io.Serializable;
 import java.util.List;
 import java.util.Objects;
@@ -32,18 +34,50 @@ public final class DedupParams
         implements Serializable
 {
     private final List<Envelope> partitionExtents;
+    @Nullable
+    private final PartitionRegions partitionRegions;
 
     /**
      * @param partitionExtents A list of partition extents in such an order that
      * an index of an element in this list matches partition ID.
      */
     public DedupParams(List<Envelope> partitionExtents)
+    {
+        this(partitionExtents, null);
+    }
+
+    /**
+     * @param partitionExtents A list of partition extents in such an order that
+     * an index of an element in this list matches partition ID.
+     * @param partitionRegions Regions of the partitions, for partitions which are not the
+     * rectangles of their extents. Null if the partitions are their extents.
+     */
+    public DedupParams(List<Envelope> partitionExtents, @Nullable PartitionRegions partitionRegions)
     {
         this.partitionExtents = Objects.requireNonNull(partitionExtents, "partitionExtents");
+        this.partitionRegions = partitionRegions;
     }
 
     public List<Envelope> getPartitionExtents()
     {
         return partitionExtents;
     }
+
+    @Nullable
+    public PartitionRegions getPartitionRegions()
+    {
+        return partitionRegions;
+    }
+
+    /**
+     * Non-overlapping regions of partitions, which together cover the whole space.
+     */
+    public interface PartitionRegions
+            extends Serializable
+    {
+        /**
+         * @return whether the point lies in the region of the partition, a point lies in exactly one region
+         */
+        boolean contains(int partitionId, double x, double y);
+    }
 }
@@ -42,7 +42,10 @@ import java.util.List;
  *
  * @param <U>
  * @param <T>
+ * @deprecated Pass {@link DedupParams} to the join judgements instead, which skip duplicate pairs
+ * before evaluating the join condition on them.
  */
+@Deprecated
 public class DuplicatesFilter<U extends Geometry, T extends Geometry> implements Function2<Integer, Iterator<Pair<U, T>>, Iterator<Pair<U, T>>> {
 
     private static final Logger log = LogManager.getLogger(DuplicatesFilter.class);
@@ -19,29 +19,56 @@
 
 package org.apache.sedona.core.joinJudgement;
 
+import org.apache.commons.collections.iterators.IteratorChain;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.sedona.core.enums.IndexType;
 import org.apache.sedona.core.enums.JoinBuildSide;
 import org.apache.sedona.core.monitoring.Metric;
 import org.apache.sedona.core.spatialOperator.SpatialPredicate;
+import org.apache.sedona.core.spatialRddTool.IndexBuilder;
 import org.apache.sedona.core.utils.TimeUtils;
+import org.apache.spark.TaskContext;
 import org.apache.spark.api.java.function.FlatMapFunction2;
-import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.index.SpatialIndex;
-import org.locationtech.jts.index.quadtree.Quadtree;
-import org.locationtech.jts.index.strtree.STRtree;
+
+import javax.annotation.Nullable;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 
+/**
+ * Joins the two sides of a partition by building an index on one side and probing it with the other.
+ * <p>
+ * The smaller side of each partition is chosen as the build side, the configured build side is only
+ * used when both sides have the same size. Partitions whose smaller side holds only a few shapes are
+ * joined by a nested loop. When enabled, partitions whose sides have similar sizes are joined by a
+ * plane sweep instead of the configured index type, see {@link PlaneSweepJudgement}.
+ */
 public class DynamicIndexLookupJudgement<T extends Geometry, U extends Geometry>
         extends JudgementBase<T, U>
         implements FlatMapFunction2<Iterator<U>, Iterator<T>, Pair<U, T>>, Serializable
 {
+    /**
+     * Maximum number of build side shapes to compare with each stream side shape by a nested loop
+     * rather than building an index, which would hold them in a single node
+     */
+    private static final int NESTED_LOOP_MAX_BUILD_SIZE = 10;
+
     private final IndexType indexType;
     private final JoinBuildSide joinBuildSide;
+    private final long parallelIndexBuildThreshold;
+    private final double planeSweepSizeRatio;
+    private final PlaneSweepJudgement<T, U> planeSweep;
+    @Nullable
+    private final Metric buildLeftCount;
+    @Nullable
+    private final Metric nestedLoopCount;
+    @Nullable
+    private final Metric planeSweepCount;
 
     /**
      * @see JudgementBase
@@ -55,15 +82,79 @@ public class DynamicIndexLookupJudgement<T extends Geometry, U extends Geometry>
             Metric resultCount,
             Metric candidateCount)
     {
-        super(spatialPredicate, buildCount, streamCount, resultCount, candidateCount);
+        this(spatialPredicate, indexType, joinBuildSide, IndexBuilder.DEFAULT_PARALLEL_BUILD_THRESHOLD,
+                buildCount, streamCount, resultCount, candidateCount);
+    }
+
+    /**
+     * @param parallelIndexBuildThreshold number of build side shapes above which the index is bulk loaded in parallel,
+     *                                    a negative value disables parallel builds
+     * @see JudgementBase
+     */
+    public DynamicIndexLookupJudgement(
+            SpatialPredicate spatialPredicate,
+            IndexType indexType,
+            JoinBuildSide joinBuildSide,
+            long parallelIndexBuildThreshold,
+            Metric buildCount,
+            Metric streamCount,
+            Metric resultCount,
+            Metric candidateCount)
+    {
+        this(spatialPredicate, indexType, joinBuildSide, parallelIndexBuildThreshold, PlaneSweepJudgement.DEFAULT_SIZE_RATIO,
+                buildCount, streamCount, resultCount, candidateCount, null, null, null, null);
+    }
+
+    /**
+     * @param parallelIndexBuildThreshold number of build side shapes above which the index is bulk loaded in parallel,
+     *                                    a negative value disables parallel builds
+     * @param planeSweepSizeRatio maximum ratio between the sizes of the two sides of a partition to join it
+     *                            by a plane sweep instead of building an index, a value below 1 disables plane sweeps
+     * @param buildLeftCount num of partitions whose left side was chosen as build side, may be null
+     * @param nestedLoopCount num of partitions joined by a nested loop, may be null
+     * @param planeSweepCount num of partitions joined by a plane sweep, may be null
+     * @see JudgementBase
+     */
+    public DynamicIndexLookupJudgement(
+            SpatialPredicate spatialPredicate,
+            IndexType indexType,
+            JoinBuildSide joinBuildSide,
+            long parallelIndexBuildThreshold,
+            double planeSweepSizeRatio,
+            Metric buildCount,
+            Metric streamCount,
+            Metric resultCount,
+            Metric candidateCount,
+            @Nullable Metric buildLeftCount,
+            @Nullable Metric nestedLoopCount,
+            @Nullable Metric planeSweepCount,
+            @Nullable DedupParams dedupParams)
+    {
+        super(spatialPredicate, buildCount, streamCount, resultCount, candidateCount, dedupParams);
         this.indexType = indexType;
         this.joinBuildSide = joinBuildSide;
+        this.parallelIndexBuildThreshold = parallelIndexBuildThreshold;
+        this.planeSweepSizeRatio = planeSweepSizeRatio;
+        this.planeSweep = new PlaneSweepJudgement<>(spatialPredicate, buildCount, streamCount, resultCount, candidateCount, dedupParams);
+        this.buildLeftCount = buildLeftCount;
+        this.nestedLoopCount = nestedLoopCount;
+        this.planeSweepCount = planeSweepCount;
     }
 
     @Override
     public Iterator<Pair<U, T>> call(final Iterator<U> leftShapes, final Iterator<T> rightShapes)
             throws Exception
     {
+        return call(TaskContext.getPartitionId(), leftShapes, rightShapes);
+    }
+
+    /**
+     * @param partitionId index of the partition, used to look up its extent to skip duplicate pairs
+     * @see #call(Iterator, Iterator)
+     */
+    public Iterator<Pair<U, T>> call(int partitionId, final Iterator<U> leftShapes, final Iterator<T> rightShapes)
+            throws Exception
+    {
 
         if (!leftShapes.hasNext() || !rightShapes.hasNext()) {
             buildCount.add(0);
@@ -73,21 +164,64 @@ public class DynamicIndexLookupJudgement<T extends Geometry, U extends Geometry>
             return Collections.emptyIterator();
         }
 
-        initPartition();
-
-        final boolean buildLeft = (joinBuildSide == JoinBuildSide.LEFT);
+        initPartition(partitionId);
 
-        final Iterator<? extends Geometry> buildShapes;
-        final Iterator<? extends Geometry> streamShapes;
+        // Read both sides in lockstep until one of them ends, so that the smaller side is read completely
+        // while no more than the same number of shapes is buffered from the larger side
+        final List<Geometry> leftBuffer = new ArrayList<>();
+        final List<Geometry> rightBuffer = new ArrayList<>();
+        while (leftShapes.hasNext() && rightShapes.hasNext()) {
+            leftBuffer.add(leftShapes.next());
+            rightBuffer.add(rightShapes.next());
+        }
+        final boolean buildLeft = leftShapes.hasNext() == rightShapes.hasNext() ? joinBuildSide == JoinBuildSide.LEFT : !leftShapes.hasNext();
+        final List<Geometry> buildShapes = buildLeft ? leftBuffer : rightBuffer;
+        final List<Geometry> streamPrefix = buildLeft ? rightBuffer : leftBuffer;
+        final Iterator<? extends Geometry> streamIterator = buildLeft ? rightShapes : leftShapes;
         if (buildLeft) {
-            buildShapes = leftShapes;
-            streamShapes = rightShapes;
+            count(buildLeftCount);
         }
-        else {
-            buildShapes = rightShapes;
-            streamShapes = leftShapes;
+
+        if (buildShapes.size() <= NESTED_LOOP_MAX_BUILD_SIZE) {
+            log("Joining %d shapes of the %s side by a nested loop", buildShapes.size(), buildLeft ? "left" : "right");
+            count(nestedLoopCount);
+            buildCount.add(buildShapes.size());
+            final Iterator<? extends Geometry> streamShapes = new IteratorChain(streamPrefix.iterator(), streamIterator);
+            return new Iterator<Pair<U, T>>()
+            {
+                @Override
+                public boolean hasNext()
+                {
+                    return hasNextBase(buildShapes, streamShapes, buildLeft);
+                }
+
+                @Override
+                public Pair<U, T> next()
+                {
+                    return nextBase(buildShapes, streamShapes, buildLeft);
+                }
+
+                @Override
+                public void remove()
+                {
+                    throw new UnsupportedOperationException();
+                }
+            };
         }
 
+        // Read the stream side as long as it is not much larger than the build side, if both sides
+        // have similar sizes sweep them rather than building an index
+        if (planeSweepSizeRatio >= 1) {
+            while (streamIterator.hasNext() && streamPrefix.size() <= buildShapes.size() * planeSweepSizeRatio) {
+                streamPrefix.add(streamIterator.next());
+            }
+            if (!streamIterator.hasNext() && streamPrefix.size() <= buildShapes.size() * planeSweepSizeRatio) {
+                count(planeSweepCount);
+                return buildLeft ? planeSweep.sweep(partitionId, buildShapes, streamPrefix) : planeSweep.sweep(partitionId, streamPrefix, buildShapes);
+            }
+        }
+        final Iterator<? extends Geometry> streamShapes = new IteratorChain(streamPrefix.iterator(), streamIterator);
+
         final SpatialIndex spatialIndex = buildIndex(buildShapes);
 
         return new Iterator<Pair<U, T>>()
@@ -112,31 +246,19 @@ public class DynamicIndexLookupJudgement<T extends Geometry, U extends Geometry>
         };
     }
 
-    private SpatialIndex buildIndex(Iterator<? extends Geometry> geometries)
+    private static void count(@Nullable Metric metric)
     {
-        long startTime = System.currentTimeMillis();
-        long count = 0;
-        final SpatialIndex index = newIndex();
-        while (geometries.hasNext()) {
-            Geometry geometry = geometries.next();
-            index.insert(geometry.getEnvelopeInternal(), geometry);
-            count++;
+        if (metric != null) {
+            metric.add(1);
         }
-        index.query(new Envelope(0.0, 0.0, 0.0, 0.0));
-        log("Loaded %d shapes into an index in %d ms", count, TimeUtils.elapsedSince(startTime));
-        buildCount.add((int) count);
-        return index;
     }
 
-    private SpatialIndex newIndex()
+    private SpatialIndex buildIndex(List<Geometry> buildShapes)
     {
-        switch (indexType) {
-            case RTREE:
-                return new STRtree();
-            case QUADTREE:
-                return new Quadtree();
-            default:
-                throw new IllegalArgumentException("Unsupported index type: " + indexType);
-        }
+        long startTime = System.currentTimeMillis();
+        final SpatialIndex index = IndexBuilder.buildIndex(indexType, buildShapes, parallelIndexBuildThreshold);
+        log("Loaded %d shapes into an index in %d ms", buildShapes.size(), TimeUtils.elapsedSince(startTime));
+        buildCount.add(buildShapes.size());
+        return index;
     }
 }
@@ -23,15 +23,23 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.apache.log4j.Level;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
+import org.apache.sedona.common.spatialIndex.SpatialIndexBatchProbe;
+import org.apache.sedona.common.utils.GeomUtils;
+import org.apache.sedona.common.utils.HalfOpenRectangle;
 import org.apache.sedona.core.monitoring.Metric;
 import org.apache.sedona.core.spatialOperator.SpatialPredicate;
 import org.apache.sedona.core.spatialOperator.SpatialPredicateEvaluators;
 import org.apache.spark.TaskContext;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.index.SpatialIndex;
 
+import javax.annotation.Nullable;
+
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -41,6 +49,16 @@ import java.util.NoSuchElementException;
  * <p>
  * Provides `match` method to test whether a given pair of geometries satisfies join condition.
  * <p>
+ * Supports 'deduplication' of join results. Due to the nature of spatial partitioning, the same pair of
+ * geometries may appear in multiple partitions. If that pair satisfies join condition, it
+ * will be included in join results multiple times. This duplication can be avoided by
+ * (1) choosing spatial partitioning that doesn't allow for overlapping partition extents
+ * and (2) reporting a pair of matching geometries only from the partition
+ * whose extent contains the reference point of the intersection of the geometries.
+ * The reference point test only needs the envelopes of the geometries, so it is done before
+ * the join condition is evaluated on the geometries themselves.
+ * <p>
+ * To enable deduplication, pass a {@link DedupParams} to the constructor.
  */
 abstract class JudgementBase<T extends Geometry, U extends Geometry>
         implements Serializable
@@ -49,6 +67,13 @@ abstract class JudgementBase<T extends Geometry, U extends Geometry>
 
     private final SpatialPredicate spatialPredicate;
     private transient SpatialPredicateEvaluators.SpatialPredicateEvaluator evaluator;
+    @Nullable
+    private final DedupParams dedupParams;
+    // Extent of the current partition, null if duplicates are not removed or the partitions have regions
+    @Nullable
+    private transient HalfOpenRectangle extent;
+    // Index of the current partition, to look up whether points are in its region
+    private transient int partitionId;
     protected final Metric buildCount;
     protected final Metric streamCount;
     protected final Metric resultCount;
@@ -61,6 +86,12 @@ abstract class JudgementBase<T extends Geometry, U extends Geometry>
     // An index of the element from 'batch' to return next
     private int nextIndex = 0;
 
+    // Stream shapes whose index candidates were looked up together, and their candidates
+    private List<Geometry> probeShapes = Collections.emptyList();
+    private List<List<Object>> probeCandidates = Collections.emptyList();
+    // An index of the element from 'probeShapes' to match next
+    private int nextProbe = 0;
+
     /**
      *
      * @param spatialPredicate spatial predicate as join condition
@@ -70,8 +101,24 @@ abstract class JudgementBase<T extends Geometry, U extends Geometry>
      * @param candidateCount num of candidate pairs to be refined by their real geometries
      */
     protected JudgementBase(SpatialPredicate spatialPredicate, Metric buildCount, Metric streamCount, Metric resultCount, Metric candidateCount)
+    {
+        this(spatialPredicate, buildCount, streamCount, resultCount, candidateCount, null);
+    }
+
+    /**
+     *
+     * @param spatialPredicate spatial predicate as join condition
+     * @param buildCount num of geometries in build side
+     * @param streamCount num of geometries in stream side
+     * @param resultCount num of join results
+     * @param candidateCount num of candidate pairs to be refined by their real geometries
+     * @param dedupParams Optional information to activate de-dup logic
+     */
+    protected JudgementBase(SpatialPredicate spatialPredicate, Metric buildCount, Metric streamCount, Metric resultCount, Metric candidateCount,
+            @Nullable DedupParams dedupParams)
     {
         this.spatialPredicate = spatialPredicate;
+        this.dedupParams = dedupParams;
         this.buildCount = buildCount;
         this.streamCount = streamCount;
         this.resultCount = resultCount;
@@ -85,17 +132,57 @@ abstract class JudgementBase<T extends Geometry, U extends Geometry>
      * <p>
      * Must be called before processing a partition. Must be called from the
      * same instance that will be used to process the partition.
+     *
+     * @param partitionId index of the partition, which is not the id of the task when the join
+     * result is part of a union
      */
-    protected void initPartition()
+    protected void initPartition(int partitionId)
     {
         evaluator = SpatialPredicateEvaluators.create(spatialPredicate);
+        if (dedupParams == null) {
+            return;
+        }
+
+        this.partitionId = partitionId;
+        final List<Envelope> partitionExtents = dedupParams.getPartitionExtents();
+        if (dedupParams.getPartitionRegions() != null) {
+            extent = null;
+        }
+        else if (partitionId < partitionExtents.size()) {
+            extent = new HalfOpenRectangle(partitionExtents.get(partitionId));
+        }
+        else {
+            log.warn("Didn't find partition extent for this partition: " + partitionId);
+        }
     }
 
-    private boolean match(Geometry left, Geometry right)
+    protected boolean match(Geometry left, Geometry right)
     {
+        // Skip the pairs reported by another partition before evaluating the predicate on them
+        if (extent != null && GeomUtils.isDuplicate(left, right, extent)) {
+            return false;
+        }
+        if (dedupParams != null && dedupParams.getPartitionRegions() != null && isDuplicateInRegion(left, right)) {
+            return false;
+        }
         return evaluator.eval(left, right);
     }
 
+    /**
+     * Like {@link GeomUtils#isDuplicate(Geometry, Geometry, HalfOpenRectangle)}, for partitions which
+     * are not the rectangles of their extents.
+     */
+    private boolean isDuplicateInRegion(Geometry left, Geometry right)
+    {
+        // Each point is assigned to exactly one partition
+        if (left instanceof Point || right instanceof Point) {
+            return false;
+        }
+        final Envelope intersection = left.getEnvelopeInternal().intersection(right.getEnvelopeInternal());
+        return !intersection.isNull()
+                && !dedupParams.getPartitionRegions().contains(partitionId, intersection.getMinX(), intersection.getMinY());
+    }
+
     /**
      * Iterator model for the index-based join.
      * It checks if there is a next match and populate it to the result.
@@ -123,12 +210,25 @@ abstract class JudgementBase<T extends Geometry, U extends Geometry>
      * @return
      */
     protected boolean hasNextBase(List<? extends Geometry> buildShapes, Iterator<? extends Geometry> streamShapes)
+    {
+        return hasNextBase(buildShapes, streamShapes, false);
+    }
+
+    /**
+     * Iterator model for the nest loop join with the build side on either side of the join.
+     * @param buildShapes
+     * @param streamShapes
+     * @param buildLeft whether the build side is left
+     * @return
+     */
+    protected boolean hasNextBase(List<? extends Geometry> buildShapes, Iterator<? extends Geometry> streamShapes,
+            boolean buildLeft)
     {
         if (batch != null) {
             return true;
         }
         else {
-            return populateNextBatch(buildShapes, streamShapes);
+            return populateNextBatch(buildShapes, streamShapes, buildLeft);
         }
     }
 
@@ -171,15 +271,27 @@ abstract class JudgementBase<T extends Geometry, U extends Geometry>
      * @return
      */
     protected Pair<U, T> nextBase(List<? extends Geometry> buildShapes, Iterator<? extends Geometry> streamShapes) {
+        return nextBase(buildShapes, streamShapes, false);
+    }
+
+    /**
+     * Iterator model for the nest loop join with the build side on either side of the join.
+     * @param buildShapes
+     * @param streamShapes
+     * @param buildLeft whether the build side is left
+     * @return
+     */
+    protected Pair<U, T> nextBase(List<? extends Geometry> buildShapes, Iterator<? extends Geometry> streamShapes,
+            boolean buildLeft) {
         if (batch == null) {
-            populateNextBatch(buildShapes, streamShapes);
+            populateNextBatch(buildShapes, streamShapes, buildLeft);
         }
 
         if (batch != null) {
             final Pair<U, T> result = batch.get(nextIndex);
             nextIndex++;
             if (nextIndex >= batch.size()) {
-                populateNextBatch(buildShapes, streamShapes);
+                populateNextBatch(buildShapes, streamShapes, buildLeft);
                 nextIndex = 0;
             }
             return result;
@@ -192,9 +304,10 @@ abstract class JudgementBase<T extends Geometry, U extends Geometry>
      * Populates the next batch of matches given the current shape in the stream side.
      * It works as follows:
      * 1. If there is no shape left in the stream side, it returns false.
-     * 2. If there are shapes left in the stream side, it uses the current shape in the stream side to query the spatial index.
-     * The query result is a list of geometries in the build side that overlap with the current shape in the stream side.
-     * The query result is flattened to a list of pairs of geometries
+     * 2. If there are shapes left in the stream side, it takes the candidates of the current shape in the stream side.
+     * Candidates are looked up for batches of stream shapes at once, see {@link SpatialIndexBatchProbe}.
+     * The candidates are the geometries in the build side that overlap with the current shape in the stream side.
+     * The matching candidates are flattened to a list of pairs of geometries
      * 3. If there are no results, it returns false.
      *
      * @param spatialIndex spatial index of the build side
@@ -205,7 +318,7 @@ abstract class JudgementBase<T extends Geometry, U extends Geometry>
     private boolean populateNextBatch(SpatialIndex spatialIndex, Iterator<? extends Geometry> streamShapes,
             boolean buildLeft)
     {
-        if (!streamShapes.hasNext()) {
+        if (nextProbe >= probeShapes.size() && !streamShapes.hasNext()) {
             if (batch != null) {
                 batch = null;
             }
@@ -214,11 +327,15 @@ abstract class JudgementBase<T extends Geometry, U extends Geometry>
 
         batch = new ArrayList<>();
 
-        while (streamShapes.hasNext()) {
+        while (nextProbe < probeShapes.size() || streamShapes.hasNext()) {
+            if (nextProbe >= probeShapes.size()) {
+                probeNextShapes(spatialIndex, streamShapes);
+            }
             shapeCnt++;
             streamCount.add(1);
-            final Geometry streamShape = streamShapes.next();
-            final List candidates = spatialIndex.query(streamShape.getEnvelopeInternal());
+            final Geometry streamShape = probeShapes.get(nextProbe);
+            final List candidates = probeCandidates.get(nextProbe);
+            nextProbe++;
             for (Object candidate : candidates) {
                 candidateCount.add(1);
                 final Geometry buildShape = (Geometry) candidate;
@@ -245,6 +362,23 @@ abstract class JudgementBase<T extends Geometry, U extends Geometry>
         return false;
     }
 
+    /**
+     * Looks up the index candidates of the next batch of stream shapes.
+     */
+    private void probeNextShapes(SpatialIndex spatialIndex, Iterator<? extends Geometry> streamShapes)
+    {
+        final List<Geometry> shapes = new ArrayList<>(SpatialIndexBatchProbe.DEFAULT_BATCH_SIZE);
+        final List<Envelope> envelopes = new ArrayList<>(SpatialIndexBatchProbe.DEFAULT_BATCH_SIZE);
+        while (streamShapes.hasNext() && shapes.size() < SpatialIndexBatchProbe.DEFAULT_BATCH_SIZE) {
+            final Geometry streamShape = streamShapes.next();
+            shapes.add(streamShape);
+            envelopes.add(streamShape.getEnvelopeInternal());
+        }
+        probeCandidates = SpatialIndexBatchProbe.query(spatialIndex, envelopes);
+        probeShapes = shapes;
+        nextProbe = 0;
+    }
+
     /**
      * Populates the next batch of matches given the current shape in the stream side.
      * This is solely used for nested loop join.
@@ -256,9 +390,11 @@ abstract class JudgementBase<T extends Geometry, U extends Geometry>
      * 3. If there are no results, it returns false.
      * @param buildShapes
      * @param streamShapes
+     * @param buildLeft whether the build side is left
      * @return
      */
-    private boolean populateNextBatch(List<? extends Geometry> buildShapes, Iterator<? extends Geometry> streamShapes)
+    private boolean populateNextBatch(List<? extends Geometry> buildShapes, Iterator<? extends Geometry> streamShapes,
+            boolean buildLeft)
     {
         if (!streamShapes.hasNext()) {
             if (batch != null) {
@@ -276,9 +412,17 @@ abstract class JudgementBase<T extends Geometry, U extends Geometry>
             for (Object candidate : buildShapes) {
                 candidateCount.add(1);
                 final Geometry buildShape = (Geometry) candidate;
-                if (match(streamShape, buildShape)) {
-                    batch.add(Pair.of((U) streamShape, (T) buildShape));
-                    resultCount.add(1);
+                if (buildLeft) {
+                    if (match(buildShape, streamShape)) {
+                        batch.add(Pair.of((U) buildShape, (T) streamShape));
+                        resultCount.add(1);
+                    }
+                }
+                else {
+                    if (match(streamShape, buildShape)) {
+                        batch.add(Pair.of((U) streamShape, (T) buildShape));
+                        resultCount.add(1);
+                    }
                 }
             }
             logMilestone(shapeCnt, 100 * 1000, "Streaming shapes");
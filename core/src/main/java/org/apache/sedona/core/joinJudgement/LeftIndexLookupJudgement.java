@@ -22,10 +22,13 @@ package org.apache.sedona.core.joinJudgement;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.sedona.core.monitoring.Metric;
 import org.apache.sedona.core.spatialOperator.SpatialPredicate;
+import org.apache.spark.TaskContext;
 import org.apache.spark.api.java.function.FlatMapFunction2;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.index.SpatialIndex;
 
+import javax.annotation.Nullable;
+
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.Iterator;
@@ -44,12 +47,35 @@ public class LeftIndexLookupJudgement<T extends Geometry, U extends Geometry>
             Metric resultCount,
             Metric candidateCount)
     {
-        super(spatialPredicate, buildCount, streamCount, resultCount, candidateCount);
+        this(spatialPredicate, buildCount, streamCount, resultCount, candidateCount, null);
+    }
+
+    /**
+     * @see JudgementBase
+     */
+    public LeftIndexLookupJudgement(SpatialPredicate spatialPredicate,
+            Metric buildCount,
+            Metric streamCount,
+            Metric resultCount,
+            Metric candidateCount,
+            @Nullable DedupParams dedupParams)
+    {
+        super(spatialPredicate, buildCount, streamCount, resultCount, candidateCount, dedupParams);
     }
 
     @Override
     public Iterator<Pair<U, T>> call(Iterator<SpatialIndex> indexIterator, Iterator<U> streamShapes)
             throws Exception
+    {
+        return call(TaskContext.getPartitionId(), indexIterator, streamShapes);
+    }
+
+    /**
+     * @param partitionId index of the partition, used to look up its extent to skip duplicate pairs
+     * @see #call(Iterator, Iterator)
+     */
+    public Iterator<Pair<U, T>> call(int partitionId, Iterator<SpatialIndex> indexIterator, Iterator<U> streamShapes)
+            throws Exception
     {
         if (!indexIterator.hasNext() || !streamShapes.hasNext()) {
             buildCount.add(0);
@@ -61,7 +87,7 @@ public class LeftIndexLookupJudgement<T extends Geometry, U extends Geometry>
 
         final boolean buildLeft = true;
 
-        initPartition();
+        initPartition(partitionId);
 
         SpatialIndex spatialIndex = indexIterator.next();
 
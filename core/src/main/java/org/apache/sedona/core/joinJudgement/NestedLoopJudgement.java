@@ -22,9 +22,12 @@ package org.apache.sedona.core.joinJudgement;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.sedona.core.monitoring.Metric;
 import org.apache.sedona.core.spatialOperator.SpatialPredicate;
+import org.apache.spark.TaskContext;
 import org.apache.spark.api.java.function.FlatMapFunction2;
 import org.locationtech.jts.geom.Geometry;
 
+import javax.annotation.Nullable;
+
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -44,12 +47,35 @@ public class NestedLoopJudgement<T extends Geometry, U extends Geometry>
             Metric resultCount,
             Metric candidateCount)
     {
-        super(spatialPredicate, buildCount, streamCount, resultCount, candidateCount);
+        this(spatialPredicate, buildCount, streamCount, resultCount, candidateCount, null);
+    }
+
+    /**
+     * @see JudgementBase
+     */
+    public NestedLoopJudgement(SpatialPredicate spatialPredicate,
+            Metric buildCount,
+            Metric streamCount,
+            Metric resultCount,
+            Metric candidateCount,
+            @Nullable DedupParams dedupParams)
+    {
+        super(spatialPredicate, buildCount, streamCount, resultCount, candidateCount, dedupParams);
     }
 
     @Override
     public Iterator<Pair<U, T>> call(Iterator<T> iteratorObject, Iterator<U> iteratorWindow)
             throws Exception
+    {
+        return call(TaskContext.getPartitionId(), iteratorObject, iteratorWindow);
+    }
+
+    /**
+     * @param partitionId index of the partition, used to look up its extent to skip duplicate pairs
+     * @see #call(Iterator, Iterator)
+     */
+    public Iterator<Pair<U, T>> call(int partitionId, Iterator<T> iteratorObject, Iterator<U> iteratorWindow)
+            throws Exception
     {
         if (!iteratorObject.hasNext() || !iteratorWindow.hasNext()) {
             buildCount.add(0);
@@ -59,7 +85,7 @@ public class NestedLoopJudgement<T extends Geometry, U extends Geometry>
             return Collections.emptyIterator();
         }
 
-        initPartition();
+        initPartition(partitionId);
 
         List<T> queryObjects = new ArrayList<>();
         while (iteratorObject.hasNext()) {
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.core.joinJudgement;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.sedona.core.monitoring.Metric;
+import org.apache.sedona.core.spatialOperator.SpatialPredicate;
+import org.apache.spark.TaskContext;
+import org.apache.spark.api.java.function.FlatMapFunction2;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+
+import javax.annotation.Nullable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Joins two partitions by sorting both sides by the minimum X of their envelopes and sweeping a
+ * vertical line over them. Each geometry is only compared with the geometries of the other side
+ * whose envelope starts within its X range, and no index is built.
+ * <p>
+ * A sweep reads both sides in order, which suits partitions whose sides have similar sizes. When one
+ * side is much smaller, building an index on it and probing it with the other side is cheaper.
+ */
+public class PlaneSweepJudgement<T extends Geometry, U extends Geometry>
+        extends JudgementBase<T, U>
+        implements FlatMapFunction2<Iterator<U>, Iterator<T>, Pair<U, T>>, Serializable
+{
+    /**
+     * Default maximum ratio between the sizes of the two sides of a partition to join it by a plane
+     * sweep rather than an index built on the fly. Plane sweeps are disabled by default, because they
+     * replace the index type chosen by the user.
+     */
+    public static final double DEFAULT_SIZE_RATIO = 0;
+
+    private static final Comparator<Geometry> MIN_X_COMPARATOR =
+            Comparator.comparingDouble(geometry -> geometry.getEnvelopeInternal().getMinX());
+
+    /**
+     * @see JudgementBase
+     */
+    public PlaneSweepJudgement(SpatialPredicate spatialPredicate,
+            Metric buildCount,
+            Metric streamCount,
+            Metric resultCount,
+            Metric candidateCount)
+    {
+        this(spatialPredicate, buildCount, streamCount, resultCount, candidateCount, null);
+    }
+
+    /**
+     * @see JudgementBase
+     */
+    public PlaneSweepJudgement(SpatialPredicate spatialPredicate,
+            Metric buildCount,
+            Metric streamCount,
+            Metric resultCount,
+            Metric candidateCount,
+            @Nullable DedupParams dedupParams)
+    {
+        super(spatialPredicate, buildCount, streamCount, resultCount, candidateCount, dedupParams);
+    }
+
+    @Override
+    public Iterator<Pair<U, T>> call(Iterator<U> leftShapes, Iterator<T> rightShapes)
+            throws Exception
+    {
+        return call(TaskContext.getPartitionId(), leftShapes, rightShapes);
+    }
+
+    /**
+     * @param partitionId index of the partition, used to look up its extent to skip duplicate pairs
+     * @see #call(Iterator, Iterator)
+     */
+    public Iterator<Pair<U, T>> call(int partitionId, Iterator<U> leftShapes, Iterator<T> rightShapes)
+            throws Exception
+    {
+        if (!leftShapes.hasNext() || !rightShapes.hasNext()) {
+            buildCount.add(0);
+            streamCount.add(0);
+            resultCount.add(0);
+            candidateCount.add(0);
+            return Collections.emptyIterator();
+        }
+
+        List<Geometry> left = new ArrayList<>();
+        while (leftShapes.hasNext()) {
+            left.add(leftShapes.next());
+        }
+        List<Geometry> right = new ArrayList<>();
+        while (rightShapes.hasNext()) {
+            right.add(rightShapes.next());
+        }
+        return sweep(partitionId, left, right);
+    }
+
+    /**
+     * Joins the two sides of a partition which were already read.
+     */
+    Iterator<Pair<U, T>> sweep(int partitionId, List<Geometry> leftShapes, List<Geometry> rightShapes)
+    {
+        initPartition(partitionId);
+        buildCount.add(leftShapes.size());
+        streamCount.add(rightShapes.size());
+        final List<Geometry> left = sortByMinX(leftShapes);
+        final List<Geometry> right = sortByMinX(rightShapes);
+        // The sweep reads the envelopes sequentially, without dereferencing the geometries
+        final double[] leftBounds = getBounds(left);
+        final double[] rightBounds = getBounds(right);
+        log("Sweeping %d and %d shapes", left.size(), right.size());
+
+        return new Iterator<Pair<U, T>>()
+        {
+            // Next geometry of each side to sweep over
+            private int nextLeft = 0;
+            private int nextRight = 0;
+            private final List<Pair<U, T>> batch = new ArrayList<>();
+            private int nextIndex = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                while (nextIndex >= batch.size() && nextLeft < left.size() && nextRight < right.size()) {
+                    batch.clear();
+                    nextIndex = 0;
+                    sweepNext();
+                }
+                return nextIndex < batch.size();
+            }
+
+            @Override
+            public Pair<U, T> next()
+            {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batch.get(nextIndex++);
+            }
+
+            /**
+             * Joins the geometry starting first with the geometries of the other side that start
+             * within its X range, which did not start yet.
+             */
+            private void sweepNext()
+            {
+                if (leftBounds[4 * nextLeft] <= rightBounds[4 * nextRight]) {
+                    final Geometry leftShape = left.get(nextLeft);
+                    final int offset = 4 * nextLeft;
+                    for (int i = nextRight; i < right.size() && rightBounds[4 * i] <= leftBounds[offset + 1]; i++) {
+                        if (overlapsY(leftBounds, offset, rightBounds, 4 * i)) {
+                            refine(leftShape, right.get(i));
+                        }
+                    }
+                    nextLeft++;
+                }
+                else {
+                    final Geometry rightShape = right.get(nextRight);
+                    final int offset = 4 * nextRight;
+                    for (int i = nextLeft; i < left.size() && leftBounds[4 * i] <= rightBounds[offset + 1]; i++) {
+                        if (overlapsY(rightBounds, offset, leftBounds, 4 * i)) {
+                            refine(left.get(i), rightShape);
+                        }
+                    }
+                    nextRight++;
+                }
+            }
+
+            private void refine(Geometry leftShape, Geometry rightShape)
+            {
+                candidateCount.add(1);
+                if (match(leftShape, rightShape)) {
+                    batch.add(Pair.of((U) leftShape, (T) rightShape));
+                    resultCount.add(1);
+                }
+            }
+        };
+    }
+
+    /**
+     * Geometries with non-empty envelopes sorted by the minimum X of their envelopes. Geometries
+     * with empty envelopes don't match any geometry, like in an index.
+     */
+    private static List<Geometry> sortByMinX(List<Geometry> geometries)
+    {
+        List<Geometry> sorted = new ArrayList<>(geometries.size());
+        for (Geometry geometry : geometries) {
+            if (!geometry.getEnvelopeInternal().isNull()) {
+                sorted.add(geometry);
+            }
+        }
+        sorted.sort(MIN_X_COMPARATOR);
+        return sorted;
+    }
+
+    /**
+     * Envelopes of the geometries, stored as (minX, maxX, minY, maxY)
+     */
+    private static double[] getBounds(List<Geometry> geometries)
+    {
+        double[] bounds = new double[4 * geometries.size()];
+        for (int i = 0; i < geometries.size(); i++) {
+            Envelope envelope = geometries.get(i).getEnvelopeInternal();
+            bounds[4 * i] = envelope.getMinX();
+            bounds[4 * i + 1] = envelope.getMaxX();
+            bounds[4 * i + 2] = envelope.getMinY();
+            bounds[4 * i + 3] = envelope.getMaxY();
+        }
+        return bounds;
+    }
+
+    private static boolean overlapsY(double[] bounds, int offset, double[] otherBounds, int otherOffset)
+    {
+        return otherBounds[otherOffset + 2] <= bounds[offset + 3] && otherBounds[otherOffset + 3] >= bounds[offset + 2];
+    }
+}
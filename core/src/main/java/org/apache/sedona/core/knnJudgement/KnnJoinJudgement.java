@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.core.knnJudgement;
+
+import org.apache.spark.api.java.function.FlatMapFunction2;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.SpatialIndex;
+import scala.Tuple2;
+import scala.Tuple3;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Finds the k nearest geometries of a partition for each query geometry sent to that partition.
+ * <p>
+ * Query geometries are tuples of a query id, the query geometry and the nearest geometries already
+ * found for it. Queries which already carry their nearest geometries are passed through unchanged,
+ * the others are looked up in the index of the partition.
+ */
+public class KnnJoinJudgement<U extends Geometry, T extends Geometry>
+        implements FlatMapFunction2<Iterator<SpatialIndex>, Iterator<Tuple2<Integer, Tuple3<Long, U, List<T>>>>, Tuple2<Long, Tuple2<U, List<T>>>>, Serializable
+{
+    private final int k;
+
+    /**
+     * @param k number of nearest geometries to find for each query
+     */
+    public KnnJoinJudgement(int k)
+    {
+        this.k = k;
+    }
+
+    @Override
+    public Iterator<Tuple2<Long, Tuple2<U, List<T>>>> call(Iterator<SpatialIndex> treeIndexes, Iterator<Tuple2<Integer, Tuple3<Long, U, List<T>>>> queries)
+            throws Exception
+    {
+        final SpatialIndex treeIndex = treeIndexes.hasNext() ? treeIndexes.next() : null;
+        return new Iterator<Tuple2<Long, Tuple2<U, List<T>>>>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return queries.hasNext();
+            }
+
+            @Override
+            public Tuple2<Long, Tuple2<U, List<T>>> next()
+            {
+                Tuple3<Long, U, List<T>> query = queries.next()._2;
+                List<T> neighbours = query._3();
+                if (neighbours == null) {
+                    try {
+                        neighbours = nearestNeighbours(treeIndex, query._2());
+                    }
+                    catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                return new Tuple2<>(query._1(), new Tuple2<>(query._2(), neighbours));
+            }
+        };
+    }
+
+    private List<T> nearestNeighbours(SpatialIndex treeIndex, U queryGeometry)
+            throws Exception
+    {
+        if (treeIndex == null || queryGeometry.getEnvelopeInternal().isNull()) {
+            return Collections.emptyList();
+        }
+        Object[] localK = KnnJudgementUsingIndex.nearestNeighbours(treeIndex, queryGeometry, k);
+        List<T> result = new ArrayList<>(localK.length);
+        for (Object geometry : localK) {
+            result.add((T) geometry);
+        }
+        return result;
+    }
+}
@@ -19,9 +19,12 @@
 
 package org.apache.sedona.core.knnJudgement;
 
+import org.apache.sedona.common.spatialIndex.PackedHilbertRtree;
 import org.apache.spark.api.java.function.FlatMapFunction;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.index.SpatialIndex;
+import org.locationtech.jts.index.quadtree.Quadtree;
+import org.locationtech.jts.index.quadtree.QuadtreeNearestNeighbour;
 import org.locationtech.jts.index.strtree.GeometryItemDistance;
 import org.locationtech.jts.index.strtree.STRtree;
 
@@ -69,17 +72,35 @@ public class KnnJudgementUsingIndex<U extends Geometry, T extends Geometry>
             throws Exception
     {
         SpatialIndex treeIndex = treeIndexes.next();
-        final Object[] localK;
-        if (treeIndex instanceof STRtree) {
-            localK = ((STRtree) treeIndex).nearestNeighbour(queryCenter.getEnvelopeInternal(), queryCenter, new GeometryItemDistance(), k);
-        }
-        else {
-            throw new Exception("[KnnJudgementUsingIndex][Call] QuadTree index doesn't support KNN search.");
-        }
+        final Object[] localK = nearestNeighbours(treeIndex, queryCenter, k);
         List<T> result = new ArrayList();
         for (int i = 0; i < localK.length; i++) {
             result.add((T) localK[i]);
         }
         return result.iterator();
     }
+
+    /**
+     * Find the k geometries of an index nearest to a query geometry.
+     *
+     * @param treeIndex R-Tree, Quadtree or packed Hilbert R-Tree holding geometries
+     * @param queryCenter the query geometry
+     * @param k the k
+     * @return the k nearest geometries, nearest first, or fewer if the index holds fewer geometries
+     * @throws Exception if the index doesn't support KNN search
+     */
+    public static Object[] nearestNeighbours(SpatialIndex treeIndex, Geometry queryCenter, int k)
+            throws Exception
+    {
+        if (treeIndex instanceof STRtree) {
+            return ((STRtree) treeIndex).nearestNeighbour(queryCenter.getEnvelopeInternal(), queryCenter, new GeometryItemDistance(), k);
+        }
+        else if (treeIndex instanceof Quadtree) {
+            return QuadtreeNearestNeighbour.nearestNeighbour((Quadtree) treeIndex, queryCenter.getEnvelopeInternal(), queryCenter, new GeometryItemDistance(), k);
+        }
+        else if (treeIndex instanceof PackedHilbertRtree) {
+            return ((PackedHilbertRtree) treeIndex).nearestNeighbour(queryCenter.getEnvelopeInternal(), queryCenter, new GeometryItemDistance(), k);
+        }
+        throw new Exception("[KnnJudgementUsingIndex][Call] " + treeIndex.getClass().getSimpleName() + " index doesn't support KNN search.");
+    }
 }
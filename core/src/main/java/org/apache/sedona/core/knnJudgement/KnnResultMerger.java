@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.core.knnJudgement;
+
+import org.locationtech.jts.geom.Geometry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Merges the k nearest geometries found in several partitions of a spatially partitioned RDD.
+ */
+public final class KnnResultMerger
+{
+    private KnnResultMerger() {}
+
+    /**
+     * Merge the local k nearest geometries of partitions. A geometry replicated to several partitions
+     * is counted as many times as it appears in a single partition, so that distinct records with equal
+     * geometries are kept.
+     *
+     * @param localResults k nearest geometries of each partition
+     * @param comparator order of the geometries by distance to the query
+     * @param k the k
+     * @return the k nearest geometries, nearest first
+     */
+    public static <T extends Geometry> List<T> merge(Iterable<? extends List<T>> localResults, GeometryDistanceComparator<Geometry> comparator, int k)
+    {
+        Map<ResultKey, Integer> counts = new HashMap<>();
+        Map<ResultKey, T> geometries = new HashMap<>();
+        for (List<T> localResult : localResults) {
+            Map<ResultKey, Integer> localCounts = new HashMap<>();
+            for (T geometry : localResult) {
+                ResultKey key = new ResultKey(geometry);
+                localCounts.merge(key, 1, Integer::sum);
+                geometries.putIfAbsent(key, geometry);
+            }
+            localCounts.forEach((key, count) -> counts.merge(key, count, Math::max));
+        }
+        List<T> result = new ArrayList<>();
+        counts.forEach((key, count) -> {
+            for (int i = 0; i < count; i++) {
+                result.add(geometries.get(key));
+            }
+        });
+        result.sort(comparator);
+        return result.size() > k ? new ArrayList<>(result.subList(0, k)) : result;
+    }
+
+    /**
+     * Identifies a geometry and its user data, to find copies of the same geometry in different partitions.
+     */
+    private static final class ResultKey
+    {
+        private final Geometry geometry;
+
+        ResultKey(Geometry geometry)
+        {
+            this.geometry = geometry;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof ResultKey)) {
+                return false;
+            }
+            Geometry other = ((ResultKey) o).geometry;
+            return geometry.equalsExact(other) && Objects.equals(geometry.getUserData(), other.getUserData());
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * geometry.getEnvelopeInternal().hashCode() + Objects.hashCode(geometry.getUserData());
+        }
+    }
+}
@@ -24,7 +24,10 @@ import org.apache.log4j.Logger;
 import org.apache.sedona.common.geometryObjects.Circle;
 import org.apache.sedona.common.geometrySerde.GeometrySerde;
 import org.apache.sedona.common.geometrySerde.SpatialIndexSerde;
+import org.apache.sedona.common.spatialIndex.PackedHilbertRtree;
+import org.apache.spark.SparkEnv;
 import org.apache.spark.serializer.KryoRegistrator;
+import org.apache.spark.sql.catalyst.expressions.UnsafeRow;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.LineString;
@@ -42,10 +45,26 @@ public class SedonaKryoRegistrator
 
     final static Logger log = Logger.getLogger(SedonaKryoRegistrator.class);
 
+    static final String COMPACT_ENCODING_CONF = "sedona.serde.compact";
+
     @Override
     public void registerClasses(Kryo kryo)
     {
-        GeometrySerde serializer = new GeometrySerde();
+        // Kryo instances are created on the driver and on every executor, so this is where the
+        // serialization settings from SparkConf reach the serializers everywhere
+        SparkEnv sparkEnv = SparkEnv.get();
+        registerClasses(kryo, sparkEnv != null && sparkEnv.conf().getBoolean(COMPACT_ENCODING_CONF, false));
+    }
+
+    /**
+     * Register the serializers with the given settings instead of reading them from SparkConf.
+     *
+     * @param kryo Kryo instance to register the serializers with
+     * @param compactEncoding whether to write geometries in the compact encoding
+     */
+    public void registerClasses(Kryo kryo, boolean compactEncoding)
+    {
+        GeometrySerde serializer = new GeometrySerde(UnsafeRow.class, new UnsafeRowSerializer(), compactEncoding);
         SpatialIndexSerde indexSerializer = new SpatialIndexSerde(serializer);
 
         log.info("Registering custom serializers for geometry types");
@@ -62,5 +81,6 @@ public class SedonaKryoRegistrator
         // TODO: Replace the default serializer with default spatial index serializer
         kryo.register(Quadtree.class, indexSerializer);
         kryo.register(STRtree.class, indexSerializer);
+        kryo.register(PackedHilbertRtree.class, indexSerializer);
     }
 }
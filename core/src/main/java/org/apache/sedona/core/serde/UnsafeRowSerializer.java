@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sedona.core.serde;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.apache.spark.sql.catalyst.expressions.UnsafeRow;
+import org.apache.spark.unsafe.Platform;
+
+import java.io.Serializable;
+
+/**
+ * Writes the raw bytes of an UnsafeRow with a length prefix. Used for the rows attached as user
+ * data to geometries in Spark SQL spatial joins.
+ */
+public class UnsafeRowSerializer
+        extends Serializer<UnsafeRow> implements Serializable
+{
+    @Override
+    public void write(Kryo kryo, Output output, UnsafeRow row)
+    {
+        int sizeInBytes = row.getSizeInBytes();
+        output.writeVarInt(row.numFields(), true);
+        output.writeVarInt(sizeInBytes, true);
+        Object baseObject = row.getBaseObject();
+        if (baseObject instanceof byte[]) {
+            output.writeBytes((byte[]) baseObject, (int) (row.getBaseOffset() - Platform.BYTE_ARRAY_OFFSET), sizeInBytes);
+        }
+        else {
+            output.writeBytes(row.getBytes());
+        }
+    }
+
+    @Override
+    public UnsafeRow read(Kryo kryo, Input input, Class<UnsafeRow> type)
+    {
+        int numFields = input.readVarInt(true);
+        int sizeInBytes = input.readVarInt(true);
+        UnsafeRow row = new UnsafeRow(numFields);
+        row.pointTo(input.readBytes(sizeInBytes), sizeInBytes);
+        return row;
+    }
+}
@@ -27,21 +27,31 @@ import org.apache.sedona.common.utils.GeomUtils;
 import org.apache.sedona.core.enums.IndexType;
 import org.apache.sedona.core.enums.JoinBuildSide;
 import org.apache.sedona.core.joinJudgement.*;
+import org.apache.sedona.core.knnJudgement.GeometryDistanceComparator;
+import org.apache.sedona.core.knnJudgement.KnnJoinJudgement;
+import org.apache.sedona.core.knnJudgement.KnnResultMerger;
 import org.apache.sedona.core.monitoring.Metric;
 import org.apache.sedona.core.monitoring.Metrics;
 import org.apache.sedona.core.spatialPartitioning.SpatialPartitioner;
 import org.apache.sedona.core.spatialRDD.CircleRDD;
 import org.apache.sedona.core.spatialRDD.SpatialRDD;
+import org.apache.sedona.core.spatialRddTool.IndexBuilder;
 import org.apache.spark.SparkContext;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
-import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.Function2;
+import org.apache.spark.api.java.function.Function3;
 import org.apache.spark.api.java.function.PairFunction;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.index.SpatialIndex;
 import scala.Tuple2;
+import scala.Tuple3;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -50,6 +60,8 @@ public class JoinQuery
 {
     private static final Logger log = LogManager.getLogger(JoinQuery.class);
 
+    private static final GeometryFactory geometryFactory = new GeometryFactory();
+
     private static <U extends Geometry, T extends Geometry> void verifyCRSMatch(SpatialRDD<T> spatialRDD, SpatialRDD<U> queryRDD)
             throws Exception
     {
@@ -499,6 +511,134 @@ public class JoinQuery
         return countGeometriesByKey(joinResults);
     }
 
+    /**
+     * Finds the k nearest geometries of {@code spatialRDD} for every geometry of {@code queryRDD}.
+     * <p>
+     * {@code spatialRDD} must be spatially partitioned, {@code queryRDD} doesn't need to be. The join
+     * runs in two rounds over the partitions of {@code spatialRDD}. Each query geometry is first sent to
+     * the partition containing the centre of its envelope, which finds its k nearest geometries within
+     * that partition. The distance to the k-th of them bounds the distance to the k nearest geometries
+     * overall, so the query is then only sent to the other partitions whose grid is closer than that
+     * distance, or to all other partitions if its first partition holds fewer than k geometries.
+     * The nearest geometries found in all partitions are finally merged.
+     * <p>
+     * If {@code useIndex} is false, an R-Tree is built on each partition in each round. To build the
+     * indexes only once, build an index on {@code spatialRDD}, persist its {@code indexedRDD} and set
+     * {@code useIndex}. Like the other joins, the result is computed lazily and is not cached.
+     * <p>
+     * Every geometry of {@code queryRDD} has its own result, including duplicates. Geometries of
+     * {@code spatialRDD} replicated to several partitions are only returned once.
+     *
+     * @param <U> Type of the geometries in queryRDD set
+     * @param <T> Type of the geometries in spatialRDD set
+     * @param spatialRDD Set of geometries, spatially partitioned
+     * @param queryRDD Set of geometries to find the nearest geometries of
+     * @param k Number of nearest geometries to find for each query geometry
+     * @param useIndex Boolean indicating whether the join should use the index from {@code spatialRDD.indexedRDD}
+     * @return RDD of pairs where each pair contains a query geometry and its k nearest geometries, nearest first.
+     * Fewer geometries are returned if {@code spatialRDD} holds fewer than k geometries.
+     * @throws Exception the exception
+     */
+    public static <U extends Geometry, T extends Geometry> JavaPairRDD<U, List<T>> KNNJoinQuery(SpatialRDD<T> spatialRDD, SpatialRDD<U> queryRDD, int k, boolean useIndex)
+            throws Exception
+    {
+        if (k <= 0) {
+            throw new IllegalArgumentException("[JoinQuery] k must be positive: " + k);
+        }
+        verifyCRSMatch(spatialRDD, queryRDD);
+        Objects.requireNonNull(spatialRDD.spatialPartitionedRDD, "[JoinQuery] spatialRDD SpatialPartitionedRDD is null. Please do spatial partitioning.");
+
+        final JavaRDD<SpatialIndex> indexes;
+        if (useIndex) {
+            indexes = Objects.requireNonNull(spatialRDD.indexedRDD, "[JoinQuery] spatialRDD IndexedRDD is null. Please build an index after spatial partitioning.");
+        }
+        else {
+            indexes = spatialRDD.spatialPartitionedRDD.mapPartitions(new IndexBuilder<>(IndexType.RTREE));
+        }
+        final SpatialPartitioner partitioner = spatialRDD.getPartitioner();
+        final int numPartitions = indexes.getNumPartitions();
+        final KnnJoinJudgement<U, T> judgement = new KnnJoinJudgement<>(k);
+
+        final JavaPairRDD<Integer, Tuple3<Long, U, List<T>>> firstQueries = queryRDD.rawSpatialRDD.zipWithUniqueId()
+                .mapToPair(query -> new Tuple2<>(knnFirstPartition(partitioner, numPartitions, query._1), new Tuple3<Long, U, List<T>>(query._2, query._1, null)))
+                .partitionBy(partitioner);
+        final JavaRDD<Tuple2<Long, Tuple2<U, List<T>>>> firstResults = indexes.zipPartitions(firstQueries, judgement);
+
+        // The first results are passed through the second round, so that the first round is not computed twice
+        final JavaPairRDD<Integer, Tuple3<Long, U, List<T>>> secondQueries = firstResults
+                .flatMapToPair(result -> knnSecondPartitions(partitioner, numPartitions, k, result))
+                .partitionBy(partitioner);
+        final JavaRDD<Tuple2<Long, Tuple2<U, List<T>>>> secondResults = indexes.zipPartitions(secondQueries, judgement);
+
+        final JavaPairRDD<U, List<T>> results = JavaPairRDD.fromJavaRDD(secondResults).groupByKey().values().mapToPair(localResults -> {
+            U query = localResults.iterator().next()._1;
+            List<List<T>> neighbours = new ArrayList<>();
+            for (Tuple2<U, List<T>> localResult : localResults) {
+                neighbours.add(localResult._2);
+            }
+            return new Tuple2<>(query, KnnResultMerger.merge(neighbours, new GeometryDistanceComparator<>(query, true), k));
+        });
+        return results;
+    }
+
+    /**
+     * Partition holding the centre of the envelope of a query geometry, or the partition with the
+     * nearest grid if the centre is outside all grids.
+     */
+    private static int knnFirstPartition(SpatialPartitioner partitioner, int numPartitions, Geometry query)
+            throws Exception
+    {
+        final Envelope envelope = query.getEnvelopeInternal();
+        if (envelope.isNull()) {
+            return 0;
+        }
+        final Iterator<Tuple2<Integer, Point>> placed = partitioner.placeObject(geometryFactory.createPoint(envelope.centre()));
+        if (placed.hasNext()) {
+            return placed.next()._1;
+        }
+        final List<Envelope> grids = partitioner.getGrids();
+        int nearest = 0;
+        double nearestDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < Math.min(grids.size(), numPartitions); i++) {
+            double distance = grids.get(i).distance(envelope);
+            if (distance < nearestDistance) {
+                nearest = i;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Sends the first result of a query back to its first partition, and the query to all other
+     * partitions that may hold a geometry nearer than its k-th nearest geometry so far. Partitions
+     * without a grid are overflow partitions, which may hold geometries anywhere.
+     */
+    private static <U extends Geometry, T extends Geometry> Iterator<Tuple2<Integer, Tuple3<Long, U, List<T>>>> knnSecondPartitions(
+            SpatialPartitioner partitioner, int numPartitions, int k, Tuple2<Long, Tuple2<U, List<T>>> firstResult)
+            throws Exception
+    {
+        final U query = firstResult._2._1;
+        final List<T> neighbours = firstResult._2._2;
+        final int firstPartition = knnFirstPartition(partitioner, numPartitions, query);
+        final List<Tuple2<Integer, Tuple3<Long, U, List<T>>>> result = new ArrayList<>();
+        result.add(new Tuple2<>(firstPartition, new Tuple3<>(firstResult._1, query, neighbours)));
+
+        final Envelope envelope = query.getEnvelopeInternal();
+        if (envelope.isNull()) {
+            return result.iterator();
+        }
+        final double kthDistance = neighbours.size() >= k ? neighbours.get(k - 1).distance(query) : Double.POSITIVE_INFINITY;
+        final List<Envelope> grids = partitioner.getGrids();
+        for (int i = 0; i < numPartitions; i++) {
+            double distance = i < grids.size() ? grids.get(i).distance(envelope) : 0;
+            if (i != firstPartition && distance < kthDistance) {
+                result.add(new Tuple2<>(i, new Tuple3<Long, U, List<T>>(firstResult._1, query, null)));
+            }
+        }
+        return result.iterator();
+    }
+
     /**
      * <p>
      * Note: INTERNAL FUNCTION. API COMPATIBILITY IS NOT GUARANTEED. DO NOT USE IF YOU DON'T KNOW WHAT IT IS.
@@ -543,41 +683,60 @@ public class JoinQuery
         final SpatialPartitioner partitioner =
                 (SpatialPartitioner) rightRDD.spatialPartitionedRDD.partitioner().get();
         final DedupParams dedupParams = partitioner.getDedupParams();
-        final SparkContext cxt = leftRDD.rawSpatialRDD.context();
 
         final JavaRDD<Pair<U, T>> joinResult;
         if (joinParams.useIndex) {
             if (rightRDD.indexedRDD != null) {
                 final RightIndexLookupJudgement judgement =
                         new RightIndexLookupJudgement(joinParams.spatialPredicate,
-                                buildCount, streamCount, resultCount, candidateCount);
-                joinResult = leftRDD.spatialPartitionedRDD.zipPartitions(rightRDD.indexedRDD, judgement);
+                                buildCount, streamCount, resultCount, candidateCount, dedupParams);
+                joinResult = zipPartitionsWithIndex(leftRDD.spatialPartitionedRDD, rightRDD.indexedRDD, judgement::call);
             }
             else if (leftRDD.indexedRDD != null) {
                 final LeftIndexLookupJudgement judgement =
                         new LeftIndexLookupJudgement(joinParams.spatialPredicate,
-                                buildCount, streamCount, resultCount, candidateCount);
-                joinResult = leftRDD.indexedRDD.zipPartitions(rightRDD.spatialPartitionedRDD, judgement);
+                                buildCount, streamCount, resultCount, candidateCount, dedupParams);
+                joinResult = zipPartitionsWithIndex(leftRDD.indexedRDD, rightRDD.spatialPartitionedRDD, judgement::call);
             }
             else {
                 log.warn("UseIndex is true, but no index exists. Will build index on the fly.");
+                Metric buildLeftCount = Metrics.createMetric(sparkContext, "buildLeftCount");
+                Metric nestedLoopCount = Metrics.createMetric(sparkContext, "nestedLoopCount");
+                Metric planeSweepCount = Metrics.createMetric(sparkContext, "planeSweepCount");
                 DynamicIndexLookupJudgement judgement =
                         new DynamicIndexLookupJudgement(
                                 joinParams.spatialPredicate,
                                 joinParams.indexType,
                                 joinParams.joinBuildSide,
-                                buildCount, streamCount, resultCount, candidateCount);
-                joinResult = leftRDD.spatialPartitionedRDD.zipPartitions(rightRDD.spatialPartitionedRDD, judgement);
+                                joinParams.parallelIndexBuildThreshold,
+                                joinParams.planeSweepSizeRatio,
+                                buildCount, streamCount, resultCount, candidateCount,
+                                buildLeftCount, nestedLoopCount, planeSweepCount, dedupParams);
+                joinResult = zipPartitionsWithIndex(leftRDD.spatialPartitionedRDD, rightRDD.spatialPartitionedRDD, judgement::call);
             }
         }
         else {
             NestedLoopJudgement judgement = new NestedLoopJudgement(joinParams.spatialPredicate,
-                    buildCount, streamCount, resultCount, candidateCount);
-            joinResult = rightRDD.spatialPartitionedRDD.zipPartitions(leftRDD.spatialPartitionedRDD, judgement);
+                    buildCount, streamCount, resultCount, candidateCount, dedupParams);
+            joinResult = zipPartitionsWithIndex(rightRDD.spatialPartitionedRDD, leftRDD.spatialPartitionedRDD, judgement::call);
         }
 
-        return joinResult.mapPartitionsWithIndex(new DuplicatesFilter(new JavaSparkContext(cxt).broadcast(dedupParams)), false)
-                .mapToPair((PairFunction<Pair<U, T>, U, T>) pair -> new Tuple2<>(pair.getKey(), pair.getValue()));
+        return joinResult.mapToPair((PairFunction<Pair<U, T>, U, T>) pair -> new Tuple2<>(pair.getKey(), pair.getValue()));
+    }
+
+    /**
+     * Runs a join judgement on each pair of zipped partitions, passing it the index of the partition
+     * so that it can skip the pairs reported by other partitions. The id of the task differs from the
+     * index of the partition when the join result is part of a union.
+     */
+    private static <A, B, R> JavaRDD<R> zipPartitionsWithIndex(JavaRDD<A> left, JavaRDD<B> right,
+            Function3<Integer, Iterator<A>, Iterator<B>, Iterator<R>> judgement)
+    {
+        return left.zipPartitions(right, (leftShapes, rightShapes) -> Collections.singletonList(new Tuple2<>(leftShapes, rightShapes)).iterator())
+                .mapPartitionsWithIndex((partitionId, zipped) -> {
+                    Tuple2<Iterator<A>, Iterator<B>> shapes = zipped.next();
+                    return judgement.call(partitionId, shapes._1, shapes._2);
+                }, false);
     }
 
     public static final class JoinParams
@@ -586,13 +745,34 @@ public class JoinQuery
         public final SpatialPredicate spatialPredicate;
         public final IndexType indexType;
         public final JoinBuildSide joinBuildSide;
-
-        public JoinParams(boolean useIndex, SpatialPredicate spatialPredicate, IndexType polygonIndexType, JoinBuildSide joinBuildSide)
+        public final long parallelIndexBuildThreshold;
+        public final double planeSweepSizeRatio;
+
+        /**
+         * @param planeSweepSizeRatio when an index is built on the fly, maximum ratio between the sizes of the two sides
+         *                            of a partition to join it by a plane sweep instead of the index type, a value below 1
+         *                            disables plane sweeps, which is the default
+         */
+        public JoinParams(boolean useIndex, SpatialPredicate spatialPredicate, IndexType polygonIndexType, JoinBuildSide joinBuildSide,
+                long parallelIndexBuildThreshold, double planeSweepSizeRatio)
         {
             this.useIndex = useIndex;
             this.spatialPredicate = spatialPredicate;
             this.indexType = polygonIndexType;
             this.joinBuildSide = joinBuildSide;
+            this.parallelIndexBuildThreshold = parallelIndexBuildThreshold;
+            this.planeSweepSizeRatio = planeSweepSizeRatio;
+        }
+
+        public JoinParams(boolean useIndex, SpatialPredicate spatialPredicate, IndexType polygonIndexType, JoinBuildSide joinBuildSide,
+                long parallelIndexBuildThreshold)
+        {
+            this(useIndex, spatialPredicate, polygonIndexType, joinBuildSide, parallelIndexBuildThreshold, PlaneSweepJudgement.DEFAULT_SIZE_RATIO);
+        }
+
+        public JoinParams(boolean useIndex, SpatialPredicate spatialPredicate, IndexType polygonIndexType, JoinBuildSide joinBuildSide)
+        {
+            this(useIndex, spatialPredicate, polygonIndexType, joinBuildSide, IndexBuilder.DEFAULT_PARALLEL_BUILD_THRESHOLD);
         }
 
         public JoinParams(boolean useIndex, SpatialPredicate spatialPredicate)
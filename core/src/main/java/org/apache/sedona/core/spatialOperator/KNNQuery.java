@@ -22,13 +22,26 @@ package org.apache.sedona.core.spatialOperator;
 import org.apache.sedona.core.knnJudgement.GeometryDistanceComparator;
 import org.apache.sedona.core.knnJudgement.KnnJudgement;
 import org.apache.sedona.core.knnJudgement.KnnJudgementUsingIndex;
+import org.apache.sedona.core.knnJudgement.KnnResultMerger;
+import org.apache.sedona.core.spatialPartitioning.SpatialPartitioner;
 import org.apache.sedona.core.spatialRDD.SpatialRDD;
 import org.apache.sedona.core.utils.CRSTransformation;
 import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.apache.spark.rdd.PartitionPruningRDD;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
+import scala.runtime.AbstractFunction1;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 // TODO: Auto-generated Javadoc
 
@@ -41,6 +54,10 @@ public class KNNQuery
 
     /**
      * Spatial knn query.
+     * <p>
+     * When the spatial RDD is spatially partitioned (and indexed, if useIndex is true), only the
+     * partitions near the query are scanned, see {@link #partitionPrunedKnnQuery}. Otherwise every
+     * partition of the raw spatial RDD is scanned.
      *
      * @param spatialRDD the spatial RDD
      * @param originalQueryPoint the original query window
@@ -55,7 +72,11 @@ public class KNNQuery
             queryCenter = CRSTransformation.Transform(spatialRDD.getSourceEpsgCode(), spatialRDD.getTargetEpgsgCode(), originalQueryPoint);
         }
 
+        SpatialPartitioner partitioner = spatialRDD.getPartitioner();
         if (useIndex) {
+            if (spatialRDD.indexedRDD != null && partitioner != null) {
+                return partitionPrunedKnnQuery(spatialRDD.indexedRDD, partitioner, new KnnJudgementUsingIndex<U, T>(queryCenter, k), queryCenter, k);
+            }
             if (spatialRDD.indexedRawRDD == null) {
                 throw new NullPointerException("Need to invoke buildIndex() first, indexedRDDNoId is null");
             }
@@ -65,10 +86,104 @@ public class KNNQuery
             return result;
         }
         else {
+            if (spatialRDD.spatialPartitionedRDD != null && partitioner != null) {
+                return partitionPrunedKnnQuery(spatialRDD.spatialPartitionedRDD, partitioner, new KnnJudgement<U, T>(queryCenter, k), queryCenter, k);
+            }
             JavaRDD<T> tmp = spatialRDD.getRawSpatialRDD().mapPartitions(new KnnJudgement(queryCenter, k));
             List<T> result = tmp.takeOrdered(k, new GeometryDistanceComparator(queryCenter, true));
             // Take the top k
             return result;
         }
     }
+
+    /**
+     * Knn query over a spatially partitioned RDD which only scans the partitions that may hold one of
+     * the k nearest geometries.
+     * <p>
+     * Partitions are visited in increasing distance between their grid and the query, starting with
+     * the partitions containing the query, plus the overflow partitions which have no grid, and doubling
+     * the number of partitions each round until k geometries are found. A last round then visits the
+     * remaining partitions closer than the k-th nearest geometry found so far. Any geometry crossing a
+     * grid is placed in the partition of that grid, so the distance to the grid is a lower bound of the
+     * distance to the geometries of the partition.
+     * <p>
+     * Geometries crossing several grids are replicated to several partitions, the copies found in
+     * different partitions are only counted once.
+     *
+     * @param rdd spatially partitioned RDD, or the index RDD built on it
+     * @param partitioner partitioner of the RDD
+     * @param judgement local knn search of a partition
+     * @param queryCenter the query center
+     * @param k the k
+     * @return the k nearest geometries, nearest first
+     */
+    private static <U extends Geometry, T extends Geometry, S> List<T> partitionPrunedKnnQuery(
+            JavaRDD<S> rdd, SpatialPartitioner partitioner, FlatMapFunction<Iterator<S>, T> judgement, U queryCenter, int k)
+    {
+        final int numPartitions = rdd.getNumPartitions();
+        final List<Envelope> grids = partitioner.getGrids();
+        final Envelope queryEnvelope = queryCenter.getEnvelopeInternal();
+        final double[] distances = new double[numPartitions];
+        Integer[] order = new Integer[numPartitions];
+        int numContaining = 0;
+        for (int i = 0; i < numPartitions; i++) {
+            // Partitions without a grid are overflow partitions, which may hold geometries anywhere
+            distances[i] = i < grids.size() ? grids.get(i).distance(queryEnvelope) : 0;
+            order[i] = i;
+            if (distances[i] == 0) {
+                numContaining++;
+            }
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> distances[i]));
+
+        GeometryDistanceComparator<Geometry> comparator = new GeometryDistanceComparator<>(queryCenter, true);
+        List<List<T>> localResults = new ArrayList<>();
+        List<T> result = Collections.emptyList();
+        int numVisited = 0;
+        int roundSize = Math.max(numContaining, 1);
+        while (numVisited < numPartitions) {
+            final boolean lastRound = result.size() >= k;
+            int end;
+            if (lastRound) {
+                double kthDistance = result.get(k - 1).distance(queryCenter);
+                end = numVisited;
+                while (end < numPartitions && distances[order[end]] < kthDistance) {
+                    end++;
+                }
+            }
+            else {
+                end = Math.min(numVisited + roundSize, numPartitions);
+                roundSize *= 2;
+            }
+            if (end > numVisited) {
+                final Set<Integer> partitionIds = new HashSet<>(Arrays.asList(order).subList(numVisited, end));
+                JavaRDD<S> pruned = JavaRDD.fromRDD(PartitionPruningRDD.create(rdd.rdd(), new PartitionFilter(partitionIds)), rdd.classTag());
+                localResults.addAll(pruned.mapPartitions(judgement).glom().collect());
+                result = KnnResultMerger.merge(localResults, comparator, k);
+                numVisited = end;
+            }
+            if (lastRound) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static final class PartitionFilter
+            extends AbstractFunction1<Object, Object>
+            implements Serializable
+    {
+        private final Set<Integer> partitionIds;
+
+        PartitionFilter(Set<Integer> partitionIds)
+        {
+            this.partitionIds = partitionIds;
+        }
+
+        @Override
+        public Object apply(Object partitionId)
+        {
+            return partitionIds.contains((Integer) partitionId);
+        }
+    }
 }
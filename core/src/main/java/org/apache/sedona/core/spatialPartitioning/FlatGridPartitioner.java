@@ -27,6 +27,8 @@ import scala.Tuple2;
 
 import javax.annotation.Nullable;
 
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
 
@@ -91,4 +93,16 @@ public class FlatGridPartitioner
 
         return other.gridType.equals(this.gridType) && other.grids.equals(this.grids);
     }
+
+    @Override
+    void write(DataOutput out)
+            throws IOException
+    {
+        out.writeUTF(FLAT_GRID_FORMAT);
+        out.writeUTF(gridType == null ? "" : gridType.name());
+        out.writeInt(grids.size());
+        for (Envelope grid : grids) {
+            writeEnvelope(out, grid);
+        }
+    }
 }
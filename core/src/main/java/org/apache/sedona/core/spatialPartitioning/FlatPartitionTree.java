@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.core.spatialPartitioning;
+
+import org.locationtech.jts.geom.Envelope;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * A partitioning tree compiled into arrays of primitives, to look up the partitions of a geometry
+ * without walking the tree objects and without allocating.
+ * <p>
+ * Nodes are numbered breadth-first, so that the children of a node are numbered consecutively.
+ * Each node stores its extent rather than a split value, so that lookups return the same partitions
+ * as the tree even where the extents of quad-tree zones, computed from widths and heights, do not
+ * exactly meet.
+ */
+public final class FlatPartitionTree
+        implements Serializable
+{
+    /**
+     * Extent of each node, as (minX, maxX, minY, maxY)
+     */
+    private final double[] bounds;
+    /**
+     * Number of the first child of each node
+     */
+    private final int[] firstChild;
+    /**
+     * Number of children of each node, 0 for leaves
+     */
+    private final int[] numChildren;
+    /**
+     * Number of the parent of each node, -1 for the root
+     */
+    private final int[] parents;
+    /**
+     * Partition id of each leaf, -1 for other nodes
+     */
+    private final int[] partitionIds;
+
+    private FlatPartitionTree(double[] bounds, int[] firstChild, int[] numChildren, int[] parents, int[] partitionIds)
+    {
+        this.bounds = bounds;
+        this.firstChild = firstChild;
+        this.numChildren = numChildren;
+        this.parents = parents;
+        this.partitionIds = partitionIds;
+    }
+
+    /**
+     * Compiles a tree.
+     *
+     * @param root the root of the tree
+     * @param children returns the children of a node, null or empty for leaves
+     * @param extent returns the extent of a node
+     * @param partitionId returns the partition id of a leaf
+     */
+    public static <N> FlatPartitionTree compile(N root, Function<N, N[]> children, Function<N, Envelope> extent, ToIntFunction<N> partitionId)
+    {
+        final List<N> nodes = new ArrayList<>();
+        nodes.add(root);
+        final List<Integer> firstChildren = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            firstChildren.add(nodes.size());
+            final N[] nodeChildren = children.apply(nodes.get(i));
+            if (nodeChildren != null) {
+                for (N child : nodeChildren) {
+                    nodes.add(child);
+                }
+            }
+        }
+
+        final int numNodes = nodes.size();
+        final double[] bounds = new double[4 * numNodes];
+        final int[] firstChild = new int[numNodes];
+        final int[] numChildren = new int[numNodes];
+        final int[] parents = new int[numNodes];
+        final int[] partitionIds = new int[numNodes];
+        parents[0] = -1;
+        for (int i = 0; i < numNodes; i++) {
+            final N node = nodes.get(i);
+            final Envelope envelope = extent.apply(node);
+            bounds[4 * i] = envelope.getMinX();
+            bounds[4 * i + 1] = envelope.getMaxX();
+            bounds[4 * i + 2] = envelope.getMinY();
+            bounds[4 * i + 3] = envelope.getMaxY();
+            firstChild[i] = firstChildren.get(i);
+            numChildren[i] = (i + 1 < numNodes ? firstChildren.get(i + 1) : numNodes) - firstChild[i];
+            partitionIds[i] = numChildren[i] == 0 ? partitionId.applyAsInt(node) : -1;
+            for (int child = firstChild[i]; child < firstChild[i] + numChildren[i]; child++) {
+                parents[child] = i;
+            }
+        }
+        return new FlatPartitionTree(bounds, firstChild, numChildren, parents, partitionIds);
+    }
+
+    /**
+     * Finds the partitions of an envelope, the leaves whose extent intersects it.
+     *
+     * @param partitionIds the buffer to write the partition ids to, large enough to hold all of them
+     * @return the number of partition ids written
+     */
+    public int findPartitions(double minX, double maxX, double minY, double maxY, int[] partitionIds)
+    {
+        return find(minX, maxX, minY, maxY, false, partitionIds);
+    }
+
+    /**
+     * Finds the partition of a point, the leaf whose extent contains it as a half-open rectangle.
+     * Points on the top or right edge of the tree have no partition.
+     *
+     * @param partitionIds the buffer to write the partition id to
+     * @return the number of partition ids written, 0 or 1 unless leaves overlap
+     */
+    public int findPartitions(double x, double y, int[] partitionIds)
+    {
+        return find(x, x, y, y, true, partitionIds);
+    }
+
+    /**
+     * Visits the nodes intersecting the envelope depth-first, moving back up through the parents
+     * instead of keeping a stack
+     */
+    private int find(double minX, double maxX, double minY, double maxY, boolean point, int[] result)
+    {
+        int count = 0;
+        int node = 0;
+        while (true) {
+            final int offset = 4 * node;
+            // Same test as Envelope.intersects
+            if (!(minX > bounds[offset + 1] || maxX < bounds[offset] || minY > bounds[offset + 3] || maxY < bounds[offset + 2])) {
+                if (numChildren[node] > 0) {
+                    node = firstChild[node];
+                    continue;
+                }
+                if (!point || (minX < bounds[offset + 1] && minY < bounds[offset + 3])) {
+                    result[count++] = partitionIds[node];
+                }
+            }
+            // Move on to the next sibling of the node or of its closest ancestor having one
+            while (true) {
+                if (node == 0) {
+                    return count;
+                }
+                final int parent = parents[node];
+                if (node + 1 < firstChild[parent] + numChildren[parent]) {
+                    node++;
+                    break;
+                }
+                node = parent;
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.core.spatialPartitioning;
+
+import org.apache.sedona.core.enums.GridType;
+import org.apache.sedona.core.joinJudgement.DedupParams;
+import org.locationtech.jts.geom.Geometry;
+import scala.Tuple2;
+
+import javax.annotation.Nullable;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Iterator;
+
+public class HilbertPartitioner
+        extends SpatialPartitioner
+{
+    private final HilbertPartitioning partitioning;
+
+    public HilbertPartitioner(HilbertPartitioning partitioning)
+    {
+        super(GridType.HILBERT, partitioning.getGrids());
+        this.partitioning = partitioning;
+    }
+
+    @Override
+    public int numPartitions()
+    {
+        return grids.size() + 1 /* overflow partition */;
+    }
+
+    @Override
+    public Iterator<Tuple2<Integer, Geometry>> placeObject(Geometry spatialObject)
+            throws Exception
+    {
+        return partitioning.placeObject(spatialObject);
+    }
+
+    @Nullable
+    @Override
+    public DedupParams getDedupParams()
+    {
+        return new DedupParams(grids, partitioning);
+    }
+
+    @Override
+    void write(DataOutput out)
+            throws IOException
+    {
+        out.writeUTF(HILBERT_FORMAT);
+        writeEnvelope(out, partitioning.getBoundary());
+        writeLongs(out, partitioning.getPartitionBounds());
+    }
+}
@@ -19,194 +19,311 @@
 
 package org.apache.sedona.core.spatialPartitioning;
 
+import org.apache.sedona.core.joinJudgement.DedupParams;
 import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.shape.fractal.HilbertCode;
+import scala.Tuple2;
 
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
-public class HilbertPartitioning
-        implements Serializable
+/**
+ * Partitions the space into ranges of a Hilbert curve.
+ * <p>
+ * The boundary is divided into a grid of cells numbered along a Hilbert curve, and each partition
+ * is a range of consecutive cells. The ranges are balanced on the Hilbert codes of the centers of
+ * the sample envelopes. A point belongs to the partition of its cell, other geometries belong to
+ * every partition holding a cell which their envelope overlaps. Geometries which are not within the
+ * boundary also belong to an overflow partition, whose id follows the last range and which has no
+ * grid, so that the grids of the ranges cover the geometries placed in them.
+ * <p>
+ * Partitions are not rectangles, the grids are the envelopes of their cells and may overlap. Duplicate
+ * join results are skipped by testing whether a point lies within the cells of a partition, see
+ * {@link DedupParams.PartitionRegions}.
+ */
+public class HilbertPartitioning extends PartitioningUtils
+        implements DedupParams.PartitionRegions, Serializable
 {
+    private static final int LEVEL = HilbertCode.MAX_LEVEL;
+    private static final int MAX_ORDINATE = HilbertCode.maxOrdinate(LEVEL);
+    private static final long MAX_CODE = (1L << (2 * LEVEL)) - 1;
 
-    private static final int GRID_RESOLUTION = Short.MAX_VALUE;
+    private final Envelope boundary;
 
     /**
-     * The splits.
+     * Last Hilbert code of each partition, in increasing order
      */
-    //Partition ID
-    protected int[] splits;
+    private final long[] splits;
 
-    /**
-     * The grids.
-     */
-    List<Envelope> grids = new ArrayList<>();
+    private final List<Envelope> grids = new ArrayList<>();
 
     /**
      * Instantiates a new hilbert partitioning.
      *
      * @param samples the sample list
      * @param boundary the boundary
-     * @param partitions the partitions
-     * @throws Exception the exception
+     * @param partitions the maximum number of partitions, fewer are created if many samples share the same cell
      */
     public HilbertPartitioning(List<Envelope> samples, Envelope boundary, int partitions)
-            throws Exception
     {
-        //this.boundary=boundary;
-        int[] hValues = new int[samples.size()];
-        for (int i = 0; i < samples.size(); i++) {
-            hValues[i] = computeHValue(boundary, samples.get(i));
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Number of partitions must be > 0");
         }
+        this.boundary = boundary;
 
-        createFromHValues(hValues, partitions);
+        final long[] codes = samples.stream()
+                .filter(sample -> !sample.isNull())
+                .mapToLong(sample -> code(cellX(sample.centre().x), cellY(sample.centre().y)))
+                .sorted()
+                .toArray();
 
-        // Aggregate samples by partition; compute bounding box of all the samples in each partition
-        Envelope[] gridWithoutID = new Envelope[partitions];
-        for (Envelope sample : samples) {
-            int partitionID = gridID(boundary, sample, splits);
-            Envelope current = gridWithoutID[partitionID];
-            if (current == null) {
-                gridWithoutID[partitionID] = sample;
+        final long[] quantiles = new long[partitions];
+        int numSplits = 0;
+        for (int i = 0; i < partitions; i++) {
+            final long split;
+            if (i == partitions - 1) {
+                split = MAX_CODE;
+            }
+            else if (codes.length == 0) {
+                split = (MAX_CODE + 1) / partitions * (i + 1) - 1;
             }
             else {
-                gridWithoutID[partitionID] = updateEnvelope(current, sample);
+                split = codes[Math.max((int) ((long) (i + 1) * codes.length / partitions) - 1, 0)];
+            }
+            // Skip empty ranges
+            if (numSplits == 0 || split > quantiles[numSplits - 1]) {
+                quantiles[numSplits++] = split;
             }
         }
-
-        for (Envelope envelope : gridWithoutID) {
-            this.grids.add(envelope);
-        }
+        this.splits = Arrays.copyOf(quantiles, numSplits);
+        computeGrids();
     }
 
     /**
-     * Compute H value.
+     * Instantiates a hilbert partitioning from its ranges, see {@link #getPartitionBounds()}.
      *
-     * @param n the n
-     * @param x the x
-     * @param y the y
-     * @return the int
+     * @param boundary the boundary
+     * @param splits the last Hilbert code of each partition, in increasing order
      */
-    public static int computeHValue(int n, int x, int y)
-    {
-        int h = 0;
-        for (int s = n / 2; s > 0; s /= 2) {
-            int rx = (x & s) > 0 ? 1 : 0;
-            int ry = (y & s) > 0 ? 1 : 0;
-            h += s * s * ((3 * rx) ^ ry);
-
-            // Rotate
-            if (ry == 0) {
-                if (rx == 1) {
-                    x = n - 1 - x;
-                    y = n - 1 - y;
-                }
-
-                //Swap x and y
-                int t = x;
-                x = y;
-                y = t;
-            }
+    HilbertPartitioning(Envelope boundary, long[] splits)
+    {
+        this.boundary = boundary;
+        this.splits = splits;
+        computeGrids();
+    }
+
+    private void computeGrids()
+    {
+        for (int i = 0; i < splits.length; i++) {
+            final long first = i == 0 ? 0 : splits[i - 1] + 1;
+            final int[] cellBounds = {MAX_ORDINATE, MAX_ORDINATE, 0, 0};
+            collectCellBounds(0, 0, LEVEL, first, splits[i], cellBounds);
+            grids.add(new Envelope(
+                    cellMinX(cellBounds[0]), cellMinX(cellBounds[2] + 1),
+                    cellMinY(cellBounds[1]), cellMinY(cellBounds[3] + 1)));
         }
-        return h;
     }
 
     /**
-     * Location mapping.
+     * Gets the number of partitions.
      *
-     * @param axisMin the axis min
-     * @param axisLocation the axis location
-     * @param axisMax the axis max
-     * @return the int
+     * @return the number of ranges, not counting the overflow partition
      */
-    public static int locationMapping(double axisMin, double axisLocation, double axisMax)
+    public int getNumPartitions()
     {
-        Double gridLocation = (axisLocation - axisMin) * GRID_RESOLUTION / (axisMax - axisMin);
-        return gridLocation.intValue();
+        return splits.length;
     }
 
     /**
-     * Grid ID.
+     * Gets the boundary.
      *
-     * @param boundary the boundary
-     * @param spatialObject the spatial object
-     * @param partitionBounds the partition bounds
-     * @return the int
-     * @throws Exception the exception
+     * @return the boundary divided into cells, geometries outside of it are placed in the overflow partition
      */
-    public static int gridID(Envelope boundary, Envelope spatialObject, int[] partitionBounds)
-            throws Exception
+    public Envelope getBoundary()
     {
-        int hValue = computeHValue(boundary, spatialObject);
-        int partition = Arrays.binarySearch(partitionBounds, hValue);
-        if (partition < 0) {
-            partition = -partition - 1;
-        }
-        return partition;
+        return boundary;
     }
 
-    private static int computeHValue(Envelope boundary, Envelope spatialObject)
+    /**
+     * Gets the partition bounds.
+     *
+     * @return the last Hilbert code of each partition
+     */
+    public long[] getPartitionBounds()
     {
-        int x = locationMapping(boundary.getMinX(), boundary.getMaxX(), (spatialObject.getMinX() + spatialObject.getMaxX()) / 2.0);
-        int y = locationMapping(boundary.getMinY(), boundary.getMaxY(), (spatialObject.getMinY() + spatialObject.getMaxY()) / 2.0);
-        return computeHValue(GRID_RESOLUTION + 1, x, y);
+        return splits;
     }
 
     /**
-     * Update envelope.
+     * Gets the grids.
      *
-     * @param envelope the envelope
-     * @param spatialObject the spatial object
-     * @return the envelope
-     * @throws Exception the exception
+     * @return the envelopes of the cells of each partition
      */
-    public static Envelope updateEnvelope(Envelope envelope, Envelope spatialObject)
-            throws Exception
+    public List<Envelope> getGrids()
     {
-        double minX = Math.min(envelope.getMinX(), spatialObject.getMinX());
-        double maxX = Math.max(envelope.getMaxX(), spatialObject.getMaxX());
-        double minY = Math.min(envelope.getMinY(), spatialObject.getMinY());
-        double maxY = Math.max(envelope.getMaxY(), spatialObject.getMaxY());
+        return this.grids;
+    }
 
-        return new Envelope(minX, maxX, minY, maxY);
+    @Override
+    public boolean contains(int partitionId, double x, double y)
+    {
+        final int region = boundary.covers(x, y) ? partitionOf(code(cellX(x), cellY(y))) : getOverflowPartitionId();
+        return region == partitionId;
     }
 
     /**
-     * Creates the from H values.
+     * Gets the overflow partition id.
      *
-     * @param hValues the h values
-     * @param partitions the partitions
+     * @return the id of the partition holding the geometries which are not within the boundary
      */
-    protected void createFromHValues(int[] hValues, int partitions)
+    public int getOverflowPartitionId()
     {
-        Arrays.sort(hValues);
+        return splits.length;
+    }
 
-        this.splits = new int[partitions];
-        int maxH = 0x7fffffff;
-        for (int i = 0; i < splits.length; i++) {
-            int quantile = (int) ((long) (i + 1) * hValues.length / partitions);
-            this.splits[i] = quantile == hValues.length ? maxH : hValues[quantile];
+    @Override
+    public Iterator<Tuple2<Integer, Geometry>> placeObject(Geometry geometry)
+    {
+        final Set<Tuple2<Integer, Geometry>> result = new HashSet<>();
+        for (int partitionId : getKeys(geometry)) {
+            result.add(new Tuple2<>(partitionId, geometry));
+        }
+        return result.iterator();
+    }
+
+    @Override
+    public Set<Integer> getKeys(Geometry geometry)
+    {
+        Objects.requireNonNull(geometry, "spatialObject");
+
+        final Set<Integer> result = new HashSet<>();
+        final Envelope envelope = geometry.getEnvelopeInternal();
+        if (envelope.isNull()) {
+            return result;
+        }
+        // For points, make sure to return only one partition
+        if (geometry instanceof Point) {
+            result.add(boundary.covers(envelope.getMinX(), envelope.getMinY())
+                    ? partitionOf(code(cellX(envelope.getMinX()), cellY(envelope.getMinY())))
+                    : getOverflowPartitionId());
+            return result;
+        }
+        if (!boundary.covers(envelope)) {
+            result.add(getOverflowPartitionId());
+            if (!boundary.intersects(envelope)) {
+                return result;
+            }
         }
+        final int[] cellRange = {cellX(envelope.getMinX()), cellY(envelope.getMinY()),
+                cellX(envelope.getMaxX()), cellY(envelope.getMaxY())};
+        collectPartitions(0, 0, LEVEL, cellRange, result);
+        return result;
+    }
+
+    @Override
+    public List<Envelope> fetchLeafZones()
+    {
+        return grids;
     }
 
     /**
-     * Gets the partition bounds.
-     *
-     * @return the partition bounds
+     * Adds the partitions holding the cells of a block which are within a range of cells. The cells
+     * of an aligned block of 2^level by 2^level cells have consecutive Hilbert codes.
      */
-    public int[] getPartitionBounds()
+    private void collectPartitions(int x, int y, int level, int[] cellRange, Set<Integer> result)
     {
-        return splits;
+        final int size = 1 << level;
+        if (x > cellRange[2] || x + size - 1 < cellRange[0] || y > cellRange[3] || y + size - 1 < cellRange[1]) {
+            return;
+        }
+        final long first = code(x, y) & ~((1L << (2 * level)) - 1);
+        final int firstPartition = partitionOf(first);
+        final int lastPartition = partitionOf(first + (1L << (2 * level)) - 1);
+        final boolean within = x >= cellRange[0] && x + size - 1 <= cellRange[2] && y >= cellRange[1] && y + size - 1 <= cellRange[3];
+        if (firstPartition == lastPartition || within) {
+            for (int partitionId = firstPartition; partitionId <= lastPartition; partitionId++) {
+                result.add(partitionId);
+            }
+            return;
+        }
+        final int half = size / 2;
+        collectPartitions(x, y, level - 1, cellRange, result);
+        collectPartitions(x + half, y, level - 1, cellRange, result);
+        collectPartitions(x, y + half, level - 1, cellRange, result);
+        collectPartitions(x + half, y + half, level - 1, cellRange, result);
     }
 
     /**
-     * Gets the grids.
-     *
-     * @return the grids
+     * Extends the given cell bounds, as (minX, minY, maxX, maxY), by the cells of a block whose codes
+     * are within a range of codes.
      */
-    public List<Envelope> getGrids()
+    private static void collectCellBounds(int x, int y, int level, long firstCode, long lastCode, int[] cellBounds)
     {
-        return this.grids;
+        final long first = code(x, y) & ~((1L << (2 * level)) - 1);
+        final long last = first + (1L << (2 * level)) - 1;
+        if (last < firstCode || first > lastCode) {
+            return;
+        }
+        if (first >= firstCode && last <= lastCode) {
+            final int size = 1 << level;
+            cellBounds[0] = Math.min(cellBounds[0], x);
+            cellBounds[1] = Math.min(cellBounds[1], y);
+            cellBounds[2] = Math.max(cellBounds[2], x + size - 1);
+            cellBounds[3] = Math.max(cellBounds[3], y + size - 1);
+            return;
+        }
+        final int half = 1 << (level - 1);
+        collectCellBounds(x, y, level - 1, firstCode, lastCode, cellBounds);
+        collectCellBounds(x + half, y, level - 1, firstCode, lastCode, cellBounds);
+        collectCellBounds(x, y + half, level - 1, firstCode, lastCode, cellBounds);
+        collectCellBounds(x + half, y + half, level - 1, firstCode, lastCode, cellBounds);
+    }
+
+    private int partitionOf(long code)
+    {
+        final int index = Arrays.binarySearch(splits, code);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static long code(int cellX, int cellY)
+    {
+        return HilbertCode.encode(LEVEL, cellX, cellY) & 0xFFFFFFFFL;
+    }
+
+    private int cellX(double x)
+    {
+        return cell(x, boundary.getMinX(), boundary.getWidth());
+    }
+
+    private int cellY(double y)
+    {
+        return cell(y, boundary.getMinY(), boundary.getHeight());
+    }
+
+    private static int cell(double ordinate, double min, double extent)
+    {
+        if (!(extent > 0)) {
+            return 0;
+        }
+        final double cell = Math.floor((ordinate - min) / extent * (MAX_ORDINATE + 1));
+        return (int) Math.max(0, Math.min(MAX_ORDINATE, cell));
+    }
+
+    private double cellMinX(int cellX)
+    {
+        return boundary.getMinX() + boundary.getWidth() * cellX / (MAX_ORDINATE + 1);
+    }
+
+    private double cellMinY(int cellY)
+    {
+        return boundary.getMinY() + boundary.getHeight() * cellY / (MAX_ORDINATE + 1);
     }
 }
@@ -25,13 +25,18 @@ import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.Point;
 import scala.Tuple2;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -46,7 +51,9 @@ public class KDB extends PartitioningUtils
     private final int maxLevels;
     private final Envelope extent;
     private final int level;
-    private final List<Envelope> items = new ArrayList<>();
+    private final List<Item> items = new ArrayList<>();
+    // total weight of the items
+    private double itemWeight = 0;
     private KDB[] children;
     private int leafId = 0;
 
@@ -89,8 +96,18 @@ public class KDB extends PartitioningUtils
 
     public void insert(Envelope envelope)
     {
-        if (items.size() < maxItemsPerNode || level >= maxLevels) {
-            items.add(envelope);
+        insert(envelope, 1);
+    }
+
+    /**
+     * Inserts an envelope which counts as the given number of items toward the maximum number of
+     * items per node, so that nodes are split to balance their total weight.
+     */
+    public void insert(Envelope envelope, double weight)
+    {
+        if (itemWeight < maxItemsPerNode || level >= maxLevels) {
+            items.add(new Item(envelope, weight));
+            itemWeight += weight;
         }
         else {
             if (children == null) {
@@ -104,14 +121,15 @@ public class KDB extends PartitioningUtils
 
                 if (!ok) {
                     // This could happen if all envelopes are the same.
-                    items.add(envelope);
+                    items.add(new Item(envelope, weight));
+                    itemWeight += weight;
                     return;
                 }
             }
 
             for (KDB child : children) {
                 if (child.extent.contains(envelope.getMinX(), envelope.getMinY())) {
-                    child.insert(envelope);
+                    child.insert(envelope, weight);
                     break;
                 }
             }
@@ -126,6 +144,7 @@ public class KDB extends PartitioningUtils
             public boolean visit(KDB tree)
             {
                 tree.items.clear();
+                tree.itemWeight = 0;
                 return true;
             }
         });
@@ -176,6 +195,59 @@ public class KDB extends PartitioningUtils
         }
     }
 
+    /**
+     * Compiles the tree into arrays, to look up partitions without walking the tree.
+     * Call after the leaf ids are assigned.
+     */
+    public FlatPartitionTree flatten()
+    {
+        return FlatPartitionTree.compile(this, tree -> tree.children, KDB::getExtent, KDB::getLeafId);
+    }
+
+    /**
+     * Writes the nodes of the tree depth-first, without their items.
+     */
+    void write(DataOutput out)
+            throws IOException
+    {
+        out.writeInt(maxItemsPerNode);
+        out.writeInt(maxLevels);
+        out.writeInt(level);
+        out.writeDouble(extent.getMinX());
+        out.writeDouble(extent.getMaxX());
+        out.writeDouble(extent.getMinY());
+        out.writeDouble(extent.getMaxY());
+        out.writeInt(leafId);
+        out.writeInt(children == null ? 0 : children.length);
+        if (children != null) {
+            for (KDB child : children) {
+                child.write(out);
+            }
+        }
+    }
+
+    /**
+     * Reads a tree written by {@link #write(DataOutput)}.
+     */
+    static KDB read(DataInput in)
+            throws IOException
+    {
+        final int maxItemsPerNode = in.readInt();
+        final int maxLevels = in.readInt();
+        final int level = in.readInt();
+        final Envelope extent = new Envelope(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+        final KDB tree = new KDB(maxItemsPerNode, maxLevels, level, extent);
+        tree.leafId = in.readInt();
+        final int numChildren = in.readInt();
+        if (numChildren > 0) {
+            tree.children = new KDB[numChildren];
+            for (int i = 0; i < numChildren; i++) {
+                tree.children[i] = read(in);
+            }
+        }
+        return tree;
+    }
+
     public void assignLeafIds()
     {
         traverse(new Visitor()
@@ -194,14 +266,60 @@ public class KDB extends PartitioningUtils
         });
     }
 
+    /**
+     * Splits leaves into smaller leaves holding at most maxItemsPerNode of the given envelopes each,
+     * the same way the leaves would have been split if the envelopes had been inserted into the tree.
+     * The new leaves cover the extents of the split leaves exactly. Leaf ids are reassigned.
+     *
+     * @param envelopesByLeafId envelopes of the leaves to split, by leaf id, clipped to the extents of the leaves
+     * @param maxItemsPerNode maximum number of envelopes in each new leaf
+     */
+    public void splitLeaves(Map<Integer, List<Envelope>> envelopesByLeafId, final int maxItemsPerNode)
+    {
+        // Find all the leaves before splitting any, new leaves have no ids yet
+        final Map<KDB, List<Envelope>> envelopesByLeaf = new HashMap<>();
+        traverse(new Visitor()
+        {
+            @Override
+            public boolean visit(KDB tree)
+            {
+                if (tree.isLeaf() && envelopesByLeafId.containsKey(tree.leafId)) {
+                    envelopesByLeaf.put(tree, envelopesByLeafId.get(tree.leafId));
+                }
+                return true;
+            }
+        });
+
+        for (Map.Entry<KDB, List<Envelope>> entry : envelopesByLeaf.entrySet()) {
+            final KDB leaf = entry.getKey();
+            final KDB subtree = new KDB(maxItemsPerNode, leaf.level + maxLevels, leaf.level, leaf.extent);
+            for (Envelope envelope : entry.getValue()) {
+                final Envelope clipped = envelope.intersection(leaf.extent);
+                if (!clipped.isNull()) {
+                    subtree.insert(clipped);
+                }
+            }
+            subtree.dropElements();
+            leaf.children = subtree.children;
+        }
+        assignLeafIds();
+    }
+
     private boolean split(boolean splitX)
     {
         final Comparator<Envelope> comparator = splitX ? new XComparator() : new YComparator();
-        Collections.sort(items, comparator);
+        items.sort((item, other) -> comparator.compare(item.envelope, other.envelope));
 
         final Envelope[] splits;
         final Splitter splitter;
-        Envelope middleItem = items.get((int) Math.floor(items.size() / 2));
+        // Split at the weighted median, the middle item when all items weigh the same
+        int middle = 0;
+        double weightBefore = 0;
+        while (middle < items.size() - 1 && weightBefore + items.get(middle).weight <= itemWeight / 2) {
+            weightBefore += items.get(middle).weight;
+            middle++;
+        }
+        Envelope middleItem = items.get(middle).envelope;
         if (splitX) {
             double x = middleItem.getMinX();
             if (x > extent.getMinX() && x < extent.getMaxX()) {
@@ -236,8 +354,8 @@ public class KDB extends PartitioningUtils
 
     private void splitItems(Splitter splitter)
     {
-        for (Envelope item : items) {
-            children[splitter.split(item) ? 0 : 1].insert(item);
+        for (Item item : items) {
+            children[splitter.split(item.envelope) ? 0 : 1].insert(item.envelope, item.weight);
         }
     }
 
@@ -334,6 +452,19 @@ public class KDB extends PartitioningUtils
         boolean visit(KDB tree);
     }
 
+    private static final class Item
+            implements Serializable
+    {
+        private final Envelope envelope;
+        private final double weight;
+
+        private Item(Envelope envelope, double weight)
+        {
+            this.envelope = envelope;
+            this.weight = weight;
+        }
+    }
+
     private interface Splitter
     {
         /**
@@ -19,44 +19,103 @@
 
 package org.apache.sedona.core.spatialPartitioning;
 
+import org.apache.commons.lang3.SerializationUtils;
 import org.apache.sedona.core.enums.GridType;
 import org.apache.sedona.core.joinJudgement.DedupParams;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
 import scala.Tuple2;
 
 import javax.annotation.Nullable;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 public class KDBTreePartitioner
         extends SpatialPartitioner
 {
     private final KDB tree;
+    private final FlatPartitionTree flatTree;
+    private final TreePartitionRegions regions;
 
     public KDBTreePartitioner(KDB tree)
     {
         super(GridType.KDBTREE, tree.fetchLeafZones());
         this.tree = tree;
         this.tree.dropElements();
+        this.flatTree = tree.flatten();
+        this.regions = new TreePartitionRegions(grids, tree.getExtent());
     }
 
     @Override
     public int numPartitions()
     {
-        return grids.size();
+        return grids.size() + 1 /* overflow partition */;
     }
 
     @Override
     public Iterator<Tuple2<Integer, Geometry>> placeObject(Geometry spatialObject)
             throws Exception
     {
-        return tree.placeObject(spatialObject);
+        final Iterator<Tuple2<Integer, Geometry>> placements = tree.placeObject(spatialObject);
+        if (spatialObject.getEnvelopeInternal().isNull() || !regions.isOverflow(spatialObject)) {
+            return placements;
+        }
+        final List<Tuple2<Integer, Geometry>> result = new ArrayList<>();
+        placements.forEachRemaining(result::add);
+        result.add(new Tuple2<>(regions.getOverflowPartitionId(), spatialObject));
+        return result.iterator();
+    }
+
+    @Override
+    public int getPartitionIds(Geometry spatialObject, int[] partitionIds)
+    {
+        Objects.requireNonNull(spatialObject, "spatialObject");
+        final Envelope envelope = spatialObject.getEnvelopeInternal();
+        if (envelope.isNull()) {
+            return 0;
+        }
+        int count;
+        // For points, make sure to return only one partition
+        if (spatialObject instanceof Point) {
+            count = flatTree.findPartitions(envelope.getMinX(), envelope.getMinY(), partitionIds);
+        }
+        else {
+            count = flatTree.findPartitions(envelope.getMinX(), envelope.getMaxX(), envelope.getMinY(), envelope.getMaxY(), partitionIds);
+        }
+        if (regions.isOverflow(spatialObject)) {
+            partitionIds[count++] = regions.getOverflowPartitionId();
+        }
+        return count;
     }
 
     @Nullable
     @Override
     public DedupParams getDedupParams()
     {
-        return new DedupParams(grids);
+        return new DedupParams(grids, regions);
+    }
+
+    @Override
+    public SpatialPartitioner splitPartitions(Map<Integer, List<Envelope>> samples, int maxSamplesPerPartition)
+    {
+        // The tree is shared with the RDDs partitioned by this partitioner, split a copy of it
+        final KDB splitTree = SerializationUtils.clone(tree);
+        splitTree.splitLeaves(samples, maxSamplesPerPartition);
+        return new KDBTreePartitioner(splitTree);
+    }
+
+    @Override
+    void write(DataOutput out)
+            throws IOException
+    {
+        out.writeUTF(KDB_TREE_FORMAT);
+        tree.write(out);
     }
 }
@@ -77,10 +77,18 @@ public abstract class PartitioningUtils {
                 partitioner = tree;
                 break;
             }
+            case HILBERT: {
+                partitioner = new HilbertPartitioning(sampleEnvelopes, paddedBoundary, resolution);
+                break;
+            }
+            case S2: {
+                partitioner = new S2Partitioning(sampleEnvelopes, resolution);
+                break;
+            }
             default:
                 try {
                     throw new Exception("[AbstractSpatialRDD][spatialPartitioning] Unsupported spatial partitioning method. " +
-                            "The following partitioning methods are not longer supported: R-Tree, Hilbert curve, Voronoi");
+                            "The following partitioning methods are not longer supported: R-Tree, Voronoi");
                 } catch (Exception e) {
                     e.printStackTrace();
                     break;
@@ -19,20 +19,31 @@
 
 package org.apache.sedona.core.spatialPartitioning;
 
+import org.apache.commons.lang3.SerializationUtils;
 import org.apache.sedona.core.enums.GridType;
 import org.apache.sedona.core.joinJudgement.DedupParams;
 import org.apache.sedona.core.spatialPartitioning.quadtree.StandardQuadTree;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
 import scala.Tuple2;
 
 import javax.annotation.Nullable;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 public class QuadTreePartitioner
         extends SpatialPartitioner
 {
     private final StandardQuadTree<? extends Geometry> quadTree;
+    private final FlatPartitionTree flatTree;
+    private final TreePartitionRegions regions;
 
     public QuadTreePartitioner(StandardQuadTree<? extends Geometry> quadTree)
     {
@@ -42,26 +53,68 @@ public class QuadTreePartitioner
         // Make sure not to broadcast all the samples used to build the Quad
         // tree to all nodes which are doing partitioning
         this.quadTree.dropElements();
+        this.flatTree = quadTree.flatten();
+        this.regions = new TreePartitionRegions(grids, quadTree.getZone().getEnvelope());
     }
 
     @Override
     public Iterator<Tuple2<Integer, Geometry>> placeObject(Geometry spatialObject)
             throws Exception
     {
-        return quadTree.placeObject(spatialObject);
+        final Iterator<Tuple2<Integer, Geometry>> placements = quadTree.placeObject(spatialObject);
+        if (spatialObject.getEnvelopeInternal().isNull() || !regions.isOverflow(spatialObject)) {
+            return placements;
+        }
+        final List<Tuple2<Integer, Geometry>> result = new ArrayList<>();
+        placements.forEachRemaining(result::add);
+        result.add(new Tuple2<>(regions.getOverflowPartitionId(), spatialObject));
+        return result.iterator();
+    }
+
+    @Override
+    public int getPartitionIds(Geometry spatialObject, int[] partitionIds)
+    {
+        Objects.requireNonNull(spatialObject, "spatialObject");
+        final Envelope envelope = spatialObject.getEnvelopeInternal();
+        if (envelope.isNull()) {
+            return 0;
+        }
+        int count;
+        // For points, make sure to return only one partition
+        if (spatialObject instanceof Point) {
+            count = flatTree.findPartitions(envelope.getMinX(), envelope.getMinY(), partitionIds);
+        }
+        // The tree looks up the envelope as a QuadRectangle, whose maximum is computed from the width and height
+        else {
+            count = flatTree.findPartitions(envelope.getMinX(), envelope.getMinX() + envelope.getWidth(),
+                    envelope.getMinY(), envelope.getMinY() + envelope.getHeight(), partitionIds);
+        }
+        if (regions.isOverflow(spatialObject)) {
+            partitionIds[count++] = regions.getOverflowPartitionId();
+        }
+        return count;
     }
 
     @Nullable
     @Override
     public DedupParams getDedupParams()
     {
-        return new DedupParams(grids);
+        return new DedupParams(grids, regions);
+    }
+
+    @Override
+    public SpatialPartitioner splitPartitions(Map<Integer, List<Envelope>> samples, int maxSamplesPerPartition)
+    {
+        // The tree is shared with the RDDs partitioned by this partitioner, split a copy of it
+        final StandardQuadTree<? extends Geometry> splitTree = SerializationUtils.clone(quadTree);
+        splitTree.splitLeaves(samples, maxSamplesPerPartition);
+        return new QuadTreePartitioner(splitTree);
     }
 
     @Override
     public int numPartitions()
     {
-        return grids.size();
+        return grids.size() + 1 /* overflow partition */;
     }
 
     @Override
@@ -74,4 +127,12 @@ public class QuadTreePartitioner
         final QuadTreePartitioner other = (QuadTreePartitioner) o;
         return other.quadTree.equals(this.quadTree);
     }
+
+    @Override
+    void write(DataOutput out)
+            throws IOException
+    {
+        out.writeUTF(QUAD_TREE_FORMAT);
+        quadTree.write(out);
+    }
 }
@@ -23,6 +23,8 @@ import org.apache.sedona.core.spatialPartitioning.quadtree.QuadRectangle;
 import org.apache.sedona.core.spatialPartitioning.quadtree.StandardQuadTree;
 import org.locationtech.jts.geom.Envelope;
 
+import javax.annotation.Nullable;
+
 import java.io.Serializable;
 import java.util.List;
 
@@ -50,6 +52,22 @@ public class QuadtreePartitioning
 
     public QuadtreePartitioning(List<Envelope> samples, Envelope boundary, final int partitions, int minTreeLevel)
             throws Exception
+    {
+        this(samples, null, boundary, partitions, minTreeLevel);
+    }
+
+    /**
+     * Instantiates a new Quad-Tree partitioning which balances the total weight of the samples
+     * rather than their number.
+     *
+     * @param samples the sample list
+     * @param weights the weight of each sample, averaging 1, or null to weigh all samples the same
+     * @param boundary the boundary
+     * @param partitions the partitions
+     * @param minTreeLevel the minimum depth of the tree
+     */
+    public QuadtreePartitioning(List<Envelope> samples, @Nullable double[] weights, Envelope boundary, final int partitions, int minTreeLevel)
+            throws Exception
     {
         // Make sure the tree doesn't get too deep in case of data skew
         int maxLevel = partitions;
@@ -60,8 +78,8 @@ public class QuadtreePartitioning
             partitionTree.forceGrowUp(minTreeLevel);
         }
 
-        for (final Envelope sample : samples) {
-            partitionTree.insert(new QuadRectangle(sample), 1);
+        for (int i = 0; i < samples.size(); i++) {
+            partitionTree.insert(new QuadRectangle(samples.get(i)), 1, weights == null ? 1 : weights[i]);
         }
 
         partitionTree.assignPartitionIds();
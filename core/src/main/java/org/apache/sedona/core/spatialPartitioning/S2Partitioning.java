@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.core.spatialPartitioning;
+
+import com.google.common.geometry.R1Interval;
+import com.google.common.geometry.S1Interval;
+import com.google.common.geometry.S2Cell;
+import com.google.common.geometry.S2CellId;
+import com.google.common.geometry.S2CellUnion;
+import com.google.common.geometry.S2LatLng;
+import com.google.common.geometry.S2LatLngRect;
+import org.apache.sedona.common.utils.S2Utils;
+import org.apache.sedona.core.joinJudgement.DedupParams;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+import scala.Tuple2;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Partitions the sphere into ranges of S2 cells.
+ * <p>
+ * Coordinates are longitudes and latitudes in degrees. Leaf cells are numbered along the S2 curve,
+ * and each partition is a range of consecutive leaf cells, balanced on the cells of the centers of
+ * the sample envelopes. The end of each range is moved to the end of the largest cell around the
+ * sample quantile which holds few samples, so that ranges are made of coarse cells where the samples
+ * are sparse and of fine cells where they are dense. A point belongs to the partition of its leaf
+ * cell, other geometries belong to every partition holding a cell of a covering of their envelope.
+ * Geometries which are not within the valid longitudes and latitudes also belong to an overflow
+ * partition, whose id follows the last range and which has no grid, so that the grids of the ranges
+ * cover the geometries placed in them.
+ * <p>
+ * Partitions are not rectangles, the grids are the envelopes of their cells and may overlap. Duplicate
+ * join results are skipped by testing whether a point lies within the cells of a partition, see
+ * {@link DedupParams.PartitionRegions}.
+ */
+public class S2Partitioning extends PartitioningUtils
+        implements DedupParams.PartitionRegions, Serializable
+{
+    /**
+     * Maximum number of cells covering the envelope of a geometry
+     */
+    private static final int MAX_COVERING_CELLS = 16;
+
+    /**
+     * Margin in radians added around envelopes before covering them, so that the cells of the
+     * points on their edges are always part of the covering
+     */
+    private static final double COVERING_MARGIN = 1e-9;
+
+    /**
+     * Fraction of the samples of a partition which the end of its range may be moved past
+     */
+    private static final int SNAP_TOLERANCE_DIVISOR = 10;
+
+    /**
+     * Longitudes and latitudes covered by the ranges, other coordinates are placed in the overflow partition
+     */
+    private static final Envelope VALID_COORDINATES = new Envelope(-180, 180, -90, 90);
+
+    /**
+     * Last leaf cell of each partition, in increasing order. Cell ids are unsigned, they are stored
+     * with the sign bit flipped to compare as signed longs.
+     */
+    private final long[] splits;
+
+    private final List<Envelope> grids = new ArrayList<>();
+
+    /**
+     * Instantiates a new S2 partitioning.
+     *
+     * @param samples the sample list
+     * @param partitions the maximum number of partitions, fewer are created if many samples share the same cell
+     */
+    public S2Partitioning(List<Envelope> samples, int partitions)
+    {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Number of partitions must be > 0");
+        }
+
+        final long[] keys = samples.stream()
+                .filter(sample -> !sample.isNull())
+                .mapToLong(sample -> leafKey(sample.centre().x, sample.centre().y))
+                .sorted()
+                .toArray();
+        final int tolerance = Math.max(1, keys.length / partitions / SNAP_TOLERANCE_DIVISOR);
+
+        final long[] quantiles = new long[partitions];
+        int numSplits = 0;
+        for (int i = 0; i < partitions; i++) {
+            final long split;
+            if (i == partitions - 1) {
+                split = key(S2CellId.end(S2CellId.MAX_LEVEL).prev());
+            }
+            else if (keys.length == 0) {
+                // Without samples, split between faces
+                final int face = (i + 1) * S2CellId.NUM_FACES / partitions - 1;
+                if (face < 0) {
+                    continue;
+                }
+                split = key(S2CellId.fromFace(face).rangeMax());
+            }
+            else {
+                split = snap(keys, keys[Math.max((int) ((long) (i + 1) * keys.length / partitions) - 1, 0)], tolerance);
+            }
+            // Skip empty ranges
+            if (numSplits == 0 || split > quantiles[numSplits - 1]) {
+                quantiles[numSplits++] = split;
+            }
+        }
+        this.splits = Arrays.copyOf(quantiles, numSplits);
+        computeGrids();
+    }
+
+    /**
+     * Instantiates an S2 partitioning from its ranges, see {@link #getPartitionBounds()}.
+     *
+     * @param splits the last leaf cell of each partition, in increasing order, with the sign bit flipped
+     */
+    S2Partitioning(long[] splits)
+    {
+        this.splits = splits;
+        computeGrids();
+    }
+
+    private void computeGrids()
+    {
+        for (int i = 0; i < splits.length; i++) {
+            final S2CellId first = i == 0 ? S2CellId.begin(S2CellId.MAX_LEVEL) : cellId(splits[i - 1]).next();
+            final S2CellUnion cells = new S2CellUnion();
+            cells.initFromMinMax(first, cellId(splits[i]));
+            final Envelope grid = new Envelope();
+            for (S2CellId cell : cells) {
+                final S2LatLngRect bound = new S2Cell(cell).getRectBound();
+                final boolean wraps = bound.lng().isInverted() || bound.lng().isFull();
+                grid.expandToInclude(new Envelope(
+                        wraps ? -180 : Math.toDegrees(bound.lng().lo()), wraps ? 180 : Math.toDegrees(bound.lng().hi()),
+                        Math.toDegrees(bound.lat().lo()), Math.toDegrees(bound.lat().hi())));
+            }
+            grids.add(grid);
+        }
+    }
+
+    /**
+     * Gets the number of partitions.
+     *
+     * @return the number of ranges, not counting the overflow partition
+     */
+    public int getNumPartitions()
+    {
+        return splits.length;
+    }
+
+    /**
+     * Gets the partition bounds.
+     *
+     * @return the last leaf cell of each partition, in increasing order, with the sign bit flipped
+     */
+    public long[] getPartitionBounds()
+    {
+        return splits;
+    }
+
+    /**
+     * Gets the grids.
+     *
+     * @return the envelopes of the cells of each partition
+     */
+    public List<Envelope> getGrids()
+    {
+        return this.grids;
+    }
+
+    @Override
+    public boolean contains(int partitionId, double x, double y)
+    {
+        final int region = VALID_COORDINATES.covers(x, y) ? partitionOf(leafKey(x, y)) : getOverflowPartitionId();
+        return region == partitionId;
+    }
+
+    /**
+     * Gets the overflow partition id.
+     *
+     * @return the id of the partition holding the geometries which are not within the valid coordinates
+     */
+    public int getOverflowPartitionId()
+    {
+        return splits.length;
+    }
+
+    @Override
+    public Iterator<Tuple2<Integer, Geometry>> placeObject(Geometry geometry)
+    {
+        final Set<Tuple2<Integer, Geometry>> result = new HashSet<>();
+        for (int partitionId : getKeys(geometry)) {
+            result.add(new Tuple2<>(partitionId, geometry));
+        }
+        return result.iterator();
+    }
+
+    @Override
+    public Set<Integer> getKeys(Geometry geometry)
+    {
+        Objects.requireNonNull(geometry, "spatialObject");
+
+        final Set<Integer> result = new HashSet<>();
+        final Envelope envelope = geometry.getEnvelopeInternal();
+        if (envelope.isNull()) {
+            return result;
+        }
+        // For points, make sure to return only one partition
+        if (geometry instanceof Point) {
+            result.add(VALID_COORDINATES.covers(envelope.getMinX(), envelope.getMinY())
+                    ? partitionOf(leafKey(envelope.getMinX(), envelope.getMinY()))
+                    : getOverflowPartitionId());
+            return result;
+        }
+        if (!VALID_COORDINATES.covers(envelope)) {
+            result.add(getOverflowPartitionId());
+            if (!VALID_COORDINATES.intersects(envelope)) {
+                return result;
+            }
+        }
+        final List<S2CellId> covering = S2Utils.s2RegionToCellIDs(
+                toRect(envelope.intersection(VALID_COORDINATES)), 0, S2CellId.MAX_LEVEL, MAX_COVERING_CELLS);
+        for (S2CellId cell : covering) {
+            final int lastPartition = partitionOf(key(cell.rangeMax()));
+            for (int partitionId = partitionOf(key(cell.rangeMin())); partitionId <= lastPartition; partitionId++) {
+                result.add(partitionId);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Envelope> fetchLeafZones()
+    {
+        return grids;
+    }
+
+    /**
+     * Moves a split to the end of the largest cell holding the given leaf cell and at most
+     * the given number of samples.
+     */
+    private static long snap(long[] sortedKeys, long split, int tolerance)
+    {
+        final S2CellId leaf = cellId(split);
+        for (int level = 0; level < S2CellId.MAX_LEVEL; level++) {
+            final S2CellId cell = leaf.parent(level);
+            final long last = key(cell.rangeMax());
+            if (upperBound(sortedKeys, last) - lowerBound(sortedKeys, key(cell.rangeMin())) <= tolerance) {
+                return last;
+            }
+        }
+        return split;
+    }
+
+    private static int lowerBound(long[] sortedKeys, long key)
+    {
+        int low = 0;
+        int high = sortedKeys.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (sortedKeys[middle] < key) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(long[] sortedKeys, long key)
+    {
+        return key == Long.MAX_VALUE ? sortedKeys.length : lowerBound(sortedKeys, key + 1);
+    }
+
+    private int partitionOf(long key)
+    {
+        final int index = Arrays.binarySearch(splits, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static long leafKey(double x, double y)
+    {
+        return key(S2CellId.fromLatLng(S2LatLng.fromDegrees(y, x)));
+    }
+
+    private static long key(S2CellId cellId)
+    {
+        return cellId.id() ^ Long.MIN_VALUE;
+    }
+
+    private static S2CellId cellId(long key)
+    {
+        return new S2CellId(key ^ Long.MIN_VALUE);
+    }
+
+    /**
+     * Converts an envelope within the valid coordinates to a slightly larger latitude-longitude rectangle.
+     */
+    private static S2LatLngRect toRect(Envelope envelope)
+    {
+        final R1Interval lat = new R1Interval(Math.toRadians(envelope.getMinY()), Math.toRadians(envelope.getMaxY()));
+        final S1Interval lng = new S1Interval(Math.toRadians(envelope.getMinX()), Math.toRadians(envelope.getMaxX()));
+        return new S2LatLngRect(lat, lng).expanded(S2LatLng.fromRadians(COVERING_MARGIN, COVERING_MARGIN));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.core.spatialPartitioning;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.spark.api.java.JavaRDD;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Splits the partitions of a spatial partitioner which would hold many more objects than the others.
+ * <p>
+ * A partitioner is built from a sample of the data, and a single dense area missed by the sample,
+ * or objects replicated to many partitions, can leave one partition with far more objects than the
+ * others. Its task then runs much longer than the others and holds back the whole stage. The
+ * objects of each partition are counted in a pass over the data, and the partitions holding more
+ * than a given multiple of the median count are split into partitions of about the average count,
+ * using a sample of their objects.
+ */
+public final class SkewedPartitionSplitter
+{
+    /**
+     * Number of sampled envelopes per partition of average size, used to place the splits
+     */
+    static final int SAMPLES_PER_PARTITION = 100;
+
+    private static final Logger log = LogManager.getLogger(SkewedPartitionSplitter.class);
+
+    private SkewedPartitionSplitter() {}
+
+    /**
+     * Split the partitions holding more than maxSkew times the median number of objects per partition.
+     *
+     * @param rawSpatialRDD objects to partition
+     * @param partitioner partitioner to split, it is not modified
+     * @param maxSkew maximum ratio between the number of objects of a partition and the median
+     * @return a partitioner with the skewed partitions split, or the given partitioner if no partition is skewed
+     */
+    public static <T extends Geometry> SpatialPartitioner splitSkewedPartitions(JavaRDD<T> rawSpatialRDD,
+            final SpatialPartitioner partitioner, double maxSkew)
+    {
+        if (maxSkew < 1) {
+            throw new IllegalArgumentException("Maximum partition skew must be >= 1");
+        }
+
+        final long[] counts = countObjects(rawSpatialRDD, partitioner);
+        final long[] sortedCounts = counts.clone();
+        Arrays.sort(sortedCounts);
+        final long median = sortedCounts[sortedCounts.length / 2];
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        final double average = Math.max((double) total / counts.length, 1);
+
+        final Set<Integer> skewedPartitions = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > maxSkew * Math.max(median, 1) && counts[i] > average) {
+                skewedPartitions.add(i);
+            }
+        }
+        if (skewedPartitions.isEmpty()) {
+            return partitioner;
+        }
+        log.info("Splitting " + skewedPartitions.size() + " partitions holding more than " + maxSkew +
+                " times the median of " + median + " objects, largest partition holds " + sortedCounts[sortedCounts.length - 1] + " objects");
+
+        final double fraction = Math.min(SAMPLES_PER_PARTITION / average, 1);
+        final Map<Integer, List<Envelope>> samples = sampleObjects(rawSpatialRDD, partitioner, skewedPartitions, fraction);
+        final SpatialPartitioner splitPartitioner = partitioner.splitPartitions(samples, SAMPLES_PER_PARTITION);
+        log.info("Split " + partitioner.numPartitions() + " partitions into " + splitPartitioner.numPartitions());
+        return splitPartitioner;
+    }
+
+    /**
+     * Counts the objects of each partition, counting objects replicated to several partitions once in each.
+     */
+    private static <T extends Geometry> long[] countObjects(JavaRDD<T> rawSpatialRDD, final SpatialPartitioner partitioner)
+    {
+        final int numPartitions = partitioner.numPartitions();
+        return rawSpatialRDD.mapPartitions(geometries -> {
+            final long[] counts = new long[numPartitions];
+            final int[] partitionIds = new int[numPartitions];
+            while (geometries.hasNext()) {
+                final int count = partitioner.getPartitionIds(geometries.next(), partitionIds);
+                for (int i = 0; i < count; i++) {
+                    counts[partitionIds[i]]++;
+                }
+            }
+            return Collections.singletonList(counts).iterator();
+        }).fold(new long[numPartitions], (counts, other) -> {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other[i];
+            }
+            return counts;
+        });
+    }
+
+    /**
+     * Samples the envelopes of the objects of the given partitions, by partition id.
+     */
+    private static <T extends Geometry> Map<Integer, List<Envelope>> sampleObjects(JavaRDD<T> rawSpatialRDD,
+            final SpatialPartitioner partitioner, final Set<Integer> partitionIds, final double fraction)
+    {
+        final long seed = new Random().nextLong();
+        final List<Tuple2<Integer, Envelope>> samples = rawSpatialRDD.mapPartitionsWithIndex((index, geometries) -> {
+            final Random random = new Random(seed + index);
+            final List<Tuple2<Integer, Envelope>> sampled = new ArrayList<>();
+            final int[] placements = new int[partitioner.numPartitions()];
+            while (geometries.hasNext()) {
+                final T geometry = geometries.next();
+                final int count = partitioner.getPartitionIds(geometry, placements);
+                for (int i = 0; i < count; i++) {
+                    if (partitionIds.contains(placements[i]) && random.nextDouble() < fraction) {
+                        sampled.add(new Tuple2<>(placements[i], geometry.getEnvelopeInternal()));
+                    }
+                }
+            }
+            return sampled.iterator();
+        }, false).collect();
+
+        final Map<Integer, List<Envelope>> samplesByPartition = new HashMap<>();
+        for (Tuple2<Integer, Envelope> sample : samples) {
+            samplesByPartition.computeIfAbsent(sample._1(), id -> new ArrayList<>()).add(sample._2());
+        }
+        return samplesByPartition;
+    }
+}
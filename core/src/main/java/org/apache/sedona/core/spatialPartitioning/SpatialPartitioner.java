@@ -19,8 +19,14 @@
 
 package org.apache.sedona.core.spatialPartitioning;
 
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileContext;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Options;
+import org.apache.hadoop.fs.Path;
 import org.apache.sedona.core.enums.GridType;
 import org.apache.sedona.core.joinJudgement.DedupParams;
+import org.apache.sedona.core.spatialPartitioning.quadtree.StandardQuadTree;
 import org.apache.spark.Partitioner;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
@@ -28,15 +34,37 @@ import scala.Tuple2;
 
 import javax.annotation.Nullable;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
 
 abstract public class SpatialPartitioner
         extends Partitioner
         implements Serializable
 {
+    /**
+     * First bytes of a saved partitioner, "SPAR" in ASCII
+     */
+    private static final int FORMAT_MAGIC = 0x53504152;
+    private static final int FORMAT_VERSION = 1;
+
+    static final String FLAT_GRID_FORMAT = "FLAT_GRID";
+    static final String KDB_TREE_FORMAT = "KDB_TREE";
+    static final String QUAD_TREE_FORMAT = "QUAD_TREE";
+    static final String HILBERT_FORMAT = "HILBERT";
+    static final String S2_FORMAT = "S2";
 
     protected final GridType gridType;
     protected final List<Envelope> grids;
@@ -57,9 +85,45 @@ abstract public class SpatialPartitioner
     placeObject(T spatialObject)
             throws Exception;
 
+    /**
+     * Writes the ids of the partitions a geometry overlaps to a buffer, like {@link #placeObject(Geometry)}.
+     * Partitioners compiling their partitioning tree into arrays look the partitions up without allocating,
+     * so that the buffer can be reused for every geometry of an RDD partition.
+     *
+     * @param spatialObject the geometry
+     * @param partitionIds the buffer, holding at least {@link #numPartitions()} ids
+     * @return the number of partition ids written
+     */
+    public int getPartitionIds(Geometry spatialObject, int[] partitionIds)
+            throws Exception
+    {
+        int count = 0;
+        final Iterator<Tuple2<Integer, Geometry>> placements = placeObject(spatialObject);
+        while (placements.hasNext()) {
+            partitionIds[count++] = placements.next()._1();
+        }
+        return count;
+    }
+
     @Nullable
     abstract public DedupParams getDedupParams();
 
+    /**
+     * Splits partitions into smaller ones, to spread out the objects of partitions holding many more
+     * objects than the others. The new partitions cover the split partitions exactly, so that the
+     * partitions of the new partitioner still do not overlap if the partitions of this one do not.
+     * <p>
+     * Partitioners which can not split their partitions return themselves.
+     *
+     * @param samples envelopes of a sample of the objects of each partition to split, by partition id
+     * @param maxSamplesPerPartition maximum number of sampled envelopes in each new partition
+     * @return a new partitioner, this partitioner is not modified
+     */
+    public SpatialPartitioner splitPartitions(Map<Integer, List<Envelope>> samples, int maxSamplesPerPartition)
+    {
+        return this;
+    }
+
     public GridType getGridType()
     {
         return gridType;
@@ -75,4 +139,152 @@ abstract public class SpatialPartitioner
     {
         return (int) key;
     }
+
+    /**
+     * Saves this partitioner, its grids and partitioning tree, to a file so that later jobs can
+     * partition data the same way without sampling it again. An existing file is replaced.
+     * <p>
+     * The file holds a version header, the type of the partitioner and the structure it partitions
+     * by: the grids, the nodes of a partitioning tree or the ranges of a space-filling curve.
+     *
+     * @param path the file, on any file system supported by Hadoop
+     * @param hadoopConf the Hadoop configuration, such as SparkContext.hadoopConfiguration()
+     * @throws IOException if the file can not be written
+     * @throws UnsupportedOperationException if this partitioner can not be saved
+     */
+    public void save(String path, Configuration hadoopConf)
+            throws IOException
+    {
+        final FileSystem fs = new Path(path).getFileSystem(hadoopConf);
+        final Path file = fs.makeQualified(new Path(path));
+        // Write a temporary file first, so that the file is never read while it is partially written,
+        // and replace the file with it in a single rename, so that it never goes missing
+        final Path tempFile = file.suffix("." + UUID.randomUUID() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fs.create(tempFile, false)))) {
+                out.writeInt(FORMAT_MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                write(out);
+            }
+            FileContext.getFileContext(fs.getUri(), hadoopConf).rename(tempFile, file, Options.Rename.OVERWRITE);
+        }
+        catch (IOException | RuntimeException e) {
+            fs.delete(tempFile, false);
+            throw e;
+        }
+    }
+
+    /**
+     * Loads a partitioner saved by {@link #save(String, Configuration)}.
+     *
+     * @param path the file, on any file system supported by Hadoop
+     * @param hadoopConf the Hadoop configuration, such as SparkContext.hadoopConfiguration()
+     * @return the partitioner
+     * @throws java.io.FileNotFoundException if the file does not exist
+     * @throws IOException if the file can not be read or does not hold a spatial partitioner
+     */
+    public static SpatialPartitioner load(String path, Configuration hadoopConf)
+            throws IOException
+    {
+        final Path file = new Path(path);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(file.getFileSystem(hadoopConf).open(file)))) {
+            if (in.readInt() != FORMAT_MAGIC) {
+                throw new IOException("Not a spatial partitioner file: " + path);
+            }
+            final int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported spatial partitioner file version " + version + ": " + path);
+            }
+            return read(in);
+        }
+        catch (EOFException | IllegalArgumentException e) {
+            throw new IOException("Failed to load a spatial partitioner from " + path, e);
+        }
+    }
+
+    /**
+     * Writes the type of this partitioner and the structure it partitions by, see {@link #save(String, Configuration)}.
+     */
+    void write(DataOutput out)
+            throws IOException
+    {
+        throw new UnsupportedOperationException(getClass().getName() + " can not be saved");
+    }
+
+    private static SpatialPartitioner read(DataInput in)
+            throws IOException
+    {
+        final String format = in.readUTF();
+        switch (format) {
+            case FLAT_GRID_FORMAT: {
+                final String gridType = in.readUTF();
+                final int numGrids = readLength(in);
+                final List<Envelope> grids = new ArrayList<>(numGrids);
+                for (int i = 0; i < numGrids; i++) {
+                    grids.add(readEnvelope(in));
+                }
+                return new FlatGridPartitioner(gridType.isEmpty() ? null : GridType.valueOf(gridType), grids);
+            }
+            case KDB_TREE_FORMAT:
+                return new KDBTreePartitioner(KDB.read(in));
+            case QUAD_TREE_FORMAT:
+                return new QuadTreePartitioner(StandardQuadTree.read(in));
+            case HILBERT_FORMAT: {
+                final Envelope boundary = readEnvelope(in);
+                return new HilbertPartitioner(new HilbertPartitioning(boundary, readLongs(in)));
+            }
+            case S2_FORMAT:
+                return new S2Partitioner(new S2Partitioning(readLongs(in)));
+            default:
+                throw new IOException("Unknown spatial partitioner type: " + format);
+        }
+    }
+
+    static void writeEnvelope(DataOutput out, Envelope envelope)
+            throws IOException
+    {
+        out.writeDouble(envelope.getMinX());
+        out.writeDouble(envelope.getMaxX());
+        out.writeDouble(envelope.getMinY());
+        out.writeDouble(envelope.getMaxY());
+    }
+
+    static Envelope readEnvelope(DataInput in)
+            throws IOException
+    {
+        final double minX = in.readDouble();
+        final double maxX = in.readDouble();
+        final double minY = in.readDouble();
+        final double maxY = in.readDouble();
+        return new Envelope(minX, maxX, minY, maxY);
+    }
+
+    static void writeLongs(DataOutput out, long[] values)
+            throws IOException
+    {
+        out.writeInt(values.length);
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+
+    static long[] readLongs(DataInput in)
+            throws IOException
+    {
+        final long[] values = new long[readLength(in)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readLong();
+        }
+        return values;
+    }
+
+    private static int readLength(DataInput in)
+            throws IOException
+    {
+        final int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid length in spatial partitioner file: " + length);
+        }
+        return length;
+    }
 }
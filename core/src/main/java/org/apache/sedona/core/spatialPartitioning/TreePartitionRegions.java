@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.core.spatialPartitioning;
+
+import org.apache.sedona.common.utils.HalfOpenRectangle;
+import org.apache.sedona.core.joinJudgement.DedupParams;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Regions of the partitions of a partitioning tree whose leaves tile its boundary, plus an overflow
+ * partition whose id follows the last leaf and which has no grid.
+ * <p>
+ * The region of a leaf is its extent as a half-open rectangle. The overflow partition holds the
+ * geometries which are not within the boundary as a half-open rectangle, its region is everything
+ * outside the boundary, so that rows outside the extent of the data the tree was built from are
+ * still joined.
+ */
+final class TreePartitionRegions
+        implements DedupParams.PartitionRegions, Serializable
+{
+    private final List<Envelope> grids;
+    private final Envelope boundary;
+
+    TreePartitionRegions(List<Envelope> grids, Envelope boundary)
+    {
+        this.grids = grids;
+        this.boundary = boundary;
+    }
+
+    int getOverflowPartitionId()
+    {
+        return grids.size();
+    }
+
+    /**
+     * @return whether the geometry also belongs to the overflow partition
+     */
+    boolean isOverflow(Geometry geometry)
+    {
+        final Envelope envelope = geometry.getEnvelopeInternal();
+        if (geometry instanceof Point) {
+            return !new HalfOpenRectangle(boundary).contains(envelope.getMinX(), envelope.getMinY());
+        }
+        // Geometries touching the top or right edge also overflow, since the reference points of their
+        // pairs may lie on that edge, outside of every leaf
+        return envelope.getMinX() < boundary.getMinX() || envelope.getMaxX() >= boundary.getMaxX()
+                || envelope.getMinY() < boundary.getMinY() || envelope.getMaxY() >= boundary.getMaxY();
+    }
+
+    @Override
+    public boolean contains(int partitionId, double x, double y)
+    {
+        if (partitionId == getOverflowPartitionId()) {
+            return !new HalfOpenRectangle(boundary).contains(x, y);
+        }
+        return new HalfOpenRectangle(grids.get(partitionId)).contains(x, y);
+    }
+}
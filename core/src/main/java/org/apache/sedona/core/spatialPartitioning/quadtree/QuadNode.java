@@ -26,11 +26,18 @@ public class QuadNode<T>
 {
     QuadRectangle r;
     T element;
+    double weight;
 
     QuadNode(QuadRectangle r, T element)
+    {
+        this(r, element, 1);
+    }
+
+    QuadNode(QuadRectangle r, T element, double weight)
     {
         this.r = r;
         this.element = element;
+        this.weight = weight;
     }
 
     @Override
@@ -20,6 +20,7 @@
 package org.apache.sedona.core.spatialPartitioning.quadtree;
 
 import org.apache.commons.lang3.mutable.MutableInt;
+import org.apache.sedona.core.spatialPartitioning.FlatPartitionTree;
 import org.apache.sedona.core.spatialPartitioning.PartitioningUtils;
 import org.apache.sedona.common.utils.HalfOpenRectangle;
 import org.locationtech.jts.geom.Envelope;
@@ -27,11 +28,16 @@ import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.Point;
 import scala.Tuple2;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -51,7 +57,8 @@ public class StandardQuadTree<T> extends PartitioningUtils
     private final List<QuadNode<T>> nodes = new ArrayList<>();
     // current rectangle zone
     private final QuadRectangle zone;
-    private int nodeNum = 0;
+    // total weight of the current nodes
+    private double nodeNum = 0;
     // the four sub regions,
     // may be null if not needed
     private StandardQuadTree<T>[] regions;
@@ -177,15 +184,24 @@ public class StandardQuadTree<T> extends PartitioningUtils
     }
 
     public void insert(QuadRectangle r, T element)
+    {
+        insert(r, element, 1);
+    }
+
+    /**
+     * Inserts an element which counts as the given number of elements toward the maximum number of
+     * items in a zone, so that zones are split to balance their total weight.
+     */
+    public void insert(QuadRectangle r, T element, double weight)
     {
         int region = this.findRegion(r, true);
         if (region == REGION_SELF || this.level == maxLevel) {
-            nodes.add(new QuadNode<T>(r, element));
-            nodeNum++;
+            nodes.add(new QuadNode<T>(r, element, weight));
+            nodeNum += weight;
             return;
         }
         else {
-            regions[region].insert(r, element);
+            regions[region].insert(r, element, weight);
         }
 
         if (nodeNum >= maxItemsPerZone && this.level < maxLevel) {
@@ -195,7 +211,7 @@ public class StandardQuadTree<T> extends PartitioningUtils
 
             nodes.clear();
             for (QuadNode<T> node : tempNodes) {
-                this.insert(node.r, node.element);
+                this.insert(node.r, node.element, node.weight);
             }
         }
     }
@@ -408,6 +424,60 @@ public class StandardQuadTree<T> extends PartitioningUtils
         return !r1.intersects(r2) && !r1.covers(r2) && !r2.covers(r1);
     }
 
+    /**
+     * Compiles the tree into arrays, to look up partitions without walking the tree.
+     * Call after the partition ids are assigned.
+     */
+    public FlatPartitionTree flatten()
+    {
+        return FlatPartitionTree.compile(this, tree -> tree.regions, tree -> tree.zone.getEnvelope(), tree -> tree.zone.partitionId);
+    }
+
+    /**
+     * Writes the zones of the tree depth-first, without their items.
+     */
+    public void write(DataOutput out)
+            throws IOException
+    {
+        out.writeInt(maxItemsPerZone);
+        out.writeInt(maxLevel);
+        out.writeInt(level);
+        out.writeDouble(zone.x);
+        out.writeDouble(zone.y);
+        out.writeDouble(zone.width);
+        out.writeDouble(zone.height);
+        out.writeInt(zone.partitionId == null ? -1 : zone.partitionId);
+        out.writeInt(regions == null ? 0 : regions.length);
+        if (regions != null) {
+            for (StandardQuadTree<T> region : regions) {
+                region.write(out);
+            }
+        }
+    }
+
+    /**
+     * Reads a tree written by {@link #write(DataOutput)}.
+     */
+    public static <T> StandardQuadTree<T> read(DataInput in)
+            throws IOException
+    {
+        final int maxItemsPerZone = in.readInt();
+        final int maxLevel = in.readInt();
+        final int level = in.readInt();
+        final QuadRectangle zone = new QuadRectangle(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+        final int partitionId = in.readInt();
+        zone.partitionId = partitionId < 0 ? null : partitionId;
+        final StandardQuadTree<T> tree = new StandardQuadTree<>(zone, level, maxItemsPerZone, maxLevel);
+        final int numRegions = in.readInt();
+        if (numRegions > 0) {
+            tree.regions = new StandardQuadTree[numRegions];
+            for (int i = 0; i < numRegions; i++) {
+                tree.regions[i] = read(in);
+            }
+        }
+        return tree;
+    }
+
     public void assignPartitionIds()
     {
         traverse(new Visitor<T>()
@@ -426,6 +496,49 @@ public class StandardQuadTree<T> extends PartitioningUtils
         });
     }
 
+    /**
+     * Splits leaves into smaller leaves holding at most maxItemsPerZone of the given envelopes each,
+     * the same way the leaves would have been split if the envelopes had been inserted into the tree.
+     * The new leaves cover the zones of the split leaves exactly. Partition ids are reassigned.
+     *
+     * @param envelopesByPartitionId envelopes of the leaves to split, by partition id, clipped to the zones of the leaves
+     * @param maxItemsPerZone maximum number of envelopes in each new leaf
+     */
+    public void splitLeaves(Map<Integer, List<Envelope>> envelopesByPartitionId, final int maxItemsPerZone)
+    {
+        // Find all the leaves before splitting any, new leaves have no partition ids yet
+        final Map<StandardQuadTree<T>, List<Envelope>> envelopesByLeaf = new HashMap<>();
+        traverse(new Visitor<T>()
+        {
+            @Override
+            public boolean visit(StandardQuadTree<T> tree)
+            {
+                if (tree.isLeaf() && envelopesByPartitionId.containsKey(tree.zone.partitionId)) {
+                    envelopesByLeaf.put(tree, envelopesByPartitionId.get(tree.zone.partitionId));
+                }
+                return true;
+            }
+        });
+
+        for (Map.Entry<StandardQuadTree<T>, List<Envelope>> entry : envelopesByLeaf.entrySet()) {
+            final StandardQuadTree<T> leaf = entry.getKey();
+            final Envelope leafEnvelope = leaf.zone.getEnvelope();
+            // Identical envelopes can not be separated, do not let them grow the tree deeper than
+            // needed to separate distinct ones
+            final int maxDepth = 32 - Integer.numberOfLeadingZeros(entry.getValue().size());
+            final StandardQuadTree<T> subtree = new StandardQuadTree<>(leaf.zone, leaf.level, maxItemsPerZone, leaf.level + maxDepth);
+            for (Envelope envelope : entry.getValue()) {
+                final Envelope clipped = envelope.intersection(leafEnvelope);
+                if (!clipped.isNull()) {
+                    subtree.insert(new QuadRectangle(clipped), null);
+                }
+            }
+            subtree.dropElements();
+            leaf.regions = subtree.regions;
+        }
+        assignPartitionIds();
+    }
+
     public void assignPartitionLineage()
     {
         traverseWithTrace(new VisitorWithLineage<T>()
@@ -24,6 +24,7 @@ import org.apache.log4j.Logger;
 import org.apache.sedona.common.utils.GeomUtils;
 import org.apache.sedona.core.enums.GridType;
 import org.apache.sedona.core.enums.IndexType;
+import org.apache.sedona.core.enums.PartitionWeight;
 import org.apache.sedona.core.spatialPartitioning.*;
 import org.apache.sedona.core.spatialPartitioning.quadtree.StandardQuadTree;
 import org.apache.sedona.core.spatialRddTool.IndexBuilder;
@@ -62,6 +63,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 // TODO: Auto-generated Javadoc
 
@@ -141,6 +143,27 @@ public class SpatialRDD<T extends Geometry>
         this.sampleNumber = sampleNumber;
     }
 
+    /**
+     * The weight of the samples balanced by KDB-Tree and Quad-Tree partitioners.
+     */
+    private PartitionWeight partitionWeight = PartitionWeight.COUNT;
+
+    public PartitionWeight getPartitionWeight()
+    {
+        return partitionWeight;
+    }
+
+    /**
+     * Sets the weight of the samples balanced by KDB-Tree and Quad-Tree partitioners, so that
+     * partitions hold a similar number of geometries or a similar number of points or bytes.
+     *
+     * @param partitionWeight the new partition weight
+     */
+    public void setPartitionWeight(PartitionWeight partitionWeight)
+    {
+        this.partitionWeight = partitionWeight;
+    }
+
     /**
      * CRS transform.
      *
@@ -228,19 +251,26 @@ public class SpatialRDD<T extends Geometry>
         // See https://github.com/apache/spark/blob/412b0e8969215411b97efd3d0984dc6cac5d31e0/core/src/main/scala/org/apache/spark/rdd/RDD.scala#L508
         // Here, we choose to get samples faster over getting exactly specified number of samples.
         final double fraction = SamplingUtils.computeFractionForSampleSize(sampleNumberOfRecords, approximateTotalCount, false);
-        List<Envelope> samples = this.rawSpatialRDD.sample(false, fraction)
-                .map(new Function<T, Envelope>()
+        final PartitionWeight weight = this.partitionWeight;
+        List<Tuple2<Envelope, Double>> weightedSamples = this.rawSpatialRDD.sample(false, fraction)
+                .map(new Function<T, Tuple2<Envelope, Double>>()
                 {
                     @Override
-                    public Envelope call(T geometry)
+                    public Tuple2<Envelope, Double> call(T geometry)
                             throws Exception
                     {
-                        return geometry.getEnvelopeInternal();
+                        return new Tuple2<>(geometry.getEnvelopeInternal(), weight.weight(geometry));
                     }
                 })
                 .collect();
 
-        logger.info("Collected " + samples.size() + " samples");
+        logger.info("Collected " + weightedSamples.size() + " samples");
+
+        final List<Envelope> samples = new ArrayList<>(weightedSamples.size());
+        for (Tuple2<Envelope, Double> sample : weightedSamples) {
+            samples.add(sample._1);
+        }
+        final double[] weights = normalizeWeights(weightedSamples);
 
         // Add some padding at the top and right of the boundaryEnvelope to make
         // sure all geometries lie within the half-open rectangle.
@@ -260,26 +290,59 @@ public class SpatialRDD<T extends Geometry>
                 break;
             }
             case QUADTREE: {
-                QuadtreePartitioning quadtreePartitioning = new QuadtreePartitioning(samples, paddedBoundary, numPartitions);
+                QuadtreePartitioning quadtreePartitioning = new QuadtreePartitioning(samples, weights, paddedBoundary, numPartitions, -1);
                 StandardQuadTree tree = quadtreePartitioning.getPartitionTree();
                 partitioner = new QuadTreePartitioner(tree);
                 break;
             }
             case KDBTREE: {
                 final KDB tree = new KDB(samples.size() / numPartitions, numPartitions, paddedBoundary);
-                for (final Envelope sample : samples) {
-                    tree.insert(sample);
+                for (int i = 0; i < samples.size(); i++) {
+                    tree.insert(samples.get(i), weights == null ? 1 : weights[i]);
                 }
                 tree.assignLeafIds();
                 partitioner = new KDBTreePartitioner(tree);
                 break;
             }
+            case HILBERT: {
+                partitioner = new HilbertPartitioner(new HilbertPartitioning(samples, paddedBoundary, numPartitions));
+                break;
+            }
+            case S2: {
+                partitioner = new S2Partitioner(new S2Partitioning(samples, numPartitions));
+                break;
+            }
             default:
                 throw new Exception("[AbstractSpatialRDD][spatialPartitioning] Unsupported spatial partitioning method. " +
-                        "The following partitioning methods are not longer supported: R-Tree, Hilbert curve, Voronoi");
+                        "The following partitioning methods are not longer supported: R-Tree, Voronoi");
         }
     }
 
+    /**
+     * Scales the weights of the samples to an average of 1, so that the maximum number of samples
+     * per node of the partitioning trees bounds their total weight.
+     *
+     * @return the weights, or null if all samples weigh the same
+     */
+    private double[] normalizeWeights(List<Tuple2<Envelope, Double>> weightedSamples)
+    {
+        if (partitionWeight == PartitionWeight.COUNT) {
+            return null;
+        }
+        double totalWeight = 0;
+        for (Tuple2<Envelope, Double> sample : weightedSamples) {
+            totalWeight += sample._2;
+        }
+        if (!(totalWeight > 0)) {
+            return null;
+        }
+        final double[] weights = new double[weightedSamples.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = weightedSamples.get(i)._2 * weights.length / totalWeight;
+        }
+        return weights;
+    }
+
     public void spatialPartitioning(GridType gridType, int numPartitions)
             throws Exception
     {
@@ -287,6 +350,28 @@ public class SpatialRDD<T extends Geometry>
         this.spatialPartitionedRDD = partition(partitioner);
     }
 
+    /**
+     * Spatial partitioning which splits the partitions that would hold more than maxPartitionSkew times
+     * the median number of objects per partition. Counting the objects of each partition takes an
+     * additional pass over the data, and sampling the skewed partitions another one if there are any,
+     * see {@link SkewedPartitionSplitter}.
+     *
+     * @param gridType the grid type
+     * @param numPartitions the number of partitions before splitting
+     * @param maxPartitionSkew maximum ratio between the number of objects of a partition and the median,
+     *                         a value below 1 disables splitting
+     * @throws Exception the exception
+     */
+    public void spatialPartitioning(GridType gridType, int numPartitions, double maxPartitionSkew)
+            throws Exception
+    {
+        calc_partitioner(gridType, numPartitions);
+        if (maxPartitionSkew >= 1) {
+            partitioner = SkewedPartitionSplitter.splitSkewedPartitions(rawSpatialRDD, partitioner, maxPartitionSkew);
+        }
+        this.spatialPartitionedRDD = partition(partitioner);
+    }
+
     public SpatialPartitioner getPartitioner()
     {
         return partitioner;
@@ -322,14 +407,52 @@ public class SpatialRDD<T extends Geometry>
 
     private JavaRDD<T> partition(final SpatialPartitioner partitioner)
     {
-        return this.rawSpatialRDD.flatMapToPair(
-                new PairFlatMapFunction<T, Integer, T>()
+        return this.rawSpatialRDD.mapPartitionsToPair(
+                new PairFlatMapFunction<Iterator<T>, Integer, T>()
                 {
                     @Override
-                    public Iterator<Tuple2<Integer, T>> call(T spatialObject)
+                    public Iterator<Tuple2<Integer, T>> call(final Iterator<T> spatialObjects)
                             throws Exception
                     {
-                        return partitioner.placeObject(spatialObject);
+                        // Reused for all the objects of the partition
+                        final int[] partitionIds = new int[partitioner.numPartitions()];
+                        return new Iterator<Tuple2<Integer, T>>()
+                        {
+                            private T spatialObject;
+                            private int numPartitionIds = 0;
+                            private int nextPartitionId = 0;
+
+                            @Override
+                            public boolean hasNext()
+                            {
+                                while (nextPartitionId >= numPartitionIds && spatialObjects.hasNext()) {
+                                    spatialObject = spatialObjects.next();
+                                    try {
+                                        numPartitionIds = partitioner.getPartitionIds(spatialObject, partitionIds);
+                                    }
+                                    catch (Exception e) {
+                                        throw new RuntimeException(e);
+                                    }
+                                    nextPartitionId = 0;
+                                }
+                                return nextPartitionId < numPartitionIds;
+                            }
+
+                            @Override
+                            public Tuple2<Integer, T> next()
+                            {
+                                if (!hasNext()) {
+                                    throw new NoSuchElementException();
+                                }
+                                return new Tuple2<>(partitionIds[nextPartitionId++], spatialObject);
+                            }
+
+                            @Override
+                            public void remove()
+                            {
+                                throw new UnsupportedOperationException();
+                            }
+                        };
                     }
                 }
         ).partitionBy(partitioner)
@@ -404,16 +527,31 @@ public class SpatialRDD<T extends Geometry>
      */
     public void buildIndex(final IndexType indexType, boolean buildIndexOnSpatialPartitionedRDD)
             throws Exception
+    {
+        buildIndex(indexType, buildIndexOnSpatialPartitionedRDD, IndexBuilder.DEFAULT_PARALLEL_BUILD_THRESHOLD);
+    }
+
+    /**
+     * Builds the index.
+     *
+     * @param indexType the index type
+     * @param buildIndexOnSpatialPartitionedRDD the build index on spatial partitioned RDD
+     * @param parallelBuildThreshold number of geometries of a partition above which its index is bulk loaded in parallel,
+     * a negative value disables parallel builds
+     * @throws Exception the exception
+     */
+    public void buildIndex(final IndexType indexType, boolean buildIndexOnSpatialPartitionedRDD, long parallelBuildThreshold)
+            throws Exception
     {
         if (buildIndexOnSpatialPartitionedRDD == false) {
             //This index is built on top of unpartitioned SRDD
-            this.indexedRawRDD = this.rawSpatialRDD.mapPartitions(new IndexBuilder(indexType));
+            this.indexedRawRDD = this.rawSpatialRDD.mapPartitions(new IndexBuilder(indexType, parallelBuildThreshold));
         }
         else {
             if (this.spatialPartitionedRDD == null) {
                 throw new Exception("[AbstractSpatialRDD][buildIndex] spatialPartitionedRDD is null. Please do spatial partitioning before build index.");
             }
-            this.indexedRDD = this.spatialPartitionedRDD.mapPartitions(new IndexBuilder(indexType));
+            this.indexedRDD = this.spatialPartitionedRDD.mapPartitions(new IndexBuilder(indexType, parallelBuildThreshold));
         }
     }
 
@@ -19,6 +19,7 @@
 
 package org.apache.sedona.core.spatialRddTool;
 
+import org.apache.sedona.common.spatialIndex.PackedHilbertRtree;
 import org.apache.sedona.core.enums.IndexType;
 import org.apache.spark.api.java.function.FlatMapFunction;
 import org.locationtech.jts.geom.Envelope;
@@ -26,39 +27,93 @@ import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.index.SpatialIndex;
 import org.locationtech.jts.index.quadtree.Quadtree;
 import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.index.strtree.STRtreeBulkLoader;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 public final class IndexBuilder<T extends Geometry>
         implements FlatMapFunction<Iterator<T>, SpatialIndex>
 {
+    /**
+     * Default number of items above which indexes are bulk loaded in parallel
+     */
+    public static final long DEFAULT_PARALLEL_BUILD_THRESHOLD = 100000;
+
+    private static final int RTREE_NODE_CAPACITY = 10;
+
     IndexType indexType;
+    long parallelBuildThreshold;
 
     public IndexBuilder(IndexType indexType)
+    {
+        this(indexType, DEFAULT_PARALLEL_BUILD_THRESHOLD);
+    }
+
+    /**
+     * @param indexType type of the index to build
+     * @param parallelBuildThreshold number of items above which the index is bulk loaded in parallel
+     *                               using the cores of the executor, a negative value disables parallel builds
+     */
+    public IndexBuilder(IndexType indexType, long parallelBuildThreshold)
     {
         this.indexType = indexType;
+        this.parallelBuildThreshold = parallelBuildThreshold;
     }
 
     @Override
     public Iterator<SpatialIndex> call(Iterator<T> objectIterator)
             throws Exception
     {
+        List<T> spatialObjects = new ArrayList<>();
+        while (objectIterator.hasNext()) {
+            spatialObjects.add(objectIterator.next());
+        }
+        Set<SpatialIndex> result = new HashSet();
+        result.add(buildIndex(indexType, spatialObjects, parallelBuildThreshold));
+        return result.iterator();
+    }
+
+    /**
+     * Build an index holding the given geometries. Trees that support bulk loading are sorted and tiled
+     * on the common fork-join pool when there are at least parallelBuildThreshold geometries, otherwise
+     * the geometries are inserted one by one and the index is built by a dummy query.
+     *
+     * @param indexType type of the index to build
+     * @param spatialObjects geometries to index
+     * @param parallelBuildThreshold number of items above which the index is bulk loaded in parallel,
+     *                               a negative value disables parallel builds
+     * @return a built index
+     */
+    public static SpatialIndex buildIndex(IndexType indexType, List<? extends Geometry> spatialObjects, long parallelBuildThreshold)
+    {
+        boolean parallel = parallelBuildThreshold >= 0 && spatialObjects.size() >= parallelBuildThreshold;
+        if (parallel && indexType == IndexType.RTREE) {
+            return STRtreeBulkLoader.load(spatialObjects, RTREE_NODE_CAPACITY);
+        }
+
         SpatialIndex spatialIndex;
         if (indexType == IndexType.RTREE) {
-            spatialIndex = new STRtree();
+            spatialIndex = new STRtree(RTREE_NODE_CAPACITY);
+        }
+        else if (indexType == IndexType.HPRTREE) {
+            spatialIndex = new PackedHilbertRtree();
         }
         else {
             spatialIndex = new Quadtree();
         }
-        while (objectIterator.hasNext()) {
-            T spatialObject = objectIterator.next();
+        for (Geometry spatialObject : spatialObjects) {
             spatialIndex.insert(spatialObject.getEnvelopeInternal(), spatialObject);
         }
-        Set<SpatialIndex> result = new HashSet();
-        spatialIndex.query(new Envelope(0.0, 0.0, 0.0, 0.0));
-        result.add(spatialIndex);
-        return result.iterator();
+        if (spatialIndex instanceof PackedHilbertRtree) {
+            ((PackedHilbertRtree) spatialIndex).build(parallel);
+        }
+        else {
+            spatialIndex.query(new Envelope(0.0, 0.0, 0.0, 0.0));
+        }
+        return spatialIndex;
     }
 }
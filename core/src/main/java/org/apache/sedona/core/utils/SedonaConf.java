@@ -23,7 +23,10 @@ import org.apache.sedona.core.enums.GridType;
 import org.apache.sedona.core.enums.IndexType;
 import org.apache.sedona.core.enums.JoinBuildSide;
 import org.apache.sedona.core.enums.JoinSparitionDominantSide;
+import org.apache.sedona.core.enums.PartitionWeight;
 import org.apache.sedona.core.enums.SpatialJoinOptimizationMode;
+import org.apache.sedona.core.joinJudgement.PlaneSweepJudgement;
+import org.apache.sedona.core.spatialRddTool.IndexBuilder;
 import org.apache.spark.sql.RuntimeConfig;
 import org.apache.spark.sql.SparkSession;
 import org.apache.spark.util.Utils;
@@ -42,6 +45,8 @@ public class SedonaConf
 
     private IndexType indexType;
 
+    private long parallelIndexBuildThreshold;
+
     // Parameters for JoinQuery including RangeJoin and DistanceJoin
 
     private JoinSparitionDominantSide joinSparitionDominantSide;
@@ -50,10 +55,18 @@ public class SedonaConf
 
     private long joinApproximateTotalCount;
 
+    private double joinPlaneSweepSizeRatio;
+
     private Envelope datasetBoundary;
 
     private int fallbackPartitionNum;
 
+    private double joinMaxPartitionSkew;
+
+    private PartitionWeight joinPartitionWeight;
+
+    private String joinPartitionerPath;
+
     private GridType joinGridType;
 
     private long autoBroadcastJoinThreshold;
@@ -68,7 +81,11 @@ public class SedonaConf
     {
         this.useIndex = Boolean.parseBoolean(runtimeConfig.get("sedona.global.index", "true"));
         this.indexType = IndexType.getIndexType(runtimeConfig.get("sedona.global.indextype", "quadtree"));
+        this.parallelIndexBuildThreshold = Long.parseLong(runtimeConfig.get("sedona.global.index.parallelbuildthreshold",
+                String.valueOf(IndexBuilder.DEFAULT_PARALLEL_BUILD_THRESHOLD)));
         this.joinApproximateTotalCount = Long.parseLong(runtimeConfig.get("sedona.join.approxcount", "-1"));
+        this.joinPlaneSweepSizeRatio = Double.parseDouble(runtimeConfig.get("sedona.join.planesweepratio",
+                String.valueOf(PlaneSweepJudgement.DEFAULT_SIZE_RATIO)));
         String[] boundaryString = runtimeConfig.get("sedona.join.boundary", "0,0,0,0").split(",");
         this.datasetBoundary = new Envelope(Double.parseDouble(boundaryString[0]), Double.parseDouble(boundaryString[1]),
                 Double.parseDouble(boundaryString[2]), Double.parseDouble(boundaryString[3]));
@@ -76,6 +93,9 @@ public class SedonaConf
         this.joinBuildSide = JoinBuildSide.getBuildSide(runtimeConfig.get("sedona.join.indexbuildside", "left"));
         this.joinSparitionDominantSide = JoinSparitionDominantSide.getJoinSparitionDominantSide(runtimeConfig.get("sedona.join.spatitionside", "left"));
         this.fallbackPartitionNum = Integer.parseInt(runtimeConfig.get("sedona.join.numpartition", "-1"));
+        this.joinMaxPartitionSkew = Double.parseDouble(runtimeConfig.get("sedona.join.maxpartitionskew", "-1"));
+        this.joinPartitionWeight = PartitionWeight.getPartitionWeight(runtimeConfig.get("sedona.join.partitionweight", "count"));
+        this.joinPartitionerPath = runtimeConfig.get("sedona.join.partitioner", "");
         this.autoBroadcastJoinThreshold = bytesFromString(
                 runtimeConfig.get("sedona.join.autoBroadcastJoinThreshold",
                         runtimeConfig.get("spark.sql.autoBroadcastJoinThreshold")
@@ -95,12 +115,22 @@ public class SedonaConf
         return indexType;
     }
 
+    public long getParallelIndexBuildThreshold()
+    {
+        return parallelIndexBuildThreshold;
+    }
+
 
     public long getJoinApproximateTotalCount()
     {
         return joinApproximateTotalCount;
     }
 
+    public double getJoinPlaneSweepSizeRatio()
+    {
+        return joinPlaneSweepSizeRatio;
+    }
+
     public Envelope getDatasetBoundary()
     {
         return datasetBoundary;
@@ -126,6 +156,21 @@ public class SedonaConf
         return fallbackPartitionNum;
     }
 
+    public double getJoinMaxPartitionSkew()
+    {
+        return joinMaxPartitionSkew;
+    }
+
+    public PartitionWeight getJoinPartitionWeight()
+    {
+        return joinPartitionWeight;
+    }
+
+    public String getJoinPartitionerPath()
+    {
+        return joinPartitionerPath;
+    }
+
     public long getAutoBroadcastJoinThreshold()
     {
         return autoBroadcastJoinThreshold;
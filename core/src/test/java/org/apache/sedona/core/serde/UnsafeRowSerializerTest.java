@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sedona.core.serde;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.apache.spark.sql.catalyst.expressions.UnsafeRow;
+import org.apache.spark.unsafe.Platform;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.index.strtree.STRtree;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UnsafeRowSerializerTest
+{
+    private final Kryo kryo = new Kryo();
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    public UnsafeRowSerializerTest()
+    {
+        new SedonaKryoRegistrator().registerClasses(kryo);
+    }
+
+    @Test
+    public void testGeometryWithRowUserData()
+    {
+        Point point = geometryFactory.createPoint(new Coordinate(1.5, 2.5));
+        UnsafeRow row = createRow(42L, 3.25);
+        point.setUserData(row);
+
+        Geometry deserialized = kryo.readObject(new Input(serialize(point)), Point.class);
+        assertTrue(point.equalsExact(deserialized));
+        assertTrue(deserialized.getUserData() instanceof UnsafeRow);
+        UnsafeRow deserializedRow = (UnsafeRow) deserialized.getUserData();
+        assertEquals(row, deserializedRow);
+        assertEquals(42L, deserializedRow.getLong(0));
+        assertEquals(3.25, deserializedRow.getDouble(1), 0);
+    }
+
+    @Test
+    public void testRowWithOffset()
+    {
+        // Rows pointing into the middle of a larger array, such as rows of a batch, are written as well
+        UnsafeRow source = createRow(7L, -1.0);
+        byte[] bytes = new byte[source.getSizeInBytes() + 16];
+        System.arraycopy(source.getBytes(), 0, bytes, 16, source.getSizeInBytes());
+        UnsafeRow row = new UnsafeRow(2);
+        row.pointTo(bytes, Platform.BYTE_ARRAY_OFFSET + 16, source.getSizeInBytes());
+
+        Point point = geometryFactory.createPoint(new Coordinate(0, 0));
+        point.setUserData(row);
+        Geometry deserialized = kryo.readObject(new Input(serialize(point)), Point.class);
+        assertEquals(source, deserialized.getUserData());
+    }
+
+    @Test
+    public void testIndexWithRowUserData()
+    {
+        STRtree tree = new STRtree();
+        for (int i = 0; i < 100; i++) {
+            Point point = geometryFactory.createPoint(new Coordinate(i, i));
+            point.setUserData(createRow(i, i * 0.5));
+            tree.insert(point.getEnvelopeInternal(), point);
+        }
+        tree.build();
+
+        STRtree deserialized = kryo.readObject(new Input(serialize(tree)), STRtree.class);
+        for (Object item : deserialized.query(new Envelope(10, 10, 10, 10))) {
+            UnsafeRow row = (UnsafeRow) ((Geometry) item).getUserData();
+            assertEquals(10L, row.getLong(0));
+            assertEquals(5.0, row.getDouble(1), 0);
+        }
+        assertEquals(100, deserialized.size());
+    }
+
+    private UnsafeRow createRow(long longValue, double doubleValue)
+    {
+        // 8 bytes of null bits followed by two fixed length fields
+        UnsafeRow row = new UnsafeRow(2);
+        row.pointTo(new byte[24], 24);
+        row.setLong(0, longValue);
+        row.setDouble(1, doubleValue);
+        return row;
+    }
+
+    private byte[] serialize(Object object)
+    {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        Output output = new Output(bos);
+        kryo.writeObject(output, object);
+        output.close();
+        return bos.toByteArray();
+    }
+}
@@ -109,6 +109,8 @@ public class JoinQueryCorrectnessChecker
         return Arrays.asList(new Object[][] {
                 {GridType.QUADTREE},
                 {GridType.KDBTREE},
+                {GridType.HILBERT},
+                {GridType.S2},
         });
     }
 
@@ -22,14 +22,21 @@ package org.apache.sedona.core.spatialOperator;
 import org.apache.sedona.common.Constructors;
 import org.apache.sedona.core.TestBase;
 import org.apache.sedona.core.enums.GridType;
+import org.apache.sedona.core.enums.IndexType;
 import org.apache.sedona.core.spatialRDD.SpatialRDD;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 
@@ -72,4 +79,81 @@ public class JoinQueryDeduplicationTest extends TestBase {
         JavaPairRDD<Geometry, Geometry> joined = JoinQuery.spatialJoin(leftRDD, rightRDD, new JoinQuery.JoinParams(false, SpatialPredicate.INTERSECTS));
         assertEquals(8, joined.union(joined).count());
     }
+
+    /**
+     * Duplicates are skipped by all the join judgements, before the join condition is evaluated.
+     */
+    @Test
+    public void testDeduplicationWithIndex() throws Exception {
+        SpatialRDD<Geometry> leftRDD = new SpatialRDD<>();
+        leftRDD.setRawSpatialRDD(
+                sc.parallelize(
+                        Arrays.asList(
+                                "POLYGON ((3 0, 3 3, 0 3, 0 0, 3 0))",
+                                "POLYGON ((4 1, 4 4, 1 4, 1 1, 4 1))",
+                                "POLYGON ((3 1, 3 4, 0 4, 0 1, 3 1))",
+                                "POLYGON ((4 0, 4 3, 1 3, 1 0, 4 0))"
+                        )
+                ).map(wkt -> Constructors.geomFromWKT(wkt, 0)));
+        leftRDD.analyze();
+        leftRDD.spatialPartitioning(GridType.KDBTREE, 2);
+
+        SpatialRDD<Geometry> rightRDD = new SpatialRDD<>();
+        rightRDD.setRawSpatialRDD(sc.parallelize(Arrays.asList("POLYGON ((4 0, 4 4, 0 4, 0 0, 4 0))"))
+                .map(wkt -> Constructors.geomFromWKT(wkt, 0)));
+        rightRDD.spatialPartitioning(leftRDD.getPartitioner());
+
+        JoinQuery.JoinParams joinParams = new JoinQuery.JoinParams(true, SpatialPredicate.INTERSECTS);
+        assertEquals(4, JoinQuery.spatialJoin(leftRDD, rightRDD, joinParams).count());
+        leftRDD.buildIndex(IndexType.RTREE, true);
+        assertEquals(4, JoinQuery.spatialJoin(leftRDD, rightRDD, joinParams).count());
+        rightRDD.buildIndex(IndexType.RTREE, true);
+        assertEquals(4, JoinQuery.spatialJoin(leftRDD, rightRDD, joinParams).count());
+    }
+
+    /**
+     * Geometries outside the extent of the data the KDB-Tree and Quad-Tree partitioners were built from
+     * are placed in an overflow partition, pairs straddling that extent are reported once.
+     */
+    @Test
+    public void testOverflowPartition() throws Exception {
+        final Random random = new Random(0);
+        final GeometryFactory geometryFactory = new GeometryFactory();
+        final List<Geometry> left = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final double x = random.nextDouble() * 10;
+            final double y = random.nextDouble() * 10;
+            left.add(geometryFactory.toGeometry(new Envelope(x, x + random.nextDouble(), y, y + random.nextDouble())));
+        }
+        final List<Geometry> right = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final double x = random.nextDouble() * 20 - 5;
+            final double y = random.nextDouble() * 20 - 5;
+            right.add(i % 2 == 0
+                    ? geometryFactory.createPoint(new Coordinate(x, y))
+                    : geometryFactory.toGeometry(new Envelope(x, x + random.nextDouble() * 3, y, y + random.nextDouble() * 3)));
+        }
+        long expected = 0;
+        for (Geometry leftGeometry : left) {
+            for (Geometry rightGeometry : right) {
+                if (leftGeometry.intersects(rightGeometry)) {
+                    expected++;
+                }
+            }
+        }
+
+        for (GridType gridType : new GridType[] {GridType.KDBTREE, GridType.QUADTREE}) {
+            SpatialRDD<Geometry> leftRDD = new SpatialRDD<>();
+            leftRDD.setRawSpatialRDD(sc.parallelize(left, 2));
+            leftRDD.analyze();
+            leftRDD.spatialPartitioning(gridType, 4);
+
+            SpatialRDD<Geometry> rightRDD = new SpatialRDD<>();
+            rightRDD.setRawSpatialRDD(sc.parallelize(right, 2));
+            rightRDD.spatialPartitioning(leftRDD.getPartitioner());
+
+            JoinQuery.JoinParams joinParams = new JoinQuery.JoinParams(false, SpatialPredicate.INTERSECTS);
+            assertEquals(expected, JoinQuery.spatialJoin(leftRDD, rightRDD, joinParams).count());
+        }
+    }
 }
@@ -162,7 +162,7 @@ class JoinTestBase
 
     protected boolean expectToPreserveOriginalDuplicates()
     {
-        return gridType == GridType.QUADTREE || gridType == GridType.KDBTREE;
+        return gridType == GridType.QUADTREE || gridType == GridType.KDBTREE || gridType == GridType.HILBERT || gridType == GridType.S2;
     }
 
     protected <T extends Geometry> long countJoinResults(List<Tuple2<Polygon, List<T>>> results)
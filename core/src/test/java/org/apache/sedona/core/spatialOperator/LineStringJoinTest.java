@@ -23,6 +23,7 @@ import org.apache.sedona.core.enums.IndexType;
 import org.apache.sedona.core.enums.JoinBuildSide;
 import org.apache.sedona.core.spatialRDD.LineStringRDD;
 import org.apache.sedona.core.spatialRDD.PolygonRDD;
+import org.apache.sedona.core.spatialRddTool.IndexBuilder;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -57,6 +58,8 @@ public class LineStringJoinTest
         return Arrays.asList(new Object[][] {
                 {GridType.QUADTREE, 11},
                 {GridType.KDBTREE, 11},
+                {GridType.HILBERT, 11},
+                {GridType.S2, 11},
         });
     }
 
@@ -128,15 +131,47 @@ public class LineStringJoinTest
         testIndexInt(IndexType.QUADTREE);
     }
 
+    /**
+     * Test spatial join query with polygon RDD using packed Hilbert R tree index.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testHPRTree()
+            throws Exception
+    {
+        testIndexInt(IndexType.HPRTREE);
+    }
+
+    @Test
+    public void testParallelRTree()
+            throws Exception
+    {
+        testIndexInt(IndexType.RTREE, 0);
+    }
+
+    @Test
+    public void testParallelHPRTree()
+            throws Exception
+    {
+        testIndexInt(IndexType.HPRTREE, 0);
+    }
+
     private void testIndexInt(IndexType indexType)
             throws Exception
+    {
+        testIndexInt(indexType, IndexBuilder.DEFAULT_PARALLEL_BUILD_THRESHOLD);
+    }
+
+    private void testIndexInt(IndexType indexType, long parallelBuildThreshold)
+            throws Exception
     {
         PolygonRDD queryRDD = createPolygonRDD();
 
         LineStringRDD spatialRDD = createLineStringRDD();
 
         partitionRdds(queryRDD, spatialRDD);
-        spatialRDD.buildIndex(indexType, true);
+        spatialRDD.buildIndex(indexType, true, parallelBuildThreshold);
 
         List<Tuple2<Polygon, List<LineString>>> result = JoinQuery.SpatialJoinQuery(spatialRDD, queryRDD, false, true).collect();
 
@@ -160,15 +195,36 @@ public class LineStringJoinTest
         testDynamicIndexInt(IndexType.QUADTREE);
     }
 
+    @Test
+    public void testDynamicHPRTree()
+            throws Exception
+    {
+        testDynamicIndexInt(IndexType.HPRTREE);
+    }
+
+    @Test
+    public void testDynamicParallelRTree()
+            throws Exception
+    {
+        testDynamicIndexInt(IndexType.RTREE, 0);
+    }
+
     private void testDynamicIndexInt(IndexType indexType)
             throws Exception
+    {
+        testDynamicIndexInt(indexType, IndexBuilder.DEFAULT_PARALLEL_BUILD_THRESHOLD);
+    }
+
+    private void testDynamicIndexInt(IndexType indexType, long parallelBuildThreshold)
+            throws Exception
     {
         PolygonRDD queryRDD = createPolygonRDD();
         LineStringRDD spatialRDD = createLineStringRDD();
 
         partitionRdds(queryRDD, spatialRDD);
 
-        JoinQuery.JoinParams joinParams = new JoinQuery.JoinParams(true, true, indexType, JoinBuildSide.LEFT);
+        JoinQuery.JoinParams joinParams = new JoinQuery.JoinParams(true, SpatialPredicate.INTERSECTS, indexType, JoinBuildSide.LEFT,
+                parallelBuildThreshold);
         List<Tuple2<Polygon, LineString>> results = JoinQuery.spatialJoin(queryRDD, spatialRDD, joinParams).collect();
 
         sanityCheckFlatJoinResults(results);
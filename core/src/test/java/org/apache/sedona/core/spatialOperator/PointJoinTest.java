@@ -61,6 +61,8 @@ public class PointJoinTest
         return Arrays.asList(new Object[][] {
                 {GridType.QUADTREE, 11},
                 {GridType.KDBTREE, 11},
+                {GridType.HILBERT, 11},
+                {GridType.S2, 11},
         });
     }
 
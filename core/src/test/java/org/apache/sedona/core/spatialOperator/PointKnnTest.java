@@ -21,6 +21,7 @@ package org.apache.sedona.core.spatialOperator;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.apache.sedona.common.enums.FileDataSplitter;
+import org.apache.sedona.core.enums.GridType;
 import org.apache.sedona.core.enums.IndexType;
 import org.apache.sedona.core.knnJudgement.GeometryDistanceComparator;
 import org.apache.sedona.core.spatialRDD.PointRDD;
@@ -32,13 +33,18 @@ import org.junit.Test;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
+import scala.Tuple2;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
 
 // TODO: Auto-generated Javadoc
 
@@ -243,4 +249,134 @@ public class PointKnnTest
             assert result.size() == 1;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Test spatial KNN correctness of the indexes other than R-Tree.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testSpatialKNNCorrectnessOtherIndexes()
+            throws Exception
+    {
+        GeometryDistanceComparator geometryDistanceComparator = new GeometryDistanceComparator(queryPoint, true);
+        for (IndexType indexType : new IndexType[] {IndexType.QUADTREE, IndexType.HPRTREE}) {
+            PointRDD pointRDD = new PointRDD(sc, InputLocation, offset, splitter, false);
+            List<Point> resultNoIndex = KNNQuery.SpatialKnnQuery(pointRDD, queryPoint, topK, false);
+            pointRDD.buildIndex(indexType, false);
+            List<Point> resultWithIndex = KNNQuery.SpatialKnnQuery(pointRDD, queryPoint, topK, true);
+            assertEquals(topK, resultWithIndex.size());
+            for (int i = 0; i < topK; i++) {
+                assertEquals(0, geometryDistanceComparator.compare(resultNoIndex.get(i), resultWithIndex.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Test spatial KNN correctness on spatially partitioned RDDs, where only the partitions near the query are scanned.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testSpatialKNNCorrectnessPartitioned()
+            throws Exception
+    {
+        GeometryDistanceComparator geometryDistanceComparator = new GeometryDistanceComparator(queryPoint, true);
+        for (GridType gridType : new GridType[] {GridType.KDBTREE, GridType.QUADTREE, GridType.EQUALGRID, GridType.HILBERT}) {
+            PointRDD pointRDD = new PointRDD(sc, InputLocation, offset, splitter, false);
+            List<Point> expected = KNNQuery.SpatialKnnQuery(pointRDD, queryPoint, topK, false);
+            pointRDD.analyze();
+            pointRDD.spatialPartitioning(gridType, 16);
+            List<Point> resultNoIndex = KNNQuery.SpatialKnnQuery(pointRDD, queryPoint, topK, false);
+            pointRDD.buildIndex(IndexType.RTREE, true);
+            List<Point> resultWithIndex = KNNQuery.SpatialKnnQuery(pointRDD, queryPoint, topK, true);
+            assertEquals(topK, resultNoIndex.size());
+            assertEquals(topK, resultWithIndex.size());
+            for (int i = 0; i < topK; i++) {
+                assertEquals(0, geometryDistanceComparator.compare(expected.get(i), resultNoIndex.get(i)));
+                assertEquals(0, geometryDistanceComparator.compare(expected.get(i), resultWithIndex.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Test spatial KNN queries and joins on an RDD partitioned with the Hilbert partitioner of another
+     * RDD, holding points outside the boundary of that partitioner.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testSpatialKNNWithReusedPartitioner()
+            throws Exception
+    {
+        GeometryFactory geometryFactory = new GeometryFactory();
+        Random random = new Random(0);
+        List<Point> insidePoints = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            insidePoints.add(geometryFactory.createPoint(new Coordinate(random.nextDouble() * 100, random.nextDouble() * 100)));
+        }
+        // The nearest point to the query is outside the boundary, beside the last cell of the Hilbert curve,
+        // while the grid closest to the query is around the top right corner
+        List<Point> points = new ArrayList<>(insidePoints);
+        points.add(geometryFactory.createPoint(new Coordinate(1000, 0)));
+        Point farQueryPoint = geometryFactory.createPoint(new Coordinate(1000, 500));
+        List<Point> expected = KNNQuery.SpatialKnnQuery(new PointRDD(sc.parallelize(points)), farQueryPoint, 1, false);
+        assertEquals(new Coordinate(1000, 0), expected.get(0).getCoordinate());
+
+        // Tree partitioners drop the geometries outside their boundary, the Hilbert partitioner keeps
+        // them in its overflow partition
+        PointRDD insideRDD = new PointRDD(sc.parallelize(insidePoints));
+        insideRDD.analyze();
+        insideRDD.spatialPartitioning(GridType.HILBERT, 16);
+        PointRDD pointRDD = new PointRDD(sc.parallelize(points));
+        pointRDD.spatialPartitioning(insideRDD.getPartitioner());
+        assertEquals(expected, KNNQuery.SpatialKnnQuery(pointRDD, farQueryPoint, 1, false));
+        PointRDD queryRDD = new PointRDD(sc.parallelize(Collections.singletonList(farQueryPoint)));
+        assertEquals(expected, JoinQuery.KNNJoinQuery(pointRDD, queryRDD, 1, false).collect().get(0)._2);
+    }
+
+    /**
+     * Test the spatial KNN join against a KNN query for each query point, with query points inside
+     * and around the data set.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testSpatialKNNJoinCorrectness()
+            throws Exception
+    {
+        GeometryFactory geometryFactory = new GeometryFactory();
+        List<Point> queryPoints = new ArrayList<>();
+        for (int x = 0; x < 4; x++) {
+            for (int y = 0; y < 4; y++) {
+                queryPoints.add(geometryFactory.createPoint(new Coordinate(queryPoint.getX() - 3 + 2 * x, queryPoint.getY() - 3 + 2 * y)));
+            }
+        }
+        queryPoints.add(geometryFactory.createPoint(new Coordinate(0, 0)));
+        PointRDD expectedRDD = new PointRDD(sc, InputLocation, offset, splitter, false);
+        for (GridType gridType : new GridType[] {GridType.KDBTREE, GridType.QUADTREE, GridType.EQUALGRID, GridType.HILBERT}) {
+            PointRDD pointRDD = new PointRDD(sc, InputLocation, offset, splitter, false);
+            pointRDD.analyze();
+            pointRDD.spatialPartitioning(gridType, 16);
+            PointRDD queryRDD = new PointRDD(sc.parallelize(queryPoints));
+            int numPersistentRDDs = sc.getPersistentRDDs().size();
+            List<Tuple2<Point, List<Point>>> resultNoIndex = JoinQuery.KNNJoinQuery(pointRDD, queryRDD, topK, false).collect();
+            // The join leaves caching to the caller
+            assertEquals(numPersistentRDDs, sc.getPersistentRDDs().size());
+            pointRDD.buildIndex(IndexType.QUADTREE, true);
+            List<Tuple2<Point, List<Point>>> resultWithIndex = JoinQuery.KNNJoinQuery(pointRDD, queryRDD, topK, true).collect();
+            assertEquals(queryPoints.size(), resultNoIndex.size());
+            assertEquals(queryPoints.size(), resultWithIndex.size());
+            for (List<Tuple2<Point, List<Point>>> result : Arrays.asList(resultNoIndex, resultWithIndex)) {
+                for (Tuple2<Point, List<Point>> pair : result) {
+                    List<Point> expected = KNNQuery.SpatialKnnQuery(expectedRDD, pair._1, topK, false);
+                    GeometryDistanceComparator geometryDistanceComparator = new GeometryDistanceComparator(pair._1, true);
+                    assertEquals(topK, pair._2.size());
+                    for (int i = 0; i < topK; i++) {
+                        assertEquals(0, geometryDistanceComparator.compare(expected.get(i), pair._2.get(i)));
+                    }
+                }
+            }
+        }
+    }
+}
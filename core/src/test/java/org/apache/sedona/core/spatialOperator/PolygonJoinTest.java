@@ -22,6 +22,7 @@ import org.apache.sedona.core.enums.GridType;
 import org.apache.sedona.core.enums.IndexType;
 import org.apache.sedona.core.enums.JoinBuildSide;
 import org.apache.sedona.core.spatialRDD.PolygonRDD;
+import org.apache.sedona.core.spatialRddTool.IndexBuilder;
 import org.apache.spark.storage.StorageLevel;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -59,6 +60,8 @@ public class PolygonJoinTest
         return Arrays.asList(new Object[][] {
                 {GridType.QUADTREE, 11},
                 {GridType.KDBTREE, 11},
+                {GridType.HILBERT, 11},
+                {GridType.S2, 11},
         });
     }
 
@@ -115,14 +118,52 @@ public class PolygonJoinTest
         testDynamicIndexInt(true, IndexType.QUADTREE);
     }
 
+    @Test
+    public void testBalancedPlaneSweepAndContains()
+            throws Exception
+    {
+        testDynamicIndexInt(false, IndexType.RTREE, 2.0);
+    }
+
+    @Test
+    public void testBalancedPlaneSweepAndIntersects()
+            throws Exception
+    {
+        testDynamicIndexInt(true, IndexType.QUADTREE, 2.0);
+    }
+
+    @Test
+    public void testPlaneSweepAndContains()
+            throws Exception
+    {
+        testDynamicIndexInt(false, IndexType.RTREE, Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    public void testPlaneSweepAndIntersects()
+            throws Exception
+    {
+        testDynamicIndexInt(true, IndexType.RTREE, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Joins by building the given index on the fly, with plane sweeps disabled.
+     */
     private void testDynamicIndexInt(boolean intersects, IndexType indexType)
             throws Exception
+    {
+        testDynamicIndexInt(intersects, indexType, 0);
+    }
+
+    private void testDynamicIndexInt(boolean intersects, IndexType indexType, double planeSweepSizeRatio)
+            throws Exception
     {
         final PolygonRDD queryRDD = createPolygonRDD(InputLocationQueryPolygon);
         final PolygonRDD spatialRDD = createPolygonRDD(InputLocation);
         partitionRdds(queryRDD, spatialRDD);
 
-        final JoinQuery.JoinParams joinParams = new JoinQuery.JoinParams(true, intersects, indexType, JoinBuildSide.LEFT);
+        final JoinQuery.JoinParams joinParams = new JoinQuery.JoinParams(true, intersects ? SpatialPredicate.INTERSECTS : SpatialPredicate.COVERS,
+                indexType, JoinBuildSide.LEFT, IndexBuilder.DEFAULT_PARALLEL_BUILD_THRESHOLD, planeSweepSizeRatio);
         final List<Tuple2<Polygon, Polygon>> results = JoinQuery.spatialJoin(queryRDD, spatialRDD, joinParams).collect();
         sanityCheckFlatJoinResults(results);
 
@@ -255,4 +296,51 @@ public class PolygonJoinTest
         sanityCheckFlatJoinResults(result);
         assertEquals(expectedResultCount, result.size());
     }
+
+    @Test
+    public void testDynamicIndexWithSingletonRDD() throws Exception
+    {
+        PolygonRDD queryRDD = createPolygonRDD(InputLocationQueryPolygon);
+        PolygonRDD spatialRDD = createPolygonRDD(InputLocation);
+        PolygonRDD singletonRDD = new PolygonRDD();
+        Polygon queryPolygon = queryRDD.rawSpatialRDD.first();
+        singletonRDD.rawSpatialRDD = sc.parallelize(Collections.singletonList(queryPolygon), 1);
+        singletonRDD.analyze(StorageLevel.MEMORY_ONLY());
+
+        long expectedResultCount = RangeQuery.SpatialRangeQuery(spatialRDD, queryPolygon, true, false).count();
+
+        // The singleton side is joined by a nested loop whichever build side is configured
+        for (JoinBuildSide joinBuildSide : JoinBuildSide.values()) {
+            final JoinQuery.JoinParams joinParams = new JoinQuery.JoinParams(true, SpatialPredicate.INTERSECTS,
+                    IndexType.RTREE, joinBuildSide);
+
+            partitionRdds(singletonRDD, spatialRDD);
+            List<Tuple2<Polygon, Polygon>> result = JoinQuery.spatialJoin(singletonRDD, spatialRDD, joinParams).collect();
+            sanityCheckFlatJoinResults(result);
+            assertEquals(expectedResultCount, result.size());
+
+            partitionRdds(spatialRDD, singletonRDD);
+            result = JoinQuery.spatialJoin(singletonRDD, spatialRDD, joinParams).collect();
+            sanityCheckFlatJoinResults(result);
+            assertEquals(expectedResultCount, result.size());
+        }
+    }
+
+    @Test
+    public void testDynamicRTreeBuildRight()
+            throws Exception
+    {
+        final PolygonRDD queryRDD = createPolygonRDD(InputLocationQueryPolygon);
+        final PolygonRDD spatialRDD = createPolygonRDD(InputLocation);
+        partitionRdds(queryRDD, spatialRDD);
+
+        final JoinQuery.JoinParams joinParams = new JoinQuery.JoinParams(true, SpatialPredicate.INTERSECTS,
+                IndexType.RTREE, JoinBuildSide.RIGHT, IndexBuilder.DEFAULT_PARALLEL_BUILD_THRESHOLD, 0);
+        final List<Tuple2<Polygon, Polygon>> results = JoinQuery.spatialJoin(queryRDD, spatialRDD, joinParams).collect();
+        sanityCheckFlatJoinResults(results);
+
+        final long expectedCount = expectToPreserveOriginalDuplicates()
+                ? getExpectedWithOriginalDuplicatesCount(true) : getExpectedCount(true);
+        assertEquals(expectedCount, results.size());
+    }
 }
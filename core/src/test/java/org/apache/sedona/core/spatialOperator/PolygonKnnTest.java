@@ -21,8 +21,10 @@ package org.apache.sedona.core.spatialOperator;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.apache.sedona.common.enums.FileDataSplitter;
+import org.apache.sedona.core.enums.GridType;
 import org.apache.sedona.core.enums.IndexType;
 import org.apache.sedona.core.knnJudgement.GeometryDistanceComparator;
+import org.apache.sedona.core.spatialRDD.PointRDD;
 import org.apache.sedona.core.spatialRDD.PolygonRDD;
 import org.apache.spark.SparkConf;
 import org.apache.spark.api.java.JavaSparkContext;
@@ -33,14 +35,18 @@ import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
+import scala.Tuple2;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 
+import static org.junit.Assert.assertEquals;
+
 /**
  * @author Arizona State University DataSystems Lab
  */
@@ -233,4 +239,95 @@ public class PolygonKnnTest
         }
         assert difference == 0;
     }
-}
\ No newline at end of file
+
+    /**
+     * Test spatial KNN correctness of the indexes other than R-Tree.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testSpatialKNNCorrectnessOtherIndexes()
+            throws Exception
+    {
+        GeometryDistanceComparator geometryDistanceComparator = new GeometryDistanceComparator(queryPoint, true);
+        for (IndexType indexType : new IndexType[] {IndexType.QUADTREE, IndexType.HPRTREE}) {
+            PolygonRDD polygonRDD = new PolygonRDD(sc, InputLocation, splitter, true);
+            List<Polygon> resultNoIndex = KNNQuery.SpatialKnnQuery(polygonRDD, queryPoint, topK, false);
+            polygonRDD.buildIndex(indexType, false);
+            List<Polygon> resultWithIndex = KNNQuery.SpatialKnnQuery(polygonRDD, queryPoint, topK, true);
+            assertEquals(topK, resultWithIndex.size());
+            for (int i = 0; i < topK; i++) {
+                assertEquals(0, geometryDistanceComparator.compare(resultNoIndex.get(i), resultWithIndex.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Test spatial KNN correctness on spatially partitioned RDDs, where only the partitions near the query are scanned.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testSpatialKNNCorrectnessPartitioned()
+            throws Exception
+    {
+        GeometryDistanceComparator geometryDistanceComparator = new GeometryDistanceComparator(queryPoint, true);
+        for (GridType gridType : new GridType[] {GridType.KDBTREE, GridType.QUADTREE, GridType.EQUALGRID, GridType.HILBERT}) {
+            PolygonRDD polygonRDD = new PolygonRDD(sc, InputLocation, splitter, true);
+            List<Polygon> expected = KNNQuery.SpatialKnnQuery(polygonRDD, queryPoint, topK, false);
+            polygonRDD.analyze();
+            polygonRDD.spatialPartitioning(gridType, 16);
+            List<Polygon> resultNoIndex = KNNQuery.SpatialKnnQuery(polygonRDD, queryPoint, topK, false);
+            polygonRDD.buildIndex(IndexType.RTREE, true);
+            List<Polygon> resultWithIndex = KNNQuery.SpatialKnnQuery(polygonRDD, queryPoint, topK, true);
+            assertEquals(topK, resultNoIndex.size());
+            assertEquals(topK, resultWithIndex.size());
+            for (int i = 0; i < topK; i++) {
+                assertEquals(0, geometryDistanceComparator.compare(expected.get(i), resultNoIndex.get(i)));
+                assertEquals(0, geometryDistanceComparator.compare(expected.get(i), resultWithIndex.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Test the spatial KNN join against a KNN query for each query point, with query points inside
+     * and around the data set.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testSpatialKNNJoinCorrectness()
+            throws Exception
+    {
+        GeometryFactory geometryFactory = new GeometryFactory();
+        List<Point> queryPoints = new ArrayList<>();
+        for (int x = 0; x < 4; x++) {
+            for (int y = 0; y < 4; y++) {
+                queryPoints.add(geometryFactory.createPoint(new Coordinate(queryPoint.getX() - 3 + 2 * x, queryPoint.getY() - 3 + 2 * y)));
+            }
+        }
+        queryPoints.add(geometryFactory.createPoint(new Coordinate(0, 0)));
+        PolygonRDD expectedRDD = new PolygonRDD(sc, InputLocation, splitter, true);
+        for (GridType gridType : new GridType[] {GridType.KDBTREE, GridType.QUADTREE, GridType.EQUALGRID, GridType.HILBERT}) {
+            PolygonRDD polygonRDD = new PolygonRDD(sc, InputLocation, splitter, true);
+            polygonRDD.analyze();
+            polygonRDD.spatialPartitioning(gridType, 16);
+            PointRDD queryRDD = new PointRDD(sc.parallelize(queryPoints));
+            List<Tuple2<Point, List<Polygon>>> resultNoIndex = JoinQuery.KNNJoinQuery(polygonRDD, queryRDD, topK, false).collect();
+            polygonRDD.buildIndex(IndexType.QUADTREE, true);
+            List<Tuple2<Point, List<Polygon>>> resultWithIndex = JoinQuery.KNNJoinQuery(polygonRDD, queryRDD, topK, true).collect();
+            assertEquals(queryPoints.size(), resultNoIndex.size());
+            assertEquals(queryPoints.size(), resultWithIndex.size());
+            for (List<Tuple2<Point, List<Polygon>>> result : Arrays.asList(resultNoIndex, resultWithIndex)) {
+                for (Tuple2<Point, List<Polygon>> pair : result) {
+                    List<Polygon> expected = KNNQuery.SpatialKnnQuery(expectedRDD, pair._1, topK, false);
+                    GeometryDistanceComparator geometryDistanceComparator = new GeometryDistanceComparator(pair._1, true);
+                    assertEquals(topK, pair._2.size());
+                    for (int i = 0; i < topK; i++) {
+                        assertEquals(0, geometryDistanceComparator.compare(expected.get(i), pair._2.get(i)));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.core.spatialPartitioning;
+
+import org.apache.sedona.core.spatialPartitioning.quadtree.StandardQuadTree;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class FlatPartitionTreeTest
+{
+    private static final GeometryFactory geometryFactory = new GeometryFactory();
+    private static final Envelope EXTENT = new Envelope(0, 100, 0, 100);
+
+    @Test
+    public void testKDBTree()
+            throws Exception
+    {
+        final KDB tree = new KDB(10, 16, EXTENT);
+        for (Envelope sample : samples()) {
+            tree.insert(sample);
+        }
+        tree.assignLeafIds();
+        assertSamePartitions(new KDBTreePartitioner(tree));
+    }
+
+    @Test
+    public void testQuadTree()
+            throws Exception
+    {
+        final StandardQuadTree tree = new QuadtreePartitioning(samples(), EXTENT, 16).getPartitionTree();
+        assertSamePartitions(new QuadTreePartitioner(tree));
+    }
+
+    private static List<Envelope> samples()
+    {
+        final Random random = new Random(0);
+        final List<Envelope> samples = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // Half of the samples are in a dense cluster
+            final double scale = i % 2 == 0 ? 100 : 10;
+            samples.add(new Envelope(new Coordinate(random.nextDouble() * scale, random.nextDouble() * scale)));
+        }
+        return samples;
+    }
+
+    /**
+     * Compares the partitions looked up in the flattened tree with those found by walking the tree,
+     * for points and polygons, including those on the edges of the partitions and outside of the tree.
+     */
+    private static void assertSamePartitions(SpatialPartitioner partitioner)
+            throws Exception
+    {
+        final List<Geometry> geometries = new ArrayList<>();
+        for (Envelope grid : partitioner.getGrids()) {
+            geometries.add(geometryFactory.createPoint(new Coordinate(grid.getMinX(), grid.getMinY())));
+            geometries.add(geometryFactory.createPoint(new Coordinate(grid.getMaxX(), grid.getMaxY())));
+            geometries.add(geometryFactory.toGeometry(grid));
+        }
+        final Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            final double x = random.nextDouble() * 120 - 10;
+            final double y = random.nextDouble() * 120 - 10;
+            geometries.add(geometryFactory.createPoint(new Coordinate(x, y)));
+            geometries.add(geometryFactory.toGeometry(new Envelope(x, x + random.nextDouble() * 20, y, y + random.nextDouble() * 20)));
+        }
+
+        final int[] partitionIds = new int[partitioner.numPartitions()];
+        for (Geometry geometry : geometries) {
+            final Set<Integer> expected = new HashSet<>();
+            final Iterator<Tuple2<Integer, Geometry>> placements = partitioner.placeObject(geometry);
+            while (placements.hasNext()) {
+                expected.add(placements.next()._1());
+            }
+            final int count = partitioner.getPartitionIds(geometry, partitionIds);
+            final Set<Integer> actual = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                actual.add(partitionIds[i]);
+            }
+            assertEquals(expected.size(), count);
+            assertEquals(expected, actual);
+        }
+
+        // Empty geometries have no partition
+        assertEquals(0, partitioner.getPartitionIds(geometryFactory.createPoint(), partitionIds));
+    }
+}
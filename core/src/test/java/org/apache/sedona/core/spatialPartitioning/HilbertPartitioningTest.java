@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.core.spatialPartitioning;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HilbertPartitioningTest
+{
+    private final GeometryFactory factory = new GeometryFactory();
+
+    @Test
+    public void testBalancedPartitions()
+    {
+        final Random random = new Random(0);
+        final List<Envelope> samples = new ArrayList<>();
+        final List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            // Half of the points are in a dense cluster
+            final double scale = i % 2 == 0 ? 100 : 1;
+            final Point point = factory.createPoint(new Coordinate(random.nextDouble() * scale, random.nextDouble() * scale));
+            points.add(point);
+            samples.add(point.getEnvelopeInternal());
+        }
+        final HilbertPartitioning partitioning = new HilbertPartitioning(samples, new Envelope(0, 100, 0, 100), 10);
+        assertEquals(10, partitioning.getNumPartitions());
+
+        final int[] counts = new int[partitioning.getNumPartitions()];
+        for (Point point : points) {
+            final Set<Integer> keys = partitioning.getKeys(point);
+            assertEquals(1, keys.size());
+            final int partitionId = keys.iterator().next();
+            assertTrue(partitioning.getGrids().get(partitionId).covers(point.getCoordinate()));
+            assertTrue(partitioning.contains(partitionId, point.getX(), point.getY()));
+            counts[partitionId]++;
+        }
+        for (int count : counts) {
+            assertEquals(1000, count, 10);
+        }
+    }
+
+    @Test
+    public void testOverlappingPartitions()
+    {
+        final Random random = new Random(0);
+        final List<Envelope> samples = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            samples.add(new Envelope(new Coordinate(random.nextDouble() * 100, random.nextDouble() * 100)));
+        }
+        final HilbertPartitioning partitioning = new HilbertPartitioning(samples, new Envelope(0, 100, 0, 100), 16);
+
+        for (int i = 0; i < 1000; i++) {
+            final double x = random.nextDouble() * 90;
+            final double y = random.nextDouble() * 90;
+            final Geometry polygon = factory.toGeometry(new Envelope(x, x + random.nextDouble() * 10, y, y + random.nextDouble() * 10));
+            final Set<Integer> keys = partitioning.getKeys(polygon);
+
+            // Each point of the polygon lies in exactly one of its partitions
+            for (Coordinate coordinate : polygon.getCoordinates()) {
+                int matches = 0;
+                for (int partitionId : keys) {
+                    if (partitioning.contains(partitionId, coordinate.x, coordinate.y)) {
+                        matches++;
+                    }
+                }
+                assertEquals(1, matches);
+            }
+            for (int partitionId : keys) {
+                assertTrue(partitioning.getGrids().get(partitionId).intersects(polygon.getEnvelopeInternal()));
+            }
+        }
+    }
+
+    @Test
+    public void testOutsideBoundary()
+    {
+        final Random random = new Random(0);
+        final List<Envelope> samples = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            samples.add(new Envelope(new Coordinate(random.nextDouble() * 100, random.nextDouble() * 100)));
+        }
+        final HilbertPartitioning partitioning = new HilbertPartitioning(samples, new Envelope(0, 100, 0, 100), 16);
+        final int overflowPartitionId = partitioning.getOverflowPartitionId();
+        assertEquals(partitioning.getGrids().size(), overflowPartitionId);
+
+        // Points outside the boundary are only placed in the overflow partition
+        final Point point = factory.createPoint(new Coordinate(200, 50));
+        assertEquals(Collections.singleton(overflowPartitionId), partitioning.getKeys(point));
+        assertTrue(partitioning.contains(overflowPartitionId, 200, 50));
+
+        for (int i = 0; i < 1000; i++) {
+            final double x = random.nextDouble() * 200 - 50;
+            final double y = random.nextDouble() * 200 - 50;
+            final Geometry polygon = factory.toGeometry(new Envelope(x, x + random.nextDouble() * 20, y, y + random.nextDouble() * 20));
+            final Set<Integer> keys = partitioning.getKeys(polygon);
+            assertEquals(!new Envelope(0, 100, 0, 100).covers(polygon.getEnvelopeInternal()), keys.contains(overflowPartitionId));
+
+            // Each point of the polygon lies in exactly one of its partitions
+            for (Coordinate coordinate : polygon.getCoordinates()) {
+                int matches = 0;
+                for (int partitionId : keys) {
+                    if (partitioning.contains(partitionId, coordinate.x, coordinate.y)) {
+                        matches++;
+                    }
+                }
+                assertEquals(1, matches);
+            }
+            // The grids of the other partitions cover the parts of the polygon placed in them
+            for (int partitionId : keys) {
+                if (partitionId != overflowPartitionId) {
+                    assertTrue(partitioning.getGrids().get(partitionId).intersects(polygon.getEnvelopeInternal()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIdenticalSamples()
+    {
+        final List<Envelope> samples = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            samples.add(new Envelope(new Coordinate(1, 1)));
+        }
+        final HilbertPartitioning partitioning = new HilbertPartitioning(samples, new Envelope(0, 10, 0, 10), 10);
+        assertEquals(2, partitioning.getNumPartitions());
+        assertEquals(1, partitioning.getKeys(factory.createPoint(new Coordinate(1, 1))).size());
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.core.spatialPartitioning;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+public class KDBTest
+{
+    /**
+     * Verifies that leaves are balanced by the weight of the samples rather than their number
+     */
+    @Test
+    public void testWeightedSamples()
+    {
+        final Random random = new Random(0);
+        final List<Envelope> samples = new ArrayList<>();
+        final List<Double> weights = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            final double x = random.nextDouble() * 100;
+            samples.add(new Envelope(new Coordinate(x, random.nextDouble() * 100)));
+            // Samples on the right weigh 9 times as much as samples on the left
+            weights.add(x < 50 ? 0.2 : 1.8);
+        }
+
+        final Envelope extent = new Envelope(0, 100, 0, 100);
+        final KDB weighted = new KDB(samples.size() / 16, 16, extent);
+        for (int i = 0; i < samples.size(); i++) {
+            weighted.insert(samples.get(i), weights.get(i));
+        }
+
+        // Most leaves are on the right
+        final List<Envelope> zones = weighted.fetchLeafZones();
+        int rightZones = 0;
+        for (Envelope zone : zones) {
+            if (zone.getMinX() >= 50) {
+                rightZones++;
+            }
+        }
+        assertTrue(rightZones > 2 * (zones.size() - rightZones));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.core.spatialPartitioning;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class S2PartitioningTest
+{
+    private final GeometryFactory factory = new GeometryFactory();
+
+    @Test
+    public void testBalancedPartitions()
+    {
+        final Random random = new Random(0);
+        final List<Envelope> samples = new ArrayList<>();
+        final List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            // Half of the points are spread over the globe, the other half in a dense cluster
+            final Point point = i % 2 == 0
+                    ? factory.createPoint(new Coordinate(random.nextDouble() * 360 - 180, Math.toDegrees(Math.asin(random.nextDouble() * 2 - 1))))
+                    : factory.createPoint(new Coordinate(2 + random.nextDouble(), 48 + random.nextDouble()));
+            points.add(point);
+            samples.add(point.getEnvelopeInternal());
+        }
+        final S2Partitioning partitioning = new S2Partitioning(samples, 10);
+        assertEquals(10, partitioning.getNumPartitions());
+
+        final int[] counts = new int[partitioning.getNumPartitions()];
+        for (Point point : points) {
+            final Set<Integer> keys = partitioning.getKeys(point);
+            assertEquals(1, keys.size());
+            final int partitionId = keys.iterator().next();
+            assertTrue(partitioning.getGrids().get(partitionId).covers(point.getCoordinate()));
+            assertTrue(partitioning.contains(partitionId, point.getX(), point.getY()));
+            counts[partitionId]++;
+        }
+        // Ends of ranges move past at most a tenth of the samples of a partition
+        for (int count : counts) {
+            assertEquals(1000, count, 110);
+        }
+    }
+
+    @Test
+    public void testOverlappingPartitions()
+    {
+        final Random random = new Random(0);
+        final List<Envelope> samples = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            samples.add(new Envelope(new Coordinate(random.nextDouble() * 360 - 180, random.nextDouble() * 180 - 90)));
+        }
+        final S2Partitioning partitioning = new S2Partitioning(samples, 16);
+
+        final List<Envelope> envelopes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            final double x = random.nextDouble() * 350 - 180;
+            final double y = random.nextDouble() * 170 - 90;
+            envelopes.add(new Envelope(x, x + random.nextDouble() * 10, y, y + random.nextDouble() * 10));
+        }
+        // Envelopes touching the poles and the antimeridian
+        envelopes.add(new Envelope(-10, 10, 80, 90));
+        envelopes.add(new Envelope(-180, -170, -90, -85));
+        envelopes.add(new Envelope(170, 180, -5, 5));
+        envelopes.add(new Envelope(-180, 180, -90, 90));
+
+        for (Envelope envelope : envelopes) {
+            final Geometry polygon = factory.toGeometry(envelope);
+            final Set<Integer> keys = partitioning.getKeys(polygon);
+
+            // Each point of the polygon lies in exactly one of its partitions
+            for (Coordinate coordinate : polygon.getCoordinates()) {
+                int matches = 0;
+                for (int partitionId : keys) {
+                    if (partitioning.contains(partitionId, coordinate.x, coordinate.y)) {
+                        matches++;
+                    }
+                }
+                assertEquals(1, matches);
+            }
+            for (int partitionId : keys) {
+                assertTrue(partitioning.getGrids().get(partitionId).intersects(polygon.getEnvelopeInternal()));
+            }
+        }
+    }
+
+    @Test
+    public void testOutOfRangeCoordinates()
+    {
+        final S2Partitioning partitioning = new S2Partitioning(Collections.emptyList(), 6);
+        assertEquals(6, partitioning.getNumPartitions());
+
+        // Geometries outside the valid coordinates are placed in the overflow partition
+        final Point point = factory.createPoint(new Coordinate(190, 95));
+        assertEquals(Collections.singleton(6), partitioning.getKeys(point));
+        assertTrue(partitioning.contains(6, 190, 95));
+        assertFalse(partitioning.contains(6, -170, 90));
+        final Set<Integer> keys = partitioning.getKeys(factory.toGeometry(new Envelope(-200, 200, -100, 100)));
+        assertEquals(7, keys.size());
+        assertTrue(keys.contains(partitioning.getOverflowPartitionId()));
+        assertEquals(Collections.singleton(6), partitioning.getKeys(factory.toGeometry(new Envelope(200, 210, 0, 10))));
+    }
+
+    @Test
+    public void testIdenticalSamples()
+    {
+        final List<Envelope> samples = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            samples.add(new Envelope(new Coordinate(1, 1)));
+        }
+        final S2Partitioning partitioning = new S2Partitioning(samples, 10);
+        assertEquals(2, partitioning.getNumPartitions());
+        assertEquals(1, partitioning.getKeys(factory.createPoint(new Coordinate(1, 1))).size());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.core.spatialPartitioning;
+
+import org.apache.sedona.core.TestBase;
+import org.apache.sedona.core.enums.GridType;
+import org.apache.sedona.core.spatialOperator.JoinQuery;
+import org.apache.sedona.core.spatialOperator.SpatialPredicate;
+import org.apache.sedona.core.spatialRDD.SpatialRDD;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SkewedPartitionSplitterTest
+        extends TestBase
+{
+    private static final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @BeforeClass
+    public static void setup()
+    {
+        initialize(SkewedPartitionSplitterTest.class.getName());
+    }
+
+    @AfterClass
+    public static void teardown()
+    {
+        sc.stop();
+    }
+
+    @Test
+    public void testSplitKDBTree()
+            throws Exception
+    {
+        testSplit(GridType.KDBTREE);
+    }
+
+    @Test
+    public void testSplitQuadTree()
+            throws Exception
+    {
+        testSplit(GridType.QUADTREE);
+    }
+
+    /**
+     * Partitions uniform points, then partitions a dense cluster of small polygons with the same
+     * partitioner. The partitions over the cluster are split, and joins give the same results.
+     */
+    private void testSplit(GridType gridType)
+            throws Exception
+    {
+        final Random random = new Random(42);
+        final List<Geometry> uniformPoints = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            uniformPoints.add(geometryFactory.createPoint(new Coordinate(random.nextDouble() * 100, random.nextDouble() * 100)));
+        }
+        final List<Geometry> clusteredPolygons = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            final double x = 40 + random.nextDouble() * 5;
+            final double y = 40 + random.nextDouble() * 5;
+            clusteredPolygons.add(geometryFactory.toGeometry(new Envelope(x, x + 0.5, y, y + 0.5)));
+        }
+
+        final SpatialRDD<Geometry> pointRDD = new SpatialRDD<>();
+        pointRDD.setRawSpatialRDD(sc.parallelize(uniformPoints, 4));
+        pointRDD.analyze();
+        pointRDD.spatialPartitioning(gridType, 16);
+        final SpatialPartitioner partitioner = pointRDD.getPartitioner();
+
+        final SpatialRDD<Geometry> polygonRDD = new SpatialRDD<>();
+        polygonRDD.setRawSpatialRDD(sc.parallelize(clusteredPolygons, 4));
+        final SpatialPartitioner splitPartitioner =
+                SkewedPartitionSplitter.splitSkewedPartitions(polygonRDD.rawSpatialRDD, partitioner, 2);
+        assertTrue(splitPartitioner.numPartitions() > partitioner.numPartitions());
+        assertTrue(maxPartitionSize(polygonRDD, splitPartitioner) < maxPartitionSize(polygonRDD, partitioner));
+
+        // The partitions of the uniform points are not skewed
+        assertSame(partitioner, SkewedPartitionSplitter.splitSkewedPartitions(pointRDD.rawSpatialRDD, partitioner, 10));
+
+        final JoinQuery.JoinParams joinParams = new JoinQuery.JoinParams(true, SpatialPredicate.INTERSECTS);
+        pointRDD.spatialPartitioning(partitioner);
+        polygonRDD.spatialPartitioning(partitioner);
+        final long expectedCount = JoinQuery.spatialJoin(polygonRDD, pointRDD, joinParams).count();
+        pointRDD.spatialPartitioning(splitPartitioner);
+        polygonRDD.spatialPartitioning(splitPartitioner);
+        assertEquals(expectedCount, JoinQuery.spatialJoin(polygonRDD, pointRDD, joinParams).count());
+
+        // Polygons replicated to several partitions are joined once
+        final SpatialRDD<Geometry> singletonRDD = new SpatialRDD<>();
+        singletonRDD.setRawSpatialRDD(sc.parallelize(Collections.singletonList(geometryFactory.toGeometry(new Envelope(0, 100, 0, 100)))));
+        singletonRDD.spatialPartitioning(splitPartitioner);
+        assertEquals(clusteredPolygons.size(), JoinQuery.spatialJoin(singletonRDD, polygonRDD, joinParams).count());
+    }
+
+    private static long maxPartitionSize(SpatialRDD<Geometry> spatialRDD, SpatialPartitioner partitioner)
+    {
+        spatialRDD.spatialPartitioning(partitioner);
+        return Collections.max(spatialRDD.spatialPartitionedRDD.glom().map(partition -> (long) partition.size()).collect());
+    }
+}
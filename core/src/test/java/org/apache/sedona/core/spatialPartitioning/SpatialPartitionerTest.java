@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.core.spatialPartitioning;
+
+import org.apache.sedona.core.TestBase;
+import org.apache.sedona.core.enums.GridType;
+import org.apache.sedona.core.spatialRDD.SpatialRDD;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import scala.Tuple2;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpatialPartitionerTest
+        extends TestBase
+{
+    private static final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setup()
+    {
+        initialize(SpatialPartitionerTest.class.getName());
+    }
+
+    @AfterClass
+    public static void teardown()
+    {
+        sc.stop();
+    }
+
+    @Test
+    public void testSaveAndLoad()
+            throws Exception
+    {
+        final Random random = new Random(0);
+        final List<Geometry> geometries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            final double x = random.nextDouble() * 100;
+            final double y = random.nextDouble() * 100;
+            geometries.add(i % 2 == 0
+                    ? geometryFactory.createPoint(new Coordinate(x, y))
+                    : geometryFactory.toGeometry(new Envelope(x, x + random.nextDouble() * 10, y, y + random.nextDouble() * 10)));
+        }
+        final SpatialRDD<Geometry> spatialRDD = new SpatialRDD<>();
+        spatialRDD.setRawSpatialRDD(sc.parallelize(geometries, 4));
+        spatialRDD.analyze();
+
+        for (GridType gridType : new GridType[] {GridType.EQUALGRID, GridType.QUADTREE, GridType.KDBTREE, GridType.HILBERT, GridType.S2}) {
+            spatialRDD.spatialPartitioning(gridType, 8);
+            final SpatialPartitioner partitioner = spatialRDD.getPartitioner();
+            final String path = new File(temporaryFolder.getRoot(), gridType.name()).getPath();
+            partitioner.save(path, sc.hadoopConfiguration());
+            // Saving again replaces the file
+            partitioner.save(path, sc.hadoopConfiguration());
+
+            final SpatialPartitioner loaded = SpatialPartitioner.load(path, sc.hadoopConfiguration());
+            assertEquals(partitioner.getGridType(), loaded.getGridType());
+            assertEquals(partitioner.getGrids(), loaded.getGrids());
+            assertEquals(partitioner.numPartitions(), loaded.numPartitions());
+            for (Geometry geometry : geometries) {
+                assertEquals(partitionIds(partitioner, geometry), partitionIds(loaded, geometry));
+            }
+        }
+    }
+
+    @Test
+    public void testOverflowPartition()
+            throws Exception
+    {
+        final List<Geometry> geometries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            geometries.add(geometryFactory.createPoint(new Coordinate(i % 10, i / 10)));
+        }
+        final SpatialRDD<Geometry> spatialRDD = new SpatialRDD<>();
+        spatialRDD.setRawSpatialRDD(sc.parallelize(geometries, 2));
+        spatialRDD.analyze();
+
+        for (GridType gridType : new GridType[] {GridType.QUADTREE, GridType.KDBTREE}) {
+            spatialRDD.spatialPartitioning(gridType, 4);
+            final SpatialPartitioner partitioner = spatialRDD.getPartitioner();
+            final int overflowPartitionId = partitioner.getGrids().size();
+            assertEquals(overflowPartitionId + 1, partitioner.numPartitions());
+
+            // Points outside the boundary or on its top or right edge are only in the overflow partition
+            final double maxX = partitioner.getGrids().stream().mapToDouble(Envelope::getMaxX).max().getAsDouble();
+            for (Coordinate coordinate : new Coordinate[] {new Coordinate(-1, 5), new Coordinate(20, 20), new Coordinate(maxX, 5)}) {
+                final Geometry point = geometryFactory.createPoint(coordinate);
+                assertEquals(Collections.singleton(overflowPartitionId), partitionIds(partitioner, point));
+            }
+            assertFalse(partitionIds(partitioner, geometryFactory.createPoint(new Coordinate(5, 5))).contains(overflowPartitionId));
+
+            // Other geometries which are not within the boundary are also in the partitions they overlap
+            final Geometry straddling = geometryFactory.toGeometry(new Envelope(8, 12, 1, 2));
+            final Set<Integer> partitionIds = partitionIds(partitioner, straddling);
+            assertTrue(partitionIds.contains(overflowPartitionId));
+            assertTrue(partitionIds.size() > 1);
+            assertEquals(partitionIds.size(), partitioner.getPartitionIds(straddling, new int[partitioner.numPartitions()]));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadInvalidFile()
+            throws Exception
+    {
+        final File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), "not a partitioner".getBytes(StandardCharsets.UTF_8));
+        SpatialPartitioner.load(file.getPath(), sc.hadoopConfiguration());
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void testLoadMissingFile()
+            throws Exception
+    {
+        SpatialPartitioner.load(new File(temporaryFolder.getRoot(), "missing").getPath(), sc.hadoopConfiguration());
+    }
+
+    private static Set<Integer> partitionIds(SpatialPartitioner partitioner, Geometry geometry)
+            throws Exception
+    {
+        final Set<Integer> partitionIds = new HashSet<>();
+        final Iterator<Tuple2<Integer, Geometry>> placements = partitioner.placeObject(geometry);
+        while (placements.hasNext()) {
+            partitionIds.add(placements.next()._1);
+        }
+        return partitionIds;
+    }
+}
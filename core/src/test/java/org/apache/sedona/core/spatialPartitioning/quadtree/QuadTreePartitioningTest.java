@@ -29,6 +29,7 @@ import org.locationtech.jts.geom.Point;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 public class QuadTreePartitioningTest
 {
@@ -59,4 +60,33 @@ public class QuadTreePartitioningTest
         QuadtreePartitioning partitioning = new QuadtreePartitioning(samples, extent, 10);
         Assert.assertNotNull(partitioning.getPartitionTree());
     }
+
+    /**
+     * Verifies that zones are balanced by the weight of the samples rather than their number
+     */
+    @Test
+    public void testWeightedSamples()
+            throws Exception
+    {
+        final Random random = new Random(0);
+        final List<Envelope> samples = new ArrayList<>();
+        final double[] weights = new double[1000];
+        for (int i = 0; i < weights.length; i++) {
+            final double x = random.nextDouble() * 100;
+            samples.add(new Envelope(new Coordinate(x, random.nextDouble() * 100)));
+            // Samples on the right weigh 9 times as much as samples on the left
+            weights[i] = x < 50 ? 0.2 : 1.8;
+        }
+
+        final Envelope extent = new Envelope(0, 100, 0, 100);
+        final List<Envelope> zones = new QuadtreePartitioning(samples, weights, extent, 16, -1)
+                .getPartitionTree().fetchLeafZones();
+        int rightZones = 0;
+        for (Envelope zone : zones) {
+            if (zone.getMinX() >= 50) {
+                rightZones++;
+            }
+        }
+        Assert.assertTrue(rightZones > 2 * (zones.size() - rightZones));
+    }
 }
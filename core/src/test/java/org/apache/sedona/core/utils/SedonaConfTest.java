@@ -18,6 +18,7 @@
  */
 package org.apache.sedona.core.utils;
 
+import org.apache.sedona.core.enums.PartitionWeight;
 import org.apache.spark.sql.SparkSession;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -54,6 +55,24 @@ public class SedonaConfTest {
         assertEquals("Env[1.0 : 2.0, 3.0 : 4.0]", datasetBoundary.toString());
     }
 
+    @Test
+    public void testPartitionWeight() {
+        assertEquals(PartitionWeight.COUNT, SedonaConf.fromActiveSession().getJoinPartitionWeight());
+        SparkSession.active().conf().set("sedona.join.partitionweight", "num_points");
+        assertEquals(PartitionWeight.NUM_POINTS, SedonaConf.fromActiveSession().getJoinPartitionWeight());
+        SparkSession.active().conf().set("sedona.join.partitionweight", "area");
+        try {
+            SedonaConf.fromActiveSession();
+            fail("Invalid partition weight was accepted");
+        }
+        catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("serialized_size"));
+        }
+        finally {
+            SparkSession.active().conf().unset("sedona.join.partitionweight");
+        }
+    }
+
     @Test
     public void testBytesFromString() {
         assertEquals(-1, SedonaConf.bytesFromString("-1"));
@@ -23,6 +23,7 @@ import org.apache.flink.table.api.bridge.java.StreamTableEnvironment;
 import org.apache.sedona.common.geometryObjects.Circle;
 import org.apache.sedona.common.geometrySerde.GeometrySerde;
 import org.apache.sedona.common.geometrySerde.SpatialIndexSerde;
+import org.apache.sedona.common.spatialIndex.PackedHilbertRtree;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.LineString;
@@ -59,6 +60,7 @@ public class SedonaContext
         env.getConfig().registerTypeWithKryoSerializer(Envelope.class, serializer);
         env.getConfig().registerTypeWithKryoSerializer(Quadtree.class, indexSerializer);
         env.getConfig().registerTypeWithKryoSerializer(STRtree.class, indexSerializer);
+        env.getConfig().registerTypeWithKryoSerializer(PackedHilbertRtree.class, indexSerializer);
 
         Arrays.stream(Catalog.getFuncs()).forEach(
                 func -> tblEnv.createTemporarySystemFunction(func.getClass().getSimpleName(), func)
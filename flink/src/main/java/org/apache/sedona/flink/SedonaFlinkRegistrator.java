@@ -18,6 +18,7 @@ import org.apache.flink.table.api.bridge.java.StreamTableEnvironment;
 import org.apache.sedona.common.geometryObjects.Circle;
 import org.apache.sedona.common.geometrySerde.GeometrySerde;
 import org.apache.sedona.common.geometrySerde.SpatialIndexSerde;
+import org.apache.sedona.common.spatialIndex.PackedHilbertRtree;
 import org.locationtech.jts.geom.*;
 import org.locationtech.jts.index.quadtree.Quadtree;
 import org.locationtech.jts.index.strtree.STRtree;
@@ -56,5 +57,6 @@ public class SedonaFlinkRegistrator {
         env.getConfig().registerTypeWithKryoSerializer(Envelope.class, serializer);
         env.getConfig().registerTypeWithKryoSerializer(Quadtree.class, indexSerializer);
         env.getConfig().registerTypeWithKryoSerializer(STRtree.class, indexSerializer);
+        env.getConfig().registerTypeWithKryoSerializer(PackedHilbertRtree.class, indexSerializer);
     }
 }
@@ -26,6 +26,8 @@ from sedona.utils.decorators import require
 class GridType(Enum):
     QUADTREE = "QUADTREE"
     KDBTREE = "KDBTREE"
+    HILBERT = "HILBERT"
+    S2 = "S2"
 
     @classmethod
     def from_str(cls, grid: str) -> 'GridType':
@@ -19,7 +19,7 @@
 package org.apache.sedona.sql.utils
 
 import org.apache.sedona.common.geometrySerde
-import org.locationtech.jts.geom.Geometry
+import org.locationtech.jts.geom.{Envelope, Geometry}
 
 /**
   * SerDe using the WKB reader and writer objects
@@ -45,4 +45,14 @@ object GeometrySerializer {
   def deserialize(value: Array[Byte]): Geometry = {
     geometrySerde.GeometrySerializer.deserialize(value)
   }
+
+  /**
+    * Given ArrayData returns the envelope of the geometry without deserializing it
+    *
+    * @param value ArrayData
+    * @return envelope of the geometry
+    */
+  def getEnvelope(value: Array[Byte]): Envelope = {
+    geometrySerde.GeometrySerializer.getEnvelope(value)
+  }
 }
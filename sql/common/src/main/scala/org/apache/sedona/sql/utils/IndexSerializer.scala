@@ -18,31 +18,47 @@
  */
 package org.apache.sedona.sql.utils
 
-import java.io.{ByteArrayInputStream, ByteArrayOutputStream}
-
 import com.esotericsoftware.kryo.Kryo
 import com.esotericsoftware.kryo.io.{Input, Output}
+import org.apache.sedona.common.geometrySerde.{GeometrySerde, SpatialIndexSerde}
+import org.apache.sedona.core.serde.UnsafeRowSerializer
+import org.apache.spark.sql.catalyst.expressions.UnsafeRow
 import org.apache.spark.sql.catalyst.util.ArrayData
 import org.locationtech.jts.index.SpatialIndex
 
-// This is a wrapper of Sedona core kryo serializer
+/**
+  * SerDe of spatial indexes stored in DataFrames, using the Sedona core kryo serializer.
+  *
+  * A serialized index starts with a format version byte, followed by the index as written by
+  * [[SpatialIndexSerde]].
+  */
 object IndexSerializer {
+  val FORMAT_VERSION: Byte = 1
+
+  private val indexSerde = new SpatialIndexSerde(new GeometrySerde(classOf[UnsafeRow], new UnsafeRowSerializer))
+
+  // Kryo instances are not thread safe and costly to create
+  private val kryos = new ThreadLocal[Kryo] {
+    override def initialValue(): Kryo = new Kryo()
+  }
+
   def serialize(index: SpatialIndex): Array[Byte] = {
-    val out = new ByteArrayOutputStream()
-    val kryo = new Kryo()
-    val output = new Output(out)
-    kryo.writeObject(output, index)
-    output.close()
-    return out.toByteArray
+    val output = new Output(4096, -1)
+    output.writeByte(FORMAT_VERSION)
+    indexSerde.write(kryos.get(), output, index)
+    output.toBytes
   }
 
-  def deserialize(values: ArrayData): SpatialIndex = {
-    val in = new ByteArrayInputStream(values.toByteArray())
-    val kryo = new Kryo()
-    val input = new Input(in)
-    val spatialIndex = kryo.readObject(input, classOf[SpatialIndex])
-    input.close()
-    return spatialIndex.asInstanceOf[SpatialIndex]
+  def deserialize(bytes: Array[Byte]): SpatialIndex = {
+    if (bytes.isEmpty || bytes(0) != FORMAT_VERSION) {
+      throw new IllegalArgumentException(
+        "Unsupported spatial index format version: " + (if (bytes.isEmpty) "none" else bytes(0).toString))
+    }
+    val input = new Input(bytes, 1, bytes.length - 1)
+    indexSerde.read(kryos.get(), input, classOf[SpatialIndex]).asInstanceOf[SpatialIndex]
   }
 
+  def deserialize(values: ArrayData): SpatialIndex = {
+    deserialize(values.toByteArray())
+  }
 }
@@ -19,22 +19,17 @@
 package org.apache.spark.sql.sedona_sql.UDT
 
 import org.apache.sedona.sql.utils.IndexSerializer
-import org.apache.spark.sql.catalyst.util.{ArrayData, GenericArrayData}
-import org.apache.spark.sql.types.{ArrayType, ByteType, DataType, UserDefinedType}
+import org.apache.spark.sql.types.{BinaryType, DataType, UserDefinedType}
 import org.locationtech.jts.index.SpatialIndex
 
 class IndexUDT extends UserDefinedType[SpatialIndex] {
-  override def sqlType: DataType = ArrayType(ByteType, containsNull = false)
+  override def sqlType: DataType = BinaryType
 
-  override def serialize(obj: SpatialIndex): GenericArrayData = {
-    return new GenericArrayData(IndexSerializer.serialize(obj))
-  }
+  override def serialize(obj: SpatialIndex): Array[Byte] = IndexSerializer.serialize(obj)
 
   override def deserialize(datum: Any): SpatialIndex = {
     datum match {
-      case values: ArrayData => {
-        return IndexSerializer.deserialize(values)
-      }
+      case value: Array[Byte] => IndexSerializer.deserialize(value)
     }
   }
 
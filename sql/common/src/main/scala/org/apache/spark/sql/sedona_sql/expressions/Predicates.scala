@@ -53,14 +53,26 @@ abstract class ST_Predicate extends Expression
       if (rightArray == null) {
         null
       } else {
-        val leftGeometry = GeometrySerializer.deserialize(leftArray)
-        val rightGeometry = GeometrySerializer.deserialize(rightArray)
-        evalGeom(leftGeometry, rightGeometry)
+        val leftEnvelope = GeometrySerializer.getEnvelope(leftArray)
+        val rightEnvelope = GeometrySerializer.getEnvelope(rightArray)
+        if (!leftEnvelope.isNull && !rightEnvelope.isNull && !leftEnvelope.intersects(rightEnvelope)) {
+          // Skip deserializing geometries when the result can be decided by envelopes alone
+          evalDisjointEnvelopes
+        } else {
+          val leftGeometry = GeometrySerializer.deserialize(leftArray)
+          val rightGeometry = GeometrySerializer.deserialize(rightArray)
+          evalGeom(leftGeometry, rightGeometry)
+        }
       }
     }
   }
 
   def evalGeom(leftGeometry: Geometry, rightGeometry: Geometry): Boolean
+
+  /**
+    * Result of this predicate when the envelopes of both non-empty geometries are disjoint
+    */
+  def evalDisjointEnvelopes: Boolean = false
 }
 
 /**
@@ -230,6 +242,8 @@ case class ST_Disjoint(inputExpressions: Seq[Expression])
     Predicates.disjoint(leftGeometry, rightGeometry)
   }
 
+  override def evalDisjointEnvelopes: Boolean = true
+
   protected def withNewChildrenInternal(newChildren: IndexedSeq[Expression]) = {
     copy(inputExpressions = newChildren)
   }
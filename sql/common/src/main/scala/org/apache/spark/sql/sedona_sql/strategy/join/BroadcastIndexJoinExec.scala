@@ -18,6 +18,7 @@
  */
 package org.apache.spark.sql.sedona_sql.strategy.join
 
+import org.apache.sedona.common.spatialIndex.SpatialIndexBatchProbe
 import org.apache.sedona.core.spatialOperator.{SpatialPredicate, SpatialPredicateEvaluators}
 import org.apache.sedona.core.spatialOperator.SpatialPredicateEvaluators.SpatialPredicateEvaluator
 import org.apache.sedona.sql.utils.GeometrySerializer
@@ -33,11 +34,10 @@ import org.apache.spark.sql.catalyst.plans._
 import org.apache.spark.sql.execution.metric.SQLMetrics
 import org.apache.spark.sql.execution.{RowIterator, SparkPlan}
 import org.apache.spark.sql.sedona_sql.execution.SedonaBinaryExecNode
-import org.locationtech.jts.geom.Geometry
+import org.locationtech.jts.geom.{Geometry, GeometryFactory}
 import org.locationtech.jts.geom.prep.{PreparedGeometry, PreparedGeometryFactory}
 import org.locationtech.jts.index.SpatialIndex
 
-import java.util.Collections
 import scala.collection.mutable
 
 case class BroadcastIndexJoinExec(
@@ -122,13 +122,30 @@ case class BroadcastIndexJoinExec(
     SpatialPredicateEvaluators.create(SpatialPredicate.inverse(spatialPredicate))
   }
 
+  /**
+   * Looks up the index candidates of the stream side in batches sorted by locality, see SpatialIndexBatchProbe.
+   * Stream rows are copied since they are buffered and the stream side may reuse them.
+   */
+  private def probeIndex(
+    streamIter: Iterator[(Geometry, UnsafeRow)], index: Broadcast[SpatialIndex]
+  ): Iterator[(Geometry, UnsafeRow, java.util.List[AnyRef])] = {
+    streamIter
+      .map { case (geom, row) => (geom, row.copy()) }
+      .grouped(SpatialIndexBatchProbe.DEFAULT_BATCH_SIZE)
+      .flatMap { batch =>
+        val envelopes = batch.map { case (geom, _) => if (geom == null) null else geom.getEnvelopeInternal }
+        val candidates = SpatialIndexBatchProbe.query(index.value, envelopes.asJava).asScala
+        batch.iterator.zip(candidates.iterator).map { case ((geom, row), geomCandidates) => (geom, row, geomCandidates) }
+      }
+  }
+
   private def innerJoin(streamIter: Iterator[(Geometry, UnsafeRow)], index: Broadcast[SpatialIndex]): Iterator[InternalRow] = {
     val factory = new PreparedGeometryFactory()
     val preparedGeometries = new mutable.HashMap[Geometry, PreparedGeometry]
     val joinedRow = new JoinedRow
-    streamIter.flatMap { case (geom, row) =>
+    probeIndex(streamIter, index).flatMap { case (geom, row, candidates) =>
       joinedRow.withLeft(row)
-      index.value.query(geom.getEnvelopeInternal)
+      candidates
         .iterator.asScala.asInstanceOf[Iterator[Geometry]]
         .filter(candidate => evaluator.eval(preparedGeometries.getOrElseUpdate(candidate, { factory.create(candidate) }), geom))
         .map(candidate => joinedRow.withRight(candidate.getUserData.asInstanceOf[UnsafeRow]))
@@ -142,10 +159,10 @@ case class BroadcastIndexJoinExec(
     val factory = new PreparedGeometryFactory()
     val preparedGeometries = new mutable.HashMap[Geometry, PreparedGeometry]
     val joinedRow = new JoinedRow
-    streamIter.flatMap { case (geom, row) =>
+    probeIndex(streamIter, index).flatMap { case (geom, row, candidates) =>
       val left = row
       joinedRow.withLeft(left)
-      val anyMatches = index.value.query(geom.getEnvelopeInternal)
+      val anyMatches = candidates
         .iterator.asScala.asInstanceOf[Iterator[Geometry]]
         .filter(candidate => evaluator.eval(preparedGeometries.getOrElseUpdate(candidate, {
           factory.create(candidate)
@@ -167,10 +184,10 @@ case class BroadcastIndexJoinExec(
     val factory = new PreparedGeometryFactory()
     val preparedGeometries = new mutable.HashMap[Geometry, PreparedGeometry]
     val joinedRow = new JoinedRow
-    streamIter.flatMap { case (geom, row) =>
+    probeIndex(streamIter, index).flatMap { case (geom, row, candidates) =>
       val left = row
       joinedRow.withLeft(row)
-      val anyMatches = (if (geom == null) Collections.EMPTY_LIST else index.value.query(geom.getEnvelopeInternal))
+      val anyMatches = candidates
         .iterator.asScala.asInstanceOf[Iterator[Geometry]]
         .filter(candidate => evaluator.eval(preparedGeometries.getOrElseUpdate(candidate, {
           factory.create(candidate)
@@ -194,9 +211,9 @@ case class BroadcastIndexJoinExec(
     val joinedRow = new JoinedRow
     val nullRow = new GenericInternalRow(broadcast.output.length)
 
-    streamIter.flatMap { case (geom, row) =>
+    probeIndex(streamIter, index).flatMap { case (geom, row, geomCandidates) =>
       joinedRow.withLeft(row)
-      val candidates = (if (geom == null) Collections.EMPTY_LIST else index.value.query(geom.getEnvelopeInternal))
+      val candidates = geomCandidates
         .iterator.asScala.asInstanceOf[Iterator[Geometry]]
         .filter(candidate => evaluator.eval(preparedGeometries.getOrElseUpdate(candidate, {
           factory.create(candidate)
@@ -259,16 +276,16 @@ case class BroadcastIndexJoinExec(
   private def createStreamShapes(streamResultsRaw: RDD[UnsafeRow], boundStreamShape: Expression) = {
     distance match {
       case Some(distanceExpression) =>
+        val geometryFactory = new GeometryFactory()
         streamResultsRaw.map(row => {
           val geom = boundStreamShape.eval(row).asInstanceOf[Array[Byte]]
           if (geom == null) {
             (null, row)
           } else {
-            val geometry = GeometrySerializer.deserialize(geom)
             val radius = BindReferences.bindReference(distanceExpression, streamed.output).eval(row).asInstanceOf[Double]
-            val envelope = geometry.getEnvelopeInternal
+            val envelope = GeometrySerializer.getEnvelope(geom)
             envelope.expandBy(radius)
-            (geometry.getFactory.toGeometry(envelope), row)
+            (geometryFactory.toGeometry(envelope), row)
           }
         })
       case _ =>
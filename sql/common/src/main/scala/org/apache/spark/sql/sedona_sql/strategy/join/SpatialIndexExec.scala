@@ -21,6 +21,7 @@ package org.apache.spark.sql.sedona_sql.strategy.join
 import scala.jdk.CollectionConverters._
 
 import org.apache.sedona.core.enums.IndexType
+import org.apache.sedona.core.utils.SedonaConf
 import org.apache.spark.broadcast.Broadcast
 import org.apache.spark.internal.Logging
 import org.apache.spark.rdd.RDD
@@ -56,7 +57,7 @@ case class SpatialIndexExec(child: SparkPlan,
       case None => toSpatialRDD(resultRaw, boundShape)
     }
 
-    spatialRDD.buildIndex(indexType, false)
+    spatialRDD.buildIndex(indexType, false, SedonaConf.fromActiveSession.getParallelIndexBuildThreshold)
     sparkContext.broadcast(spatialRDD.indexedRawRDD.take(1).asScala.head).asInstanceOf[Broadcast[T]]
   }
 
@@ -18,13 +18,19 @@
  */
 package org.apache.spark.sql.sedona_sql.strategy.join
 
+import org.apache.hadoop.fs.Path
+import org.apache.sedona.core.spatialPartitioning.SpatialPartitioner
 import org.apache.sedona.core.spatialRDD.SpatialRDD
 import org.apache.sedona.core.utils.SedonaConf
 import org.apache.sedona.sql.utils.GeometrySerializer
 import org.apache.spark.rdd.RDD
 import org.apache.spark.sql.catalyst.expressions.{Expression, UnsafeRow}
 import org.apache.spark.sql.execution.SparkPlan
-import org.locationtech.jts.geom.{Envelope, Geometry}
+import org.locationtech.jts.geom.{Envelope, Geometry, GeometryFactory}
+
+import java.io.{FileNotFoundException, IOException}
+import java.nio.charset.StandardCharsets
+import java.util.UUID
 
 trait TraitJoinQueryBase {
   self: SparkPlan =>
@@ -50,14 +56,14 @@ trait TraitJoinQueryBase {
 
   def toExpandedEnvelopeRDD(rdd: RDD[UnsafeRow], shapeExpression: Expression, boundRadius: Expression, isGeography: Boolean): SpatialRDD[Geometry] = {
     val spatialRdd = new SpatialRDD[Geometry]
+    val geometryFactory = new GeometryFactory()
     spatialRdd.setRawSpatialRDD(
       rdd
         .map { x =>
-          val shape = GeometrySerializer.deserialize(shapeExpression.eval(x).asInstanceOf[Array[Byte]])
-          val envelope = shape.getEnvelopeInternal.copy()
+          val envelope = GeometrySerializer.getEnvelope(shapeExpression.eval(x).asInstanceOf[Array[Byte]])
           expandEnvelope(envelope, boundRadius.eval(x).asInstanceOf[Double], 6357000.0, isGeography)
 
-          val expandedEnvelope = shape.getFactory.toGeometry(envelope)
+          val expandedEnvelope = geometryFactory.toGeometry(envelope)
           expandedEnvelope.setUserData(x.copy)
           expandedEnvelope
         }
@@ -68,11 +74,59 @@ trait TraitJoinQueryBase {
   def doSpatialPartitioning(dominantShapes: SpatialRDD[Geometry], followerShapes: SpatialRDD[Geometry],
                             numPartitions: Integer, sedonaConf: SedonaConf): Unit = {
     if (dominantShapes.approximateTotalCount > 0) {
-      dominantShapes.spatialPartitioning(sedonaConf.getJoinGridType, numPartitions)
+      dominantShapes.setPartitionWeight(sedonaConf.getJoinPartitionWeight)
+      dominantShapes.spatialPartitioning(sedonaConf.getJoinGridType, numPartitions, sedonaConf.getJoinMaxPartitionSkew)
       followerShapes.spatialPartitioning(dominantShapes.getPartitioner)
     }
   }
 
+  /**
+    * Path of the partitioner pinned by sedona.join.partitioner for the dominant side of this join. Partitioners are
+    * saved to the directory named by sedona.join.partitioner, in a file named after the canonicalized plan and shape
+    * of the dominant side and the grid type, so that joins of different datasets do not share a partitioner.
+    * @param sedonaConf
+    * @param dominantPlan
+    * @param dominantShape the shape expression of the dominant side, bound to the output of dominantPlan
+    * @return the path, or None if no partitioner is pinned
+    */
+  def pinnedPartitionerPath(sedonaConf: SedonaConf, dominantPlan: SparkPlan, dominantShape: Expression): Option[String] = {
+    val directory = sedonaConf.getJoinPartitionerPath
+    if (directory.isEmpty) {
+      None
+    }
+    else {
+      val key = Seq(sedonaConf.getJoinGridType, dominantShape.canonicalized, dominantPlan.canonicalized).mkString("\n")
+      Some(new Path(directory, UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString).toString)
+    }
+  }
+
+  /**
+    * Load the pinned partitioner, if it was saved by a previous join.
+    * @param path the path of the pinned partitioner
+    * @return the pinned partitioner, or None if it was not saved yet
+    */
+  def loadPinnedPartitioner(path: String): Option[SpatialPartitioner] = {
+    try {
+      val partitioner = SpatialPartitioner.load(path, sparkContext.hadoopConfiguration)
+      log.info(s"[SedonaSQL] Reusing the spatial partitioner saved to $path")
+      Some(partitioner)
+    }
+    catch {
+      case _: FileNotFoundException => None
+    }
+  }
+
+  def savePinnedPartitioner(partitioner: SpatialPartitioner, path: String): Unit = {
+    try {
+      partitioner.save(path, sparkContext.hadoopConfiguration)
+      log.info(s"[SedonaSQL] Saved the spatial partitioner to $path")
+    }
+    catch {
+      // The join itself does not need the saved partitioner
+      case e: IOException => log.warn(s"[SedonaSQL] Failed to save the spatial partitioner to $path", e)
+    }
+  }
+
   /**
     * Expand the given envelope by the given distance in meter.
     * For geography, we expand the envelope by the given distance in both longitude and latitude.
@@ -53,9 +53,20 @@ trait TraitJoinQueryExec extends TraitJoinQueryBase {
     val (leftShapes, rightShapes) =
       toSpatialRddPair(leftResultsRaw, boundLeftShape, rightResultsRaw, boundRightShape)
 
+    // A pinned partitioner saved by a previous join of the same dominant side partitions both sides
+    // without analyzing or sampling them
+    val pinnedPartitionerPath =
+      if (sedonaConf.getJoinSparitionDominantSide == JoinSparitionDominantSide.LEFT) {
+        this.pinnedPartitionerPath(sedonaConf, left, boundLeftShape)
+      }
+      else {
+        this.pinnedPartitionerPath(sedonaConf, right, boundRightShape)
+      }
+    val pinnedPartitioner = pinnedPartitionerPath.flatMap(loadPinnedPartitioner)
+
     // Only do SpatialRDD analyze when the user doesn't know approximate total count of the spatial partitioning
     // dominant side rdd
-    if (sedonaConf.getJoinApproximateTotalCount == -1) {
+    if (pinnedPartitioner.isEmpty && sedonaConf.getJoinApproximateTotalCount == -1) {
       if (sedonaConf.getJoinSparitionDominantSide == JoinSparitionDominantSide.LEFT) {
         leftShapes.analyze()
       }
@@ -67,7 +78,11 @@ trait TraitJoinQueryExec extends TraitJoinQueryBase {
     log.info("[SedonaSQL] Number of partitions on the right: " + rightResultsRaw.partitions.size)
 
     var numPartitions = -1
-    try {
+    if (pinnedPartitioner.isDefined) {
+      leftShapes.spatialPartitioning(pinnedPartitioner.get)
+      rightShapes.spatialPartitioning(pinnedPartitioner.get)
+    }
+    else try {
       if (sedonaConf.getJoinSparitionDominantSide == JoinSparitionDominantSide.LEFT) {
         if (sedonaConf.getFallbackPartitionNum != -1) {
           numPartitions = sedonaConf.getFallbackPartitionNum
@@ -106,8 +121,12 @@ trait TraitJoinQueryExec extends TraitJoinQueryBase {
       }
     }
 
+    if (pinnedPartitioner.isEmpty && leftShapes.getPartitioner != null) {
+      pinnedPartitionerPath.foreach(savePinnedPartitioner(leftShapes.getPartitioner, _))
+    }
 
-    val joinParams = new JoinParams(sedonaConf.getUseIndex, spatialPredicate, sedonaConf.getIndexType, sedonaConf.getJoinBuildSide)
+    val joinParams = new JoinParams(sedonaConf.getUseIndex, spatialPredicate, sedonaConf.getIndexType, sedonaConf.getJoinBuildSide,
+      sedonaConf.getParallelIndexBuildThreshold, sedonaConf.getJoinPlaneSweepSizeRatio)
 
     //logInfo(s"leftShape count ${leftShapes.spatialPartitionedRDD.count()}")
     //logInfo(s"rightShape count ${rightShapes.spatialPartitionedRDD.count()}")
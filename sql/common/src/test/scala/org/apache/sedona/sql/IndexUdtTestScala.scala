@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sedona.sql
+
+import scala.collection.JavaConverters._
+
+import org.apache.sedona.common.spatialIndex.PackedHilbertRtree
+import org.apache.sedona.sql.utils.IndexSerializer
+import org.apache.spark.sql.Row
+import org.apache.spark.sql.sedona_sql.UDT.IndexUDT
+import org.apache.spark.sql.types.{BinaryType, IntegerType, StructField, StructType}
+import org.locationtech.jts.geom.{Coordinate, Envelope, Geometry, GeometryFactory}
+import org.locationtech.jts.index.SpatialIndex
+import org.locationtech.jts.index.quadtree.Quadtree
+import org.locationtech.jts.index.strtree.STRtree
+
+class IndexUdtTestScala extends TestBaseScala {
+
+  private val geometryFactory = new GeometryFactory()
+
+  private val queryWindow = new Envelope(10, 30, 10, 30)
+
+  private def buildIndex(index: SpatialIndex): SpatialIndex = {
+    (0 until 1000).foreach { i =>
+      val point = geometryFactory.createPoint(new Coordinate(i % 100, i / 10))
+      point.setUserData("point " + i)
+      index.insert(point.getEnvelopeInternal, point)
+    }
+    index.query(new Envelope(0, 0, 0, 0))
+    index
+  }
+
+  private def queryResult(index: SpatialIndex): Set[(String, Object)] = {
+    index.query(queryWindow).asScala.map { item =>
+      val geometry = item.asInstanceOf[Geometry]
+      (geometry.toText, geometry.getUserData)
+    }.toSet
+  }
+
+  describe("IndexUDT Test") {
+    it("Should store indexes as binary") {
+      assert(new IndexUDT().sqlType == BinaryType)
+    }
+
+    it("Should round trip all index types") {
+      Seq(new Quadtree(), new STRtree(), new PackedHilbertRtree()).foreach { emptyIndex =>
+        val index = buildIndex(emptyIndex)
+        val udt = new IndexUDT()
+        val deserialized = udt.deserialize(udt.serialize(index))
+        assert(deserialized.getClass == index.getClass)
+        assert(queryResult(deserialized) == queryResult(index))
+        assert(queryResult(deserialized).nonEmpty)
+      }
+    }
+
+    it("Should reject data without a supported format version") {
+      val bytes = IndexSerializer.serialize(buildIndex(new STRtree()))
+      bytes(0) = (IndexSerializer.FORMAT_VERSION + 1).toByte
+      assertThrows[IllegalArgumentException](IndexSerializer.deserialize(bytes))
+      assertThrows[IllegalArgumentException](IndexSerializer.deserialize(Array.emptyByteArray))
+    }
+
+    it("Should keep indexes in a cached DataFrame") {
+      val schema = StructType(Seq(StructField("id", IntegerType), StructField("index", new IndexUDT())))
+      val rows = Seq(Row(1, buildIndex(new STRtree())), Row(2, buildIndex(new PackedHilbertRtree())))
+      val dataFrame = sparkSession.createDataFrame(sparkSession.sparkContext.parallelize(rows), schema).cache()
+      assert(dataFrame.count() == 2)
+      val expected = queryResult(buildIndex(new STRtree()))
+      dataFrame.collect().foreach { row =>
+        assert(queryResult(row.getAs[SpatialIndex]("index")) == expected)
+      }
+      dataFrame.unpersist()
+    }
+  }
+}
@@ -19,6 +19,8 @@
 
 package org.apache.sedona.sql
 
+import org.apache.commons.io.FileUtils
+import org.apache.sedona.core.spatialPartitioning.SpatialPartitioner
 import org.apache.spark.sql.Column
 import org.apache.spark.sql.DataFrame
 import org.apache.spark.sql.functions.{col, expr}
@@ -29,6 +31,9 @@ import org.locationtech.jts.geom.Geometry
 import org.locationtech.jts.io.WKTReader
 import org.scalatest.prop.TableDrivenPropertyChecks
 
+import java.io.File
+import java.nio.file.Files
+
 class SpatialJoinSuite extends TestBaseScala with TableDrivenPropertyChecks {
 
   val testDataDelimiter = "\t"
@@ -172,6 +177,39 @@ class SpatialJoinSuite extends TestBaseScala with TableDrivenPropertyChecks {
     }
   }
 
+  describe("Spatial join in Sedona SQL should reuse the partitioner pinned by sedona.join.partitioner") {
+    it("Save the partitioner of the first join and partition later joins of the same dataset with it") {
+      val partitionerDir = Files.createTempDirectory("sedona").toFile
+      try {
+        sparkSession.conf.set("sedona.join.partitioner", partitionerDir.getPath)
+        prepareTempViewsForTestData()
+        val expected = buildExpectedResult("ST_Intersects(df1.geom, df2.geom)")
+        verifyResult(expected, sparkSession.sql("SELECT df1.id, df2.id FROM df1 JOIN df2 ON ST_Intersects(df1.geom, df2.geom)"))
+        assert(partitionerFiles(partitionerDir).length == 1)
+        val partitionerFile = partitionerFiles(partitionerDir).head
+        val lastModified = partitionerFile.lastModified()
+        val partitioner = SpatialPartitioner.load(partitionerFile.getPath, sparkSession.sparkContext.hadoopConfiguration)
+
+        // The second join loads the partitioner rather than saving a new one
+        val df = sparkSession.sql("SELECT df1.id, df2.id FROM df1 JOIN df2 ON ST_Intersects(df1.geom, df2.geom)")
+        verifyResult(expected, df)
+        assert(partitionerFile.lastModified() == lastModified)
+        assert(df.rdd.getNumPartitions == partitioner.numPartitions)
+
+        // A join of another dataset saves its own partitioner
+        val filtered = sparkSession.sql("SELECT df1.id, df2.id FROM df1 JOIN df2 ON ST_Intersects(df1.geom, df2.geom) WHERE df1.id < 50")
+        verifyResult(expected.filter(_._1 < 50), filtered)
+        assert(partitionerFiles(partitionerDir).length == 2)
+      } finally {
+        sparkSession.conf.unset("sedona.join.partitioner")
+        FileUtils.deleteDirectory(partitionerDir)
+      }
+    }
+  }
+
+  private def partitionerFiles(partitionerDir: File): Seq[File] =
+    partitionerDir.listFiles().filterNot(_.getName.startsWith(".")).toSeq
+
   private def withOptimizationMode(mode: String)(body: => Unit) : Unit = {
     val oldOptimizationMode = sparkSession.conf.get("sedona.join.optimizationmode", "nonequi")
     try {